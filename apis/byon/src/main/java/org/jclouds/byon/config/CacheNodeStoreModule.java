@@ -21,6 +21,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Map;
 
 import org.jclouds.byon.Node;
+import org.jclouds.byon.domain.NodeIndex;
+import org.jclouds.byon.suppliers.NodeIndexFromCache;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Functions;
@@ -53,6 +55,8 @@ public class CacheNodeStoreModule extends AbstractModule {
       }).toInstance(backing);
       bind(new TypeLiteral<Supplier<LoadingCache<String, Node>>>() {
       }).toInstance(Suppliers.<LoadingCache<String, Node>> ofInstance(backing));
+      bind(new TypeLiteral<Supplier<NodeIndex>>() {
+      }).to(NodeIndexFromCache.class);
    }
 
 }
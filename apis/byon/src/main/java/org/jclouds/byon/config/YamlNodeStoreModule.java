@@ -23,8 +23,10 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.byon.Node;
+import org.jclouds.byon.domain.NodeIndex;
 import org.jclouds.byon.domain.YamlNode;
 import org.jclouds.byon.functions.NodesFromYamlStream;
+import org.jclouds.byon.suppliers.NodeIndexFromSupplier;
 import org.jclouds.byon.suppliers.NodesParsedFromSupplier;
 import org.jclouds.collect.TransformingMap;
 
@@ -59,6 +61,8 @@ public class YamlNodeStoreModule extends AbstractModule {
    protected void configure() {
       bind(new TypeLiteral<Supplier<LoadingCache<String, Node>>>() {
       }).to(NodesParsedFromSupplier.class);
+      bind(new TypeLiteral<Supplier<NodeIndex>>() {
+      }).to(NodeIndexFromSupplier.class);
       bind(new TypeLiteral<Function<ByteSource, LoadingCache<String, Node>>>() {
       }).to(NodesFromYamlStream.class);
       bind(new TypeLiteral<Function<YamlNode, ByteSource>>() {
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.byon.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.byon.Node;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+/**
+ * An immutable snapshot of the node store, indexed by key, group, location and tag so that lookups
+ * do not scan every node.
+ */
+@Beta
+public final class NodeIndex {
+
+   /**
+    * Indexes the nodes of a store, keyed as in the store.
+    */
+   public static NodeIndex of(Map<String, Node> nodes) {
+      return new NodeIndex(ImmutableMap.copyOf(checkNotNull(nodes, "nodes")));
+   }
+
+   private final ImmutableMap<String, Node> nodes;
+   private final ImmutableSetMultimap<String, String> byGroup;
+   private final ImmutableSetMultimap<String, String> byLocation;
+   private final ImmutableSetMultimap<String, String> byTag;
+
+   private NodeIndex(ImmutableMap<String, Node> nodes) {
+      this.nodes = nodes;
+      ImmutableSetMultimap.Builder<String, String> byGroup = ImmutableSetMultimap.builder();
+      ImmutableSetMultimap.Builder<String, String> byLocation = ImmutableSetMultimap.builder();
+      ImmutableSetMultimap.Builder<String, String> byTag = ImmutableSetMultimap.builder();
+      for (Map.Entry<String, Node> entry : nodes.entrySet()) {
+         Node node = entry.getValue();
+         if (node.getGroup() != null)
+            byGroup.put(node.getGroup(), entry.getKey());
+         if (node.getLocationId() != null)
+            byLocation.put(node.getLocationId(), entry.getKey());
+         for (String tag : node.getTags())
+            byTag.put(tag, entry.getKey());
+      }
+      this.byGroup = byGroup.build();
+      this.byLocation = byLocation.build();
+      this.byTag = byTag.build();
+   }
+
+   /**
+    * @return all nodes, by key
+    */
+   public Map<String, Node> asMap() {
+      return nodes;
+   }
+
+   /**
+    * @return the node stored under the key, or null if there is none
+    */
+   public Node get(String key) {
+      return nodes.get(key);
+   }
+
+   /**
+    * @return the nodes stored under any of the keys
+    */
+   public Iterable<Node> getAll(Iterable<String> keys) {
+      ImmutableList.Builder<Node> matched = ImmutableList.builder();
+      for (String key : ImmutableSet.copyOf(keys)) {
+         Node node = nodes.get(key);
+         if (node != null)
+            matched.add(node);
+      }
+      return matched.build();
+   }
+
+   public Iterable<Node> inGroup(String group) {
+      return getAll(byGroup.get(checkNotNull(group, "group")));
+   }
+
+   public Iterable<Node> inLocation(String locationId) {
+      return getAll(byLocation.get(checkNotNull(locationId, "locationId")));
+   }
+
+   public Iterable<Node> tagged(String tag) {
+      return getAll(byTag.get(checkNotNull(tag, "tag")));
+   }
+
+   /**
+    * @return the locations the nodes are in
+    */
+   public Set<String> getLocationIds() {
+      return byLocation.keySet();
+   }
+
+   public int size() {
+      return nodes.size();
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("nodes", nodes.size()).add("groups", byGroup.keySet().size())
+            .add("locations", byLocation.keySet().size()).add("tags", byTag.keySet().size()).toString();
+   }
+}
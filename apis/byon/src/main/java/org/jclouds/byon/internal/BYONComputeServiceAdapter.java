@@ -17,11 +17,9 @@
 package org.jclouds.byon.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Predicates.in;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Maps.filterKeys;
 
 import java.util.Set;
 
@@ -29,34 +27,45 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.jclouds.byon.Node;
+import org.jclouds.byon.domain.NodeIndex;
 import org.jclouds.byon.functions.NodeToNodeMetadata;
+import org.jclouds.compute.ComputeServiceAdapter.ListsNodesMatchingCriteria;
 import org.jclouds.compute.JCloudsNativeComputeServiceAdapter;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
 import org.jclouds.domain.LocationScope;
 import org.jclouds.location.suppliers.all.JustProvider;
 
-import com.google.common.base.Function;
-import com.google.common.base.Predicates;
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Serves nodes from an index of the node store, so that lookups by id or group do not convert every
+ * node. A node the index does not know yet is still loaded from the store when asked for by id.
+ */
 @Singleton
-public class BYONComputeServiceAdapter implements JCloudsNativeComputeServiceAdapter {
-   private final Supplier<LoadingCache<String, Node>> nodes;
+public class BYONComputeServiceAdapter implements JCloudsNativeComputeServiceAdapter,
+         ListsNodesMatchingCriteria<NodeMetadata> {
+   private final Supplier<NodeIndex> nodes;
+   private final Supplier<LoadingCache<String, Node>> store;
    private final NodeToNodeMetadata converter;
    private final JustProvider locationSupplier;
 
    @Inject
-   public BYONComputeServiceAdapter(Supplier<LoadingCache<String, Node>> nodes, NodeToNodeMetadata converter,
-            JustProvider locationSupplier) {
+   public BYONComputeServiceAdapter(Supplier<NodeIndex> nodes, Supplier<LoadingCache<String, Node>> store,
+            NodeToNodeMetadata converter, JustProvider locationSupplier) {
       this.nodes = checkNotNull(nodes, "nodes");
+      this.store = checkNotNull(store, "store");
       this.converter = checkNotNull(converter, "converter");
       this.locationSupplier = checkNotNull(locationSupplier, "locationSupplier");
    }
@@ -83,21 +92,46 @@ public class BYONComputeServiceAdapter implements JCloudsNativeComputeServiceAda
 
    @Override
    public Iterable<NodeMetadata> listNodesByIds(Iterable<String> ids) {
-      return transform(filterKeys(nodes.get().asMap(), in(ImmutableSet.copyOf(ids))).values(), converter);
+      return transform(nodes.get().getAll(ids), converter);
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p/>
+    * Nodes are looked up by id or group in the index; all of them are running.
+    */
+   @Override
+   public Iterable<NodeMetadata> listNodesMatching(NodeCriteria criteria) {
+      if (criteria.getStatuses().isPresent() && !criteria.getStatuses().get().contains(NodeMetadata.Status.RUNNING))
+         return ImmutableSet.of();
+      NodeIndex index = nodes.get();
+      Iterable<Node> matched;
+      if (criteria.getIds().isPresent()) {
+         matched = index.getAll(criteria.getIds().get());
+         if (criteria.getGroup().isPresent())
+            matched = filter(matched, inGroup(criteria.getGroup().get()));
+      } else if (criteria.getGroup().isPresent()) {
+         matched = index.inGroup(criteria.getGroup().get());
+      } else {
+         matched = index.asMap().values();
+      }
+      return transform(matched, converter);
+   }
+
+   private static Predicate<Node> inGroup(final String group) {
+      return new Predicate<Node>() {
+         @Override
+         public boolean apply(Node input) {
+            return Objects.equal(input.getGroup(), group);
+         }
+      };
    }
 
    @Override
    public Iterable<Location> listLocations() {
       Builder<Location> locations = ImmutableSet.builder();
       Location provider = getOnlyElement(locationSupplier.get());
-      Set<String> zones = ImmutableSet.copyOf(filter(transform(nodes.get().asMap().values(),
-               new Function<Node, String>() {
-
-                  @Override
-                  public String apply(Node arg0) {
-                     return arg0.getLocationId();
-                  }
-               }), Predicates.notNull()));
+      Set<String> zones = nodes.get().getLocationIds();
       if (zones.isEmpty())
          return locations.add(provider).build();
       else
@@ -110,12 +144,13 @@ public class BYONComputeServiceAdapter implements JCloudsNativeComputeServiceAda
 
    @Override
    public NodeMetadata getNode(String id) {
+      Node node = nodes.get().get(id);
+      if (node == null) {
+         try {
+            node = store.get().getUnchecked(id);
+         } catch (UncheckedExecutionException e) {
 
-      Node node = null;
-      try {
-         node = nodes.get().getUnchecked(id);
-      } catch (UncheckedExecutionException e) {
-
+         }
       }
       return node != null ? converter.apply(node) : null;
    }
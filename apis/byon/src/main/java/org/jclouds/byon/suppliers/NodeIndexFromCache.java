@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.byon.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import org.jclouds.byon.Node;
+import org.jclouds.byon.domain.NodeIndex;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Indexes a node store owned by the caller, indexing it again at most once every
+ * {@code byon.reload-interval} milliseconds so that changes made to it become visible.
+ */
+@Singleton
+public class NodeIndexFromCache implements Supplier<NodeIndex> {
+
+   @Inject(optional = true)
+   @Named("byon.reload-interval")
+   @VisibleForTesting
+   long reloadIntervalMillis = 1000;
+
+   private final LoadingCache<String, Node> nodes;
+
+   private NodeIndex index;
+   private long indexedAt;
+
+   @Inject
+   NodeIndexFromCache(LoadingCache<String, Node> nodes) {
+      this.nodes = checkNotNull(nodes, "nodes");
+   }
+
+   @Override
+   public synchronized NodeIndex get() {
+      long now = System.nanoTime();
+      if (index == null || now - indexedAt >= TimeUnit.MILLISECONDS.toNanos(reloadIntervalMillis)) {
+         index = NodeIndex.of(nodes.asMap());
+         indexedAt = now;
+      }
+      return index;
+   }
+
+   @Override
+   public String toString() {
+      return "[nodes=" + nodes.size() + "]";
+   }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.byon.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Singleton;
+
+import org.jclouds.byon.Node;
+import org.jclouds.byon.domain.NodeIndex;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Parses the node document once and serves an index of it, parsing it again only after it changed.
+ * <p/>
+ * Whether it changed is checked at most once every {@code byon.reload-interval} milliseconds: by
+ * modification time and length when the nodes come from a local file, otherwise by a hash of the
+ * content. Nodes given inline with {@code byon.nodes} are parsed once.
+ */
+@Singleton
+public class NodeIndexFromSupplier implements Supplier<NodeIndex> {
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Provider
+   Supplier<URI> url;
+
+   @Inject(optional = true)
+   @Named("byon.nodes")
+   String nodes;
+
+   @Inject(optional = true)
+   @Named("byon.reload-interval")
+   @VisibleForTesting
+   long reloadIntervalMillis = 1000;
+
+   private final ByteSource supplier;
+   private final Function<ByteSource, LoadingCache<String, Node>> parser;
+
+   private NodeIndex index;
+   private String fingerprint;
+   private long checkedAt;
+
+   @Inject
+   NodeIndexFromSupplier(@Provider ByteSource supplier, Function<ByteSource, LoadingCache<String, Node>> parser) {
+      this.supplier = checkNotNull(supplier, "supplier");
+      this.parser = checkNotNull(parser, "parser");
+   }
+
+   @Override
+   public synchronized NodeIndex get() {
+      long now = System.nanoTime();
+      if (index != null && now - checkedAt < TimeUnit.MILLISECONDS.toNanos(reloadIntervalMillis))
+         return index;
+      checkedAt = now;
+      ByteSource source = supplier;
+      File file = nodes == null ? localFile() : null;
+      String current;
+      if (nodes != null) {
+         current = "inline";
+      } else if (file != null) {
+         current = file.lastModified() + "/" + file.length();
+      } else {
+         // the content has to be read to be hashed, so it is parsed from what was read
+         byte[] content = read();
+         current = Hashing.md5().hashBytes(content).toString();
+         source = ByteSource.wrap(content);
+      }
+      if (index != null && current.equals(fingerprint))
+         return index;
+      NodeIndex previous = index;
+      LoadingCache<String, Node> parsed = parser.apply(source);
+      checkState(parsed != null && parsed.size() > 0, "no nodes parsed from supplier: %s", supplier);
+      index = NodeIndex.of(parsed.asMap());
+      fingerprint = current;
+      if (previous == null) {
+         logger.debug("indexed %s", index);
+      } else {
+         logger.debug("reindexed %s; %s added, %s removed", index,
+               Sets.difference(index.asMap().keySet(), previous.asMap().keySet()).size(),
+               Sets.difference(previous.asMap().keySet(), index.asMap().keySet()).size());
+      }
+      return index;
+   }
+
+   private byte[] read() {
+      try {
+         return supplier.read();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   private File localFile() {
+      if (url == null)
+         return null;
+      URI uri = url.get();
+      if (uri == null || !"file".equals(uri.getScheme()))
+         return null;
+      try {
+         File file = new File(uri);
+         return file.isFile() ? file : null;
+      } catch (IllegalArgumentException e) {
+         return null;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "[supplier=" + supplier + "]";
+   }
+}
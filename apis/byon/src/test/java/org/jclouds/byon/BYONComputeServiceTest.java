@@ -20,6 +20,9 @@ import static org.jclouds.byon.functions.NodeToNodeMetadataTest.expectedNodeMeta
 import static org.jclouds.byon.functions.NodeToNodeMetadataTest.expectedProviderLocationFromResource;
 import static org.jclouds.byon.functions.NodeToNodeMetadataTest.zoneCalled;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Map;
 
 import org.jclouds.ContextBuilder;
 import org.jclouds.byon.config.BYONComputeServiceContextModule;
@@ -36,6 +39,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.TypeLiteral;
@@ -128,6 +132,25 @@ public class BYONComputeServiceTest {
       }
    }
 
+   public void testNodeAddedToTheStoreIsFoundById() {
+      Map<String, Node> store = Maps.newConcurrentMap();
+      store.put(NodesFromYamlTest.TEST1.getId(), NodesFromYamlTest.TEST1);
+      ComputeServiceContext context = ContextBuilder.newBuilder(
+               new BYONApiMetadata().toBuilder().defaultModule(BYONComputeServiceContextModule.class).build())
+               .endpoint("foo").modules(ImmutableSet.<Module> of(new CacheNodeStoreModule(store)))
+               .build(ComputeServiceContext.class);
+      try {
+         assertEquals(context.getComputeService().listNodes().size(), 1);
+
+         store.put(NodesFromYamlTest.TEST3.getId(), NodesFromYamlTest.TEST3);
+         assertEquals(context.getComputeService().getNodeMetadata(NodesFromYamlTest.TEST3.getId()).getId(),
+               NodesFromYamlTest.TEST3.getId());
+         assertNull(context.getComputeService().getNodeMetadata("cluster-3"));
+      } finally {
+         context.close();
+      }
+   }
+
    private Supplier<LoadingCache<String, Node>> supplier(ComputeServiceContext context) {
       Supplier<LoadingCache<String, Node>> supplier = context.utils().injector().getInstance(
                Key.get(new TypeLiteral<Supplier<LoadingCache<String, Node>>>() {
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.byon.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Map;
+
+import org.jclouds.byon.Node;
+import org.jclouds.byon.domain.NodeIndex;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Functions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+
+@Test(groups = "unit", testName = "NodeIndexFromCacheTest")
+public class NodeIndexFromCacheTest {
+
+   private static LoadingCache<String, Node> cache() {
+      Map<String, Node> backing = Maps.newConcurrentMap();
+      return CacheBuilder.newBuilder().build(CacheLoader.from(Functions.forMap(backing)));
+   }
+
+   public void testIndexIsReusedWithinTheReloadInterval() {
+      LoadingCache<String, Node> cache = cache();
+      cache.put("web-1", Node.builder().id("web-1").group("web").build());
+      NodeIndexFromCache supplier = new NodeIndexFromCache(cache);
+      supplier.reloadIntervalMillis = 60000;
+      NodeIndex index = supplier.get();
+      assertEquals(index.size(), 1);
+
+      cache.put("web-2", Node.builder().id("web-2").group("web").build());
+      assertSame(supplier.get(), index);
+   }
+
+   public void testChangesAreIndexedAfterTheReloadInterval() {
+      LoadingCache<String, Node> cache = cache();
+      cache.put("web-1", Node.builder().id("web-1").group("web").build());
+      NodeIndexFromCache supplier = new NodeIndexFromCache(cache);
+      supplier.reloadIntervalMillis = 0;
+      assertEquals(supplier.get().size(), 1);
+
+      cache.put("web-2", Node.builder().id("web-2").group("web").build());
+      assertEquals(supplier.get().size(), 2);
+   }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.byon.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.byon.domain.NodeIndex;
+import org.jclouds.byon.functions.NodesFromYamlStream;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "NodeIndexFromSupplierTest")
+public class NodeIndexFromSupplierTest {
+
+   private static final String TWO_NODES = "nodes:\n"
+         + "    - id: cluster-1\n      hostname: cluster-1.mydomain.com\n      location_id: virginia\n"
+         + "      os_family: ubuntu\n      group: hadoop\n      tags:\n          - master\n"
+         + "    - id: cluster-2\n      hostname: cluster-2.mydomain.com\n      location_id: maryland\n"
+         + "      os_family: ubuntu\n      group: hadoop\n      tags:\n          - slave\n";
+
+   private static final String THREE_NODES = TWO_NODES
+         + "    - id: web-1\n      hostname: web-1.mydomain.com\n      location_id: virginia\n"
+         + "      os_family: ubuntu\n      group: web\n";
+
+   private static NodeIndexFromSupplier supplier(File file) {
+      NodeIndexFromSupplier supplier = new NodeIndexFromSupplier(Files.asByteSource(file), new NodesFromYamlStream());
+      supplier.url = Suppliers.ofInstance(file.toURI());
+      supplier.reloadIntervalMillis = 0;
+      return supplier;
+   }
+
+   public void testIndexesNodes() throws IOException {
+      File file = File.createTempFile("byon", ".yaml");
+      try {
+         Files.write(THREE_NODES, file, Charsets.UTF_8);
+         NodeIndex index = supplier(file).get();
+
+         assertEquals(index.size(), 3);
+         assertEquals(index.get("web-1").getHostname(), "web-1.mydomain.com");
+         assertNull(index.get("web-2"));
+         assertEquals(ImmutableSet.copyOf(index.getAll(ImmutableSet.of("cluster-1", "web-1", "web-2"))),
+               ImmutableSet.of(index.get("cluster-1"), index.get("web-1")));
+         assertEquals(Iterables.size(index.inGroup("hadoop")), 2);
+         assertEquals(Iterables.getOnlyElement(index.inGroup("web")).getId(), "web-1");
+         assertEquals(Iterables.size(index.inLocation("virginia")), 2);
+         assertEquals(Iterables.getOnlyElement(index.tagged("slave")).getId(), "cluster-2");
+         assertEquals(index.getLocationIds(), ImmutableSet.of("virginia", "maryland"));
+      } finally {
+         file.delete();
+      }
+   }
+
+   public void testReparsesOnlyWhenFileChanges() throws IOException {
+      File file = File.createTempFile("byon", ".yaml");
+      try {
+         Files.write(TWO_NODES, file, Charsets.UTF_8);
+         NodeIndexFromSupplier supplier = supplier(file);
+         NodeIndex first = supplier.get();
+         assertEquals(first.size(), 2);
+         assertSame(supplier.get(), first);
+
+         Files.write(THREE_NODES, file, Charsets.UTF_8);
+         NodeIndex second = supplier.get();
+         assertNotSame(second, first);
+         assertEquals(second.size(), 3);
+         assertSame(supplier.get(), second);
+      } finally {
+         file.delete();
+      }
+   }
+
+   public void testReparsesOnlyWhenContentChangesIfNotAFile() {
+      final StringBuilder content = new StringBuilder(TWO_NODES);
+      ByteSource source = new ByteSource() {
+         @Override
+         public InputStream openStream() {
+            return new ByteArrayInputStream(content.toString().getBytes(Charsets.UTF_8));
+         }
+      };
+      NodeIndexFromSupplier supplier = new NodeIndexFromSupplier(source, new NodesFromYamlStream());
+      supplier.reloadIntervalMillis = 0;
+      NodeIndex first = supplier.get();
+      assertSame(supplier.get(), first);
+
+      content.append(THREE_NODES.substring(TWO_NODES.length()));
+      assertEquals(supplier.get().size(), 3);
+   }
+
+   public void testReadsContentOnceWhenItChangesIfNotAFile() {
+      final StringBuilder content = new StringBuilder(TWO_NODES);
+      final AtomicInteger opened = new AtomicInteger();
+      ByteSource source = new ByteSource() {
+         @Override
+         public InputStream openStream() {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(content.toString().getBytes(Charsets.UTF_8));
+         }
+      };
+      NodeIndexFromSupplier supplier = new NodeIndexFromSupplier(source, new NodesFromYamlStream());
+      supplier.reloadIntervalMillis = 0;
+      assertEquals(supplier.get().size(), 2);
+      assertEquals(opened.get(), 1);
+
+      content.append(THREE_NODES.substring(TWO_NODES.length()));
+      assertEquals(supplier.get().size(), 3);
+      assertEquals(opened.get(), 2);
+   }
+}
@@ -20,6 +20,7 @@ import java.io.Closeable;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Named;
@@ -61,6 +62,7 @@ import org.jclouds.chef.functions.ParseCookbookNamesFromJson;
 import org.jclouds.chef.functions.ParseCookbookDefinitionFromJson;
 import org.jclouds.chef.functions.ParseCookbookVersionsFromJson;
 import org.jclouds.chef.functions.ParseKeySetFromJson;
+import org.jclouds.chef.functions.ParsePartialSearchFromJson;
 import org.jclouds.chef.functions.ParseSearchClientsFromJson;
 import org.jclouds.chef.functions.ParseSearchDatabagFromJson;
 import org.jclouds.chef.functions.ParseSearchEnvironmentsFromJson;
@@ -69,6 +71,7 @@ import org.jclouds.chef.functions.ParseSearchRolesFromJson;
 import org.jclouds.chef.functions.UriForResource;
 import org.jclouds.chef.options.CreateClientOptions;
 import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.domain.JsonBall;
 import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.EndpointParam;
@@ -829,6 +832,25 @@ public interface ChefApi extends Closeable {
    @ResponseParser(ParseSearchNodesFromJson.class)
    SearchResult<? extends Node> searchNodes(SearchOptions options);
 
+   /**
+    * Searches all nodes that match the given options, returning only the
+    * selected attributes of each node.
+    * 
+    * @param keys
+    *           maps the name each attribute will have in the result to its
+    *           path in the node, such as
+    *           <code>{"ohai_time": ["automatic", "ohai_time"]}</code>
+    * @return The response contains the total number of rows that matched the
+    *         request, the position this result set returns (useful for paging)
+    *         and the selected attributes of each row.
+    */
+   @Named("search:nodes")
+   @POST
+   @Path("/search/node")
+   @ResponseParser(ParsePartialSearchFromJson.class)
+   SearchResult<? extends Map<String, JsonBall>> partialSearchNodes(SearchOptions options,
+         @BinderParam(BindToJsonPayload.class) Map<String, ? extends List<String>> keys);
+
    /**
     * Searches all roles.
     * <p>
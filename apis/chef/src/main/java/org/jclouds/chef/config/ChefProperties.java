@@ -107,6 +107,17 @@ public final class ChefProperties {
     */
    public static final String CHEF_USE_OMNIBUS = "chef.use-omnibus";
 
+   /**
+    * Integer property. Default (1000).
+    * <p>
+    * The number of rows fetched with each request when searching for the
+    * nodes and clients to clean up, or when listing nodes, clients and
+    * environments with {@link ChefSearchListingsModule} installed. The first
+    * page tells how many rows match, and the remaining pages are fetched
+    * concurrently.
+    */
+   public static final String CHEF_SEARCH_PAGE_SIZE = "chef.search-page-size";
+
    private ChefProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.domain.Client;
+import org.jclouds.chef.domain.Environment;
+import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.chef.strategy.ListClients;
+import org.jclouds.chef.strategy.ListEnvironments;
+import org.jclouds.chef.strategy.ListNodes;
+import org.jclouds.chef.strategy.ListNodesInEnvironment;
+import org.jclouds.chef.strategy.internal.ListBySearchImpl;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+/**
+ * Lists nodes, clients and environments through the search api, a page of
+ * {@link ChefProperties#CHEF_SEARCH_PAGE_SIZE} rows per request, instead of
+ * getting each of them by name.
+ * <p>
+ * Add this module to the context to opt in:
+ * 
+ * <pre>
+ * ContextBuilder.newBuilder(&quot;chef&quot;).modules(ImmutableSet.of(new ChefSearchListingsModule())) ...
+ * </pre>
+ * 
+ * Note that the search indexes may lag behind the most current data by at
+ * least 10 seconds at any given time.
+ */
+public class ChefSearchListingsModule extends AbstractModule {
+
+   @Override
+   protected void configure() {
+   }
+
+   @Provides
+   @Singleton
+   ListNodes listNodes(final ChefApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(ChefProperties.CHEF_SEARCH_PAGE_SIZE) int rows) {
+      final ListBySearchImpl<Node> nodes = new ListBySearchImpl<Node>(searchNodes(api), userExecutor, rows);
+      return new ListNodes() {
+         @Override
+         public Iterable<? extends Node> execute() {
+            return nodes.execute(null);
+         }
+
+         @Override
+         public Iterable<? extends Node> execute(ExecutorService executor) {
+            return nodes.execute(executor, null);
+         }
+      };
+   }
+
+   @Provides
+   @Singleton
+   ListNodesInEnvironment listNodesInEnvironment(final ChefApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(ChefProperties.CHEF_SEARCH_PAGE_SIZE) int rows) {
+      final ListBySearchImpl<Node> nodes = new ListBySearchImpl<Node>(searchNodes(api), userExecutor, rows);
+      return new ListNodesInEnvironment() {
+         @Override
+         public Iterable<? extends Node> execute(String environmentName) {
+            return nodes.execute(query(environmentName));
+         }
+
+         @Override
+         public Iterable<? extends Node> execute(ExecutorService executor, String environmentName) {
+            return nodes.execute(executor, query(environmentName));
+         }
+
+         private String query(String environmentName) {
+            return "chef_environment:" + checkNotNull(environmentName, "environmentName");
+         }
+      };
+   }
+
+   @Provides
+   @Singleton
+   ListClients listClients(final ChefApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(ChefProperties.CHEF_SEARCH_PAGE_SIZE) int rows) {
+      final ListBySearchImpl<Client> clients = new ListBySearchImpl<Client>(
+            new Function<SearchOptions, SearchResult<? extends Client>>() {
+               @Override
+               public SearchResult<? extends Client> apply(SearchOptions input) {
+                  return api.searchClients(input);
+               }
+            }, userExecutor, rows);
+      return new ListClients() {
+         @Override
+         public Iterable<? extends Client> execute() {
+            return clients.execute(null);
+         }
+
+         @Override
+         public Iterable<? extends Client> execute(ExecutorService executor) {
+            return clients.execute(executor, null);
+         }
+      };
+   }
+
+   @Provides
+   @Singleton
+   ListEnvironments listEnvironments(final ChefApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(ChefProperties.CHEF_SEARCH_PAGE_SIZE) int rows) {
+      final ListBySearchImpl<Environment> environments = new ListBySearchImpl<Environment>(
+            new Function<SearchOptions, SearchResult<? extends Environment>>() {
+               @Override
+               public SearchResult<? extends Environment> apply(SearchOptions input) {
+                  return api.searchEnvironments(input);
+               }
+            }, userExecutor, rows);
+      return new ListEnvironments() {
+         @Override
+         public Iterable<? extends Environment> execute() {
+            return environments.execute(null);
+         }
+
+         @Override
+         public Iterable<? extends Environment> execute(ExecutorService executor) {
+            return environments.execute(executor, null);
+         }
+      };
+   }
+
+   private static Function<SearchOptions, SearchResult<? extends Node>> searchNodes(final ChefApi api) {
+      return new Function<SearchOptions, SearchResult<? extends Node>>() {
+         @Override
+         public SearchResult<? extends Node> apply(SearchOptions input) {
+            return api.searchNodes(input);
+         }
+      };
+   }
+}
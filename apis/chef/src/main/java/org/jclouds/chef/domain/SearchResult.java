@@ -26,12 +26,18 @@ import com.google.common.collect.Iterables;
 public class SearchResult<T> extends LinkedHashSet<T> {
    private static final long serialVersionUID = 4000610660948065287L;
    private long start;
+   private long total;
 
    SearchResult() {
    }
 
    public SearchResult(long start, Iterable<T> results) {
+      this(start, -1, results);
+   }
+
+   public SearchResult(long start, long total, Iterable<T> results) {
       this.start = start;
+      this.total = total;
       Iterables.addAll(this, results);
    }
 
@@ -43,4 +49,13 @@ public class SearchResult<T> extends LinkedHashSet<T> {
       return start;
    }
 
+   /**
+    * 
+    * @return the number of rows that matched the search, or -1 if the server
+    *         did not say
+    */
+   public long getTotal() {
+      return total;
+   }
+
 }
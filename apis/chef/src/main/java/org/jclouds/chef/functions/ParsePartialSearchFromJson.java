@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.functions;
+
+import static com.google.common.collect.Iterables.transform;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.domain.JsonBall;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJson;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Parses the result of a partial search into the selected attributes of each
+ * row.
+ * <p>
+ * When doing a partial search, the selected attributes of each row are
+ * contained inside the <code>data</code> map.
+ */
+@Singleton
+public class ParsePartialSearchFromJson implements Function<HttpResponse, SearchResult<Map<String, JsonBall>>> {
+
+   private final ParseJson<Response> responseParser;
+
+   static class Row {
+      String url;
+      Map<String, JsonBall> data;
+   }
+
+   static class Response {
+      long start;
+      Long total;
+      List<Row> rows;
+   }
+
+   @Inject
+   ParsePartialSearchFromJson(ParseJson<Response> responseParser) {
+      this.responseParser = responseParser;
+   }
+
+   @Override
+   public SearchResult<Map<String, JsonBall>> apply(HttpResponse response) {
+      Response returnVal = responseParser.apply(response);
+      List<Row> rows = returnVal.rows == null ? ImmutableList.<Row> of() : returnVal.rows;
+      Iterable<Map<String, JsonBall>> items = transform(rows, new Function<Row, Map<String, JsonBall>>() {
+         @Override
+         public Map<String, JsonBall> apply(Row input) {
+            return input.data == null ? ImmutableMap.<String, JsonBall> of() : input.data;
+         }
+      });
+
+      return new SearchResult<Map<String, JsonBall>>(returnVal.start, returnVal.total == null ? -1 : returnVal.total,
+            items);
+   }
+
+}
@@ -34,6 +34,7 @@ public class ParseSearchResultFromJson<T> implements Function<HttpResponse, Sear
 
    static class Response<T> {
       long start;
+      Long total;
       List<T> rows;
    }
 
@@ -45,6 +46,6 @@ public class ParseSearchResultFromJson<T> implements Function<HttpResponse, Sear
    @Override
    public SearchResult<T> apply(HttpResponse response) {
       Response<T> returnVal = json.apply(response);
-      return new SearchResult<T>(returnVal.start, returnVal.rows);
+      return new SearchResult<T>(returnVal.start, returnVal.total == null ? -1 : returnVal.total, returnVal.rows);
    }
 }
@@ -18,34 +18,46 @@ package org.jclouds.chef.strategy.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Predicates.and;
-import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.transform;
+import static org.jclouds.chef.strategy.internal.SearchPages.fetchAll;
 import static org.jclouds.chef.util.ChefUtils.fromOhaiTime;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
+import org.jclouds.chef.ChefApi;
 import org.jclouds.chef.config.ChefProperties;
-import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
 import org.jclouds.chef.strategy.CleanupStaleNodesAndClients;
 import org.jclouds.chef.strategy.DeleteAllClientsInList;
 import org.jclouds.chef.strategy.DeleteAllNodesInList;
-import org.jclouds.chef.strategy.ListNodes;
 import org.jclouds.domain.JsonBall;
+import org.jclouds.json.Json;
 import org.jclouds.logging.Logger;
 
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * 
  * Cleans up nodes and apis who have been hanging around too long.
+ * <p>
+ * Only the name and the ohai time of the nodes whose name starts with the
+ * prefix are fetched, through a partial search.
  */
 @Singleton
 public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClients {
@@ -53,16 +65,36 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
    @Named(ChefProperties.CHEF_LOGGER)
    protected Logger logger = Logger.NULL;
 
-   private final ListNodes nodeLister;
+   static final Map<String, List<String>> KEYS = ImmutableMap.<String, List<String>> of(
+         "name", ImmutableList.of("name"), "ohai_time", ImmutableList.of("ohai_time"));
+
+   private static final CharMatcher QUERY_SYNTAX = CharMatcher.anyOf("+-&|!(){}[]^\"~*?:\\/ ");
+
+   private final ChefApi api;
+   private final Json json;
+   private final ListeningExecutorService userExecutor;
+   private final int rows;
    private final DeleteAllNodesInList nodeDeleter;
    private final DeleteAllClientsInList clientDeleter;
 
+   private final Function<SearchOptions, SearchResult<? extends Map<String, JsonBall>>> search =
+         new Function<SearchOptions, SearchResult<? extends Map<String, JsonBall>>>() {
+            @Override
+            public SearchResult<? extends Map<String, JsonBall>> apply(SearchOptions input) {
+               return api.partialSearchNodes(input, KEYS);
+            }
+         };
+
    @Inject
    public CleanupStaleNodesAndClientsImpl(DeleteAllNodesInList nodeDeleter, DeleteAllClientsInList clientDeleter,
-         ListNodes nodeLister) {
-      this.nodeLister = checkNotNull(nodeLister, "nodeLister");
+         ChefApi api, Json json, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(ChefProperties.CHEF_SEARCH_PAGE_SIZE) int rows) {
       this.nodeDeleter = checkNotNull(nodeDeleter, "nodeDeleter");
       this.clientDeleter = checkNotNull(clientDeleter, "clientDeleter");
+      this.api = checkNotNull(api, "api");
+      this.json = checkNotNull(json, "json");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.rows = rows;
    }
 
    @Override
@@ -70,33 +102,52 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
       final Calendar expired = Calendar.getInstance();
       expired.setTime(new Date());
       expired.add(Calendar.SECOND, -secondsStale);
-      Iterable<? extends Node> staleNodes = filter(
-         nodeLister.execute(), and(notNull(), new Predicate<Node>() {
+      final Map<String, Map<String, JsonBall>> nodes = indexByName(fetchAll(userExecutor, search, query(prefix),
+            rows));
+      Iterable<String> nodeNames = ImmutableList.copyOf(filter(nodes.keySet(), and(new Predicate<String>() {
                @Override
-               public boolean apply(Node input) {
-                  return input.getName().startsWith(prefix);
+               public boolean apply(String input) {
+                  return input.startsWith(prefix);
                }
          },
-         new Predicate<Node>() {
+         new Predicate<String>() {
              @Override
-             public boolean apply(Node input) {
-                JsonBall dateLong = input.getAutomaticAttributes().get("ohai_time");
+             public boolean apply(String input) {
+                JsonBall dateLong = nodes.get(input).get("ohai_time");
                 if (dateLong == null)
                    return true;
                 Calendar nodeUpdate = Calendar.getInstance();
                 nodeUpdate.setTime(fromOhaiTime(dateLong));
                 return expired.after(nodeUpdate);
              }
-         }));
-      Iterable<String> nodeNames = transform(staleNodes, new Function<Node, String>() {
-
-         @Override
-         public String apply(Node from) {
-            return from.getName();
-         }
-
-      });
+         })));
       nodeDeleter.execute(nodeNames);
       clientDeleter.execute(nodeNames);
    }
+
+   private Map<String, Map<String, JsonBall>> indexByName(Iterable<Map<String, JsonBall>> results) {
+      Map<String, Map<String, JsonBall>> nodes = Maps.newLinkedHashMap();
+      for (Map<String, JsonBall> row : results) {
+         JsonBall name = row.get("name");
+         if (name != null)
+            nodes.put(json.fromJson(name.toString(), String.class), row);
+      }
+      return nodes;
+   }
+
+   /**
+    * Narrows the search down to the nodes whose name starts with the given
+    * prefix, escaping the characters that are part of the query syntax.
+    */
+   static String query(String prefix) {
+      if (prefix.isEmpty())
+         return SearchPages.ALL;
+      StringBuilder query = new StringBuilder("name:");
+      for (char c : prefix.toCharArray()) {
+         if (QUERY_SYNTAX.matches(c))
+            query.append('\\');
+         query.append(c);
+      }
+      return query.append('*').toString();
+   }
 }
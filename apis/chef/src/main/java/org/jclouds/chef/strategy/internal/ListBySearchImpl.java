@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.chef.strategy.internal.SearchPages.fetchAll;
+
+import java.util.concurrent.ExecutorService;
+
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Lists the rows of a search index through the search api, fetching a page of
+ * rows with each request instead of getting them one by one.
+ * <p>
+ * Backs the listing strategies bound by
+ * {@link org.jclouds.chef.config.ChefSearchListingsModule}.
+ */
+public class ListBySearchImpl<T> {
+
+   private final Function<SearchOptions, ? extends SearchResult<? extends T>> search;
+   private final ListeningExecutorService userExecutor;
+   private final int rows;
+
+   public ListBySearchImpl(Function<SearchOptions, ? extends SearchResult<? extends T>> search,
+         ListeningExecutorService userExecutor, int rows) {
+      this.search = checkNotNull(search, "search");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.rows = rows;
+   }
+
+   /**
+    * @param query the query to search for, or null for all rows
+    */
+   public Iterable<T> execute(@Nullable String query) {
+      return fetchAll(userExecutor, search, query, rows);
+   }
+
+   /**
+    * @param query the query to search for, or null for all rows
+    */
+   public Iterable<T> execute(ExecutorService executor, @Nullable String query) {
+      return fetchAll(MoreExecutors.listeningDecorator(executor), search, query, rows);
+   }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Fetches every row matching a search, one page at a time.
+ * <p>
+ * The first page tells how many rows match the query, so the remaining pages
+ * are fetched concurrently. If the server does not return the total, pages are
+ * fetched one after the other until a short page comes back.
+ * <p>
+ * Note that the search indexes may lag behind the most current data by at
+ * least 10 seconds at any given time.
+ */
+final class SearchPages {
+
+   static final String ALL = "*:*";
+
+   private SearchPages() {
+   }
+
+   static <T> List<T> fetchAll(final ListeningExecutorService executor,
+         final Function<SearchOptions, ? extends SearchResult<? extends T>> search, @Nullable final String query,
+         final int rows) {
+      checkArgument(rows > 0, "rows must be positive");
+      ImmutableList.Builder<T> results = ImmutableList.builder();
+      SearchResult<? extends T> page = search.apply(page(query, 0, rows));
+      results.addAll(page);
+
+      long total = page.getTotal();
+      if (total < 0) {
+         for (int start = rows; page.size() == rows; start += rows) {
+            page = search.apply(page(query, start, rows));
+            results.addAll(page);
+         }
+         return results.build();
+      }
+
+      List<ListenableFuture<SearchResult<? extends T>>> pages = Lists.newArrayList();
+      for (long start = rows; start < total; start += rows) {
+         final SearchOptions options = page(query, (int) start, rows);
+         pages.add(executor.submit(new Callable<SearchResult<? extends T>>() {
+            @Override
+            public SearchResult<? extends T> call() throws Exception {
+               return search.apply(options);
+            }
+         }));
+      }
+      for (SearchResult<? extends T> next : getUnchecked(allAsList(pages))) {
+         results.addAll(next);
+      }
+      return results.build();
+   }
+
+   private static SearchOptions page(@Nullable String query, int start, int rows) {
+      return new SearchOptions().query(query == null ? ALL : query).start(start).rows(rows);
+   }
+}
@@ -19,6 +19,7 @@ package org.jclouds.chef;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import java.util.Map;
 import java.util.Set;
 
 import javax.ws.rs.core.MediaType;
@@ -29,12 +30,15 @@ import org.jclouds.chef.domain.Role;
 import org.jclouds.chef.domain.SearchResult;
 import org.jclouds.chef.options.SearchOptions;
 import org.jclouds.date.TimeStamp;
+import org.jclouds.domain.JsonBall;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.rest.ConfiguresHttpApi;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Module;
 
 /**
@@ -184,6 +188,7 @@ public class ChefApiExpectTest extends BaseChefApiExpectTest<ChefApi> {
                   .build());
       SearchResult<? extends Role> result = api.searchRoles();
       assertEquals(result.size(), 1);
+      assertEquals(result.getTotal(), 1);
       assertEquals(result.iterator().next().getName(), "webserver");
    }
 
@@ -220,6 +225,28 @@ public class ChefApiExpectTest extends BaseChefApiExpectTest<ChefApi> {
       assertTrue(result.isEmpty(), String.format("Expected search result to be empty but was: %s", result));
    }
 
+   public void testPartialSearchNodesReturnsSelectedAttributes() {
+      ChefApi api = requestSendsResponse(
+            signed(getHttpRequestBuilder("POST", "/search/node").addQueryParam("q", "name:web*")
+                  .addQueryParam("start", "0").addQueryParam("rows", "2")
+                  .payload(payloadFromStringWithContentType("{\"name\":[\"name\"],\"ohai_time\":[\"ohai_time\"]}",
+                        MediaType.APPLICATION_JSON)).build()),
+            HttpResponse.builder().statusCode(200)
+                  .payload(payloadFromStringWithContentType("{\"total\":3,\"start\":0,\"rows\":["
+                        + "{\"url\":\"http://localhost:4000/nodes/web1\","
+                        + "\"data\":{\"name\":\"web1\",\"ohai_time\":1277409930.41}},"
+                        + "{\"url\":\"http://localhost:4000/nodes/web2\","
+                        + "\"data\":{\"name\":\"web2\",\"ohai_time\":1277409931}}]}",
+                        MediaType.APPLICATION_JSON)) //
+                  .build());
+      SearchOptions options = SearchOptions.Builder.query("name:web*").start(0).rows(2);
+      SearchResult<? extends Map<String, JsonBall>> result = api.partialSearchNodes(options,
+            ImmutableMap.of("name", ImmutableList.of("name"), "ohai_time", ImmutableList.of("ohai_time")));
+      assertEquals(result.getTotal(), 3);
+      assertEquals(result.size(), 2);
+      assertEquals(result.iterator().next().get("name").toString(), "\"web1\"");
+   }
+
    public void testListRolesReturnsValidSet() {
       ChefApi api = requestSendsResponse(
             signed(getHttpRequestBuilder("GET", "/roles").build()),
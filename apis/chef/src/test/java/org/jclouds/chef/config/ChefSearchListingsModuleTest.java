@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.config;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.Constants;
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.domain.Client;
+import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.chef.strategy.ListClients;
+import org.jclouds.chef.strategy.ListNodes;
+import org.jclouds.chef.strategy.ListNodesInEnvironment;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+
+/**
+ * Tests behavior of {@code ChefSearchListingsModule}
+ */
+@Test(groups = "unit", testName = "ChefSearchListingsModuleTest")
+public class ChefSearchListingsModuleTest {
+
+   private final Node node1 = Node.builder().name("node1").environment("_default").build();
+   private final Node node2 = Node.builder().name("node2").environment("_default").build();
+   private final Node node3 = Node.builder().name("node3").environment("_default").build();
+
+   public void testFetchesRemainingPagesFromTotal() {
+      ChefApi chef = createMock(ChefApi.class);
+
+      expect((Object) chef.searchNodes(page("*:*", 0))).andReturn(
+            new SearchResult<Node>(0, 3, ImmutableSet.of(node1, node2)));
+      expect((Object) chef.searchNodes(page("*:*", 2))).andReturn(new SearchResult<Node>(2, 3, ImmutableSet.of(node3)));
+
+      replay(chef);
+
+      ListNodes strategy = injector(chef).getInstance(ListNodes.class);
+
+      assertEquals(ImmutableList.copyOf(strategy.execute()), ImmutableList.of(node1, node2, node3));
+      verify(chef);
+   }
+
+   public void testFetchesPagesUntilShortPageWithoutTotal() {
+      ChefApi chef = createMock(ChefApi.class);
+
+      expect((Object) chef.searchNodes(page("*:*", 0))).andReturn(
+            new SearchResult<Node>(0, ImmutableSet.of(node1, node2)));
+      expect((Object) chef.searchNodes(page("*:*", 2))).andReturn(new SearchResult<Node>(2, ImmutableSet.of(node3)));
+
+      replay(chef);
+
+      ListNodes strategy = injector(chef).getInstance(ListNodes.class);
+
+      assertEquals(ImmutableList.copyOf(strategy.execute()), ImmutableList.of(node1, node2, node3));
+      verify(chef);
+   }
+
+   public void testListNodesInEnvironmentSearchesByEnvironment() {
+      ChefApi chef = createMock(ChefApi.class);
+
+      expect((Object) chef.searchNodes(page("chef_environment:dev", 0))).andReturn(
+            new SearchResult<Node>(0, 1, ImmutableSet.of(node1)));
+
+      replay(chef);
+
+      ListNodesInEnvironment strategy = injector(chef).getInstance(ListNodesInEnvironment.class);
+
+      assertEquals(ImmutableList.copyOf(strategy.execute("dev")), ImmutableList.of(node1));
+      verify(chef);
+   }
+
+   public void testListClientsSearchesClients() {
+      ChefApi chef = createMock(ChefApi.class);
+      Client client = Client.builder().clientname("client1").build();
+
+      expect((Object) chef.searchClients(page("*:*", 0))).andReturn(
+            new SearchResult<Client>(0, 1, ImmutableSet.of(client)));
+
+      replay(chef);
+
+      ListClients strategy = injector(chef).getInstance(ListClients.class);
+
+      assertEquals(ImmutableList.copyOf(strategy.execute()), ImmutableList.of(client));
+      verify(chef);
+   }
+
+   private static Injector injector(final ChefApi chef) {
+      return Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bind(ChefApi.class).toInstance(chef);
+            bind(ListeningExecutorService.class).annotatedWith(Names.named(Constants.PROPERTY_USER_THREADS))
+                  .toInstance(MoreExecutors.sameThreadExecutor());
+            bindConstant().annotatedWith(Names.named(ChefProperties.CHEF_SEARCH_PAGE_SIZE)).to(2);
+         }
+      }, new ChefSearchListingsModule());
+   }
+
+   private static SearchOptions page(String query, int start) {
+      return new SearchOptions().query(query).start(start).rows(2);
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.functions;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.jclouds.chef.ChefApiMetadata;
+import org.jclouds.chef.config.ChefParserModule;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.domain.JsonBall;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.rest.annotations.ApiVersion;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+@Test(groups = { "unit" })
+public class ParsePartialSearchFromJsonTest {
+   private ParsePartialSearchFromJson handler;
+
+   @BeforeTest
+   protected void setUpInjector() throws IOException {
+      Injector injector = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bind(String.class).annotatedWith(ApiVersion.class).toInstance(ChefApiMetadata.DEFAULT_API_VERSION);
+         }
+      }, new ChefParserModule(), new GsonModule());
+
+      handler = injector.getInstance(ParsePartialSearchFromJson.class);
+   }
+
+   public void testSelectedAttributesOfEachRow() {
+      String searchJson = "{\"total\":2,\"start\":0,\"rows\":[{\"url\":\"http://chef/nodes/node1\",\"data\":{\"name\":\"node1\"}},"
+            + "{\"url\":\"http://chef/nodes/node2\"}]}";
+      SearchResult<Map<String, JsonBall>> result = handler.apply(HttpResponse.builder().statusCode(200).message("ok")
+            .payload(searchJson).build());
+      assertEquals(result.getTotal(), 2);
+      assertEquals(ImmutableList.copyOf(result), ImmutableList.of(ImmutableMap.of("name", new JsonBall("\"node1\"")),
+            ImmutableMap.<String, JsonBall> of()));
+   }
+
+   public void testMissingRowsAreEmpty() {
+      SearchResult<Map<String, JsonBall>> result = handler.apply(HttpResponse.builder().statusCode(200).message("ok")
+            .payload("{\"total\":0,\"start\":0}").build());
+      assertEquals(result.size(), 0);
+      assertEquals(result.getTotal(), 0);
+   }
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.jclouds.cloudstack.CloudStackApi;
@@ -70,6 +71,7 @@ import org.jclouds.cloudstack.functions.GetIPForwardingRulesByVirtualMachine;
 import org.jclouds.cloudstack.functions.StaticNATVirtualMachineInNetwork;
 import org.jclouds.cloudstack.functions.ZoneIdToZone;
 import org.jclouds.cloudstack.predicates.JobComplete;
+import org.jclouds.cloudstack.strategy.AsyncJobCompletionService;
 import org.jclouds.cloudstack.suppliers.GetCurrentUser;
 import org.jclouds.cloudstack.suppliers.NetworksForCurrentUser;
 import org.jclouds.cloudstack.suppliers.ProjectsForCurrentUser;
@@ -82,6 +84,7 @@ import org.jclouds.compute.domain.OperatingSystem;
 import org.jclouds.compute.extensions.ImageExtension;
 import org.jclouds.compute.extensions.SecurityGroupExtension;
 import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.concurrent.config.OptionalScheduler;
 import org.jclouds.domain.Location;
 import org.jclouds.net.domain.IpPermission;
 import org.jclouds.rest.AuthorizationException;
@@ -238,7 +241,11 @@ public class CloudStackComputeServiceContextModule extends
 
    @Provides
    @Singleton
-   protected Predicate<String> jobComplete(JobComplete jobComplete) {
+   protected Predicate<String> jobComplete(OptionalScheduler scheduler, Provider<AsyncJobCompletionService> jobs,
+         JobComplete jobComplete) {
+      // the shared poller needs the scheduler of ScheduledExecutorServiceModule
+      if (scheduler.get().isPresent())
+         return jobs.get().completesWithin(1200, SECONDS);
       return retry(jobComplete, 1200, 1, 5, SECONDS);
    }
 
@@ -46,6 +46,14 @@ public final class CloudStackProperties {
     */
    public static final String AUTO_GENERATE_KEYPAIRS = "jclouds.cloudstack.auto-generate-keypairs";
 
+   /**
+    * How often the outstanding async jobs are polled for completion (in ms). All jobs are
+    * polled together, by listing the recent jobs. This only applies when
+    * {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule} is added to the context;
+    * otherwise each job is polled on its own by the thread waiting for it.
+    */
+   public static final String ASYNC_JOB_POLL_INTERVAL = "jclouds.cloudstack.async-job-poll-interval";
+
    private CloudStackProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
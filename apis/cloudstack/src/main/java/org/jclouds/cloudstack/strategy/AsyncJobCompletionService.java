@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.jclouds.cloudstack.options.ListAsyncJobsOptions.Builder.startDate;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.config.CloudStackProperties;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.concurrent.CompletionPoller;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Waits for async jobs to complete without a polling thread per job.
+ * <p>
+ * All outstanding job ids are polled by the shared {@link CompletionPoller}
+ * task on the user executor, timed by the scheduler executor. Each cycle lists
+ * the jobs started since the oldest outstanding one with a single
+ * {@code listAsyncJobs} call, and queries only the jobs missing from that list
+ * one by one.
+ * <p>
+ * This needs the scheduler of
+ * {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule}. The
+ * compute service only uses it when that module is added to the context.
+ */
+@Singleton
+public class AsyncJobCompletionService extends CompletionPoller<String, AsyncJob<?>> {
+
+   /**
+    * how far before the oldest outstanding job the listing starts, to allow for
+    * clock skew with the management server
+    */
+   static final long START_DATE_MARGIN = MINUTES.toMillis(5);
+
+   private final CloudStackApi client;
+
+   @Inject
+   AsyncJobCompletionService(CloudStackApi client,
+         @Named(Constants.PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(CloudStackProperties.ASYNC_JOB_POLL_INTERVAL) long pollInterval) {
+      super(Optional.of(scheduler), userExecutor, pollInterval);
+      this.client = checkNotNull(client, "client");
+   }
+
+   /**
+    * @return a future that completes with the job once it succeeded, or fails
+    *         with an {@link AsyncJobException} if the job failed. Cancel it to
+    *         stop waiting for the job.
+    */
+   public ListenableFuture<AsyncJob<?>> whenComplete(String jobId) {
+      return super.whenComplete(checkNotNull(jobId, "jobId"));
+   }
+
+   /**
+    * @return a predicate that blocks until the job completes, like
+    *         {@link org.jclouds.cloudstack.predicates.JobComplete} retried for
+    *         the given time, while sharing the polling of all jobs
+    */
+   public Predicate<String> completesWithin(final long timeout, final TimeUnit unit) {
+      return new Predicate<String>() {
+         @Override
+         public boolean apply(String jobId) {
+            ListenableFuture<AsyncJob<?>> job = whenComplete(jobId);
+            try {
+               job.get(timeout, unit);
+               return true;
+            } catch (TimeoutException e) {
+               // stops polling the job unless someone else still waits for it
+               job.cancel(false);
+               return false;
+            } catch (InterruptedException e) {
+               job.cancel(false);
+               Thread.currentThread().interrupt();
+               throw Throwables.propagate(e);
+            } catch (ExecutionException e) {
+               throw Throwables.propagate(e.getCause());
+            }
+         }
+
+         @Override
+         public String toString() {
+            return "completesWithin(" + timeout + " " + unit + ")";
+         }
+      };
+   }
+
+   @Override
+   protected void poll(Map<String, Long> since) {
+      Set<String> missing = Sets.newLinkedHashSet(since.keySet());
+      try {
+         logger.trace(">> listing jobs to look for %d outstanding", since.size());
+         for (AsyncJob<?> job : client.getAsyncJobApi().listAsyncJobs(
+               startDate(new Date(Collections.min(since.values()) - START_DATE_MARGIN)))) {
+            if (missing.remove(job.getId()))
+               update(job);
+         }
+      } catch (RuntimeException e) {
+         logger.debug("<< error listing jobs, querying them one by one: %s", e.getMessage());
+      }
+      for (String jobId : missing) {
+         try {
+            AsyncJob<?> job = client.getAsyncJobApi().getAsyncJob(jobId);
+            if (job != null)
+               update(job);
+            else
+               fail(jobId, new IllegalStateException("job " + jobId + " no longer exists"));
+         } catch (AsyncJobException e) {
+            fail(jobId, e);
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< error getting job %s, will retry", jobId);
+         }
+      }
+   }
+
+   private void update(AsyncJob<?> job) {
+      if (job.hasFailed()) {
+         fail(job.getId(), new AsyncJobException(String.format("job %s failed with exception %s", job,
+               job.getError())));
+      } else if (job.hasSucceed()) {
+         logger.trace("<< job %s complete", job.getId());
+         complete(job.getId(), job);
+      }
+   }
+}
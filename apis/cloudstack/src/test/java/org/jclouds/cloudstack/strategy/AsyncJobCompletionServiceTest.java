@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.cloudstack.domain.AsyncJob.ResultCode;
+import org.jclouds.cloudstack.domain.AsyncJob.Status;
+import org.jclouds.cloudstack.domain.AsyncJobError;
+import org.jclouds.cloudstack.domain.AsyncJobError.ErrorCode;
+import org.jclouds.cloudstack.features.AsyncJobApi;
+import org.jclouds.cloudstack.options.ListAsyncJobsOptions;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", singleThreaded = true, testName = "AsyncJobCompletionServiceTest")
+public class AsyncJobCompletionServiceTest {
+
+   CloudStackApi client;
+   AsyncJobApi asyncJobClient;
+   ScheduledExecutorService scheduler;
+
+   @BeforeMethod
+   public void setUp() {
+      client = createMock(CloudStackApi.class);
+      asyncJobClient = createMock(AsyncJobApi.class);
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+
+      expect(client.getAsyncJobApi()).andReturn(asyncJobClient).anyTimes();
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      scheduler.shutdownNow();
+   }
+
+   private AsyncJobCompletionService service() {
+      return new AsyncJobCompletionService(client, scheduler, MoreExecutors.sameThreadExecutor(), 0);
+   }
+
+   public void testJobFoundInListingIsNotQueriedAgain() {
+      AsyncJob<?> job = AsyncJob.builder().id("100")
+         .status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+      expect((Object) asyncJobClient.listAsyncJobs(anyObject(ListAsyncJobsOptions.class)))
+         .andReturn(ImmutableSet.of(job));
+
+      replay(client, asyncJobClient);
+      AsyncJobCompletionService service = service();
+      assertTrue(service.completesWithin(1, SECONDS).apply(job.getId()));
+      assertEquals(service.outstanding(), 0);
+      verify(client, asyncJobClient);
+   }
+
+   public void testJobMissingFromListingIsQueried() {
+      AsyncJob<?> job = AsyncJob.builder().id("100")
+         .status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+      expect((Object) asyncJobClient.listAsyncJobs(anyObject(ListAsyncJobsOptions.class)))
+         .andReturn(ImmutableSet.of());
+      expect((Object) asyncJobClient.getAsyncJob(job.getId())).andReturn(job);
+
+      replay(client, asyncJobClient);
+      assertTrue(service().completesWithin(1, SECONDS).apply(job.getId()));
+      verify(client, asyncJobClient);
+   }
+
+   public void testFailedJobPropagatesAsyncJobException() {
+      AsyncJob<?> job = AsyncJob.builder().id("100")
+         .status(Status.FAILED).resultCode(ResultCode.FAIL)
+         .error(AsyncJobError.builder().errorCode(ErrorCode.INTERNAL_ERROR).errorText("Dummy test error").build()).build();
+      expect((Object) asyncJobClient.listAsyncJobs(anyObject(ListAsyncJobsOptions.class)))
+         .andReturn(ImmutableSet.of(job));
+
+      replay(client, asyncJobClient);
+      try {
+         service().completesWithin(1, SECONDS).apply(job.getId());
+         fail("No exception thrown");
+      } catch (AsyncJobException e) {
+         assertTrue(e.toString().contains("Dummy test error"));
+      }
+      verify(client, asyncJobClient);
+   }
+
+   public void testTimeoutStopsPollingTheJob() {
+      AsyncJob<?> job = AsyncJob.builder().id("100").status(Status.IN_PROGRESS).build();
+      expect((Object) asyncJobClient.listAsyncJobs(anyObject(ListAsyncJobsOptions.class)))
+         .andReturn(ImmutableSet.of(job)).anyTimes();
+
+      replay(client, asyncJobClient);
+      AsyncJobCompletionService service = service();
+      assertFalse(service.completesWithin(100, MILLISECONDS).apply(job.getId()));
+      assertEquals(service.outstanding(), 0);
+      verify(client, asyncJobClient);
+   }
+
+   public void testJobThatNoLongerExistsFails() {
+      expect((Object) asyncJobClient.listAsyncJobs(anyObject(ListAsyncJobsOptions.class)))
+         .andReturn(ImmutableSet.of());
+      expect((Object) asyncJobClient.getAsyncJob("100")).andReturn(null);
+
+      replay(client, asyncJobClient);
+      AsyncJobCompletionService service = service();
+      try {
+         service.completesWithin(1, SECONDS).apply("100");
+         fail("No exception thrown");
+      } catch (IllegalStateException e) {
+         assertTrue(e.getMessage().contains("100"));
+      }
+      assertEquals(service.outstanding(), 0);
+      verify(client, asyncJobClient);
+   }
+}
@@ -27,8 +27,13 @@ import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Multimaps.filterKeys;
 import static com.google.common.collect.Multimaps.index;
 import static com.google.common.collect.Multimaps.transformValues;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -38,20 +43,30 @@ import org.jclouds.Constants;
 import org.jclouds.aws.util.AWSUtils;
 import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.compute.predicates.NodePredicates;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.domain.InstanceState;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 
@@ -70,8 +85,15 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
    protected final Supplier<Set<String>> regions;
    protected final Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata;
    protected final ListeningExecutorService userExecutor;
+   @Nullable
+   protected final GroupNamingConvention.Factory namingConvention;
+   @Nullable
+   protected final Map<InstanceState, Status> instanceToNodeStatus;
 
-   @Inject
+   /**
+    * Without a naming convention and status mapping, only ids are filtered by EC2; group and status criteria are
+    * evaluated on all instances.
+    */
    protected EC2ListNodesStrategy(EC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
@@ -79,6 +101,21 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
       this.regions =  checkNotNull(regions, "regions");
       this.runningInstanceToNodeMetadata = checkNotNull(runningInstanceToNodeMetadata, "runningInstanceToNodeMetadata");
       this.userExecutor =  checkNotNull(userExecutor, "userExecutor");
+      this.namingConvention = null;
+      this.instanceToNodeStatus = null;
+   }
+
+   @Inject
+   protected EC2ListNodesStrategy(EC2Api client, @Region Supplier<Set<String>> regions,
+            Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            GroupNamingConvention.Factory namingConvention, Map<InstanceState, Status> instanceToNodeStatus) {
+      this.client =  checkNotNull(client, "client");
+      this.regions =  checkNotNull(regions, "regions");
+      this.runningInstanceToNodeMetadata = checkNotNull(runningInstanceToNodeMetadata, "runningInstanceToNodeMetadata");
+      this.userExecutor =  checkNotNull(userExecutor, "userExecutor");
+      this.namingConvention = checkNotNull(namingConvention, "namingConvention");
+      this.instanceToNodeStatus = checkNotNull(instanceToNodeStatus, "instanceToNodeStatus");
    }
 
    @Override
@@ -88,9 +125,7 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
 
    @Override
    public Set<? extends NodeMetadata> listNodesByIds(Iterable<String> ids) {
-      Multimap<String, String> idsByHandles = index(ids, splitHandle(1));
-      Multimap<String, String> idsByRegions = transformValues(idsByHandles, splitHandle(0));
-      Multimap<String, String> idsByConfiguredRegions = filterKeys(idsByRegions, in(regions.get()));
+      Multimap<String, String> idsByConfiguredRegions = idsByConfiguredRegions(ids);
 
       if (idsByConfiguredRegions.isEmpty()) {
          return ImmutableSet.of();
@@ -104,12 +139,93 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
 
    @Override
    public Set<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<ComputeMetadata> filter) {
-      Iterable<? extends RunningInstance> instances = pollRunningInstances();
+      Optional<NodeCriteria> criteria = NodeCriteria.of(filter);
+      Iterable<? extends RunningInstance> instances = criteria.isPresent() ? pollRunningInstancesMatching(criteria
+               .get()) : pollRunningInstances();
       Iterable<? extends NodeMetadata> nodes = filter(transform(filter(instances, notNull()),
                runningInstanceToNodeMetadata), and(notNull(), filter));
       return ImmutableSet.copyOf(nodes);
    }
 
+   private Multimap<String, String> idsByConfiguredRegions(Iterable<String> ids) {
+      Multimap<String, String> handlesByRegions = index(ids, splitHandle(0));
+      Multimap<String, String> idsByRegions = transformValues(handlesByRegions, splitHandle(1));
+      return filterKeys(idsByRegions, in(regions.get()));
+   }
+
+   /**
+    * Has EC2 filter the instances by id, group and state, so that only those possibly matching are transferred.
+    * <p/>
+    * Ids are looked up in their regions. As the group of an instance is parsed from its security groups, or from its
+    * key pair when none was generated for it, a group is queried as the union of both; every query also filters on
+    * the states that map to the requested statuses. The queries of all regions are issued in parallel.
+    */
+   protected Iterable<? extends RunningInstance> pollRunningInstancesMatching(NodeCriteria criteria) {
+      if (criteria.getIds().isPresent()) {
+         Multimap<String, String> idsByConfiguredRegions = idsByConfiguredRegions(criteria.getIds().get());
+         if (idsByConfiguredRegions.isEmpty())
+            return ImmutableSet.of();
+         return pollRunningInstancesByRegionsAndIds(idsByConfiguredRegions);
+      }
+      if (namingConvention == null || instanceToNodeStatus == null)
+         return pollRunningInstances();
+      ImmutableMultimap.Builder<String, String> states = ImmutableMultimap.builder();
+      if (criteria.getStatuses().isPresent())
+         states.putAll("instance-state-name", statesFor(criteria.getStatuses().get()));
+      List<Multimap<String, String>> queries = Lists.newArrayList();
+      if (criteria.getGroup().isPresent()) {
+         String sharedName = namingConvention.create().sharedNameForGroup(criteria.getGroup().get());
+         queries.add(ImmutableMultimap.<String, String> builder().putAll(states.build())
+               .put("group-name", sharedName).build());
+         queries.add(ImmutableMultimap.<String, String> builder().putAll(states.build())
+               .put("instance.group-name", sharedName).build());
+         queries.add(ImmutableMultimap.<String, String> builder().putAll(states.build())
+               .put("key-name", sharedName + "*").build());
+      } else {
+         queries.add(states.build());
+      }
+      List<String> queriedRegions = Lists.newArrayList();
+      List<ListenableFuture<Set<? extends Reservation<? extends RunningInstance>>>> futures = Lists.newArrayList();
+      for (final String region : regions.get()) {
+         for (final Multimap<String, String> query : queries) {
+            queriedRegions.add(region);
+            futures.add(userExecutor.submit(new Callable<Set<? extends Reservation<? extends RunningInstance>>>() {
+               @Override
+               public Set<? extends Reservation<? extends RunningInstance>> call() {
+                  return client.getInstanceApi().get().describeInstancesInRegionWithFilter(region, query);
+               }
+            }));
+         }
+      }
+      logger.trace("instances matching %s", criteria);
+
+      List<Set<? extends Reservation<? extends RunningInstance>>> responses = getUnchecked(allAsList(futures));
+      Map<String, RunningInstance> byId = Maps.newLinkedHashMap();
+      for (int i = 0; i < responses.size(); i++) {
+         for (Reservation<? extends RunningInstance> reservation : responses.get(i)) {
+            for (RunningInstance instance : reservation) {
+               byId.put(queriedRegions.get(i) + "/" + instance.getId(), instance);
+            }
+         }
+      }
+      return byId.values();
+   }
+
+   /**
+    * @return the instance states matching the statuses, or none if one can not be expressed as an instance state
+    */
+   private Set<String> statesFor(Set<Status> statuses) {
+      ImmutableSet.Builder<String> states = ImmutableSet.builder();
+      for (Map.Entry<InstanceState, Status> entry : instanceToNodeStatus.entrySet()) {
+         if (statuses.contains(entry.getValue())) {
+            if (entry.getKey() == InstanceState.UNRECOGNIZED)
+               return ImmutableSet.of();
+            states.add(entry.getKey().value());
+         }
+      }
+      return states.build();
+   }
+
    protected Iterable<? extends RunningInstance> pollRunningInstances() {
       Iterable<? extends Set<? extends Reservation<? extends RunningInstance>>> reservations
          = transform(regions.get(), allInstancesInRegion());
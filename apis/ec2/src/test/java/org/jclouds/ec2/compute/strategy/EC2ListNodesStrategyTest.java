@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.ec2.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Set;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.predicates.NodeCriteria;
+import org.jclouds.compute.predicates.NodePredicates;
+import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.compute.config.EC2ComputeServiceDependenciesModule;
+import org.jclouds.ec2.domain.InstanceState;
+import org.jclouds.ec2.domain.Reservation;
+import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.ec2.features.InstanceApi;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Tests the filters {@link EC2ListNodesStrategy} sends for the predicates it can push down.
+ */
+@Test(groups = "unit", singleThreaded = true, testName = "EC2ListNodesStrategyTest")
+public class EC2ListNodesStrategyTest {
+
+   private EC2Api client;
+   private InstanceApi instanceApi;
+   private GroupNamingConvention.Factory namingConvention;
+   private EC2ListNodesStrategy strategy;
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   @BeforeMethod
+   public void setUp() {
+      client = createMock(EC2Api.class);
+      instanceApi = createMock(InstanceApi.class);
+      namingConvention = createMock(GroupNamingConvention.Factory.class);
+      GroupNamingConvention convention = createMock(GroupNamingConvention.class);
+      expect(client.getInstanceApi()).andReturn((Optional) Optional.of(instanceApi)).anyTimes();
+      expect(namingConvention.create()).andReturn(convention).anyTimes();
+      expect(convention.sharedNameForGroup("web")).andReturn("jclouds#web").anyTimes();
+      replay(convention);
+      strategy = new EC2ListNodesStrategy(client, Suppliers.<Set<String>> ofInstance(ImmutableSet.of("us-east-1",
+            "us-west-1")), new Function<RunningInstance, NodeMetadata>() {
+               @Override
+               public NodeMetadata apply(RunningInstance instance) {
+                  return new NodeMetadataBuilder().id(instance.getRegion() + "/" + instance.getId())
+                        .providerId(instance.getId()).group("web")
+                        .status(EC2ComputeServiceDependenciesModule.toPortableNodeStatus.get(instance.getInstanceState()))
+                        .build();
+               }
+            }, MoreExecutors.sameThreadExecutor(), namingConvention,
+            EC2ComputeServiceDependenciesModule.toPortableNodeStatus);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testRunningInGroupQueriesSecurityGroupsAndKeyPairsOfRunningInstances() {
+      Reservation<RunningInstance> running = reservation("us-east-1", instance("us-east-1", "i-1"));
+      for (String region : ImmutableSet.of("us-east-1", "us-west-1")) {
+         expect(instanceApi.describeInstancesInRegionWithFilter(region, ImmutableMultimap.of(
+               "instance-state-name", "running", "group-name", "jclouds#web"))).andReturn(
+               (Set) (region.equals("us-east-1") ? ImmutableSet.of(running) : ImmutableSet.of()));
+         expect(instanceApi.describeInstancesInRegionWithFilter(region, ImmutableMultimap.of(
+               "instance-state-name", "running", "instance.group-name", "jclouds#web"))).andReturn(
+               (Set) (region.equals("us-east-1") ? ImmutableSet.of(running) : ImmutableSet.of()));
+         expect(instanceApi.describeInstancesInRegionWithFilter(region, ImmutableMultimap.of(
+               "instance-state-name", "running", "key-name", "jclouds#web*"))).andReturn((Set) ImmutableSet.of());
+      }
+      replay(client, instanceApi, namingConvention);
+
+      assertEquals(ids(strategy.listDetailsOnNodesMatching(NodeCriteria.onDetails(NodePredicates
+            .runningInGroup("web")))), ImmutableSet.of("us-east-1/i-1"));
+      verify(client, instanceApi, namingConvention);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testStatusQueriesTheMatchingInstanceStates() {
+      for (String region : ImmutableSet.of("us-east-1", "us-west-1")) {
+         expect(instanceApi.describeInstancesInRegionWithFilter(region, ImmutableMultimap.of(
+               "instance-state-name", "stopped"))).andReturn((Set) ImmutableSet.of());
+      }
+      replay(client, instanceApi, namingConvention);
+
+      assertEquals(ids(strategy.listDetailsOnNodesMatching(NodeCriteria.onDetails(NodePredicates.SUSPENDED))),
+            ImmutableSet.of());
+      verify(client, instanceApi, namingConvention);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testIdsAreLookedUpInTheirRegions() {
+      expect(instanceApi.describeInstancesInRegion("us-west-1", "i-2")).andReturn(
+            (Set) ImmutableSet.of(reservation("us-west-1", instance("us-west-1", "i-2"))));
+      replay(client, instanceApi, namingConvention);
+
+      assertEquals(ids(strategy.listDetailsOnNodesMatching(NodePredicates.withIds("us-west-1/i-2",
+            "eu-west-1/i-3"))), ImmutableSet.of("us-west-1/i-2"));
+      verify(client, instanceApi, namingConvention);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testWithoutNamingConventionGroupsAreFilteredOnAllInstances() {
+      strategy = new EC2ListNodesStrategy(client, Suppliers.<Set<String>> ofInstance(ImmutableSet.of("us-east-1")),
+            new Function<RunningInstance, NodeMetadata>() {
+               @Override
+               public NodeMetadata apply(RunningInstance instance) {
+                  return new NodeMetadataBuilder().id(instance.getRegion() + "/" + instance.getId())
+                        .providerId(instance.getId()).group(instance.getId().equals("i-1") ? "web" : "db")
+                        .status(NodeMetadata.Status.RUNNING).build();
+               }
+            }, MoreExecutors.sameThreadExecutor());
+      expect(instanceApi.describeInstancesInRegion("us-east-1")).andReturn((Set) ImmutableSet.of(
+            reservation("us-east-1", instance("us-east-1", "i-1")),
+            reservation("us-east-1", instance("us-east-1", "i-2"))));
+      replay(client, instanceApi, namingConvention);
+
+      assertEquals(ids(strategy.listDetailsOnNodesMatching(NodeCriteria.onDetails(NodePredicates
+            .runningInGroup("web")))), ImmutableSet.of("us-east-1/i-1"));
+      verify(client, instanceApi, namingConvention);
+   }
+
+   private static RunningInstance instance(String region, String id) {
+      return RunningInstance.builder().region(region).instanceId(id).imageId("ami-1").instanceType("m1.small")
+            .instanceState(InstanceState.RUNNING).rawState("running").build();
+   }
+
+   private static Reservation<RunningInstance> reservation(String region, RunningInstance instance) {
+      return new Reservation<RunningInstance>(region, ImmutableSet.<String> of(), ImmutableSet.of(instance), null,
+            null, null);
+   }
+
+   private static Set<String> ids(Iterable<? extends NodeMetadata> nodes) {
+      ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+      for (NodeMetadata node : nodes)
+         ids.add(node.getId());
+      return ids.build();
+   }
+}
@@ -16,6 +16,9 @@
  */
 package org.jclouds.elasticstack;
 
+import static org.jclouds.elasticstack.reference.ElasticStackConstants.PROPERTY_DRIVE_TRANSFER_CHUNK_SIZE;
+import static org.jclouds.elasticstack.reference.ElasticStackConstants.PROPERTY_DRIVE_TRANSFER_RETRIES;
+import static org.jclouds.elasticstack.reference.ElasticStackConstants.PROPERTY_DRIVE_TRANSFER_THREADS;
 import static org.jclouds.elasticstack.reference.ElasticStackConstants.PROPERTY_VNC_PASSWORD;
 import static org.jclouds.reflect.Reflection2.typeToken;
 
@@ -54,6 +57,9 @@ public class ElasticStackApiMetadata extends BaseHttpApiMetadata<ElasticStackApi
    public static Properties defaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
       properties.setProperty(PROPERTY_VNC_PASSWORD, "IL9vs34d");
+      properties.setProperty(PROPERTY_DRIVE_TRANSFER_CHUNK_SIZE, 4 * 1024 * 1024 + "");
+      properties.setProperty(PROPERTY_DRIVE_TRANSFER_THREADS, "4");
+      properties.setProperty(PROPERTY_DRIVE_TRANSFER_RETRIES, "3");
       // passwords are set post-boot, so auth failures are possible
       // from a race condition applying the password set script
       properties.setProperty("jclouds.ssh.max-retries", "5");
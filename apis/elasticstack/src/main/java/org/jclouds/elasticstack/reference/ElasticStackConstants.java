@@ -26,6 +26,22 @@ public final class ElasticStackConstants {
      */
     public static final String PROPERTY_VNC_PASSWORD = "jclouds.elasticstack.vnc-password";
 
+    /**
+     * size in bytes of each chunk read from or written to a drive by the drive transfer strategy;
+     * reads are capped at 4096k by the api
+     */
+    public static final String PROPERTY_DRIVE_TRANSFER_CHUNK_SIZE = "jclouds.elasticstack.drive-transfer.chunk-size";
+
+    /**
+     * maximum number of chunks of a single drive in flight at the same time
+     */
+    public static final String PROPERTY_DRIVE_TRANSFER_THREADS = "jclouds.elasticstack.drive-transfer.threads";
+
+    /**
+     * number of times a failed chunk is retried before the transfer is aborted
+     */
+    public static final String PROPERTY_DRIVE_TRANSFER_RETRIES = "jclouds.elasticstack.drive-transfer.retries";
+
     private ElasticStackConstants() {
         throw new AssertionError("intentionally unimplemented");
     }
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.elasticstack.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.elasticstack.reference.ElasticStackConstants.PROPERTY_DRIVE_TRANSFER_CHUNK_SIZE;
+import static org.jclouds.elasticstack.reference.ElasticStackConstants.PROPERTY_DRIVE_TRANSFER_RETRIES;
+import static org.jclouds.elasticstack.reference.ElasticStackConstants.PROPERTY_DRIVE_TRANSFER_THREADS;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.elasticstack.ElasticStackApi;
+import org.jclouds.elasticstack.domain.Drive;
+import org.jclouds.elasticstack.domain.DriveInfo;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.AuthorizationException;
+import org.jclouds.rest.ResourceNotFoundException;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Moves drive images to and from a drive in fixed size chunks, using the offset variants of
+ * {@link ElasticStackApi#writeDrive(String, Payload, long)} and
+ * {@link ElasticStackApi#readDrive(String, long, long)}.
+ * <p/>
+ * Chunks are transferred concurrently, up to {@code jclouds.elasticstack.drive-transfer.threads} per
+ * drive, and each chunk is retried on its own. Chunks that only contain zeros are not sent to freshly
+ * created drives, which are zero filled by the provider, and are left as holes when downloading.
+ * 
+ * @see org.jclouds.elasticstack.reference.ElasticStackConstants
+ */
+@Singleton
+public class DriveTransferStrategy {
+
+   /**
+    * Maximum size of a single {@link ElasticStackApi#readDrive(String, long, long) read}.
+    */
+   public static final long MAX_READ_SIZE = 4096 * 1024;
+
+   /**
+    * Notified as chunks complete; calls may arrive concurrently and out of order.
+    */
+   public interface ProgressListener {
+      /**
+       * @param transferred
+       *           bytes done so far, including skipped chunks
+       * @param total
+       *           size of the transfer in bytes
+       */
+      void progress(long transferred, long total);
+   }
+
+   private static final ProgressListener NO_PROGRESS = new ProgressListener() {
+      @Override
+      public void progress(long transferred, long total) {
+      }
+   };
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final ElasticStackApi api;
+   private final ListeningExecutorService userExecutor;
+   private final BackoffLimitedRetryHandler backoff;
+   private final long chunkSize;
+   private final int threads;
+   private final int retries;
+
+   @Inject
+   DriveTransferStrategy(ElasticStackApi api,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         BackoffLimitedRetryHandler backoff, @Named(PROPERTY_DRIVE_TRANSFER_CHUNK_SIZE) long chunkSize,
+         @Named(PROPERTY_DRIVE_TRANSFER_THREADS) int threads, @Named(PROPERTY_DRIVE_TRANSFER_RETRIES) int retries) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.backoff = checkNotNull(backoff, "backoff");
+      checkArgument(chunkSize > 0 && chunkSize <= Integer.MAX_VALUE, "%s must be a positive int",
+            PROPERTY_DRIVE_TRANSFER_CHUNK_SIZE);
+      checkArgument(threads > 0, "%s must be positive", PROPERTY_DRIVE_TRANSFER_THREADS);
+      checkArgument(retries >= 0, "%s must not be negative", PROPERTY_DRIVE_TRANSFER_RETRIES);
+      this.chunkSize = chunkSize;
+      this.threads = threads;
+      this.retries = retries;
+   }
+
+   /**
+    * @see #createDrive(String, ByteSource, ProgressListener)
+    */
+   public DriveInfo createDrive(String name, ByteSource image) throws IOException {
+      return createDrive(name, image, NO_PROGRESS);
+   }
+
+   /**
+    * Creates a drive the size of the image and uploads the image to it. Chunks of zeros are skipped,
+    * as new drives are zero filled. The drive is destroyed if the upload fails.
+    */
+   public DriveInfo createDrive(String name, ByteSource image, ProgressListener listener) throws IOException {
+      long size = image.size();
+      DriveInfo drive = api.createDrive(new Drive.Builder().name(checkNotNull(name, "name")).size(size).build());
+      boolean uploaded = false;
+      try {
+         upload(drive.getUuid(), image, size, true, listener);
+         uploaded = true;
+         return drive;
+      } finally {
+         if (!uploaded) {
+            logger.debug(">> destroying drive %s after failed upload", drive.getUuid());
+            api.destroyDrive(drive.getUuid());
+         }
+      }
+   }
+
+   /**
+    * @see #upload(String, ByteSource, ProgressListener)
+    */
+   public void upload(String uuid, ByteSource image) throws IOException {
+      upload(uuid, image, NO_PROGRESS);
+   }
+
+   /**
+    * Writes the image to the start of an existing drive. Every chunk is written, zeros included, as
+    * the drive may already hold data.
+    */
+   public void upload(String uuid, ByteSource image, ProgressListener listener) throws IOException {
+      long size = image.size();
+      DriveInfo drive = api.getDriveInfo(checkNotNull(uuid, "uuid"));
+      if (drive == null)
+         throw new ResourceNotFoundException("drive " + uuid + " not found");
+      checkArgument(drive.getSize() >= size, "image of %s bytes does not fit drive %s of %s bytes", size, uuid,
+            drive.getSize());
+      upload(uuid, image, size, false, listener);
+   }
+
+   /**
+    * @see #download(String, File, ProgressListener)
+    */
+   public void download(String uuid, File target) throws IOException {
+      download(uuid, target, NO_PROGRESS);
+   }
+
+   /**
+    * Reads the whole drive into the target file, replacing its contents. Chunks of zeros are not
+    * written, so the file is sparse where the file system supports it.
+    */
+   public void download(final String uuid, File target, ProgressListener listener) throws IOException {
+      DriveInfo drive = api.getDriveInfo(checkNotNull(uuid, "uuid"));
+      if (drive == null)
+         throw new ResourceNotFoundException("drive " + uuid + " not found");
+      final long size = drive.getSize();
+      final long readSize = Math.min(chunkSize, MAX_READ_SIZE);
+      RandomAccessFile file = new RandomAccessFile(checkNotNull(target, "target"), "rw");
+      try {
+         file.setLength(0);
+         file.setLength(size);
+         final FileChannel channel = file.getChannel();
+         transfer("read " + uuid, size, readSize, listener, new ChunkTransfer() {
+            @Override
+            public void transfer(long offset, int length) throws IOException {
+               byte[] data = read(uuid, offset, length);
+               if (isZero(data))
+                  return;
+               ByteBuffer buffer = ByteBuffer.wrap(data);
+               long position = offset;
+               while (buffer.hasRemaining())
+                  position += channel.write(buffer, position);
+            }
+         });
+      } finally {
+         Closeables.close(file, true);
+      }
+   }
+
+   private void upload(final String uuid, final ByteSource image, long size, final boolean skipZeros,
+         ProgressListener listener) throws IOException {
+      transfer("write " + uuid, size, chunkSize, listener, new ChunkTransfer() {
+         @Override
+         public void transfer(long offset, int length) throws IOException {
+            byte[] data = image.slice(offset, length).read();
+            checkState(data.length == length, "image changed while uploading: read %s of %s bytes at %s",
+                  data.length, length, offset);
+            if (skipZeros && isZero(data))
+               return;
+            api.writeDrive(uuid, Payloads.newByteArrayPayload(data), offset);
+         }
+      });
+   }
+
+   private byte[] read(String uuid, long offset, int length) throws IOException {
+      Payload payload = api.readDrive(uuid, offset, length);
+      if (payload == null)
+         throw new ResourceNotFoundException("drive " + uuid + " not found");
+      try {
+         InputStream in = payload.openStream();
+         try {
+            byte[] data = ByteStreams.toByteArray(in);
+            checkState(data.length == length, "short read: %s of %s bytes at %s", data.length, length, offset);
+            return data;
+         } finally {
+            Closeables.close(in, true);
+         }
+      } finally {
+         payload.release();
+      }
+   }
+
+   private interface ChunkTransfer {
+      void transfer(long offset, int length) throws IOException;
+   }
+
+   /**
+    * Runs the chunks on the user executor, at most {@code threads} at a time. No new chunks are
+    * started once one has failed for good, and the first failure is rethrown after the chunks in
+    * flight have finished.
+    */
+   private void transfer(final String description, final long size, long chunk, final ProgressListener listener,
+         final ChunkTransfer transfer) throws IOException {
+      checkNotNull(listener, "listener");
+      final Semaphore permits = new Semaphore(threads);
+      final AtomicBoolean failed = new AtomicBoolean();
+      final AtomicLong transferred = new AtomicLong();
+      List<ListenableFuture<Void>> chunks = Lists.newArrayList();
+      logger.debug(">> %s: %s bytes in chunks of %s", description, size, chunk);
+      try {
+         for (long offset = 0; offset < size && !failed.get(); offset += chunk) {
+            final long start = offset;
+            final int length = (int) Math.min(chunk, size - offset);
+            permits.acquire();
+            if (failed.get()) {
+               permits.release();
+               break;
+            }
+            try {
+               chunks.add(userExecutor.submit(new Callable<Void>() {
+                  @Override
+                  public Void call() throws IOException {
+                     try {
+                        transferWithRetries(description, transfer, start, length);
+                        listener.progress(transferred.addAndGet(length), size);
+                        return null;
+                     } catch (IOException e) {
+                        failed.set(true);
+                        throw e;
+                     } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                     } finally {
+                        permits.release();
+                     }
+                  }
+               }));
+            } catch (RuntimeException e) {
+               permits.release();
+               throw e;
+            }
+         }
+         permits.acquire(threads);
+      } catch (InterruptedException e) {
+         for (ListenableFuture<Void> future : chunks)
+            future.cancel(true);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+      for (ListenableFuture<Void> future : chunks) {
+         try {
+            future.get();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+      logger.debug("<< %s: %s bytes", description, size);
+   }
+
+   private void transferWithRetries(String description, ChunkTransfer transfer, long offset, int length)
+         throws IOException {
+      for (int attempt = 1;; attempt++) {
+         try {
+            transfer.transfer(offset, length);
+            return;
+         } catch (ResourceNotFoundException e) {
+            throw e;
+         } catch (AuthorizationException e) {
+            throw e;
+         } catch (IOException e) {
+            if (attempt > retries)
+               throw e;
+            logger.debug("<< %s: chunk at %s failed (attempt %s): %s", description, offset, attempt, e.getMessage());
+         } catch (RuntimeException e) {
+            if (attempt > retries)
+               throw e;
+            logger.debug("<< %s: chunk at %s failed (attempt %s): %s", description, offset, attempt, e.getMessage());
+         }
+         backoff.imposeBackoffExponentialDelay(attempt, description + " at " + offset);
+      }
+   }
+
+   private static boolean isZero(byte[] data) {
+      for (byte b : data)
+         if (b != 0)
+            return false;
+      return true;
+   }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.elasticstack.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.elasticstack.ElasticStackApi;
+import org.jclouds.elasticstack.domain.Drive;
+import org.jclouds.elasticstack.domain.DriveInfo;
+import org.jclouds.elasticstack.domain.DriveMetrics;
+import org.jclouds.elasticstack.strategy.DriveTransferStrategy.ProgressListener;
+import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "DriveTransferStrategyTest", singleThreaded = true)
+public class DriveTransferStrategyTest {
+
+   /**
+    * Keeps drives in memory and fails the first {@code failures} calls to write or read.
+    */
+   private static class InMemoryDrives implements InvocationHandler {
+      private final Map<String, byte[]> drives = Maps.newConcurrentMap();
+      private final List<Long> writes = Lists.newCopyOnWriteArrayList();
+      private final AtomicLong failures = new AtomicLong();
+      private final List<String> destroyed = Lists.newCopyOnWriteArrayList();
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+         String name = method.getName();
+         if (name.equals("createDrive")) {
+            Drive drive = (Drive) args[0];
+            drives.put("uuid", new byte[(int) drive.getSize()]);
+            return info("uuid", drive.getSize());
+         } else if (name.equals("getDriveInfo")) {
+            byte[] drive = drives.get(args[0]);
+            return drive == null ? null : info((String) args[0], drive.length);
+         } else if (name.equals("destroyDrive")) {
+            destroyed.add((String) args[0]);
+            drives.remove(args[0]);
+            return null;
+         } else if (name.equals("writeDrive") && args.length == 3) {
+            maybeFail();
+            byte[] data = ByteStreams.toByteArray(((Payload) args[1]).openStream());
+            long offset = (Long) args[2];
+            System.arraycopy(data, 0, drives.get(args[0]), (int) offset, data.length);
+            writes.add(offset);
+            return null;
+         } else if (name.equals("readDrive")) {
+            maybeFail();
+            int offset = (int) (long) (Long) args[1];
+            int size = (int) (long) (Long) args[2];
+            assertTrue(size <= DriveTransferStrategy.MAX_READ_SIZE);
+            return Payloads.newByteArrayPayload(Arrays.copyOfRange(drives.get(args[0]), offset, offset + size));
+         }
+         throw new UnsupportedOperationException(name);
+      }
+
+      private void maybeFail() {
+         if (failures.getAndDecrement() > 0)
+            throw new IllegalStateException("simulated failure");
+      }
+
+      private static DriveInfo info(String uuid, long size) {
+         return new DriveInfo.Builder().uuid(uuid).name(uuid).size(size).metrics(new DriveMetrics.Builder().build())
+               .build();
+      }
+   }
+
+   private InMemoryDrives drives;
+   private ElasticStackApi api;
+   private ListeningExecutorService executor;
+
+   @BeforeMethod
+   public void setup() {
+      drives = new InMemoryDrives();
+      api = (ElasticStackApi) Proxy.newProxyInstance(ElasticStackApi.class.getClassLoader(),
+            new Class<?>[] { ElasticStackApi.class }, drives);
+      executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(4));
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   private DriveTransferStrategy strategy(long chunkSize, int retries) {
+      return new DriveTransferStrategy(api, executor, BackoffLimitedRetryHandler.INSTANCE, chunkSize, 3, retries);
+   }
+
+   private static byte[] sparseImage() {
+      byte[] image = new byte[1000];
+      Arrays.fill(image, 100, 150, (byte) 1);
+      Arrays.fill(image, 995, 1000, (byte) 2);
+      return image;
+   }
+
+   public void testCreateDriveSkipsZeroChunks() throws IOException {
+      byte[] image = sparseImage();
+      final AtomicLong progress = new AtomicLong();
+      DriveInfo drive = strategy(100, 0).createDrive("image", ByteSource.wrap(image), new ProgressListener() {
+         @Override
+         public void progress(long transferred, long total) {
+            assertEquals(total, 1000);
+            progress.set(Math.max(progress.get(), transferred));
+         }
+      });
+      assertEquals(drive.getUuid(), "uuid");
+      assertEquals(drives.drives.get("uuid"), image);
+      assertEquals(drives.writes.size(), 2);
+      assertEquals(progress.get(), 1000);
+   }
+
+   public void testUploadWritesZeroChunksAndRetries() throws IOException {
+      byte[] used = new byte[1000];
+      Arrays.fill(used, (byte) 7);
+      drives.drives.put("uuid", used);
+      drives.failures.set(2);
+
+      byte[] image = sparseImage();
+      strategy(64, 2).upload("uuid", ByteSource.wrap(image));
+      assertEquals(drives.drives.get("uuid"), image);
+      assertEquals(drives.writes.size(), 16);
+   }
+
+   public void testDownloadRoundTrip() throws IOException {
+      byte[] image = sparseImage();
+      drives.drives.put("uuid", image);
+      File target = File.createTempFile("drive", ".img");
+      try {
+         Files.write(new byte[5000], target);
+         strategy(128, 0).download("uuid", target);
+         assertEquals(Files.toByteArray(target), image);
+      } finally {
+         target.delete();
+      }
+   }
+
+   public void testFailedCreateDestroysDrive() throws IOException {
+      drives.failures.set(Long.MAX_VALUE);
+      try {
+         strategy(100, 1).createDrive("image", ByteSource.wrap(sparseImage()));
+         fail("expected failure");
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "simulated failure");
+      }
+      assertEquals(drives.destroyed, Arrays.asList("uuid"));
+   }
+}
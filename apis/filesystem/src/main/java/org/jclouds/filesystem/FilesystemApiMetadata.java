@@ -17,6 +17,8 @@
 package org.jclouds.filesystem;
 
 import static org.jclouds.filesystem.reference.FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE;
+import static org.jclouds.filesystem.reference.FilesystemConstants.PROPERTY_HARD_LINK_COPIES;
+import static org.jclouds.filesystem.reference.FilesystemConstants.PROPERTY_METADATA_INDEX;
 
 import java.net.URI;
 import java.util.Properties;
@@ -52,6 +54,8 @@ public class FilesystemApiMetadata extends BaseApiMetadata {
    public Properties getDefaultProperties() {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
       properties.setProperty(PROPERTY_AUTO_DETECT_CONTENT_TYPE, "false");
+      properties.setProperty(PROPERTY_HARD_LINK_COPIES, "false");
+      properties.setProperty(PROPERTY_METADATA_INDEX, "false");
       return properties;
    }
 
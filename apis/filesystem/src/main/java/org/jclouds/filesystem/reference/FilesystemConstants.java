@@ -27,6 +27,18 @@ public final class FilesystemConstants {
     /** Specify if the Content-Type of a file should be autodetected if it is not set */
     public static final String PROPERTY_AUTO_DETECT_CONTENT_TYPE = "jclouds.filesystem.auto-detect-content-type";
 
+    /**
+     * Specify if copyBlob should hard link the source file instead of copying its content when source and
+     * target are on the same file store. Linked blobs share their content, extended attributes and permissions.
+     */
+    public static final String PROPERTY_HARD_LINK_COPIES = "jclouds.filesystem.hard-link-copies";
+
+    /**
+     * Specify if blob metadata should be kept in a per-container index in the base directory, so that listing and
+     * reading metadata does not stat every file. Only valid when jclouds is the sole writer of the base directory.
+     */
+    public static final String PROPERTY_METADATA_INDEX = "jclouds.filesystem.metadata-index";
+
     private FilesystemConstants() {
         throw new AssertionError("intentionally unimplemented");
     }
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Per-container index of blob metadata, so that listing, counting and reading the metadata of blobs does not need a
+ * stat and an extended attribute read per file.
+ * <p/>
+ * Each container's index is an append-only log of json records kept in the base directory next to the container,
+ * replayed when first used and compacted once it holds more than twice as many records as live entries. A container
+ * without a log is indexed by walking it once. The index assumes this process is the only writer of the base
+ * directory: files changed behind its back are not noticed until the container is {@link #invalidate invalidated}.
+ */
+final class FilesystemMetadataIndex {
+
+   /** Metadata of one blob, also the record format of the log. */
+   static final class Entry {
+      String key;
+      boolean removed;
+      long size;
+      long lastModified;
+      String contentMD5;
+      String contentDisposition;
+      String contentEncoding;
+      String contentLanguage;
+      String contentType;
+      Long expires;
+      Map<String, String> userMetadata;
+
+      static Entry removed(String key) {
+         Entry entry = new Entry();
+         entry.key = key;
+         entry.removed = true;
+         return entry;
+      }
+   }
+
+   /** Builds the entries of a container which has no log yet. */
+   interface Scanner {
+      Iterable<Entry> scan(String container) throws IOException;
+   }
+
+   private static final String LOG_PREFIX = ".jclouds-index-";
+   private static final int MIN_RECORDS_BEFORE_COMPACTION = 1024;
+
+   private final File baseDirectory;
+   private final String separator;
+   private final Scanner scanner;
+   private final Gson gson = new Gson();
+   private final Map<String, ContainerIndex> containers = Maps.newHashMap();
+
+   FilesystemMetadataIndex(File baseDirectory, String separator, Scanner scanner) {
+      this.baseDirectory = checkNotNull(baseDirectory, "baseDirectory");
+      this.separator = checkNotNull(separator, "separator");
+      this.scanner = checkNotNull(scanner, "scanner");
+   }
+
+   Optional<Entry> get(String container, String key) throws IOException {
+      ContainerIndex index = index(container);
+      synchronized (index) {
+         index.load();
+         return Optional.fromNullable(index.entries.get(key));
+      }
+   }
+
+   /**
+    * @return keys of all blobs in the container, along with every directory holding them suffixed by the separator
+    */
+   Set<String> keys(String container) throws IOException {
+      ContainerIndex index = index(container);
+      ImmutableSet.Builder<String> keys = ImmutableSet.builder();
+      synchronized (index) {
+         index.load();
+         for (String key : index.entries.keySet()) {
+            keys.add(key);
+            for (int i = key.indexOf(separator); i >= 0 && i < key.length() - separator.length(); i = key.indexOf(
+                  separator, i + separator.length())) {
+               keys.add(key.substring(0, i + separator.length()));
+            }
+         }
+      }
+      return keys.build();
+   }
+
+   long count(String container) throws IOException {
+      return keys(container).size();
+   }
+
+   void put(String container, Entry entry) throws IOException {
+      ContainerIndex index = index(container);
+      synchronized (index) {
+         index.load();
+         index.entries.put(entry.key, entry);
+         index.append(entry);
+      }
+   }
+
+   void remove(String container, String key) throws IOException {
+      ContainerIndex index = index(container);
+      synchronized (index) {
+         index.load();
+         if (index.entries.remove(key) != null)
+            index.append(Entry.removed(key));
+      }
+   }
+
+   /**
+    * Forgets the index of the container, so that it is rebuilt from the files on next use.
+    */
+   void invalidate(String container) throws IOException {
+      ContainerIndex index = index(container);
+      synchronized (index) {
+         index.reset();
+      }
+   }
+
+   /**
+    * Forgets the index of a deleted container, closing and removing its log.
+    */
+   void delete(String container) throws IOException {
+      ContainerIndex index;
+      synchronized (containers) {
+         index = containers.remove(container);
+      }
+      if (index != null) {
+         synchronized (index) {
+            index.reset();
+         }
+      } else {
+         Files.deleteIfExists(logFile(container).toPath());
+      }
+   }
+
+   /**
+    * Closes the logs of all containers; they are reopened on next use.
+    */
+   void close() throws IOException {
+      IOException failure = null;
+      synchronized (containers) {
+         for (ContainerIndex index : containers.values()) {
+            synchronized (index) {
+               try {
+                  index.close();
+               } catch (IOException e) {
+                  failure = e;
+               }
+            }
+         }
+      }
+      if (failure != null)
+         throw failure;
+   }
+
+   private ContainerIndex index(String container) {
+      synchronized (containers) {
+         ContainerIndex index = containers.get(container);
+         if (index == null) {
+            index = new ContainerIndex(container);
+            containers.put(container, index);
+         }
+         return index;
+      }
+   }
+
+   private File logFile(String container) {
+      return new File(baseDirectory, LOG_PREFIX + container);
+   }
+
+   private final class ContainerIndex {
+      private final String container;
+      private final File log;
+      private final NavigableMap<String, Entry> entries = new TreeMap<String, Entry>();
+      private boolean loaded;
+      private Writer writer;
+      private int records;
+
+      ContainerIndex(String container) {
+         this.container = container;
+         this.log = logFile(container);
+      }
+
+      void load() throws IOException {
+         if (loaded)
+            return;
+         if (log.isFile()) {
+            try (BufferedReader reader = Files.newBufferedReader(log.toPath(), UTF_8)) {
+               for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                  Entry entry;
+                  try {
+                     entry = gson.fromJson(line, Entry.class);
+                  } catch (JsonParseException e) {
+                     // a record cut short by a crash; the ones before it are intact
+                     break;
+                  }
+                  if (entry == null)
+                     continue;
+                  records++;
+                  if (entry.removed)
+                     entries.remove(entry.key);
+                  else
+                     entries.put(entry.key, entry);
+               }
+            }
+         } else {
+            for (Entry entry : scanner.scan(container))
+               entries.put(entry.key, entry);
+            compact();
+         }
+         loaded = true;
+      }
+
+      void append(Entry entry) throws IOException {
+         if (records > MIN_RECORDS_BEFORE_COMPACTION && records > 2 * entries.size()) {
+            compact();
+            return;
+         }
+         if (writer == null)
+            writer = Files.newBufferedWriter(log.toPath(), UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+         writer.write(gson.toJson(entry));
+         writer.write('\n');
+         writer.flush();
+         records++;
+      }
+
+      /** Rewrites the log with one record per live entry. */
+      void compact() throws IOException {
+         close();
+         File tmp = File.createTempFile(log.getName(), ".tmp", baseDirectory);
+         try {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp.toPath(), UTF_8)) {
+               for (Entry entry : entries.values()) {
+                  out.write(gson.toJson(entry));
+                  out.write('\n');
+               }
+            }
+            Files.move(tmp.toPath(), log.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                  StandardCopyOption.ATOMIC_MOVE);
+         } finally {
+            Files.deleteIfExists(tmp.toPath());
+         }
+         records = entries.size();
+      }
+
+      void reset() throws IOException {
+         close();
+         entries.clear();
+         records = 0;
+         loaded = false;
+         Files.deleteIfExists(log.toPath());
+      }
+
+      void close() throws IOException {
+         if (writer != null) {
+            writer.close();
+            writer = null;
+         }
+      }
+   }
+}
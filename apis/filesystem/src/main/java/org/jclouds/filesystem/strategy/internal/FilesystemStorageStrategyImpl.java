@@ -19,11 +19,15 @@ package org.jclouds.filesystem.strategy.internal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.io.BaseEncoding.base16;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createLink;
+import static java.nio.file.Files.delete;
 import static java.nio.file.Files.getFileAttributeView;
 import static java.nio.file.Files.getPosixFilePermissions;
 import static java.nio.file.Files.probeContentType;
 import static java.nio.file.Files.readAttributes;
 import static java.nio.file.Files.setPosixFilePermissions;
+import static java.nio.file.Files.walkFileTree;
 import static org.jclouds.filesystem.util.Utils.isPrivate;
 import static org.jclouds.filesystem.util.Utils.isWindows;
 import static org.jclouds.filesystem.util.Utils.setPrivate;
@@ -34,19 +38,27 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
+import javax.inject.Singleton;
 
 import org.jclouds.blobstore.LocalStorageStrategy;
 import org.jclouds.blobstore.domain.Blob;
@@ -57,6 +69,7 @@ import org.jclouds.blobstore.domain.MutableStorageMetadata;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
+import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.reference.BlobStoreConstants;
@@ -64,18 +77,18 @@ import org.jclouds.domain.Location;
 import org.jclouds.filesystem.predicates.validators.FilesystemBlobKeyValidator;
 import org.jclouds.filesystem.predicates.validators.FilesystemContainerNameValidator;
 import org.jclouds.filesystem.reference.FilesystemConstants;
+import org.jclouds.filesystem.strategy.internal.FilesystemMetadataIndex.Entry;
 import org.jclouds.filesystem.util.Utils;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.annotations.ParamValidators;
 
-import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
@@ -91,6 +104,7 @@ import com.google.common.primitives.Longs;
  * (blobs that end with a /) cannot have content, but otherwise appear in
  * LIST like normal blobs.
  */
+@Singleton
 public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
    private static final String XATTR_CONTENT_DISPOSITION = "user.content-disposition";
@@ -102,6 +116,8 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    private static final String XATTR_USER_METADATA_PREFIX = "user.user-metadata.";
    private static final byte[] DIRECTORY_MD5 =
            Hashing.md5().hashBytes(new byte[0]).asBytes();
+   private static final Set<String> CONTENT_METADATA_XATTRS = ImmutableSet.of(XATTR_CONTENT_DISPOSITION,
+           XATTR_CONTENT_ENCODING, XATTR_CONTENT_LANGUAGE, XATTR_CONTENT_TYPE);
 
    private static final String BACK_SLASH = "\\";
 
@@ -111,6 +127,8 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    protected final Provider<BlobBuilder> blobBuilders;
    protected final String baseDirectory;
    protected final boolean autoDetectContentType;
+   protected final boolean hardLinkCopies;
+   private final FilesystemMetadataIndex metadataIndex;
    protected final FilesystemContainerNameValidator filesystemContainerNameValidator;
    protected final FilesystemBlobKeyValidator filesystemBlobKeyValidator;
 
@@ -118,14 +136,24 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
          @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
          @Named(FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE) boolean autoDetectContentType,
+         @Named(FilesystemConstants.PROPERTY_HARD_LINK_COPIES) boolean hardLinkCopies,
+         @Named(FilesystemConstants.PROPERTY_METADATA_INDEX) boolean metadataIndex,
          FilesystemContainerNameValidator filesystemContainerNameValidator,
          FilesystemBlobKeyValidator filesystemBlobKeyValidator) {
       this.blobBuilders = checkNotNull(blobBuilders, "filesystem storage strategy blobBuilders");
       this.baseDirectory = checkNotNull(baseDir, "filesystem storage strategy base directory");
       this.autoDetectContentType = autoDetectContentType;
+      this.hardLinkCopies = hardLinkCopies;
       this.filesystemContainerNameValidator = checkNotNull(filesystemContainerNameValidator,
             "filesystem container name validator");
       this.filesystemBlobKeyValidator = checkNotNull(filesystemBlobKeyValidator, "filesystem blob key validator");
+      this.metadataIndex = metadataIndex ? new FilesystemMetadataIndex(new File(buildPathStartingFromBaseDir()),
+            File.separator, new FilesystemMetadataIndex.Scanner() {
+               @Override
+               public Iterable<Entry> scan(String container) throws IOException {
+                  return scanEntries(container);
+               }
+            }) : null;
    }
 
    @Override
@@ -232,20 +260,48 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    }
 
    @Override
-   public void clearContainer(String container, ListContainerOptions options) {
+   public void clearContainer(final String container, ListContainerOptions options) {
       filesystemContainerNameValidator.validate(container);
+      String folder = container;
       if (options.getDir() != null) {
-         container += denormalize("/" + options.getDir());
+         folder += denormalize("/" + options.getDir());
       }
       try {
-         File containerFile = openFolder(container);
-         File[] children = containerFile.listFiles();
-         if (null != children) {
-            for (File child : children)
-               if (options.isRecursive() || child.isFile()) {
-                  Utils.deleteRecursively(child);
-               }
+         final Path root = openFolder(folder).toPath();
+         if (java.nio.file.Files.isDirectory(root)) {
+            if (options.isRecursive()) {
+               walkFileTree(root, new SimpleFileVisitor<Path>() {
+                  @Override
+                  public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                     delete(file);
+                     return FileVisitResult.CONTINUE;
+                  }
+
+                  @Override
+                  public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                     if (e != null)
+                        throw e;
+                     if (!dir.equals(root))
+                        delete(dir);
+                     return FileVisitResult.CONTINUE;
+                  }
+               });
+            } else {
+               // a depth of one visits the children of root along with their attributes
+               walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+                  @Override
+                  public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                     if (!attrs.isDirectory()) {
+                        delete(file);
+                        updateMetadataIndex(container, file);
+                     }
+                     return FileVisitResult.CONTINUE;
+                  }
+               });
+               return;
+            }
          }
+         invalidateMetadataIndex(container);
       } catch (IOException e) {
          logger.error(e, "An error occurred while clearing container %s", container);
          Throwables.propagate(e);
@@ -294,17 +350,18 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       filesystemContainerNameValidator.validate(container);
       // check if container exists
       // TODO maybe an error is more appropriate
-      Set<String> blobNames = Sets.newHashSet();
+      final Set<String> blobNames = Sets.newHashSet();
       if (!containerExists(container)) {
          return blobNames;
       }
+      if (metadataIndex != null) {
+         return metadataIndex.keys(container);
+      }
 
-      File containerFile = openFolder(container);
-      final int containerPathLength = containerFile.getAbsolutePath().length() + 1;
-      populateBlobKeysInContainer(containerFile, blobNames, new Function<String, String>() {
+      walkBlobKeys(container, new BlobKeyVisitor() {
          @Override
-         public String apply(String string) {
-            return string.substring(containerPathLength);
+         void visit(String key, Path path, BasicFileAttributes attrs) {
+            blobNames.add(key);
          }
       });
       return blobNames;
@@ -317,82 +374,96 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       File file = getFileForBlobKey(container, key);
       ByteSource byteSource;
 
-      if (getDirectoryBlobSuffix(key) != null) {
+      boolean directory = getDirectoryBlobSuffix(key) != null;
+      if (directory) {
          logger.debug("%s - %s is a directory", container, key);
          byteSource = ByteSource.empty();
       } else {
          byteSource = Files.asByteSource(file);
       }
+      Entry entry;
+      String contentType;
       try {
-         String contentDisposition = null;
-         String contentEncoding = null;
-         String contentLanguage = null;
-         String contentType = null;
-         HashCode hashCode = null;
-         Date expires = null;
-         ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
-
-         UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(file.toPath());
-         if (view != null) {
-            Set<String> attributes = ImmutableSet.copyOf(view.list());
-
-            contentDisposition = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_DISPOSITION);
-            contentEncoding = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_ENCODING);
-            contentLanguage = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_LANGUAGE);
-            contentType = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_TYPE);
-            if (contentType == null && autoDetectContentType) {
-               contentType = probeContentType(file.toPath());
-            }
-            if (attributes.contains(XATTR_CONTENT_MD5)) {
-               ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_CONTENT_MD5));
-               view.read(XATTR_CONTENT_MD5, buf);
-               hashCode = HashCode.fromBytes(buf.array());
-            }
-            if (attributes.contains(XATTR_EXPIRES)) {
-               ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_EXPIRES));
-               view.read(XATTR_EXPIRES, buf);
-               buf.flip();
-               expires = new Date(buf.asLongBuffer().get());
-            }
-            for (String attribute : attributes) {
-               if (!attribute.startsWith(XATTR_USER_METADATA_PREFIX)) {
-                  continue;
-               }
-               String value = readStringAttributeIfPresent(view, attributes, attribute);
-               userMetadata.put(attribute.substring(XATTR_USER_METADATA_PREFIX.length()), value);
-            }
-
-            if (hashCode == null) {
-                // content-md5 xattr not found; recompute
-                hashCode = byteSource.hash(Hashing.md5());
-            }
-
-            builder.payload(byteSource)
-               .contentDisposition(contentDisposition)
-               .contentEncoding(contentEncoding)
-               .contentLanguage(contentLanguage)
-               .contentLength(byteSource.size())
-               .contentMD5(hashCode)
-               .contentType(contentType)
-               .expires(expires)
-               .userMetadata(userMetadata.build());
+         Optional<Entry> indexed = metadataIndex != null ? metadataIndex.get(container, indexKey(container, key))
+               : Optional.<Entry> absent();
+         if (indexed.isPresent()) {
+            entry = indexed.get();
          } else {
-            builder.payload(byteSource)
-               .contentLength(byteSource.size())
-               .contentMD5(byteSource.hash(Hashing.md5()).asBytes());
+            Path path = file.toPath();
+            entry = readEntry(indexKey(container, key), path, readAttributes(path, BasicFileAttributes.class));
+         }
+         contentType = entry.contentType;
+         if (contentType == null && autoDetectContentType) {
+            contentType = probeContentType(file.toPath());
          }
       } catch (IOException e) {
          throw Throwables.propagate(e);
       }
+      builder.payload(byteSource)
+         .contentDisposition(entry.contentDisposition)
+         .contentEncoding(entry.contentEncoding)
+         .contentLanguage(entry.contentLanguage)
+         .contentLength(directory ? 0 : entry.size)
+         .contentMD5(HashCode.fromString(entry.contentMD5))
+         .contentType(contentType)
+         .expires(entry.expires == null ? null : new Date(entry.expires))
+         .userMetadata(entry.userMetadata == null ? ImmutableMap.<String, String> of() : entry.userMetadata);
       Blob blob = builder.build();
       blob.getMetadata().setContainer(container);
-      blob.getMetadata().setLastModified(new Date(file.lastModified()));
-      blob.getMetadata().setSize(file.length());
-      if (blob.getPayload().getContentMetadata().getContentMD5() != null)
-         blob.getMetadata().setETag(base16().lowerCase().encode(blob.getPayload().getContentMetadata().getContentMD5()));
+      blob.getMetadata().setLastModified(new Date(entry.lastModified));
+      blob.getMetadata().setSize(entry.size);
+      blob.getMetadata().setETag(entry.contentMD5);
       return blob;
    }
 
+   /**
+    * Reads the metadata of a blob from the attributes of its file, computing its content MD5 if no extended attribute
+    * holds it. Reads never write to the file; the index keeps the computed MD5 when enabled.
+    */
+   private Entry readEntry(String key, Path path, BasicFileAttributes attrs) throws IOException {
+      Entry entry = new Entry();
+      entry.key = key;
+      entry.size = attrs.size();
+      entry.lastModified = attrs.lastModifiedTime().toMillis();
+      HashCode hashCode = null;
+      UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(path);
+      if (view != null) {
+         Set<String> attributes = ImmutableSet.copyOf(view.list());
+         entry.contentDisposition = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_DISPOSITION);
+         entry.contentEncoding = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_ENCODING);
+         entry.contentLanguage = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_LANGUAGE);
+         entry.contentType = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_TYPE);
+         if (attributes.contains(XATTR_CONTENT_MD5)) {
+            ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_CONTENT_MD5));
+            view.read(XATTR_CONTENT_MD5, buf);
+            hashCode = HashCode.fromBytes(buf.array());
+         }
+         if (attributes.contains(XATTR_EXPIRES)) {
+            ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_EXPIRES));
+            view.read(XATTR_EXPIRES, buf);
+            buf.flip();
+            entry.expires = buf.asLongBuffer().get();
+         }
+         ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
+         for (String attribute : attributes) {
+            if (!attribute.startsWith(XATTR_USER_METADATA_PREFIX)) {
+               continue;
+            }
+            String value = readStringAttributeIfPresent(view, attributes, attribute);
+            userMetadata.put(attribute.substring(XATTR_USER_METADATA_PREFIX.length()), value);
+         }
+         entry.userMetadata = userMetadata.build();
+      }
+      if (attrs.isDirectory()) {
+         hashCode = HashCode.fromBytes(DIRECTORY_MD5);
+      } else if (hashCode == null) {
+         // content-md5 xattr not found; recompute
+         hashCode = Files.asByteSource(path.toFile()).hash(Hashing.md5());
+      }
+      entry.contentMD5 = base16().lowerCase().encode(hashCode.asBytes());
+      return entry;
+   }
+
    private void writeCommonMetadataAttr(UserDefinedFileAttributeView view, Blob blob) throws IOException {
       ContentMetadata metadata = blob.getMetadata().getContentMetadata();
       writeStringAttributeIfPresent(view, XATTR_CONTENT_DISPOSITION, metadata.getContentDisposition());
@@ -435,6 +506,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       } else {
          logger.warn("xattr not supported on %s", blobKey);
       }
+      updateMetadataIndex(containerName, outputPath);
 
       return base16().lowerCase().encode(DIRECTORY_MD5);
    }
@@ -474,6 +546,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
             }
          }
          setBlobAccess(containerName, blobKey, BlobAccess.PRIVATE);
+         updateMetadataIndex(containerName, outputPath);
          return base16().lowerCase().encode(actualHashCode.asBytes());
       } catch (IOException ex) {
          if (outputFile != null) {
@@ -490,6 +563,118 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       }
    }
 
+   /**
+    * Copies the file with {@link java.nio.file.Files#copy}, or hard links it when configured to and source and
+    * target share a file store, and carries the extended attributes over so the content is never rehashed.
+    */
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) throws IOException {
+      File sourceFile = getFileForBlobKey(fromContainer, fromName);
+      File targetFile = getFileForBlobKey(toContainer, toName);
+      Path sourcePath = sourceFile.toPath();
+      Path targetPath = targetFile.toPath();
+      boolean directory = getDirectoryBlobSuffix(fromName) != null;
+      // copying a blob onto itself only rewrites its metadata
+      boolean sameFile = sourceFile.getCanonicalFile().equals(targetFile.getCanonicalFile());
+      boolean linked = false;
+
+      if (directory) {
+         if (!targetFile.isDirectory() && !targetFile.mkdirs()) {
+            throw new IOException("Unable to mkdir: " + targetPath);
+         }
+      } else if (!sameFile) {
+         Files.createParentDirs(targetFile);
+         targetFile.delete();
+         // linked files share their xattrs, so only link when the metadata is not overridden
+         if (hardLinkCopies && !options.getContentMetadata().isPresent() && !options.getUserMetadata().isPresent()) {
+            try {
+               createLink(targetPath, sourcePath);
+               linked = true;
+            } catch (IOException | UnsupportedOperationException e) {
+               logger.debug("Could not link %s to %s, copying instead", targetPath, sourcePath);
+            }
+         }
+         if (!linked) {
+            copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+         }
+      }
+
+      HashCode hashCode = null;
+      UserDefinedFileAttributeView sourceView = getUserDefinedFileAttributeView(sourcePath);
+      UserDefinedFileAttributeView targetView = getUserDefinedFileAttributeView(targetPath);
+      if (sourceView != null) {
+         Set<String> attributes = ImmutableSet.copyOf(sourceView.list());
+         if (attributes.contains(XATTR_CONTENT_MD5)) {
+            ByteBuffer buf = ByteBuffer.allocate(sourceView.size(XATTR_CONTENT_MD5));
+            sourceView.read(XATTR_CONTENT_MD5, buf);
+            hashCode = HashCode.fromBytes(buf.array());
+         }
+         if (!linked && targetView != null) {
+            try {
+               copyMetadataAttrs(sourceView, attributes, targetView, options);
+            } catch (IOException e) {
+               logger.debug("xattrs not supported on %s", targetPath);
+            }
+         }
+      }
+
+      if (hashCode == null) {
+         // content-md5 xattr not found; compute it once and store it with the copy
+         hashCode = directory ? HashCode.fromBytes(DIRECTORY_MD5) : Files.asByteSource(targetFile).hash(Hashing.md5());
+         if (targetView != null) {
+            try {
+               targetView.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(hashCode.asBytes()));
+            } catch (IOException e) {
+               logger.debug("xattrs not supported on %s", targetPath);
+            }
+         }
+      }
+
+      if (!linked && !directory) {
+         setBlobAccess(toContainer, toName, BlobAccess.PRIVATE);
+      }
+      updateMetadataIndex(toContainer, targetPath);
+      return base16().lowerCase().encode(hashCode.asBytes());
+   }
+
+   private void copyMetadataAttrs(UserDefinedFileAttributeView sourceView, Set<String> attributes,
+         UserDefinedFileAttributeView targetView, CopyOptions options) throws IOException {
+      boolean overrideContentMetadata = options.getContentMetadata().isPresent();
+      boolean overrideUserMetadata = options.getUserMetadata().isPresent();
+      // the target may already exist, as when copying onto itself, so drop what is being replaced
+      for (String attribute : targetView.list()) {
+         if ((overrideContentMetadata && CONTENT_METADATA_XATTRS.contains(attribute))
+               || (overrideUserMetadata && attribute.startsWith(XATTR_USER_METADATA_PREFIX))) {
+            targetView.delete(attribute);
+         }
+      }
+      for (String attribute : attributes) {
+         if (overrideContentMetadata && CONTENT_METADATA_XATTRS.contains(attribute)) {
+            continue;
+         }
+         if (overrideUserMetadata && attribute.startsWith(XATTR_USER_METADATA_PREFIX)) {
+            continue;
+         }
+         ByteBuffer buf = ByteBuffer.allocate(sourceView.size(attribute));
+         sourceView.read(attribute, buf);
+         buf.flip();
+         targetView.write(attribute, buf);
+      }
+      if (overrideContentMetadata) {
+         ContentMetadata metadata = options.getContentMetadata().get();
+         writeStringAttributeIfPresent(targetView, XATTR_CONTENT_DISPOSITION, metadata.getContentDisposition());
+         writeStringAttributeIfPresent(targetView, XATTR_CONTENT_ENCODING, metadata.getContentEncoding());
+         writeStringAttributeIfPresent(targetView, XATTR_CONTENT_LANGUAGE, metadata.getContentLanguage());
+         writeStringAttributeIfPresent(targetView, XATTR_CONTENT_TYPE, metadata.getContentType());
+      }
+      if (overrideUserMetadata) {
+         for (Map.Entry<String, String> entry : options.getUserMetadata().get().entrySet()) {
+            writeStringAttributeIfPresent(targetView, XATTR_USER_METADATA_PREFIX + entry.getKey(), entry.getValue());
+         }
+      }
+   }
+
    @Override
    public void removeBlob(final String container, final String blobKey) {
       filesystemContainerNameValidator.validate(container);
@@ -517,6 +702,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       // now examine if the key of the blob is a complex key (with a directory structure)
       // and eventually remove empty directory
       removeDirectoriesTreeOfBlobKey(container, blobKey);
+      updateMetadataIndexQuietly(container, fileToBeDeleted.toPath());
    }
 
    @Override
@@ -614,7 +800,9 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    }
 
    public void createDirectory(String container, String directory) {
-      createDirectoryWithResult(container, directory);
+      if (createDirectoryWithResult(container, directory) && directory != null) {
+         updateMetadataIndexQuietly(container, new File(buildPathStartingFromBaseDir(container, directory)).toPath());
+      }
    }
 
    public void deleteDirectory(String container, String directory) {
@@ -622,6 +810,11 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       String fullDirPath = buildPathStartingFromBaseDir(container, directory);
       try {
          Utils.deleteRecursively(new File(fullDirPath));
+         if (directory == null) {
+            deleteMetadataIndex(container);
+         } else {
+            invalidateMetadataIndex(container);
+         }
       } catch (IOException ex) {
          logger.error("An error occurred removing directory %s.", fullDirPath);
          Throwables.propagate(ex);
@@ -631,7 +824,20 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    public long countBlobs(String container, ListContainerOptions options) {
       // TODO: honor options
       try {
-         return Iterables.size(getBlobKeysInsideContainer(container));
+         if (!containerExists(container)) {
+            return 0;
+         }
+         if (metadataIndex != null) {
+            return metadataIndex.count(container);
+         }
+         final AtomicLong count = new AtomicLong();
+         walkBlobKeys(container, new BlobKeyVisitor() {
+            @Override
+            void visit(String key, Path path, BasicFileAttributes attrs) {
+               count.incrementAndGet();
+            }
+         });
+         return count.get();
       } catch (IOException ioe) {
          throw Throwables.propagate(ioe);
       }
@@ -790,6 +996,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
                logger.debug("Could not delete %s", directory);
                return;
             }
+            updateMetadataIndexQuietly(container, directory.toPath());
             // recursively call for removing other path
             removeDirectoriesTreeOfBlobKey(container, parentPath);
          }
@@ -807,19 +1014,123 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return folder;
    }
 
-   private static void populateBlobKeysInContainer(File directory, Set<String> blobNames,
-         Function<String, String> function) {
-      File[] children = directory.listFiles();
-      if (children == null) {
+   /**
+    * Receives every file and directory below a container, directories keyed with a trailing separator, along with the
+    * attributes read while walking it.
+    */
+   private abstract static class BlobKeyVisitor extends SimpleFileVisitor<Path> {
+      private Path root;
+
+      abstract void visit(String key, Path path, BasicFileAttributes attrs) throws IOException;
+
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+         if (!dir.equals(root)) {
+            visit(root.relativize(dir).toString() + File.separator, dir, attrs);
+         }
+         return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+         if (attrs.isRegularFile()) {
+            visit(root.relativize(file).toString(), file, attrs);
+         }
+         return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException e) {
+         // vanished while walking, or a cycle of links
+         return FileVisitResult.CONTINUE;
+      }
+   }
+
+   private void walkBlobKeys(String container, BlobKeyVisitor visitor) throws IOException {
+      visitor.root = openFolder(container).toPath();
+      walkFileTree(visitor.root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, visitor);
+   }
+
+   private Iterable<Entry> scanEntries(String container) throws IOException {
+      final ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+      walkBlobKeys(container, new BlobKeyVisitor() {
+         @Override
+         void visit(String key, Path path, BasicFileAttributes attrs) throws IOException {
+            entries.add(readEntry(key, path, attrs));
+         }
+      });
+      return entries.build();
+   }
+
+   private String indexKey(String container, String key) throws IOException {
+      String indexKey = openFolder(container).toPath().relativize(getFileForBlobKey(container, key).toPath())
+            .toString();
+      return getDirectoryBlobSuffix(key) != null ? indexKey + File.separator : indexKey;
+   }
+
+   /**
+    * Brings the index entry of the file or directory at path in line with the file system.
+    */
+   private void updateMetadataIndex(String container, Path path) throws IOException {
+      if (metadataIndex == null) {
          return;
       }
-      for (File child : children) {
-         if (child.isFile()) {
-            blobNames.add( function.apply(child.getAbsolutePath()) );
-         } else if (child.isDirectory()) {
-            blobNames.add(function.apply(child.getAbsolutePath()) + File.separator); // TODO: undo if failures
-            populateBlobKeysInContainer(child, blobNames, function);
+      String key = openFolder(container).toPath().relativize(path).toString();
+      if (java.nio.file.Files.exists(path)) {
+         BasicFileAttributes attrs = readAttributes(path, BasicFileAttributes.class);
+         if (attrs.isDirectory()) {
+            key += File.separator;
          }
+         metadataIndex.put(container, readEntry(key, path, attrs));
+      } else {
+         metadataIndex.remove(container, key);
+         metadataIndex.remove(container, key + File.separator);
+      }
+   }
+
+   private void updateMetadataIndexQuietly(String container, Path path) {
+      try {
+         updateMetadataIndex(container, path);
+      } catch (IOException e) {
+         logger.debug("Could not update the metadata index of %s, rebuilding it", container);
+         invalidateMetadataIndex(container);
+      }
+   }
+
+   private void invalidateMetadataIndex(String container) {
+      if (metadataIndex == null) {
+         return;
+      }
+      try {
+         metadataIndex.invalidate(container);
+      } catch (IOException e) {
+         logger.error(e, "Could not invalidate the metadata index of %s", container);
+      }
+   }
+
+   private void deleteMetadataIndex(String container) {
+      if (metadataIndex == null) {
+         return;
+      }
+      try {
+         metadataIndex.delete(container);
+      } catch (IOException e) {
+         logger.error(e, "Could not delete the metadata index of %s", container);
+      }
+   }
+
+   /**
+    * Closes the logs of the metadata index along with the context.
+    */
+   @PreDestroy
+   public void close() {
+      if (metadataIndex == null) {
+         return;
+      }
+      try {
+         metadataIndex.close();
+      } catch (IOException e) {
+         logger.error(e, "Could not close the metadata index");
       }
    }
 
@@ -27,6 +27,7 @@ import static org.testng.Assert.fail;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -36,6 +37,7 @@ import javax.inject.Provider;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
+import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemBlobKeyValidatorImpl;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemContainerNameValidatorImpl;
@@ -49,6 +51,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
@@ -83,7 +86,7 @@ public class FilesystemStorageStrategyImplTest {
             return new BlobBuilderImpl();
          }
 
-      }, TestUtils.TARGET_BASE_DIR, false, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
+      }, TestUtils.TARGET_BASE_DIR, false, false, false, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
       TestUtils.cleanDirectoryContent(TestUtils.TARGET_BASE_DIR);
       TestUtils.createResources();
    }
@@ -376,7 +379,7 @@ public class FilesystemStorageStrategyImplTest {
              public BlobBuilder get() {
                 return new BlobBuilderImpl();
              }
-          }, TestUtils.TARGET_BASE_DIR, true, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
+          }, TestUtils.TARGET_BASE_DIR, true, false, false, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
 
       String blobKey = TestUtils.createRandomBlobKey("file-", ".jpg");
       TestUtils.createBlobsInContainer(CONTAINER_NAME, blobKey);
@@ -510,7 +513,7 @@ public class FilesystemStorageStrategyImplTest {
                   public BlobBuilder get() {
                      return new BlobBuilderImpl();
                   }
-               }, absoluteBasePath, false, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
+               }, absoluteBasePath, false, false, false, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
       TestUtils.cleanDirectoryContent(absoluteContainerPath);
 
       String blobKey;
@@ -607,6 +610,98 @@ public class FilesystemStorageStrategyImplTest {
       storageStrategy.countBlobs(CONTAINER_NAME, ListContainerOptions.NONE);
    }
 
+   public void testCountsBlobWithContent() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, new String[] {
+               TestUtils.createRandomBlobKey("countBlobs-", ".jpg"),
+               TestUtils.createRandomBlobKey("563" + FS + "countBlobs-", ".jpg") });
+      // two blobs and one directory
+      assertEquals(storageStrategy.countBlobs(CONTAINER_NAME, ListContainerOptions.NONE), 3);
+   }
+
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testMetadataIndex() throws Exception {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      String existingKey = TestUtils.createRandomBlobKey("index-", ".jpg");
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, existingKey);
+      FilesystemStorageStrategyImpl indexedStrategy = newIndexedStorageStrategy();
+      assertEquals(ImmutableSet.copyOf(indexedStrategy.getBlobKeysInsideContainer(CONTAINER_NAME)),
+            ImmutableSet.of(existingKey));
+
+      String blobKey = "idx" + FS + TestUtils.createRandomBlobKey("index-", ".img");
+      Blob blob = new BlobBuilderImpl()
+            .name(blobKey)
+            .payload(randomByteSource().slice(0, 1024))
+            .contentType("application/x-test")
+            .userMetadata(ImmutableMap.of("key1", "value1"))
+            .build();
+      String etag = indexedStrategy.putBlob(CONTAINER_NAME, blob);
+      assertEquals(ImmutableSet.copyOf(indexedStrategy.getBlobKeysInsideContainer(CONTAINER_NAME)),
+            ImmutableSet.of(existingKey, "idx" + FS, blobKey));
+      assertEquals(indexedStrategy.countBlobs(CONTAINER_NAME, ListContainerOptions.NONE), 3);
+
+      // a new instance replays the index written by the first one
+      indexedStrategy = newIndexedStorageStrategy();
+      blob = indexedStrategy.getBlob(CONTAINER_NAME, blobKey);
+      assertEquals(blob.getMetadata().getETag(), etag);
+      assertEquals(blob.getMetadata().getSize(), Long.valueOf(1024));
+      assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "application/x-test");
+      assertEquals(blob.getMetadata().getUserMetadata().get("key1"), "value1");
+
+      indexedStrategy.removeBlob(CONTAINER_NAME, blobKey);
+      assertEquals(ImmutableSet.copyOf(indexedStrategy.getBlobKeysInsideContainer(CONTAINER_NAME)),
+            ImmutableSet.of(existingKey));
+
+      indexedStrategy.clearContainer(CONTAINER_NAME);
+      assertFalse(indexedStrategy.getBlobKeysInsideContainer(CONTAINER_NAME).iterator().hasNext());
+   }
+
+   public void testNonRecursiveClearKeepsNestedBlobsInMetadataIndex() throws Exception {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      String topKey = TestUtils.createRandomBlobKey("clear-", ".jpg");
+      String nestedKey = "nested" + FS + TestUtils.createRandomBlobKey("clear-", ".jpg");
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, new String[] { topKey, nestedKey });
+      FilesystemStorageStrategyImpl indexedStrategy = newIndexedStorageStrategy();
+      assertEquals(ImmutableSet.copyOf(indexedStrategy.getBlobKeysInsideContainer(CONTAINER_NAME)),
+            ImmutableSet.of(topKey, "nested" + FS, nestedKey));
+
+      indexedStrategy.clearContainer(CONTAINER_NAME, ListContainerOptions.NONE);
+      assertEquals(ImmutableSet.copyOf(indexedStrategy.getBlobKeysInsideContainer(CONTAINER_NAME)),
+            ImmutableSet.of("nested" + FS, nestedKey));
+
+      indexedStrategy.deleteContainer(CONTAINER_NAME);
+      assertFalse(new File(TestUtils.TARGET_BASE_DIR, ".jclouds-index-" + CONTAINER_NAME).exists());
+      indexedStrategy.close();
+   }
+
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testGetBlobDoesNotWriteContentMD5() throws Exception {
+      String blobKey = TestUtils.createRandomBlobKey("readOnly-", ".jpg");
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, blobKey);
+      File file = storageStrategy.getFileForBlobKey(CONTAINER_NAME, blobKey);
+      long lastModified = file.lastModified();
+
+      Blob blob = storageStrategy.getBlob(CONTAINER_NAME, blobKey);
+      assertEquals(blob.getMetadata().getETag(), base16().lowerCase().encode(Files.asByteSource(file).hash(
+            Hashing.md5()).asBytes()));
+      UserDefinedFileAttributeView view = java.nio.file.Files.getFileAttributeView(file.toPath(),
+            UserDefinedFileAttributeView.class);
+      if (view != null) {
+         assertFalse(view.list().contains("user.content-md5"));
+      }
+      assertEquals(file.lastModified(), lastModified);
+   }
+
+   private static FilesystemStorageStrategyImpl newIndexedStorageStrategy() {
+      return new FilesystemStorageStrategyImpl(new Provider<BlobBuilder>() {
+         @Override
+         public BlobBuilder get() {
+            return new BlobBuilderImpl();
+         }
+      }, TestUtils.TARGET_BASE_DIR, false, false, true, new FilesystemContainerNameValidatorImpl(),
+            new FilesystemBlobKeyValidatorImpl());
+   }
+
    public void testInvalidBlobKey() {
       try {
          storageStrategy.newBlob(FS + "test.jpg");
@@ -650,6 +745,77 @@ public class FilesystemStorageStrategyImplTest {
       assertFalse(blob.getMetadata().getUserMetadata().containsKey("key1"));
    }
 
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testCopyBlobKeepsMetadata() throws Exception {
+      String blobKey = TestUtils.createRandomBlobKey("copyPayload-", ".img");
+      String copyKey = TestUtils.createRandomBlobKey("copyPayload-", ".img");
+      ByteSource content = randomByteSource().slice(0, 1024);
+
+      Blob blob = new BlobBuilderImpl()
+            .name(blobKey)
+            .payload(content)
+            .contentType("application/x-test")
+            .userMetadata(ImmutableMap.of("key1", "value1"))
+            .build();
+      String etag = storageStrategy.putBlob(CONTAINER_NAME, blob);
+
+      assertEquals(storageStrategy.copyBlob(CONTAINER_NAME, blobKey, CONTAINER_NAME, copyKey, CopyOptions.NONE), etag);
+
+      blob = storageStrategy.getBlob(CONTAINER_NAME, copyKey);
+      assertEquals(blob.getMetadata().getETag(), etag);
+      assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "application/x-test");
+      assertEquals(blob.getMetadata().getUserMetadata().get("key1"), "value1");
+      assertTrue(content.contentEquals(Files.asByteSource(storageStrategy.getFileForBlobKey(CONTAINER_NAME,
+            copyKey))));
+   }
+
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testCopyBlobReplacesUserMetadata() throws Exception {
+      String blobKey = TestUtils.createRandomBlobKey("copyPayload-", ".img");
+      String copyKey = TestUtils.createRandomBlobKey("copyPayload-", ".img");
+
+      Blob blob = new BlobBuilderImpl()
+            .name(blobKey)
+            .payload(randomByteSource().slice(0, 1024))
+            .userMetadata(ImmutableMap.of("key1", "value1"))
+            .build();
+      storageStrategy.putBlob(CONTAINER_NAME, blob);
+
+      storageStrategy.copyBlob(CONTAINER_NAME, blobKey, CONTAINER_NAME, copyKey,
+            CopyOptions.builder().userMetadata(ImmutableMap.of("key2", "value2")).build());
+
+      blob = storageStrategy.getBlob(CONTAINER_NAME, copyKey);
+      assertFalse(blob.getMetadata().getUserMetadata().containsKey("key1"));
+      assertEquals(blob.getMetadata().getUserMetadata().get("key2"), "value2");
+      blob = storageStrategy.getBlob(CONTAINER_NAME, blobKey);
+      assertEquals(blob.getMetadata().getUserMetadata().get("key1"), "value1");
+   }
+
+   @Test(dataProvider = "ignoreOnMacOSX")
+   public void testCopyBlobOntoItself() throws Exception {
+      String blobKey = TestUtils.createRandomBlobKey("copyPayload-", ".img");
+      ByteSource content = randomByteSource().slice(0, 1024);
+
+      Blob blob = new BlobBuilderImpl()
+            .name(blobKey)
+            .payload(content)
+            .userMetadata(ImmutableMap.of("key1", "value1"))
+            .build();
+      String etag = storageStrategy.putBlob(CONTAINER_NAME, blob);
+
+      assertEquals(storageStrategy.copyBlob(CONTAINER_NAME, blobKey, CONTAINER_NAME, blobKey, CopyOptions.NONE), etag);
+      assertTrue(content.contentEquals(Files.asByteSource(storageStrategy.getFileForBlobKey(CONTAINER_NAME,
+            blobKey))));
+
+      assertEquals(storageStrategy.copyBlob(CONTAINER_NAME, blobKey, CONTAINER_NAME, blobKey,
+            CopyOptions.builder().userMetadata(ImmutableMap.of("key2", "value2")).build()), etag);
+      blob = storageStrategy.getBlob(CONTAINER_NAME, blobKey);
+      assertFalse(blob.getMetadata().getUserMetadata().containsKey("key1"));
+      assertEquals(blob.getMetadata().getUserMetadata().get("key2"), "value2");
+      assertTrue(content.contentEquals(Files.asByteSource(storageStrategy.getFileForBlobKey(CONTAINER_NAME,
+            blobKey))));
+   }
+
    // This test will become irrelevant if the JVM starts supporting
    // user extended attributes on HFS+. Nobody will complain.
    @Test(dataProvider = "onlyOnMacOSX")
@@ -21,6 +21,7 @@ import static org.jclouds.openstack.keystone.v2_0.config.KeystoneProperties.CRED
 import static org.jclouds.openstack.keystone.v2_0.config.KeystoneProperties.SERVICE_TYPE;
 import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.AUTO_ALLOCATE_FLOATING_IPS;
 import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.AUTO_GENERATE_KEYPAIRS;
+import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.FLOATING_IP_INDEX_TTL;
 import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.TIMEOUT_SECURITYGROUP_PRESENT;
 import static org.jclouds.reflect.Reflection2.typeToken;
 
@@ -71,6 +72,7 @@ public class NovaApiMetadata extends BaseHttpApiMetadata<NovaApi>  {
       properties.setProperty(CREDENTIAL_TYPE, CredentialTypes.PASSWORD_CREDENTIALS);
       properties.setProperty(AUTO_ALLOCATE_FLOATING_IPS, "false");
       properties.setProperty(AUTO_GENERATE_KEYPAIRS, "false");
+      properties.setProperty(FLOATING_IP_INDEX_TTL, "10000");
       properties.setProperty(TIMEOUT_SECURITYGROUP_PRESENT, "500");
       // Keystone 1.1 expires tokens after 24 hours and allows renewal 1 hour
       // before expiry by default.  We choose a value less than the latter
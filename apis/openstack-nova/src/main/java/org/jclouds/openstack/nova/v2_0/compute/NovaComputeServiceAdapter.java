@@ -18,22 +18,38 @@ package org.jclouds.openstack.nova.v2_0.compute;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.collect.Iterables.contains;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.base.Predicates.in;
 import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Iterables.transform;
+import static com.google.common.collect.Multimaps.filterKeys;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.jclouds.compute.util.ComputeServiceUtils.metadataAndTagsAsCommaDelimitedValue;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.jclouds.Constants;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterables;
 import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.ComputeServiceAdapter.ListsNodesMatchingCriteria;
+import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LoginCredentials;
@@ -54,24 +70,42 @@ import org.jclouds.openstack.nova.v2_0.domain.regionscoped.ImageInRegion;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionAndId;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionAndName;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.ServerInRegion;
+import org.jclouds.openstack.nova.v2_0.features.ServerApi;
 import org.jclouds.openstack.nova.v2_0.options.CreateServerOptions;
+import org.jclouds.openstack.nova.v2_0.options.ListServerOptions;
 import org.jclouds.openstack.nova.v2_0.predicates.ImagePredicates;
+import org.jclouds.openstack.v2_0.options.PaginationOptions;
 
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.base.Splitter;
 import com.google.common.base.Supplier;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * The adapter used by the NovaComputeServiceContextModule to interface the nova-specific domain
  * model to the computeService generic domain model.
  */
 public class NovaComputeServiceAdapter implements
-         ComputeServiceAdapter<ServerInRegion, FlavorInRegion, ImageInRegion, Location> {
+         ComputeServiceAdapter<ServerInRegion, FlavorInRegion, ImageInRegion, Location>,
+         ListsNodesMatchingCriteria<ServerInRegion> {
+
+   /**
+    * Above this many servers in one region, {@link #listNodesByIds} lists the region once instead of getting each
+    * server.
+    */
+   protected static final int MAX_SERVERS_TO_GET_BY_ID = 10;
 
    @Resource
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
@@ -81,16 +115,22 @@ public class NovaComputeServiceAdapter implements
    protected final Supplier<Set<String>> regionIds;
    protected final RemoveFloatingIpFromNodeAndDeallocate removeFloatingIpFromNodeAndDeallocate;
    protected final LoadingCache<RegionAndName, KeyPair> keyPairCache;
+   protected final ListeningExecutorService userExecutor;
+   protected final Map<Server.Status, NodeMetadata.Status> serverToNodeStatus;
 
    @Inject
    public NovaComputeServiceAdapter(NovaApi novaApi, @Region Supplier<Set<String>> regionIds,
             RemoveFloatingIpFromNodeAndDeallocate removeFloatingIpFromNodeAndDeallocate,
-            LoadingCache<RegionAndName, KeyPair> keyPairCache) {
+            LoadingCache<RegionAndName, KeyPair> keyPairCache,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            Map<Server.Status, NodeMetadata.Status> serverToNodeStatus) {
       this.novaApi = checkNotNull(novaApi, "novaApi");
       this.regionIds = checkNotNull(regionIds, "regionIds");
       this.removeFloatingIpFromNodeAndDeallocate = checkNotNull(removeFloatingIpFromNodeAndDeallocate,
                "removeFloatingIpFromNodeAndDeallocate");
       this.keyPairCache = checkNotNull(keyPairCache, "keyPairCache");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.serverToNodeStatus = checkNotNull(serverToNodeStatus, "serverToNodeStatus");
    }
 
    /**
@@ -160,84 +200,217 @@ public class NovaComputeServiceAdapter implements
 
    @Override
    public Iterable<FlavorInRegion> listHardwareProfiles() {
-      Builder<FlavorInRegion> builder = ImmutableSet.builder();
-      for (final String regionId : regionIds.get()) {
-         builder.addAll(transform(novaApi.getFlavorApi(regionId).listInDetail().concat(),
-                  new Function<Flavor, FlavorInRegion>() {
+      return concurrently(regionIds.get(), new Function<String, Iterable<FlavorInRegion>>() {
 
-                     @Override
-                     public FlavorInRegion apply(Flavor arg0) {
-                        return new FlavorInRegion(arg0, regionId);
-                     }
+         @Override
+         public Iterable<FlavorInRegion> apply(String regionId) {
+            return listHardwareProfilesInRegion(regionId);
+         }
 
-                  }));
-      }
-      return builder.build();
+      });
+   }
+
+   protected Iterable<FlavorInRegion> listHardwareProfilesInRegion(final String regionId) {
+      return novaApi.getFlavorApi(regionId).listInDetail().concat().transform(new Function<Flavor, FlavorInRegion>() {
+
+         @Override
+         public FlavorInRegion apply(Flavor arg0) {
+            return new FlavorInRegion(arg0, regionId);
+         }
+
+      }).toList();
    }
 
    @Override
    public Iterable<ImageInRegion> listImages() {
-      Builder<ImageInRegion> builder = ImmutableSet.builder();
       Set<String> regions = regionIds.get();
       checkState(!regions.isEmpty(), "no regions found in supplier %s", regionIds);
-      for (final String regionId : regions) {
-         Set<? extends Image> images = novaApi.getImageApi(regionId).listInDetail().concat().toSet();
-         if (images.isEmpty()) {
-            logger.debug("no images found in region %s", regionId);
-            continue;
-         }
-         Iterable<? extends Image> active = filter(images, ImagePredicates.statusEquals(Image.Status.ACTIVE));
-         if (images.isEmpty()) {
-            logger.debug("no images with status active in region %s; non-active: %s", regionId,
-                     transform(active, new Function<Image, String>() {
-
-                        @Override
-                        public String apply(Image input) {
-                           return Objects.toStringHelper("").add("id", input.getId()).add("status", input.getStatus())
-                                    .toString();
-                        }
-
-                     }));
-            continue;
+      return concurrently(regions, new Function<String, Iterable<ImageInRegion>>() {
+
+         @Override
+         public Iterable<ImageInRegion> apply(String regionId) {
+            return listImagesInRegion(regionId);
          }
-         builder.addAll(transform(active, new Function<Image, ImageInRegion>() {
 
-            @Override
-            public ImageInRegion apply(Image arg0) {
-               return new ImageInRegion(arg0, regionId);
-            }
+      });
+   }
 
-         }));
+   protected Iterable<ImageInRegion> listImagesInRegion(final String regionId) {
+      Set<? extends Image> images = novaApi.getImageApi(regionId).listInDetail().concat().toSet();
+      if (images.isEmpty()) {
+         logger.debug("no images found in region %s", regionId);
+         return ImmutableSet.of();
       }
-      return builder.build();
+      Iterable<? extends Image> active = filter(images, ImagePredicates.statusEquals(Image.Status.ACTIVE));
+      if (images.isEmpty()) {
+         logger.debug("no images with status active in region %s; non-active: %s", regionId,
+                  transform(active, new Function<Image, String>() {
+
+                     @Override
+                     public String apply(Image input) {
+                        return Objects.toStringHelper("").add("id", input.getId()).add("status", input.getStatus())
+                                 .toString();
+                     }
+
+                  }));
+         return ImmutableSet.of();
+      }
+      return ImmutableSet.copyOf(transform(active, new Function<Image, ImageInRegion>() {
+
+         @Override
+         public ImageInRegion apply(Image arg0) {
+            return new ImageInRegion(arg0, regionId);
+         }
+
+      }));
    }
 
    @Override
    public Iterable<ServerInRegion> listNodes() {
-      Builder<ServerInRegion> builder = ImmutableSet.builder();
-      for (final String regionId : regionIds.get()) {
-         builder.addAll(novaApi.getServerApi(regionId).listInDetail().concat()
-                  .transform(new Function<Server, ServerInRegion>() {
+      return listNodes(new ListServerOptions());
+   }
 
-                     @Override
-                     public ServerInRegion apply(Server arg0) {
-                        return new ServerInRegion(arg0, regionId);
-                     }
+   /**
+    * Lists the nodes created or changed since the given date, including the ones deleted since then, so that a
+    * refresh only transfers what changed.
+    */
+   public Iterable<ServerInRegion> listNodesChangedSince(Date since) {
+      return listNodes(ListServerOptions.Builder.changesSince(since));
+   }
 
-                  }));
+   /**
+    * Looks ids up with {@link #listNodesByIds}, and has Nova filter on the status when only one server status maps to
+    * the statuses requested, as it accepts a single one. Groups are left to the caller, as a server's group may come
+    * from its metadata, which Nova can not filter on.
+    */
+   @Override
+   public Iterable<ServerInRegion> listNodesMatching(NodeCriteria criteria) {
+      if (criteria.getIds().isPresent())
+         return listNodesByIds(criteria.getIds().get());
+      if (criteria.getStatuses().isPresent()) {
+         Set<Server.Status> statuses = ImmutableSet.copyOf(Maps.filterValues(serverToNodeStatus,
+               in(criteria.getStatuses().get())).keySet());
+         if (statuses.size() == 1)
+            return listNodes(ListServerOptions.Builder.status(getOnlyElement(statuses)));
       }
-      return builder.build();
+      return listNodes();
    }
 
+   private Iterable<ServerInRegion> listNodes(final ListServerOptions options) {
+      return concurrently(regionIds.get(), new Function<String, Iterable<ServerInRegion>>() {
+
+         @Override
+         public Iterable<ServerInRegion> apply(String regionId) {
+            return listNodesInRegion(regionId, options);
+         }
+
+      });
+   }
+
+   protected Iterable<ServerInRegion> listNodesInRegion(final String regionId, ListServerOptions options) {
+      final ServerApi serverApi = novaApi.getServerApi(regionId);
+      return PagedIterables.advance(serverApi.listInDetail(options), new Function<Object, IterableWithMarker<Server>>() {
+
+         @Override
+         public IterableWithMarker<Server> apply(Object input) {
+            return serverApi.listInDetail(PaginationOptions.class.cast(input));
+         }
+
+      }).concat().transform(new Function<Server, ServerInRegion>() {
+
+         @Override
+         public ServerInRegion apply(Server arg0) {
+            return new ServerInRegion(arg0, regionId);
+         }
+
+      }).toList();
+   }
+
+   /**
+    * Looks the servers up by id in each of their regions concurrently, falling back to a single listing of the region
+    * when more than {@link #MAX_SERVERS_TO_GET_BY_ID} of its servers are requested.
+    */
    @Override
    public Iterable<ServerInRegion> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<ServerInRegion>() {
+      SetMultimap<String, String> serverIdsByRegion = LinkedHashMultimap.create();
+      for (String id : ids) {
+         // ids not in the form regionId/id can not match a server
+         List<String> parts = Splitter.on('/').splitToList(id);
+         if (parts.size() == 2)
+            serverIdsByRegion.put(parts.get(0), parts.get(1));
+      }
+      // regions not configured for this context can not be reached
+      return concurrently(filterKeys(serverIdsByRegion, in(regionIds.get())).asMap().entrySet(),
+            new Function<Map.Entry<String, Collection<String>>, Iterable<ServerInRegion>>() {
+
+               @Override
+               public Iterable<ServerInRegion> apply(Map.Entry<String, Collection<String>> serverIdsInRegion) {
+                  return listNodesInRegionByIds(serverIdsInRegion.getKey(), serverIdsInRegion.getValue());
+               }
+
+            });
+   }
+
+   protected Iterable<ServerInRegion> listNodesInRegionByIds(String regionId, final Collection<String> serverIds) {
+      if (serverIds.size() > MAX_SERVERS_TO_GET_BY_ID) {
+         return filter(listNodesInRegion(regionId, new ListServerOptions()), new Predicate<ServerInRegion>() {
 
             @Override
             public boolean apply(ServerInRegion server) {
-               return contains(ids, server.slashEncode());
+               return serverIds.contains(server.getServer().getId());
+            }
+
+         });
+      }
+      ServerApi serverApi = novaApi.getServerApi(regionId);
+      Builder<ServerInRegion> builder = ImmutableSet.builder();
+      for (String serverId : serverIds) {
+         Server server = serverApi.get(serverId);
+         if (server != null) {
+            builder.add(new ServerInRegion(server, regionId));
+         }
+      }
+      return builder.build();
+   }
+
+   /**
+    * Applies the function to each input concurrently on the user executor. The calling thread runs the inputs the
+    * executor has not started yet, so that this completes even when called from a saturated user executor.
+    */
+   protected <F, T> Iterable<T> concurrently(Iterable<F> inputs, final Function<? super F, ? extends Iterable<T>> function) {
+      List<ListenableFutureTask<Iterable<T>>> tasks = Lists.newArrayList();
+      for (final F input : inputs) {
+         ListenableFutureTask<Iterable<T>> task = ListenableFutureTask.create(new Callable<Iterable<T>>() {
+
+            @Override
+            public Iterable<T> call() {
+               return ImmutableList.copyOf(function.apply(input));
             }
+
          });
+         tasks.add(task);
+         try {
+            userExecutor.execute(task);
+         } catch (RejectedExecutionException e) {
+            logger.trace("user executor rejected %s; running it in the calling thread", input);
+         }
+      }
+      ImmutableSet.Builder<T> results = ImmutableSet.builder();
+      for (ListenableFutureTask<Iterable<T>> task : tasks) {
+         // does nothing if the executor already started the task
+         task.run();
+      }
+      try {
+         for (ListenableFutureTask<Iterable<T>> task : tasks) {
+            results.addAll(task.get());
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         throw propagate(e.getCause());
+      }
+      return results.build();
    }
 
    @Override
@@ -19,6 +19,7 @@ package org.jclouds.openstack.nova.v2_0.compute.config;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.AUTO_ALLOCATE_FLOATING_IPS;
 import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.AUTO_GENERATE_KEYPAIRS;
+import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.FLOATING_IP_INDEX_TTL;
 import static org.jclouds.openstack.nova.v2_0.config.NovaProperties.TIMEOUT_SECURITYGROUP_PRESENT;
 import static org.jclouds.util.Predicates2.retry;
 
@@ -62,7 +63,7 @@ import org.jclouds.openstack.nova.v2_0.compute.functions.SecurityGroupRuleToIpPe
 import org.jclouds.openstack.nova.v2_0.compute.functions.ServerInRegionToNodeMetadata;
 import org.jclouds.openstack.nova.v2_0.compute.loaders.CreateUniqueKeyPair;
 import org.jclouds.openstack.nova.v2_0.compute.loaders.FindSecurityGroupOrCreate;
-import org.jclouds.openstack.nova.v2_0.compute.loaders.LoadFloatingIpsForInstance;
+import org.jclouds.openstack.nova.v2_0.compute.loaders.LoadFloatingIpsByInstance;
 import org.jclouds.openstack.nova.v2_0.compute.options.NovaTemplateOptions;
 import org.jclouds.openstack.nova.v2_0.compute.strategy.ApplyNovaTemplateOptionsCreateNodesWithGroupEncodedIntoNameThenAddToSet;
 import org.jclouds.openstack.nova.v2_0.domain.FloatingIP;
@@ -71,7 +72,6 @@ import org.jclouds.openstack.nova.v2_0.domain.SecurityGroupRule;
 import org.jclouds.openstack.nova.v2_0.domain.Server;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.FlavorInRegion;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.ImageInRegion;
-import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionAndId;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionAndName;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionSecurityGroupNameAndPorts;
 import org.jclouds.openstack.nova.v2_0.domain.regionscoped.SecurityGroupInRegion;
@@ -140,8 +140,8 @@ public class NovaComputeServiceContextModule extends
 
       bind(TemplateOptions.class).to(NovaTemplateOptions.class);
 
-      bind(new TypeLiteral<CacheLoader<RegionAndId, Iterable<? extends FloatingIP>>>() {
-      }).annotatedWith(Names.named("FLOATINGIP")).to(LoadFloatingIpsForInstance.class);
+      bind(new TypeLiteral<CacheLoader<String, Multimap<String, FloatingIP>>>() {
+      }).annotatedWith(Names.named("FLOATINGIP")).to(LoadFloatingIpsByInstance.class);
 
       bind(new TypeLiteral<Function<RegionSecurityGroupNameAndPorts, SecurityGroupInRegion>>() {
       }).to(CreateSecurityGroupIfNeeded.class);
@@ -171,12 +171,16 @@ public class NovaComputeServiceContextModule extends
                   Key.get(boolean.class, Names.named(AUTO_GENERATE_KEYPAIRS))));
    }
 
+   /**
+    * floating ips of each region by instance id, shared by all the nodes of a region
+    */
    @Provides
    @Singleton
    @Named("FLOATINGIP")
-   protected LoadingCache<RegionAndId, Iterable<? extends FloatingIP>> instanceToFloatingIps(
-            @Named("FLOATINGIP") CacheLoader<RegionAndId, Iterable<? extends FloatingIP>> in) {
-      return CacheBuilder.newBuilder().build(in);
+   protected LoadingCache<String, Multimap<String, FloatingIP>> regionToFloatingIpsByInstance(
+            @Named("FLOATINGIP") CacheLoader<String, Multimap<String, FloatingIP>> in,
+            @Named(FLOATING_IP_INDEX_TTL) long ttl) {
+      return CacheBuilder.newBuilder().expireAfterWrite(ttl, MILLISECONDS).build(in);
    }
 
    @Provides
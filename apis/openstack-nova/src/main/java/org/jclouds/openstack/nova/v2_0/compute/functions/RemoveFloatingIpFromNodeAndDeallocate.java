@@ -32,9 +32,13 @@ import org.jclouds.openstack.nova.v2_0.extensions.FloatingIPApi;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Multimap;
 
 /**
  * A function for removing and deallocating an ip address from a node
+ * <p/>
+ * The floating ips of the region are listed afresh rather than read from the {@code FLOATINGIP} cache, so that an ip
+ * assigned within the cache's time to live is not leaked when the node is destroyed.
  */
 public class RemoveFloatingIpFromNodeAndDeallocate implements Function<RegionAndId, RegionAndId> {
 
@@ -43,11 +47,11 @@ public class RemoveFloatingIpFromNodeAndDeallocate implements Function<RegionAnd
    protected Logger logger = Logger.NULL;
 
    private final NovaApi novaApi;
-   private final LoadingCache<RegionAndId, Iterable<? extends FloatingIP>> floatingIpCache;
+   private final LoadingCache<String, Multimap<String, FloatingIP>> floatingIpCache;
 
    @Inject
    public RemoveFloatingIpFromNodeAndDeallocate(NovaApi novaApi,
-            @Named("FLOATINGIP") LoadingCache<RegionAndId, Iterable<? extends FloatingIP>> floatingIpCache) {
+            @Named("FLOATINGIP") LoadingCache<String, Multimap<String, FloatingIP>> floatingIpCache) {
       this.novaApi = checkNotNull(novaApi, "novaApi");
       this.floatingIpCache = checkNotNull(floatingIpCache, "floatingIpCache");
    }
@@ -55,13 +59,18 @@ public class RemoveFloatingIpFromNodeAndDeallocate implements Function<RegionAnd
    @Override
    public RegionAndId apply(RegionAndId id) {
       FloatingIPApi floatingIpApi = novaApi.getFloatingIPApi(id.getRegion()).get();
-      for (FloatingIP ip : floatingIpCache.getUnchecked(id)) {
+      boolean removed = false;
+      for (FloatingIP ip : floatingIpApi.list()) {
+         if (!id.getId().equals(ip.getInstanceId()))
+            continue;
          logger.debug(">> removing floatingIp(%s) from node(%s)", ip, id);
          floatingIpApi.removeFromServer(ip.getIp(), id.getId());
          logger.debug(">> deallocating floatingIp(%s)", ip);
          floatingIpApi.delete(ip.getId());
+         removed = true;
       }
-      floatingIpCache.invalidate(id);
+      if (removed)
+         floatingIpCache.invalidate(id.getRegion());
       return id;
    }
 
@@ -21,41 +21,41 @@ import javax.inject.Singleton;
 
 import org.jclouds.openstack.nova.v2_0.NovaApi;
 import org.jclouds.openstack.nova.v2_0.domain.FloatingIP;
-import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionAndId;
 import org.jclouds.openstack.nova.v2_0.extensions.FloatingIPApi;
 
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.cache.CacheLoader;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
 
 /**
+ * Lists the floating ips of a region once and indexes them by the id of the instance they are assigned to, so that
+ * looking up the ips of many instances does not list the region for each of them.
+ * <p/>
  * Each region may or may not have the floating ip function present. In order to safely proceed, we
  * must allow the user to determine if a region has floating ip services before attempting to use
  * them.
  */
 @Singleton
-public class LoadFloatingIpsForInstance extends CacheLoader<RegionAndId, Iterable<? extends FloatingIP>> {
+public class LoadFloatingIpsByInstance extends CacheLoader<String, Multimap<String, FloatingIP>> {
    private final NovaApi api;
 
    @Inject
-   public LoadFloatingIpsForInstance(NovaApi api) {
+   public LoadFloatingIpsByInstance(NovaApi api) {
       this.api = api;
    }
 
    @Override
-   public Iterable<? extends FloatingIP> load(final RegionAndId key) throws Exception {
-      String region = key.getRegion();
+   public Multimap<String, FloatingIP> load(String region) throws Exception {
+      ImmutableListMultimap.Builder<String, FloatingIP> builder = ImmutableListMultimap.builder();
       Optional<? extends FloatingIPApi> ipApiOptional = api.getFloatingIPApi(region);
       if (ipApiOptional.isPresent()) {
-         return ipApiOptional.get().list().filter(
-                  new Predicate<FloatingIP>() {
-                     @Override
-                     public boolean apply(FloatingIP input) {
-                        return key.getId().equals(input.getInstanceId());
-                     }
-                  });
+         for (FloatingIP ip : ipApiOptional.get().list()) {
+            if (ip.getInstanceId() != null) {
+               builder.put(ip.getInstanceId(), ip);
+            }
+         }
       }
-      return ImmutableSet.of();
+      return builder.build();
    }
 }
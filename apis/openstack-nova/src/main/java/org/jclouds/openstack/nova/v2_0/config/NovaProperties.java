@@ -38,4 +38,11 @@ public class NovaProperties {
     */
    public static final String AUTO_GENERATE_KEYPAIRS = "jclouds.openstack-nova.auto-generate-keypairs";
 
+   /**
+    * How long the floating ips listed for a region are reused to look up the ips of its nodes when listing them (in
+    * ms). Destroying a node always lists the ips afresh, and allocating or deallocating floating ips through the
+    * compute service refreshes them immediately.
+    */
+   public static final String FLOATING_IP_INDEX_TTL = "jclouds.openstack-nova.floating-ip-index-ttl";
+
 }
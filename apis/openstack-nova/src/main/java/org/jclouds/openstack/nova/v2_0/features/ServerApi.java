@@ -105,6 +105,14 @@ public interface ServerApi {
    @Fallback(EmptyPagedIterableOnNotFoundOr404.class)
    PagedIterable<Server> listInDetail();
 
+   /**
+    * List one page of servers (all details)
+    *
+    * @param options
+    *           pagination, or {@link org.jclouds.openstack.nova.v2_0.options.ListServerOptions} to also filter the
+    *           servers on the server side
+    * @return a page of servers (all details)
+    */
    @Named("server:list")
    @GET
    @Path("/detail")
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.nova.v2_0.options;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Date;
+
+import org.jclouds.date.DateService;
+import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.openstack.nova.v2_0.domain.Server;
+
+/**
+ * Options used to filter the servers returned by {@code ServerApi.listInDetail(PaginationOptions)} on the server side.
+ * The filters are carried over to the links of the following pages.
+ *
+ * @see ListOptions
+ */
+public class ListServerOptions extends ListOptions {
+
+   private static final DateService dateService = new SimpleDateFormatDateService();
+
+   /**
+    * Only return servers whose name matches the given regular expression.
+    */
+   public ListServerOptions name(String name) {
+      this.queryParameters.put("name", checkNotNull(name, "name"));
+      return this;
+   }
+
+   /**
+    * Only return servers with the given status.
+    */
+   public ListServerOptions status(Server.Status status) {
+      this.queryParameters.put("status", checkNotNull(status, "status").value());
+      return this;
+   }
+
+   /**
+    * Only return servers booted from the given image.
+    */
+   public ListServerOptions image(String imageId) {
+      this.queryParameters.put("image", checkNotNull(imageId, "imageId"));
+      return this;
+   }
+
+   /**
+    * Only return servers of the given flavor.
+    */
+   public ListServerOptions flavor(String flavorId) {
+      this.queryParameters.put("flavor", checkNotNull(flavorId, "flavorId"));
+      return this;
+   }
+
+   /**
+    * Only return servers changed since the given date, including the ones deleted since then. Unlike the other
+    * lists, Nova expects the servers' {@code changes-since} as an ISO-8601 timestamp.
+    */
+   @Override
+   public ListServerOptions changesSince(Date changesSince) {
+      this.queryParameters.put("changes-since",
+            dateService.iso8601SecondsDateFormat(checkNotNull(changesSince, "changesSince")));
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public ListServerOptions limit(int limit) {
+      super.limit(limit);
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public ListServerOptions marker(String marker) {
+      super.marker(marker);
+      return this;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see ListServerOptions#name(String)
+       */
+      public static ListServerOptions name(String name) {
+         return new ListServerOptions().name(name);
+      }
+
+      /**
+       * @see ListServerOptions#status(Server.Status)
+       */
+      public static ListServerOptions status(Server.Status status) {
+         return new ListServerOptions().status(status);
+      }
+
+      /**
+       * @see ListServerOptions#image(String)
+       */
+      public static ListServerOptions image(String imageId) {
+         return new ListServerOptions().image(imageId);
+      }
+
+      /**
+       * @see ListServerOptions#flavor(String)
+       */
+      public static ListServerOptions flavor(String flavorId) {
+         return new ListServerOptions().flavor(flavorId);
+      }
+
+      /**
+       * @see ListServerOptions#changesSince(Date)
+       */
+      public static ListServerOptions changesSince(Date since) {
+         return new ListServerOptions().changesSince(since);
+      }
+
+      /**
+       * @see ListServerOptions#limit(int)
+       */
+      public static ListServerOptions limit(int limit) {
+         return new ListServerOptions().limit(limit);
+      }
+   }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.nova.v2_0.compute;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.compute.predicates.NodeCriteria;
+import org.jclouds.compute.predicates.NodePredicates;
+import org.jclouds.openstack.nova.v2_0.NovaApi;
+import org.jclouds.openstack.nova.v2_0.compute.config.NovaComputeServiceContextModule;
+import org.jclouds.openstack.nova.v2_0.compute.functions.RemoveFloatingIpFromNodeAndDeallocate;
+import org.jclouds.openstack.nova.v2_0.domain.FloatingIP;
+import org.jclouds.openstack.nova.v2_0.domain.KeyPair;
+import org.jclouds.openstack.nova.v2_0.domain.Server;
+import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionAndName;
+import org.jclouds.openstack.nova.v2_0.domain.regionscoped.ServerInRegion;
+import org.jclouds.openstack.nova.v2_0.features.ServerApi;
+import org.jclouds.openstack.nova.v2_0.options.ListServerOptions;
+import org.jclouds.openstack.v2_0.domain.Link;
+import org.jclouds.openstack.v2_0.domain.PaginatedCollection;
+import org.jclouds.openstack.v2_0.domain.Resource;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Tests how {@link NovaComputeServiceAdapter} spreads its listings over the regions and filters them.
+ */
+@Test(groups = "unit", singleThreaded = true, testName = "NovaComputeServiceAdapterTest")
+public class NovaComputeServiceAdapterTest {
+
+   private NovaApi novaApi;
+   private ServerApi east;
+   private ServerApi west;
+   private ListeningExecutorService userExecutor;
+   private NovaComputeServiceAdapter adapter;
+
+   @BeforeMethod
+   public void setUp() {
+      novaApi = createMock(NovaApi.class);
+      east = createMock(ServerApi.class);
+      west = createMock(ServerApi.class);
+      expect(novaApi.getServerApi("east")).andReturn(east).anyTimes();
+      expect(novaApi.getServerApi("west")).andReturn(west).anyTimes();
+      // a single thread, so that nested listings would wait on each other if the caller did not run them
+      userExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1));
+      adapter = new NovaComputeServiceAdapter(novaApi, Suppliers.<Set<String>> ofInstance(ImmutableSet.of("east",
+            "west")), new RemoveFloatingIpFromNodeAndDeallocate(novaApi,
+            CacheBuilder.newBuilder().build(new UnsupportedLoader<String, Multimap<String, FloatingIP>>())),
+            CacheBuilder.newBuilder().build(new UnsupportedLoader<RegionAndName, KeyPair>()), userExecutor,
+            NovaComputeServiceContextModule.toPortableNodeStatus);
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      userExecutor.shutdownNow();
+   }
+
+   public void testListNodesListsEveryRegion() {
+      expect(east.listInDetail(isA(ListServerOptions.class))).andReturn(servers(server("1")));
+      expect(west.listInDetail(isA(ListServerOptions.class))).andReturn(servers(server("2")));
+      replay(novaApi, east, west);
+
+      assertEquals(slashEncoded(adapter.listNodes()), ImmutableSet.of("east/1", "west/2"));
+      verify(novaApi, east, west);
+   }
+
+   public void testListNodesFromTheSaturatedUserExecutorCompletes() throws Exception {
+      expect(east.listInDetail(isA(ListServerOptions.class))).andReturn(servers(server("1")));
+      expect(west.listInDetail(isA(ListServerOptions.class))).andReturn(servers(server("2")));
+      replay(novaApi, east, west);
+
+      Iterable<ServerInRegion> nodes = userExecutor.submit(new Callable<Iterable<ServerInRegion>>() {
+         @Override
+         public Iterable<ServerInRegion> call() {
+            return adapter.listNodes();
+         }
+      }).get(10, TimeUnit.SECONDS);
+
+      assertEquals(slashEncoded(nodes), ImmutableSet.of("east/1", "west/2"));
+      verify(novaApi, east, west);
+   }
+
+   public void testListNodesByIdsGetsEachServerAndSkipsMalformedIdsAndOtherRegions() {
+      expect(east.get("1")).andReturn(server("1"));
+      expect(east.get("2")).andReturn(null);
+      expect(west.get("3")).andReturn(server("3"));
+      replay(novaApi, east, west);
+
+      assertEquals(slashEncoded(adapter.listNodesByIds(ImmutableList.of("east/1", "east/2", "west/3", "north/4",
+            "malformed", "too/many/parts"))), ImmutableSet.of("east/1", "west/3"));
+      verify(novaApi, east, west);
+   }
+
+   public void testListNodesByIdsListsTheRegionAboveTheLimit() {
+      List<String> ids = Lists.newArrayList();
+      for (int i = 0; i <= NovaComputeServiceAdapter.MAX_SERVERS_TO_GET_BY_ID; i++)
+         ids.add("east/" + i);
+      expect(east.listInDetail(isA(ListServerOptions.class))).andReturn(
+            servers(server("0"), server("5"), server("other")));
+      expect(west.get("1")).andReturn(server("1"));
+      replay(novaApi, east, west);
+
+      ids.add("west/1");
+      assertEquals(slashEncoded(adapter.listNodesByIds(ids)), ImmutableSet.of("east/0", "east/5", "west/1"));
+      verify(novaApi, east, west);
+   }
+
+   public void testListNodesMatchingRunningFiltersOnActive() {
+      ListServerOptions active = ListServerOptions.Builder.status(Server.Status.ACTIVE);
+      expect(east.listInDetail(active)).andReturn(servers(server("1")));
+      expect(west.listInDetail(active)).andReturn(servers());
+      replay(novaApi, east, west);
+
+      assertEquals(slashEncoded(adapter.listNodesMatching(NodeCriteria.of(NodePredicates.RUNNING).get())),
+            ImmutableSet.of("east/1"));
+      verify(novaApi, east, west);
+   }
+
+   public void testListNodesMatchingSeveralServerStatusesListsAll() {
+      ListServerOptions all = new ListServerOptions();
+      expect(east.listInDetail(all)).andReturn(servers(server("1")));
+      expect(west.listInDetail(all)).andReturn(servers(server("2")));
+      replay(novaApi, east, west);
+
+      assertEquals(slashEncoded(adapter.listNodesMatching(NodeCriteria.of(NodePredicates.SUSPENDED).get())),
+            ImmutableSet.of("east/1", "west/2"));
+      verify(novaApi, east, west);
+   }
+
+   public void testListNodesMatchingIdsGetsEachServer() {
+      expect(west.get("3")).andReturn(server("3"));
+      replay(novaApi, east, west);
+
+      assertEquals(slashEncoded(adapter.listNodesMatching(NodeCriteria.of(NodePredicates.withIds("west/3")).get())),
+            ImmutableSet.of("west/3"));
+      verify(novaApi, east, west);
+   }
+
+   private static Server server(String id) {
+      return Server.builder().id(id).tenantId("1234").userId("5678").name("server-" + id).created(new Date())
+            .status(Server.Status.ACTIVE).flavor(Resource.builder().id("100").build()).build();
+   }
+
+   private static PaginatedCollection<Server> servers(Server... servers) {
+      return new PaginatedCollection<Server>(ImmutableList.copyOf(servers), ImmutableSet.<Link> of()) {
+      };
+   }
+
+   private static Set<String> slashEncoded(Iterable<ServerInRegion> servers) {
+      ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+      for (ServerInRegion server : servers)
+         ids.add(server.slashEncode());
+      return ids.build();
+   }
+
+   private static class UnsupportedLoader<K, V> extends CacheLoader<K, V> {
+      @Override
+      public V load(K key) {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
@@ -25,16 +25,16 @@ import static org.testng.AssertJUnit.assertFalse;
 
 import org.jclouds.openstack.nova.v2_0.NovaApi;
 import org.jclouds.openstack.nova.v2_0.domain.FloatingIP;
-import org.jclouds.openstack.nova.v2_0.domain.regionscoped.RegionAndId;
 import org.jclouds.openstack.nova.v2_0.extensions.FloatingIPApi;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 
-@Test(groups = "unit", singleThreaded = true, testName = "LoadFloatingIpsForInstanceTest")
-public class LoadFloatingIpsForInstanceTest {
+@Test(groups = "unit", singleThreaded = true, testName = "LoadFloatingIpsByInstanceTest")
+public class LoadFloatingIpsByInstanceTest {
 
    @Test
    public void testReturnsPublicIpOnMatch() throws Exception {
@@ -49,9 +49,34 @@ public class LoadFloatingIpsForInstanceTest {
       replay(api);
       replay(ipApi);
 
-      LoadFloatingIpsForInstance parser = new LoadFloatingIpsForInstance(api);
+      LoadFloatingIpsByInstance parser = new LoadFloatingIpsByInstance(api);
 
-      assertEquals(ImmutableSet.copyOf(parser.load(RegionAndId.fromRegionAndId("RegionOne", "i-blah"))), ImmutableSet.of(testIp));
+      assertEquals(ImmutableSet.copyOf(parser.load("RegionOne").get("i-blah")), ImmutableSet.of(testIp));
+
+      verify(api);
+      verify(ipApi);
+   }
+
+   @Test
+   public void testIndexesAllInstancesWithOneListing() throws Exception {
+      NovaApi api = createMock(NovaApi.class);
+      FloatingIPApi ipApi = createMock(FloatingIPApi.class);
+      FloatingIP ip1 = FloatingIP.builder().id("1").ip("1.1.1.1").fixedIp("10.1.1.1").instanceId("i-blah").build();
+      FloatingIP ip2 = FloatingIP.builder().id("2").ip("1.1.1.2").fixedIp("10.1.1.2").instanceId("i-blah").build();
+      FloatingIP ip3 = FloatingIP.builder().id("3").ip("1.1.1.3").fixedIp("10.1.1.3").instanceId("i-other").build();
+
+      expect(api.getFloatingIPApi("RegionOne")).andReturn((Optional) Optional.of(ipApi)).once();
+      expect(ipApi.list()).andReturn((FluentIterable) FluentIterable.from(ImmutableSet.<FloatingIP> of(ip1, ip2, ip3)))
+               .once();
+
+      replay(api);
+      replay(ipApi);
+
+      LoadFloatingIpsByInstance parser = new LoadFloatingIpsByInstance(api);
+      Multimap<String, FloatingIP> ipsByInstance = parser.load("RegionOne");
+
+      assertEquals(ImmutableSet.copyOf(ipsByInstance.get("i-blah")), ImmutableSet.of(ip1, ip2));
+      assertEquals(ImmutableSet.copyOf(ipsByInstance.get("i-other")), ImmutableSet.of(ip3));
 
       verify(api);
       verify(ipApi);
@@ -70,9 +95,9 @@ public class LoadFloatingIpsForInstanceTest {
       replay(api);
       replay(ipApi);
 
-      LoadFloatingIpsForInstance parser = new LoadFloatingIpsForInstance(api);
+      LoadFloatingIpsByInstance parser = new LoadFloatingIpsByInstance(api);
 
-      assertFalse(parser.load(RegionAndId.fromRegionAndId("region", "i-blah")).iterator().hasNext());
+      assertFalse(parser.load("region").containsKey("i-blah"));
 
       verify(api);
       verify(ipApi);
@@ -92,9 +117,9 @@ public class LoadFloatingIpsForInstanceTest {
       replay(api);
       replay(ipApi);
 
-      LoadFloatingIpsForInstance parser = new LoadFloatingIpsForInstance(api);
+      LoadFloatingIpsByInstance parser = new LoadFloatingIpsByInstance(api);
 
-      assertFalse(parser.load(RegionAndId.fromRegionAndId("region", "i-blah")).iterator().hasNext());
+      assertFalse(parser.load("region").containsKey("i-blah"));
 
       verify(api);
       verify(ipApi);
@@ -20,6 +20,8 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.Date;
+
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.openstack.nova.v2_0.NovaApi;
@@ -27,6 +29,7 @@ import org.jclouds.openstack.nova.v2_0.domain.BlockDeviceMapping;
 import org.jclouds.openstack.nova.v2_0.domain.Server;
 import org.jclouds.openstack.nova.v2_0.internal.BaseNovaApiExpectTest;
 import org.jclouds.openstack.nova.v2_0.options.CreateServerOptions;
+import org.jclouds.openstack.nova.v2_0.options.ListServerOptions;
 import org.jclouds.openstack.nova.v2_0.options.RebuildServerOptions;
 import org.jclouds.openstack.nova.v2_0.parse.ParseCreatedServerTest;
 import org.jclouds.openstack.nova.v2_0.parse.ParseMetadataListTest;
@@ -100,6 +103,26 @@ public class ServerApiExpectTest extends BaseNovaApiExpectTest {
               new ParseServerDetailsStatesTest().expected().toString());
    }
 
+   public void testListInDetailServersWithFiltersWhenResponseIs2xx() throws Exception {
+      HttpRequest listServers = HttpRequest
+              .builder()
+              .method("GET")
+              .endpoint("https://az-1.region-a.geo-1.compute.hpcloudsvc.com/v2/3456/servers/detail?name=sample&status=ACTIVE&changes-since=2014-05-13T16%3A53%3A20Z")
+              .addHeader("Accept", "application/json")
+              .addHeader("X-Auth-Token", authToken).build();
+
+      HttpResponse listInDetailServersResponse = HttpResponse.builder().statusCode(200)
+              .payload(payloadFromResource("/server_list_details_states.json")).build();
+
+      NovaApi apiWhenServersExist = requestsSendResponses(keystoneAuthWithUsernameAndPasswordAndTenantName,
+              responseWithKeystoneAccess, listServers, listInDetailServersResponse);
+
+      ListServerOptions options = ListServerOptions.Builder.name("sample").status(Server.Status.ACTIVE)
+              .changesSince(new Date(1400000000000L));
+      assertEquals(ImmutableSet.copyOf(apiWhenServersExist.getServerApi("az-1.region-a.geo-1").listInDetail(options)).toString(),
+              new ParseServerDetailsStatesTest().expected().toString());
+   }
+
    public void testListInDetailServersWhenReponseIs404IsEmpty() throws Exception {
       HttpRequest listServers = HttpRequest
               .builder()
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.nova.v2_0.options;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Date;
+
+import org.jclouds.openstack.nova.v2_0.domain.Server;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests behavior of {@code ListServerOptions}
+ */
+@Test(groups = "unit")
+public class ListServerOptionsTest {
+
+   public void testChangesSinceIsIso8601() {
+      ListServerOptions options = ListServerOptions.Builder.changesSince(new Date(1400000000000L));
+      assertEquals(ImmutableList.of("2014-05-13T16:53:20Z"), options.buildQueryParameters().get("changes-since"));
+   }
+
+   public void testStatus() {
+      ListServerOptions options = ListServerOptions.Builder.status(Server.Status.ACTIVE);
+      assertEquals(ImmutableList.of("ACTIVE"), options.buildQueryParameters().get("status"));
+   }
+}
@@ -23,11 +23,14 @@ import java.util.Set;
 
 import javax.inject.Inject;
 
+import org.jclouds.Constants;
 import org.jclouds.Context;
 import org.jclouds.blobstore.BlobRequestSigner;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.ConcurrentBlobOperations;
 import org.jclouds.blobstore.attr.ConsistencyModel;
+import org.jclouds.blobstore.internal.ExecutorConcurrentBlobOperations;
 import org.jclouds.internal.BaseView;
 import org.jclouds.location.Provider;
 import org.jclouds.location.Region;
@@ -35,7 +38,13 @@ import org.jclouds.rest.Utils;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
 
 /**
  * Implementation of {@link BlobStoreContext} which allows you to employ
@@ -84,6 +93,17 @@ public class RegionScopedBlobStoreContext extends BaseView implements BlobStoreC
       return blobRequestSigner.apply(regionId);
    }
 
+   /**
+    * @param regionId
+    *           valid region id from {@link #getConfiguredRegions()}
+    * @throws IllegalArgumentException
+    *            if {@code regionId} was invalid.
+    */
+   public ConcurrentBlobOperations getConcurrentBlobOperations(String regionId) {
+      checkRegionId(regionId);
+      return concurrentBlobOperations.getUnchecked(regionId);
+   }
+
    protected void checkRegionId(String regionId) {
       checkArgument(getConfiguredRegions().contains(checkNotNull(regionId, "regionId was null")), "region %s not in %s",
             regionId, getConfiguredRegions());
@@ -97,6 +117,8 @@ public class RegionScopedBlobStoreContext extends BaseView implements BlobStoreC
    private final Function<String, BlobRequestSigner> blobRequestSigner;
    private final Utils utils;
    private final ConsistencyModel consistencyModel;
+   // one per region, so that all callers share its limit per container
+   private final LoadingCache<String, ConcurrentBlobOperations> concurrentBlobOperations;
 
    @Inject
    public RegionScopedBlobStoreContext(@Provider Context backend, @Provider TypeToken<? extends Context> backendType,
@@ -110,6 +132,18 @@ public class RegionScopedBlobStoreContext extends BaseView implements BlobStoreC
       this.blobRequestSigner = checkNotNull(blobRequestSigner, "blobRequestSigner");
       this.utils = checkNotNull(utils, "utils");
       this.consistencyModel = checkNotNull(consistencyModel, "consistencyModel");
+      this.concurrentBlobOperations = CacheBuilder.newBuilder().build(
+            new CacheLoader<String, ConcurrentBlobOperations>() {
+               @Override
+               public ConcurrentBlobOperations load(String regionId) {
+                  ListeningExecutorService userExecutor = utils().injector().getInstance(
+                        Key.get(ListeningExecutorService.class, Names.named(Constants.PROPERTY_USER_THREADS)));
+                  ConcurrentBlobOperations operations = new ExecutorConcurrentBlobOperations(getBlobStore(regionId),
+                        userExecutor);
+                  utils().injector().injectMembers(operations);
+                  return operations;
+               }
+            });
    }
 
    @Override
@@ -127,6 +161,11 @@ public class RegionScopedBlobStoreContext extends BaseView implements BlobStoreC
       return getSigner(implicitRegionId.get());
    }
 
+   @Override
+   public ConcurrentBlobOperations getConcurrentBlobOperations() {
+      return getConcurrentBlobOperations(implicitRegionId.get());
+   }
+
    @Override
    public Utils utils() {
       return utils;
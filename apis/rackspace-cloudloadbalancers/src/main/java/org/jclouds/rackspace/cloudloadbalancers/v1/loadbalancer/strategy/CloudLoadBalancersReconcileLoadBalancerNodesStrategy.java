@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.in;
+import static com.google.common.base.Predicates.not;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.loadbalancer.domain.LoadBalancerMetadata;
+import org.jclouds.loadbalancer.reference.LoadBalancerConstants;
+import org.jclouds.loadbalancer.strategy.GetLoadBalancerMetadataStrategy;
+import org.jclouds.loadbalancer.strategy.ReconcileLoadBalancerNodesStrategy;
+import org.jclouds.logging.Logger;
+import org.jclouds.rackspace.cloudloadbalancers.v1.CloudLoadBalancersApi;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.AddNode;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.LoadBalancer;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.Node;
+import org.jclouds.rackspace.cloudloadbalancers.v1.features.LoadBalancerApi;
+import org.jclouds.rackspace.cloudloadbalancers.v1.features.NodeApi;
+import org.jclouds.rackspace.cloudloadbalancers.v1.predicates.LoadBalancerPredicates;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Adds all missing nodes with one call and removes the extra ones in bulk. A load balancer only
+ * accepts a change while {@code ACTIVE}, so it is awaited before each call rather than after, and not
+ * at all when already active.
+ */
+@Singleton
+public class CloudLoadBalancersReconcileLoadBalancerNodesStrategy implements ReconcileLoadBalancerNodesStrategy {
+
+   /**
+    * Most node ids the api accepts in one {@link NodeApi#remove(Iterable)}.
+    */
+   @VisibleForTesting
+   static final int MAX_NODES_PER_REMOVE = 10;
+
+   @Resource
+   @Named(LoadBalancerConstants.LOADBALANCER_LOGGER)
+   protected Logger logger = Logger.NULL;
+   protected final CloudLoadBalancersApi client;
+   protected final GetLoadBalancerMetadataStrategy getLB;
+
+   @Inject
+   protected CloudLoadBalancersReconcileLoadBalancerNodesStrategy(CloudLoadBalancersApi client,
+            GetLoadBalancerMetadataStrategy getLB) {
+      this.client = checkNotNull(client, "client");
+      this.getLB = checkNotNull(getLB, "getLB");
+   }
+
+   @Override
+   public LoadBalancerMetadata reconcileLoadBalancerNodes(String id, int instancePort,
+            Iterable<? extends NodeMetadata> nodes) {
+      checkArgument(!Iterables.isEmpty(checkNotNull(nodes, "nodes")),
+               "a load balancer needs at least one node; destroy it instead of removing all of its nodes");
+      String[] parts = checkNotNull(id, "id").split("/");
+      String region = parts[0];
+      int lbId = Integer.parseInt(parts[1]);
+      LoadBalancerApi lbApi = client.getLoadBalancerApi(region);
+      LoadBalancer lb = lbApi.get(lbId);
+      if (lb == null)
+         return null;
+
+      Map<String, AddNode> desired = Maps.newLinkedHashMap();
+      for (NodeMetadata node : nodes) {
+         AddNode add = AddNode.builder().address(Iterables.get(node.getPrivateAddresses(), 0)).port(instancePort)
+                  .build();
+         desired.put(key(add.getAddress(), add.getPort()), add);
+      }
+      List<Integer> toRemove = Lists.newArrayList();
+      Set<String> current = Sets.newHashSet();
+      for (Node member : lb.getNodes()) {
+         String key = key(member.getAddress(), member.getPort());
+         current.add(key);
+         if (!desired.containsKey(key))
+            toRemove.add(member.getId());
+      }
+      List<AddNode> toAdd = ImmutableList.copyOf(Maps.filterKeys(desired, not(in(current))).values());
+      logger.debug(">> load balancer(%s): adding %d nodes, removing %d", id, toAdd.size(), toRemove.size());
+
+      NodeApi nodeApi = client.getNodeApi(region, lbId);
+      Predicate<LoadBalancer> available = LoadBalancerPredicates.awaitAvailable(lbApi);
+      boolean active = lb.getStatus() == LoadBalancer.Status.ACTIVE;
+      if (!toAdd.isEmpty()) {
+         awaitActive(id, lb, available, active);
+         nodeApi.add(toAdd);
+         active = false;
+      }
+      for (List<Integer> batch : Lists.partition(toRemove, MAX_NODES_PER_REMOVE)) {
+         awaitActive(id, lb, available, active);
+         nodeApi.remove(batch);
+         active = false;
+      }
+      logger.debug("<< load balancer(%s): added %d nodes, removed %d", id, toAdd.size(), toRemove.size());
+      return getLB.getLoadBalancer(id);
+   }
+
+   private void awaitActive(String id, LoadBalancer lb, Predicate<LoadBalancer> available, boolean active) {
+      if (!active && !available.apply(lb))
+         throw new IllegalStateException("load balancer(" + id + ") did not become active: " + lb);
+   }
+
+   private static String key(String address, int port) {
+      return address + ":" + port;
+   }
+}
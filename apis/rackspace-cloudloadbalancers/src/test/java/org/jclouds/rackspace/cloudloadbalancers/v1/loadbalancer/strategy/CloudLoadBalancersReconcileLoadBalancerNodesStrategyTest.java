@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.loadbalancer.domain.LoadBalancerMetadata;
+import org.jclouds.loadbalancer.strategy.GetLoadBalancerMetadataStrategy;
+import org.jclouds.rackspace.cloudloadbalancers.v1.CloudLoadBalancersApi;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.AddNode;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.LoadBalancer;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.Node;
+import org.jclouds.rackspace.cloudloadbalancers.v1.features.LoadBalancerApi;
+import org.jclouds.rackspace.cloudloadbalancers.v1.features.NodeApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "CloudLoadBalancersReconcileLoadBalancerNodesStrategyTest")
+public class CloudLoadBalancersReconcileLoadBalancerNodesStrategyTest {
+
+   /**
+    * Records the calls made to the node api and answers load balancer lookups with a fixed one.
+    */
+   private static class FakeApi implements InvocationHandler {
+      private final LoadBalancer lb;
+      private final List<String> calls = Lists.newArrayList();
+
+      private FakeApi(LoadBalancer lb) {
+         this.lb = lb;
+      }
+
+      private CloudLoadBalancersApi api() {
+         return proxy(CloudLoadBalancersApi.class);
+      }
+
+      private <T> T proxy(Class<T> type) {
+         return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, this));
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+         String name = method.getName();
+         if (name.equals("getLoadBalancerApi"))
+            return proxy(LoadBalancerApi.class);
+         if (name.equals("getNodeApi"))
+            return proxy(NodeApi.class);
+         if (method.getDeclaringClass() == LoadBalancerApi.class && name.equals("get")) {
+            calls.add("get");
+            return lb;
+         }
+         if (method.getDeclaringClass() == NodeApi.class && name.equals("add")) {
+            List<String> added = Lists.newArrayList();
+            for (AddNode node : (Iterable<AddNode>) args[0])
+               added.add(node.getAddress() + ":" + node.getPort());
+            calls.add("add" + added);
+            return ImmutableSet.of();
+         }
+         if (method.getDeclaringClass() == NodeApi.class && name.equals("remove")
+               && method.getParameterTypes()[0] == Iterable.class) {
+            calls.add("remove" + ImmutableList.copyOf((Iterable<?>) args[0]));
+            return null;
+         }
+         throw new UnsupportedOperationException(method.toString());
+      }
+   }
+
+   private static final GetLoadBalancerMetadataStrategy GET_LB = new GetLoadBalancerMetadataStrategy() {
+      @Override
+      public LoadBalancerMetadata getLoadBalancer(String id) {
+         return null;
+      }
+   };
+
+   private static LoadBalancer loadBalancer(Set<Node> nodes) {
+      return LoadBalancer.builder().region("DFW").id(2000).name("lb").protocol("HTTP").port(80)
+            .status(LoadBalancer.Status.ACTIVE).created(new Date(0)).updated(new Date(0)).nodes(nodes).build();
+   }
+
+   private static Node member(int id, String address, int port) {
+      return Node.builder().id(id).address(address).port(port).condition(Node.Condition.ENABLED)
+            .status(Node.Status.ONLINE).build();
+   }
+
+   private static NodeMetadata node(String address) {
+      return new NodeMetadataBuilder().ids(address).status(NodeMetadata.Status.RUNNING)
+            .privateAddresses(ImmutableSet.of(address)).build();
+   }
+
+   private static List<String> reconcile(FakeApi fake, Iterable<NodeMetadata> nodes) {
+      new CloudLoadBalancersReconcileLoadBalancerNodesStrategy(fake.api(), GET_LB).reconcileLoadBalancerNodes(
+            "DFW/2000", 80, nodes);
+      return fake.calls;
+   }
+
+   public void testAddsAndRemovesOnlyTheDifference() {
+      FakeApi fake = new FakeApi(loadBalancer(ImmutableSet.of(member(1, "10.0.0.1", 80), member(2, "10.0.0.2", 80),
+            member(3, "10.0.0.3", 8080))));
+
+      assertEquals(reconcile(fake, ImmutableList.of(node("10.0.0.1"), node("10.0.0.3"), node("10.0.0.4"),
+            node("10.0.0.5"))), ImmutableList.of("get", "add[10.0.0.3:80, 10.0.0.4:80, 10.0.0.5:80]", "get",
+            "remove[2, 3]"));
+   }
+
+   public void testRemovesInBatches() {
+      ImmutableSet.Builder<Node> members = ImmutableSet.builder();
+      for (int i = 1; i <= 25; i++)
+         members.add(member(i, "10.0.0." + i, 80));
+      FakeApi fake = new FakeApi(loadBalancer(members.build()));
+
+      List<String> calls = reconcile(fake, ImmutableList.of(node("10.0.0.1")));
+      assertEquals(calls.size(), 6);
+      assertEquals(calls.get(1).split(",").length, 10);
+      assertEquals(calls.get(3).split(",").length, 10);
+      assertEquals(calls.get(5).split(",").length, 4);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testRejectsRemovingAllNodes() {
+      FakeApi fake = new FakeApi(loadBalancer(ImmutableSet.of(member(1, "10.0.0.1", 80))));
+
+      try {
+         reconcile(fake, ImmutableList.<NodeMetadata> of());
+      } finally {
+         assertEquals(fake.calls, ImmutableList.of());
+      }
+   }
+
+   public void testNothingToDo() {
+      FakeApi fake = new FakeApi(loadBalancer(ImmutableSet.of(member(1, "10.0.0.1", 80))));
+
+      assertEquals(reconcile(fake, ImmutableList.of(node("10.0.0.1"))), ImmutableList.of("get"));
+   }
+
+   public void testMissingLoadBalancer() {
+      FakeApi fake = new FakeApi(null);
+
+      assertNull(new CloudLoadBalancersReconcileLoadBalancerNodesStrategy(fake.api(), GET_LB)
+            .reconcileLoadBalancerNodes("DFW/2000", 80, ImmutableList.of(node("10.0.0.1"))));
+   }
+}
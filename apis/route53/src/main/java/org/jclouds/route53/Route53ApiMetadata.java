@@ -18,6 +18,8 @@ package org.jclouds.route53;
 
 import static org.jclouds.aws.reference.AWSConstants.PROPERTY_AUTH_TAG;
 import static org.jclouds.aws.reference.AWSConstants.PROPERTY_HEADER_TAG;
+import static org.jclouds.route53.config.Route53Properties.BATCH_INTERVAL;
+import static org.jclouds.route53.config.Route53Properties.CHANGE_POLL_INTERVAL;
 
 import java.net.URI;
 import java.util.Properties;
@@ -51,6 +53,8 @@ public class Route53ApiMetadata extends BaseHttpApiMetadata<Route53Api> {
       Properties properties = BaseHttpApiMetadata.defaultProperties();
       properties.setProperty(PROPERTY_AUTH_TAG, "AWS");
       properties.setProperty(PROPERTY_HEADER_TAG, "amz");
+      properties.setProperty(BATCH_INTERVAL, "1000");
+      properties.setProperty(CHANGE_POLL_INTERVAL, "5000");
       return properties;
    }
 
@@ -0,0 +1,462 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.batch;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.concurrent.config.OptionalScheduler;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.config.Route53Properties;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Latency;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Weighted;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Coalesces writes to resource record sets into change batches.
+ * <p>
+ * Changes are held per hosted zone for {@link Route53Properties#BATCH_INTERVAL}
+ * and then submitted with as few {@code ChangeResourceRecordSets} requests as
+ * the limits of a change batch allow. Changes that contradict each other
+ * cancel out before they are sent: creating a record set and deleting it again
+ * sends nothing. A write that Route53 would reject after the changes held for
+ * the same record set, such as creating it twice or deleting records that are
+ * not the ones created, fails at once and leaves the held changes as they were.
+ * <p>
+ * The returned futures complete with the change once the batch holding it is
+ * in sync, as tracked by the shared {@link ChangeTracker}, or with null when
+ * the change cancelled out.
+ * <p>
+ * Batches are sent from the user executor, one zone at a time, in the order
+ * their changes were held. With
+ * {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule} in the
+ * context, the scheduler times the flushes and the polls for changes in sync.
+ * Otherwise a user thread sleeps through each wait.
+ */
+@Beta
+@Singleton
+public class BatchingResourceRecordSetWriter {
+
+   /**
+    * the maximum number of {@code Change} elements in a change batch
+    */
+   static final int MAX_CHANGES = 100;
+
+   /**
+    * the maximum number of {@code ResourceRecord} elements in a change batch
+    */
+   static final int MAX_RECORDS = 1000;
+
+   /**
+    * the maximum number of characters in the values of a change batch
+    */
+   static final int MAX_VALUE_CHARACTERS = 32000;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final Route53Api api;
+   private final ChangeTracker changeTracker;
+   private final ListeningExecutorService userExecutor;
+   private final Optional<ScheduledExecutorService> scheduler;
+   private final long batchInterval;
+
+   // guarded by this
+   private final Map<String, Map<ResourceRecordSet, Pending>> pendingByZone = Maps.newLinkedHashMap();
+   private boolean flushScheduled;
+
+   // held while taking and sending the changes of a zone
+   private final ConcurrentMap<String, Object> flushLocks = Maps.newConcurrentMap();
+
+   @Inject
+   BatchingResourceRecordSetWriter(Route53Api api, ChangeTracker changeTracker,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, OptionalScheduler scheduler,
+         @Named(Route53Properties.BATCH_INTERVAL) long batchInterval) {
+      this(api, changeTracker, userExecutor, scheduler.get(), batchInterval);
+   }
+
+   BatchingResourceRecordSetWriter(Route53Api api, ChangeTracker changeTracker, ListeningExecutorService userExecutor,
+         Optional<ScheduledExecutorService> scheduler, long batchInterval) {
+      this.api = checkNotNull(api, "api");
+      this.changeTracker = checkNotNull(changeTracker, "changeTracker");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.batchInterval = batchInterval;
+   }
+
+   /**
+    * schedules creation of the resource record set.
+    */
+   public ListenableFuture<Change> create(String zoneId, ResourceRecordSet rrs) {
+      return write(zoneId, null, checkNotNull(rrs, "rrs"));
+   }
+
+   /**
+    * schedules deletion of the resource record set.
+    */
+   public ListenableFuture<Change> delete(String zoneId, ResourceRecordSet rrs) {
+      return write(zoneId, checkNotNull(rrs, "rrs"), null);
+   }
+
+   /**
+    * schedules replacement of {@code existing} with {@code replacement}, or its
+    * creation if there is no existing resource record set.
+    * <p>
+    * As this version of the api has no {@code UPSERT} action, this is a delete
+    * and a create in the same batch, which Route53 applies atomically.
+    */
+   public ListenableFuture<Change> upsert(String zoneId, @Nullable ResourceRecordSet existing,
+         ResourceRecordSet replacement) {
+      checkNotNull(replacement, "replacement");
+      checkArgument(existing == null || existing.equals(replacement), "%s and %s are different record sets",
+            existing, replacement);
+      return write(zoneId, existing, replacement);
+   }
+
+   /**
+    * submits all held changes now.
+    */
+   public void flush() {
+      for (String zoneId : heldZones())
+         flush(zoneId);
+   }
+
+   private synchronized Iterable<String> heldZones() {
+      return ImmutableSet.copyOf(pendingByZone.keySet());
+   }
+
+   /**
+    * submits the changes held for the zone. A flush that runs at the same time
+    * waits, so that batches of a zone are sent in the order they were held.
+    */
+   private void flush(String zoneId) {
+      Object lock = flushLocks.get(zoneId);
+      if (lock == null) {
+         Object newLock = new Object();
+         lock = flushLocks.putIfAbsent(zoneId, newLock);
+         if (lock == null)
+            lock = newLock;
+      }
+      synchronized (lock) {
+         Map<ResourceRecordSet, Pending> toSubmit;
+         synchronized (this) {
+            toSubmit = pendingByZone.remove(zoneId);
+         }
+         if (toSubmit == null)
+            return;
+         for (List<Pending> batch : partition(toSubmit.values())) {
+            submit(zoneId, batch);
+         }
+      }
+   }
+
+   private ListenableFuture<Change> write(final String zoneId, @Nullable ResourceRecordSet toDelete,
+         @Nullable ResourceRecordSet toCreate) {
+      checkNotNull(zoneId, "zoneId");
+      SettableFuture<Change> future = SettableFuture.create();
+      List<SettableFuture<Change>> cancelledOut = ImmutableList.of();
+      IllegalStateException rejected = null;
+      boolean scheduleFlush = false;
+      boolean flushNow = false;
+      synchronized (this) {
+         Map<ResourceRecordSet, Pending> pending = pendingByZone.get(zoneId);
+         if (pending == null) {
+            pending = Maps.newLinkedHashMap();
+            pendingByZone.put(zoneId, pending);
+         }
+         ResourceRecordSet key = toCreate != null ? toCreate : toDelete;
+         Pending forKey = pending.get(key);
+         if (forKey == null) {
+            forKey = new Pending();
+            pending.put(key, forKey);
+         }
+         try {
+            forKey.write(toDelete, toCreate);
+         } catch (IllegalStateException e) {
+            // only changes held before can conflict, and those stay as they were
+            rejected = e;
+         }
+         if (rejected == null) {
+            forKey.futures.add(future);
+            if (forKey.isEmpty()) {
+               pending.remove(key);
+               cancelledOut = forKey.futures;
+            } else {
+               int changes = 0;
+               for (Pending held : pending.values())
+                  changes += held.changes();
+               flushNow = changes >= MAX_CHANGES;
+            }
+         }
+         if (!flushScheduled) {
+            flushScheduled = scheduleFlush = true;
+         }
+      }
+      if (rejected != null) {
+         future.setException(rejected);
+      }
+      for (SettableFuture<Change> cancelled : cancelledOut) {
+         cancelled.set(null);
+      }
+      if (flushNow) {
+         userExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               flush(zoneId);
+            }
+         });
+      }
+      if (scheduleFlush) {
+         scheduleFlush();
+      }
+      return future;
+   }
+
+   private void scheduleFlush() {
+      if (scheduler.isPresent()) {
+         try {
+            scheduler.get().schedule(new Runnable() {
+               @Override
+               public void run() {
+                  userExecutor.execute(new FlushAfterInterval(false));
+               }
+            }, batchInterval, MILLISECONDS);
+            return;
+         } catch (RejectedExecutionException e) {
+            logger.debug("<< scheduler rejected the flush, waiting on a user thread: %s", e.getMessage());
+         }
+      }
+      userExecutor.execute(new FlushAfterInterval(true));
+   }
+
+   private class FlushAfterInterval implements Runnable {
+      private final boolean sleepFirst;
+
+      private FlushAfterInterval(boolean sleepFirst) {
+         this.sleepFirst = sleepFirst;
+      }
+
+      @Override
+      public void run() {
+         if (sleepFirst) {
+            try {
+               Thread.sleep(batchInterval);
+            } catch (InterruptedException e) {
+               // flushes at once, as nothing else will
+               Thread.currentThread().interrupt();
+            }
+         }
+         synchronized (BatchingResourceRecordSetWriter.this) {
+            flushScheduled = false;
+         }
+         flush();
+      }
+   }
+
+   @VisibleForTesting
+   static List<List<Pending>> partition(Iterable<Pending> pending) {
+      List<List<Pending>> batches = Lists.newArrayList();
+      List<Pending> batch = Lists.newArrayList();
+      int changes = 0;
+      int records = 0;
+      int characters = 0;
+      for (Pending next : pending) {
+         if (!batch.isEmpty()
+               && (changes + next.changes() > MAX_CHANGES || records + next.records() > MAX_RECORDS
+                     || characters + next.characters() > MAX_VALUE_CHARACTERS)) {
+            batches.add(batch);
+            batch = Lists.newArrayList();
+            changes = records = characters = 0;
+         }
+         batch.add(next);
+         changes += next.changes();
+         records += next.records();
+         characters += next.characters();
+      }
+      if (!batch.isEmpty())
+         batches.add(batch);
+      return batches;
+   }
+
+   private void submit(String zoneId, List<Pending> batch) {
+      ChangeBatch.Builder changes = ChangeBatch.builder();
+      final List<SettableFuture<Change>> futures = Lists.newArrayList();
+      for (Pending pending : batch) {
+         if (pending.delete != null)
+            changes.delete(pending.delete);
+         if (pending.create != null)
+            changes.create(pending.create);
+         futures.addAll(pending.futures);
+      }
+      Change change;
+      try {
+         change = api.getResourceRecordSetApiForHostedZone(zoneId).apply(changes.build());
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< error applying changes to zone %s", zoneId);
+         for (SettableFuture<Change> future : futures) {
+            future.setException(e);
+         }
+         return;
+      }
+      logger.debug("<< applied %d changes to zone %s as %s", batch.size(), zoneId, change.getId());
+      Futures.addCallback(changeTracker.track(change), new FutureCallback<Change>() {
+         @Override
+         public void onSuccess(Change result) {
+            for (SettableFuture<Change> future : futures) {
+               future.set(result);
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            for (SettableFuture<Change> future : futures) {
+               future.setException(t);
+            }
+         }
+      }, userExecutor);
+   }
+
+   /**
+    * The net effect of the changes held for one resource record set: at most
+    * one delete of what exists now, followed by at most one create.
+    */
+   @VisibleForTesting
+   static final class Pending {
+      ResourceRecordSet delete;
+      ResourceRecordSet create;
+      final List<SettableFuture<Change>> futures = Lists.newArrayList();
+
+      /**
+       * adds a delete of {@code toDelete} followed by a create of
+       * {@code toCreate} to the held changes.
+       *
+       * @throws IllegalStateException
+       *            if Route53 would reject these changes after the held ones,
+       *            in which case the held changes stay as they were
+       */
+      void write(@Nullable ResourceRecordSet toDelete, @Nullable ResourceRecordSet toCreate) {
+         ResourceRecordSet delete = this.delete;
+         ResourceRecordSet create = this.create;
+         if (toDelete != null) {
+            if (create != null) {
+               checkState(sameRecords(create, toDelete), "cannot delete %s as %s is created in the same batch",
+                     toDelete, create);
+               // never sent, so the delete held before, if any, is all that is left
+               create = null;
+            } else {
+               checkState(delete == null, "%s is already deleted in the same batch", delete);
+               delete = toDelete;
+            }
+         }
+         if (toCreate != null) {
+            checkState(create == null, "cannot create %s as %s is created in the same batch", toCreate, create);
+            if (delete != null && sameRecords(delete, toCreate)) {
+               // deleted and created again as it was
+               delete = null;
+            } else {
+               create = toCreate;
+            }
+         }
+         this.delete = delete;
+         this.create = create;
+      }
+
+      void delete(ResourceRecordSet rrs) {
+         write(rrs, null);
+      }
+
+      void create(ResourceRecordSet rrs) {
+         write(null, rrs);
+      }
+
+      boolean isEmpty() {
+         return delete == null && create == null;
+      }
+
+      int changes() {
+         return (delete != null ? 1 : 0) + (create != null ? 1 : 0);
+      }
+
+      int records() {
+         return records(delete) + records(create);
+      }
+
+      int characters() {
+         return characters(delete) + characters(create);
+      }
+
+      private static int records(@Nullable ResourceRecordSet rrs) {
+         return rrs == null ? 0 : Math.max(rrs.getValues().size(), 1);
+      }
+
+      private static int characters(@Nullable ResourceRecordSet rrs) {
+         int characters = 0;
+         if (rrs != null) {
+            for (String value : rrs.getValues())
+               characters += value.length();
+         }
+         return characters;
+      }
+   }
+
+   /**
+    * {@link ResourceRecordSet#equals} only compares what identifies the record
+    * set, not its records.
+    */
+   @VisibleForTesting
+   static boolean sameRecords(ResourceRecordSet a, ResourceRecordSet b) {
+      if (!a.equals(b) || !a.getTTL().equals(b.getTTL()) || !a.getValues().equals(b.getValues())
+            || !a.getAliasTarget().equals(b.getAliasTarget()))
+         return false;
+      if (a instanceof Weighted)
+         return Weighted.class.cast(a).getWeight() == Weighted.class.cast(b).getWeight();
+      if (a instanceof Latency)
+         return Latency.class.cast(a).getRegion().equals(Latency.class.cast(b).getRegion());
+      return true;
+   }
+}
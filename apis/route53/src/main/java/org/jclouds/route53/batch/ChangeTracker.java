@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.batch;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static org.jclouds.route53.domain.Change.Status.INSYNC;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.concurrent.CompletionPoller;
+import org.jclouds.concurrent.config.OptionalScheduler;
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.config.Route53Properties;
+import org.jclouds.route53.domain.Change;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Waits for changes to replicate to all Route53 DNS servers.
+ * <p>
+ * All outstanding changes are polled by the shared {@link CompletionPoller}
+ * task on the user executor. With
+ * {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule} in the
+ * context, the scheduler times the polls. Otherwise the task sleeps on a user
+ * thread between them. The futures returned by {@link #track}
+ * complete with the {@link Change.Status#INSYNC} change.
+ */
+@Beta
+@Singleton
+public class ChangeTracker extends CompletionPoller<String, Change> {
+
+   private final Route53Api api;
+
+   @Inject
+   ChangeTracker(Route53Api api, OptionalScheduler scheduler,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(Route53Properties.CHANGE_POLL_INTERVAL) long pollInterval) {
+      this(api, scheduler.get(), userExecutor, pollInterval);
+   }
+
+   ChangeTracker(Route53Api api, Optional<ScheduledExecutorService> scheduler, ListeningExecutorService userExecutor,
+         long pollInterval) {
+      super(scheduler, userExecutor, pollInterval);
+      this.api = checkNotNull(api, "api");
+   }
+
+   /**
+    * @return a future that completes once the change is in sync
+    */
+   public ListenableFuture<Change> track(Change change) {
+      if (change.getStatus() == INSYNC)
+         return immediateFuture(change);
+      return whenComplete(change.getId());
+   }
+
+   @Override
+   protected void poll(Map<String, Long> since) {
+      logger.trace(">> polling %d changes", since.size());
+      for (String id : since.keySet()) {
+         Change change;
+         try {
+            change = api.getChange(id);
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< error getting change %s, will retry", id);
+            continue;
+         }
+         if (change == null) {
+            fail(id, new IllegalStateException("change " + id + " no longer exists"));
+         } else if (change.getStatus() == INSYNC) {
+            logger.debug("<< change %s in sync", id);
+            complete(id, change);
+         }
+      }
+   }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.config;
+
+/**
+ * Configuration properties and constants used in Route53 connections.
+ */
+public final class Route53Properties {
+
+   /**
+    * How long changes written through
+    * {@link org.jclouds.route53.batch.BatchingResourceRecordSetWriter} are
+    * held, so that they can be coalesced into one change batch (in ms).
+    */
+   public static final String BATCH_INTERVAL = "jclouds.route53.batch-interval";
+
+   /**
+    * How often {@link org.jclouds.route53.batch.ChangeTracker} asks for the
+    * status of the changes it is waiting on (in ms).
+    */
+   public static final String CHANGE_POLL_INTERVAL = "jclouds.route53.change-poll-interval";
+
+   private Route53Properties() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
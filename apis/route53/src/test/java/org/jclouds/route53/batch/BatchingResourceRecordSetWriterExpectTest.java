@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.batch;
+
+import static com.google.common.net.HttpHeaders.DATE;
+import static com.google.common.net.HttpHeaders.HOST;
+import static javax.ws.rs.HttpMethod.POST;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.batch.BatchingResourceRecordSetWriter.Pending;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.internal.BaseRoute53ApiExpectTest;
+import org.jclouds.route53.parse.GetChangeResponseTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "BatchingResourceRecordSetWriterExpectTest", singleThreaded = true)
+public class BatchingResourceRecordSetWriterExpectTest extends BaseRoute53ApiExpectTest {
+
+   HttpRequest apply = HttpRequest.builder().method(POST)
+         .endpoint("https://route53.amazonaws.com/2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset")
+         .addHeader(HOST, "route53.amazonaws.com")
+         .addHeader(DATE, "Mon, 21 Jan 02013 19:29:03 -0800")
+         .addHeader("X-Amzn-Authorization", authForDate)
+         .payload(payloadFromResourceWithContentType("/batch_rrs_request.xml", "application/xml")).build();
+
+   HttpResponse jobResponse = HttpResponse.builder().statusCode(OK.getStatusCode())
+         .payload(payloadFromResourceWithContentType("/change.xml", "text/xml")).build();
+
+   ResourceRecordSet texts = ResourceRecordSet.builder().name("jclouds.org.").type("TXT").add("my texts").build();
+   ResourceRecordSet betterTexts = ResourceRecordSet.builder().name("jclouds.org.").type("TXT")
+         .add("my better texts").build();
+
+   private ListeningExecutorService executor;
+   private ScheduledExecutorService scheduler;
+
+   @BeforeMethod
+   public void setupExecutor() {
+      executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+   }
+
+   @AfterMethod
+   public void shutdownExecutor() {
+      executor.shutdownNow();
+      scheduler.shutdownNow();
+   }
+
+   public void testDeleteAndCreateAreSentInOneBatch() throws Exception {
+      BatchingResourceRecordSetWriter writer = writer(requestSendsResponse(apply, jobResponse));
+
+      ListenableFuture<Change> deleted = writer.delete("Z1PA6795UKMFR9", texts);
+      ListenableFuture<Change> created = writer.create("Z1PA6795UKMFR9", betterTexts);
+      writer.flush();
+
+      assertEquals(deleted.get().toString(), new GetChangeResponseTest().expected().toString());
+      assertEquals(created.get(), deleted.get());
+   }
+
+   public void testUpsertIsSentAsDeleteAndCreate() throws Exception {
+      BatchingResourceRecordSetWriter writer = writer(requestSendsResponse(apply, jobResponse));
+
+      ListenableFuture<Change> upserted = writer.upsert("Z1PA6795UKMFR9", texts, betterTexts);
+      writer.flush();
+
+      assertEquals(upserted.get().toString(), new GetChangeResponseTest().expected().toString());
+   }
+
+   public void testCreateThenDeleteCancelsOut() throws Exception {
+      BatchingResourceRecordSetWriter writer = writer(requestsSendResponses(ImmutableMap
+            .<HttpRequest, HttpResponse> of()));
+
+      ListenableFuture<Change> created = writer.create("Z1PA6795UKMFR9", texts);
+      ListenableFuture<Change> deleted = writer.delete("Z1PA6795UKMFR9", texts);
+      writer.flush();
+
+      assertNull(created.get());
+      assertNull(deleted.get());
+   }
+
+   public void testDeleteOfRecordsThatWereNotCreatedFails() throws Exception {
+      BatchingResourceRecordSetWriter writer = writer(requestsSendResponses(ImmutableMap
+            .<HttpRequest, HttpResponse> of()));
+
+      ListenableFuture<Change> created = writer.create("Z1PA6795UKMFR9", texts);
+      ListenableFuture<Change> deleted = writer.delete("Z1PA6795UKMFR9", betterTexts);
+
+      try {
+         deleted.get();
+         fail("expected the delete to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+      }
+      assertFalse(created.isDone());
+   }
+
+   public void testDeleteOfRecordsThatWereNotCreatedLeavesPendingChanges() {
+      Pending pending = new Pending();
+      pending.create(texts);
+      try {
+         pending.delete(betterTexts);
+         fail("expected IllegalStateException");
+      } catch (IllegalStateException e) {
+      }
+
+      assertNull(pending.delete);
+      assertEquals(pending.create.getValues(), texts.getValues());
+   }
+
+   public void testSecondCreateFailsAndKeepsTheFirst() {
+      Pending pending = new Pending();
+      pending.create(texts);
+      try {
+         pending.create(betterTexts);
+         fail("expected IllegalStateException");
+      } catch (IllegalStateException e) {
+      }
+
+      assertNull(pending.delete);
+      assertEquals(pending.create.getValues(), texts.getValues());
+   }
+
+   public void testDeleteOfWhatWasReplacedKeepsTheOriginalDelete() {
+      Pending pending = new Pending();
+      pending.delete(texts);
+      pending.create(betterTexts);
+      pending.delete(betterTexts);
+
+      assertEquals(pending.delete.getValues(), texts.getValues());
+      assertNull(pending.create);
+   }
+
+   public void testBatchesStayWithinChangeLimit() {
+      List<Pending> pending = Lists.newArrayList();
+      for (int i = 0; i < 150; i++) {
+         Pending create = new Pending();
+         create.create(ResourceRecordSet.builder().name(i + ".jclouds.org.").type("A").add("1.1.1.1").build());
+         pending.add(create);
+      }
+
+      List<List<Pending>> batches = BatchingResourceRecordSetWriter.partition(pending);
+      assertEquals(batches.size(), 2);
+      assertEquals(batches.get(0).size(), BatchingResourceRecordSetWriter.MAX_CHANGES);
+      assertEquals(batches.get(1).size(), 50);
+   }
+
+   public void testFlushesWithoutAScheduler() throws Exception {
+      Route53Api api = requestSendsResponse(apply, jobResponse);
+      Optional<ScheduledExecutorService> noScheduler = Optional.absent();
+      BatchingResourceRecordSetWriter writer = new BatchingResourceRecordSetWriter(api, new ChangeTracker(api,
+            noScheduler, executor, 0), executor, noScheduler, 0);
+
+      ListenableFuture<Change> upserted = writer.upsert("Z1PA6795UKMFR9", texts, betterTexts);
+
+      assertEquals(upserted.get(10, SECONDS).toString(), new GetChangeResponseTest().expected().toString());
+   }
+
+   private BatchingResourceRecordSetWriter writer(Route53Api api) {
+      return new BatchingResourceRecordSetWriter(api, new ChangeTracker(api, Optional.of(scheduler), executor, 0),
+            executor, Optional.of(scheduler), 60000);
+   }
+}
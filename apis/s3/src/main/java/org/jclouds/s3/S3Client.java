@@ -86,6 +86,7 @@ import org.jclouds.s3.functions.ObjectKey;
 import org.jclouds.s3.functions.ObjectMetadataKey;
 import org.jclouds.s3.functions.ParseObjectFromHeadersAndHttpContent;
 import org.jclouds.s3.functions.ParseObjectMetadataFromHeaders;
+import org.jclouds.s3.functions.ReturnListBucketStream;
 import org.jclouds.s3.functions.UploadIdFromHttpResponseViaRegex;
 import org.jclouds.s3.options.CopyObjectOptions;
 import org.jclouds.s3.options.ListBucketOptions;
@@ -98,6 +99,7 @@ import org.jclouds.s3.xml.CopyObjectHandler;
 import org.jclouds.s3.xml.DeleteResultHandler;
 import org.jclouds.s3.xml.ListAllMyBucketsHandler;
 import org.jclouds.s3.xml.ListBucketHandler;
+import org.jclouds.s3.xml.ListBucketStream;
 import org.jclouds.s3.xml.LocationConstraintHandler;
 import org.jclouds.s3.xml.PartIdsFromHttpResponse;
 import org.jclouds.s3.xml.PayerHandler;
@@ -341,6 +343,23 @@ public interface S3Client extends Closeable {
          BindAsHostPrefixIfConfigured.class) @ParamValidators(BucketNameValidator.class) String bucketName,
          ListBucketOptions... options);
 
+   /**
+    * Same request as {@link #listBucket}, except the response is left unparsed. Use
+    * {@link ListBucketStream#parse} to receive each object as its element is read, without holding
+    * the page in memory. The stream must be parsed or closed to release the connection.
+    * 
+    * @param bucketName namespace of the objects you wish to list
+    * @return unparsed page of the bucket listing
+    * @see ListBucketOptions
+    */
+   @Named("ListBucket")
+   @GET
+   @Path("/")
+   @ResponseParser(ReturnListBucketStream.class)
+   ListBucketStream streamBucket(@Bucket @EndpointParam(parser = AssignCorrectHostnameForBucket.class) @BinderParam(
+         BindAsHostPrefixIfConfigured.class) @ParamValidators(BucketNameValidator.class) String bucketName,
+         ListBucketOptions... options);
+
    /**
     * Returns a list of all of the buckets owned by the authenticated sender of the request.
     * 
@@ -678,6 +697,47 @@ public interface S3Client extends Closeable {
          @PathParam("key") String key, @QueryParam("partNumber") int partNumber,
          @QueryParam("uploadId") String uploadId, Payload part);
 
+   /**
+    * This operation uploads a part in a multipart upload by copying a byte range of an existing
+    * object. The data is copied on the server, so objects larger than the 5 GB limit of
+    * {@link #copyObject} can be copied by issuing one part copy per range and completing the
+    * upload.
+    *
+    * <p/>
+    * Each range must follow the part size limits of {@link #uploadPart}; the range is inclusive of
+    * both offsets.
+    *
+    * @param bucketName
+    *           namespace of the object you are storing
+    * @param key
+    *           unique key in the s3Bucket identifying the object
+    * @param partNumber
+    *           which part is this.
+    * @param uploadId
+    *           id of the multipart upload in progress.
+    * @param sourceBucket
+    *           namespace of the object to copy from
+    * @param sourceObject
+    *           key of the object to copy from
+    * @param startOffset
+    *           first byte of the source to copy
+    * @param endOffset
+    *           last byte of the source to copy
+    * @return metadata populated with lastModified and eTag of the new part
+    */
+   @Named("PutObject")
+   @PUT
+   @Path("/{key}")
+   @Headers(keys = { "x-amz-copy-source", "x-amz-copy-source-range" },
+         values = { "/{sourceBucket}/{sourceObject}", "bytes={startOffset}-{endOffset}" })
+   @XMLResponseParser(CopyObjectHandler.class)
+   ObjectMetadata uploadPartCopy(@Bucket @EndpointParam(parser = AssignCorrectHostnameForBucket.class) @BinderParam(
+         BindAsHostPrefixIfConfigured.class) @ParamValidators(BucketNameValidator.class) String bucketName,
+         @PathParam("key") String key, @QueryParam("partNumber") int partNumber,
+         @QueryParam("uploadId") String uploadId, @PathParam("sourceBucket") String sourceBucket,
+         @PathParam("sourceObject") String sourceObject, @PathParam("startOffset") long startOffset,
+         @PathParam("endOffset") long endOffset);
+
    /**
     *
     This operation completes a multipart upload by assembling previously uploaded parts.
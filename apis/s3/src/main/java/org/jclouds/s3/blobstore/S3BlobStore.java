@@ -18,6 +18,7 @@ package org.jclouds.s3.blobstore;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_MULTIPART_COPY_THRESHOLD;
 import static org.jclouds.util.Predicates2.retry;
 
 import java.util.List;
@@ -25,11 +26,13 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.blobstore.KeyNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
 import org.jclouds.blobstore.domain.BlobMetadata;
@@ -59,11 +62,15 @@ import org.jclouds.s3.blobstore.functions.BucketToResourceList;
 import org.jclouds.s3.blobstore.functions.ContainerToBucketListOptions;
 import org.jclouds.s3.blobstore.functions.ObjectToBlob;
 import org.jclouds.s3.blobstore.functions.ObjectToBlobMetadata;
+import org.jclouds.s3.blobstore.strategy.MultipartCopyStrategy;
+import org.jclouds.s3.blobstore.strategy.StreamBucketStrategy;
 import org.jclouds.s3.domain.AccessControlList;
 import org.jclouds.s3.domain.AccessControlList.GroupGranteeURI;
 import org.jclouds.s3.domain.AccessControlList.Permission;
 import org.jclouds.s3.domain.BucketMetadata;
 import org.jclouds.s3.domain.CannedAccessPolicy;
+import org.jclouds.s3.domain.ObjectMetadata;
+import org.jclouds.s3.domain.ObjectMetadataBuilder;
 import org.jclouds.s3.options.CopyObjectOptions;
 import org.jclouds.s3.options.ListBucketOptions;
 import org.jclouds.s3.options.PutBucketOptions;
@@ -93,6 +100,12 @@ public class S3BlobStore extends BaseBlobStore {
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
    private final Provider<FetchBlobMetadata> fetchBlobMetadataProvider;
    private final LoadingCache<String, AccessControlList> bucketAcls;
+   private final MultipartCopyStrategy multipartCopy;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_S3_MULTIPART_COPY_THRESHOLD)
+   protected Long multipartCopyThreshold;
+   private final StreamBucketStrategy streamBucket;
 
    @Inject
    protected S3BlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
@@ -102,7 +115,8 @@ public class S3BlobStore extends BaseBlobStore {
             ObjectToBlob object2Blob, BlobToHttpGetOptions blob2ObjectGetOptions, BlobToObject blob2Object,
             BlobToObjectMetadata blob2ObjectMetadata,
             ObjectToBlobMetadata object2BlobMd, Provider<FetchBlobMetadata> fetchBlobMetadataProvider,
-            LoadingCache<String, AccessControlList> bucketAcls) {
+            LoadingCache<String, AccessControlList> bucketAcls, MultipartCopyStrategy multipartCopy,
+            StreamBucketStrategy streamBucket) {
       super(context, blobUtils, defaultLocation, locations, slicer);
       this.blob2ObjectGetOptions = checkNotNull(blob2ObjectGetOptions, "blob2ObjectGetOptions");
       this.sync = checkNotNull(sync, "sync");
@@ -115,6 +129,8 @@ public class S3BlobStore extends BaseBlobStore {
       this.blob2ObjectMetadata = checkNotNull(blob2ObjectMetadata, "blob2ObjectMetadata");
       this.fetchBlobMetadataProvider = checkNotNull(fetchBlobMetadataProvider, "fetchBlobMetadataProvider");
       this.bucketAcls = checkNotNull(bucketAcls, "bucketAcls");
+      this.multipartCopy = checkNotNull(multipartCopy, "multipartCopy");
+      this.streamBucket = checkNotNull(streamBucket, "streamBucket");
    }
 
    /**
@@ -187,6 +203,22 @@ public class S3BlobStore extends BaseBlobStore {
       return options.isDetailed() ? fetchBlobMetadataProvider.get().setContainerName(container).apply(list) : list;
    }
 
+   /**
+    * Lists every object in the bucket, across pages, as a single iteration. Unlike
+    * {@link #list(String, ListContainerOptions)}, the next page is fetched while the current one is
+    * consumed, and at most two pages are held, so memory does not grow with the size of the bucket.
+    * 
+    * @param container
+    *           bucket name
+    * @param options
+    *           prefix, delimiter and starting marker of the listing
+    * @return the listing, to be closed if abandoned before the end
+    * @see StreamBucketStrategy
+    */
+   public StreamBucketStrategy.Listing streamBucket(String container, ListBucketOptions options) {
+      return streamBucket.execute(container, options);
+   }
+
    /**
     * This implementation invokes {@link #clearContainer} then {@link S3Client#deleteBucketIfEmpty} until it is true.
     */
@@ -283,9 +315,26 @@ public class S3BlobStore extends BaseBlobStore {
       return sync.putObject(container, blob2Object.apply(blob), options);
    }
 
+   /**
+    * This implementation invokes {@link S3Client#copyObject}. When
+    * {@link org.jclouds.s3.reference.S3Constants#PROPERTY_S3_MULTIPART_COPY_THRESHOLD} is set, the source is
+    * first looked up with {@link S3Client#headObject} and copied with {@link MultipartCopyStrategy} if it is
+    * larger than the threshold.
+    */
    @Override
    public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
          CopyOptions options) {
+      if (multipartCopyThreshold != null) {
+         ObjectMetadata source = sync.headObject(fromContainer, fromName);
+         if (source == null) {
+            throw new KeyNotFoundException(fromContainer, fromName, "while copying");
+         }
+         Long contentLength = source.getContentMetadata().getContentLength();
+         if (contentLength != null && contentLength > multipartCopyThreshold) {
+            return multipartCopy.execute(fromContainer, source, toContainer, copyMetadata(source, toName, options));
+         }
+      }
+
       CopyObjectOptions s3Options = new CopyObjectOptions();
 
       Optional<ContentMetadata> contentMetadata = options.getContentMetadata();
@@ -319,6 +368,19 @@ public class S3BlobStore extends BaseBlobStore {
       return sync.copyObject(fromContainer, fromName, toContainer, toName, s3Options).getETag();
    }
 
+   private static ObjectMetadata copyMetadata(ObjectMetadata source, String toName, CopyOptions options) {
+      ContentMetadata contentMetadata = options.getContentMetadata().or(source.getContentMetadata());
+      return ObjectMetadataBuilder.create()
+            .key(toName)
+            .cacheControl(source.getCacheControl())
+            .contentDisposition(contentMetadata.getContentDisposition())
+            .contentEncoding(contentMetadata.getContentEncoding())
+            .contentLanguage(contentMetadata.getContentLanguage())
+            .contentType(contentMetadata.getContentType())
+            .userMetadata(options.getUserMetadata().or(source.getUserMetadata()))
+            .build();
+   }
+
    /**
     * This implementation invokes {@link S3Client#deleteObject}
     * 
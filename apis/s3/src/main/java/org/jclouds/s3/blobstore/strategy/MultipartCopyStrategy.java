@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore.strategy;
+
+import org.jclouds.s3.blobstore.strategy.internal.ParallelMultipartCopyStrategy;
+import org.jclouds.s3.domain.ObjectMetadata;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * copies an object with server-side multipart part copies, so that objects larger than the
+ * single copy limit can be copied without transferring their content through the client.
+ */
+@ImplementedBy(ParallelMultipartCopyStrategy.class)
+public interface MultipartCopyStrategy {
+
+   /**
+    * @param sourceBucket
+    *           bucket of the object to copy
+    * @param source
+    *           metadata of the object to copy, including its key and content length
+    * @param destinationBucket
+    *           bucket of the new object
+    * @param destination
+    *           key and metadata of the new object
+    * @return ETag of the new object
+    */
+   String execute(String sourceBucket, ObjectMetadata source, String destinationBucket, ObjectMetadata destination);
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore.strategy;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+import org.jclouds.s3.blobstore.strategy.internal.PrefetchingStreamBucketStrategy;
+import org.jclouds.s3.domain.ObjectMetadata;
+import org.jclouds.s3.options.ListBucketOptions;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * walks every page of a bucket listing as a single iteration, without holding the pages in memory.
+ */
+@ImplementedBy(PrefetchingStreamBucketStrategy.class)
+public interface StreamBucketStrategy {
+
+   /**
+    * The objects of one listing, in key order.
+    */
+   public interface Listing extends Iterator<ObjectMetadata>, Closeable {
+      /**
+       * Stops the listing, cancelling the request for a page not yet read. Closing a listing that
+       * reached its end has no effect.
+       */
+      @Override
+      void close();
+   }
+
+   /**
+    * @param bucket
+    *           bucket to list
+    * @param options
+    *           prefix, delimiter and starting marker of the listing; max results sizes each page
+    * @return a new listing, which should be closed when abandoned before the end
+    */
+   Listing execute(String bucket, ListBucketOptions options);
+
+}
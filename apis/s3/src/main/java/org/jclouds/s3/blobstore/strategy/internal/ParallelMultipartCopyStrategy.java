@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.strategy.internal.MultipartUploadSlicingAlgorithm;
+import org.jclouds.logging.Logger;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.blobstore.strategy.MultipartCopyStrategy;
+import org.jclouds.s3.blobstore.strategy.MultipartUpload;
+import org.jclouds.s3.domain.ObjectMetadata;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Splits the source into ranges sized by {@link MultipartUploadSlicingAlgorithm} and issues the
+ * {@link S3Client#uploadPartCopy part copies} concurrently on the user executor. The upload is
+ * aborted if any part fails.
+ */
+@Singleton
+public class ParallelMultipartCopyStrategy implements MultipartCopyStrategy {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final S3Client sync;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject
+   ParallelMultipartCopyStrategy(S3Client sync,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.sync = checkNotNull(sync, "sync");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   @Override
+   public String execute(final String sourceBucket, ObjectMetadata source, final String destinationBucket,
+         ObjectMetadata destination) {
+      final String sourceKey = source.getKey();
+      final String destinationKey = destination.getKey();
+      Long contentLength = source.getContentMetadata().getContentLength();
+      checkArgument(contentLength != null && contentLength > 0, "source %s/%s must have content", sourceBucket,
+            sourceKey);
+      long length = contentLength;
+
+      MultipartUploadSlicingAlgorithm algorithm = new MultipartUploadSlicingAlgorithm(MultipartUpload.MIN_PART_SIZE,
+            MultipartUpload.MAX_PART_SIZE, MultipartUpload.MAX_NUMBER_OF_PARTS);
+      long partSize = algorithm.calculateChunkSize(length);
+
+      final String uploadId = sync.initiateMultipartUpload(destinationBucket, destination);
+      List<ListenableFuture<ObjectMetadata>> futures = Lists.newArrayList();
+      int partNumber = 1;
+      for (long offset = 0; offset < length; offset += partSize) {
+         final int part = partNumber++;
+         final long startOffset = offset;
+         final long endOffset = Math.min(offset + partSize, length) - 1;
+         futures.add(userExecutor.submit(new Callable<ObjectMetadata>() {
+            @Override
+            public ObjectMetadata call() {
+               logger.debug(">> copying part %d of %s/%s bytes %d-%d", part, sourceBucket, sourceKey, startOffset,
+                     endOffset);
+               return sync.uploadPartCopy(destinationBucket, destinationKey, part, uploadId, sourceBucket,
+                     sourceKey, startOffset, endOffset);
+            }
+         }));
+      }
+
+      try {
+         List<ObjectMetadata> copiedParts = Futures.allAsList(futures).get();
+         ImmutableMap.Builder<Integer, String> parts = ImmutableMap.builder();
+         for (int i = 0; i < copiedParts.size(); i++) {
+            parts.put(i + 1, copiedParts.get(i).getETag());
+         }
+         return sync.completeMultipartUpload(destinationBucket, destinationKey, uploadId, parts.build());
+      } catch (InterruptedException e) {
+         abort(futures, destinationBucket, destinationKey, uploadId);
+         Thread.currentThread().interrupt();
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         abort(futures, destinationBucket, destinationKey, uploadId);
+         throw propagate(e.getCause());
+      } catch (RuntimeException e) {
+         abort(futures, destinationBucket, destinationKey, uploadId);
+         throw e;
+      }
+   }
+
+   private void abort(List<ListenableFuture<ObjectMetadata>> futures, String bucket, String key, String uploadId) {
+      for (ListenableFuture<ObjectMetadata> future : futures) {
+         future.cancel(true);
+      }
+      logger.debug("<< aborting multipart copy to %s/%s", bucket, key);
+      sync.abortMultipartUpload(bucket, key, uploadId);
+   }
+}
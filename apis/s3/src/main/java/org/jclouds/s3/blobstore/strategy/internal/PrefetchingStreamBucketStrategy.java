@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.logging.Logger;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.blobstore.strategy.StreamBucketStrategy;
+import org.jclouds.s3.domain.ListBucketResponse;
+import org.jclouds.s3.domain.ObjectMetadata;
+import org.jclouds.s3.options.ListBucketOptions;
+import org.jclouds.s3.xml.ListBucketStream;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Fetches each page with {@link S3Client#streamBucket} on the user executor as soon as the marker
+ * of the previous page is known, so that the request for the next page overlaps with consuming
+ * the current one, and at most two pages are held.
+ * <p/>
+ * A page task never waits for the caller: it ends once its page is parsed, so a listing abandoned
+ * without being closed holds no thread. The caller runs a page task itself when the executor has
+ * not started it yet, so listings also complete when consumed from a saturated user executor.
+ */
+@Singleton
+public class PrefetchingStreamBucketStrategy implements StreamBucketStrategy {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final S3Client sync;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject
+   PrefetchingStreamBucketStrategy(S3Client sync,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.sync = checkNotNull(sync, "sync");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   @Override
+   public Listing execute(String bucket, ListBucketOptions options) {
+      return new PrefetchingListing(checkNotNull(bucket, "bucket"), checkNotNull(options, "options"));
+   }
+
+   private static final class Page {
+      private final List<ObjectMetadata> contents;
+      private final String nextMarker;
+
+      private Page(List<ObjectMetadata> contents, String nextMarker) {
+         this.contents = contents;
+         this.nextMarker = nextMarker;
+      }
+   }
+
+   private class PrefetchingListing extends AbstractIterator<ObjectMetadata> implements Listing {
+      private final String bucket;
+      private final ListBucketOptions options;
+      private Iterator<ObjectMetadata> current = ImmutableList.<ObjectMetadata> of().iterator();
+      private ListenableFutureTask<Page> next;
+      private int pages;
+
+      PrefetchingListing(String bucket, ListBucketOptions options) {
+         this.bucket = bucket;
+         this.options = options;
+         this.next = fetch(options.getMarker());
+      }
+
+      @Override
+      protected ObjectMetadata computeNext() {
+         while (!current.hasNext()) {
+            if (next == null)
+               return endOfData();
+            Page page = await(next);
+            pages++;
+            next = page.nextMarker != null ? fetch(page.nextMarker) : null;
+            if (next == null)
+               logger.debug("<< listed %s in %d pages", bucket, pages);
+            current = page.contents.iterator();
+         }
+         return current.next();
+      }
+
+      private ListenableFutureTask<Page> fetch(final String marker) {
+         ListenableFutureTask<Page> task = ListenableFutureTask.create(new Callable<Page>() {
+            @Override
+            public Page call() {
+               return page(marker);
+            }
+         });
+         try {
+            userExecutor.execute(task);
+         } catch (RejectedExecutionException e) {
+            // left for the caller to run
+         }
+         return task;
+      }
+
+      private Page page(String marker) {
+         ListBucketOptions page = marker != null ? options.clone().afterMarker(marker) : options;
+         final ImmutableList.Builder<ObjectMetadata> contents = ImmutableList.builder();
+         ListBucketStream stream = sync.streamBucket(bucket, page);
+         ListBucketResponse response;
+         try {
+            response = stream.parse(new ListBucketStream.Listener() {
+               @Override
+               public void onContents(ObjectMetadata object) {
+                  contents.add(object);
+               }
+            });
+         } finally {
+            stream.close();
+         }
+         boolean last = !response.isTruncated() || response.getNextMarker() == null;
+         return new Page(contents.build(), last ? null : response.getNextMarker());
+      }
+
+      private Page await(ListenableFutureTask<Page> task) {
+         // runs the task here if the executor has not started it, and does nothing otherwise
+         task.run();
+         try {
+            return task.get();
+         } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         } catch (ExecutionException e) {
+            next = null;
+            logger.debug("<< failed listing %s: %s", bucket, e.getCause().getMessage());
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+
+      @Override
+      public void close() {
+         if (next != null) {
+            next.cancel(true);
+            next = null;
+         }
+         current = ImmutableList.<ObjectMetadata> of().iterator();
+      }
+
+      @Override
+      public String toString() {
+         return "streamBucket(" + bucket + ", " + options.buildQueryParameters() + ")";
+      }
+   }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.inject.Inject;
+
+import org.jclouds.date.DateService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.s3.xml.ListBucketStream;
+
+import com.google.common.base.Function;
+
+/**
+ * Defers parsing of a bucket listing to the caller.
+ * 
+ * @see ListBucketStream
+ */
+public class ReturnListBucketStream implements Function<HttpResponse, ListBucketStream>,
+      InvocationContext<ReturnListBucketStream> {
+
+   private final ParseSax.Factory parserFactory;
+   private final DateService dateService;
+   private HttpRequest request;
+
+   @Inject
+   ReturnListBucketStream(ParseSax.Factory parserFactory, DateService dateService) {
+      this.parserFactory = checkNotNull(parserFactory, "parserFactory");
+      this.dateService = checkNotNull(dateService, "dateService");
+   }
+
+   @Override
+   public ListBucketStream apply(HttpResponse from) {
+      checkNotNull(from.getPayload(), "payload in %s", from);
+      return new ListBucketStream(parserFactory, dateService, request, from);
+   }
+
+   @Override
+   public ReturnListBucketStream setContext(HttpRequest request) {
+      this.request = request;
+      return this;
+   }
+}
@@ -21,6 +21,8 @@ import static com.google.common.base.Preconditions.checkState;
 
 import org.jclouds.http.options.BaseHttpRequestOptions;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Contains options supported in the REST API for the GET bucket operation. <h2>
  * Usage</h2> The recommended way to instantiate a GetBucketOptions object is to statically import
@@ -58,7 +60,7 @@ public class ListBucketOptions extends BaseHttpRequestOptions implements Cloneab
     * results use the last key of the current page as the marker.
     */
    public ListBucketOptions afterMarker(String marker) {
-      queryParameters.put("marker", checkNotNull(marker, "marker"));
+      queryParameters.replaceValues("marker", ImmutableSet.of(checkNotNull(marker, "marker")));
       return this;
    }
 
@@ -31,6 +31,12 @@ public final class S3Constants {
    public static final String DELIMITER = "delimiter";
    public static final String PROPERTY_S3_SERVICE_PATH = "jclouds.s3.service-path";
    public static final String PROPERTY_S3_VIRTUAL_HOST_BUCKETS = "jclouds.s3.virtual-host-buckets";
+   /**
+    * Objects larger than this many bytes are copied with parallel server-side part copies instead of a
+    * single copy request. Unset by default, in which case every copy is a single request and the source
+    * is not looked up first.
+    */
+   public static final String PROPERTY_S3_MULTIPART_COPY_THRESHOLD = "jclouds.s3.multipart-copy-threshold";
 
    private S3Constants() {
       throw new AssertionError("intentionally unimplemented");
@@ -28,9 +28,9 @@ import org.jclouds.s3.domain.ObjectMetadata;
 import org.jclouds.s3.domain.internal.CopyObjectResult;
 
 /**
- * Parses the response from Amazon S3 COPY Object command.
+ * Parses the response from Amazon S3 COPY Object and Upload Part - Copy commands.
  * <p/>
- * CopyObjectResult is the document we expect to parse.
+ * CopyObjectResult or CopyPartResult is the document we expect to parse.
  */
 public class CopyObjectHandler extends ParseSax.HandlerWithResult<ObjectMetadata> {
 
@@ -51,7 +51,7 @@ public class CopyObjectHandler extends ParseSax.HandlerWithResult<ObjectMetadata
       } else if (qName.equals("LastModified")) {
          this.currentLastModified = dateParser
              .iso8601DateOrSecondsDateParse(currentOrNull(currentText));
-      } else if (qName.equals("CopyObjectResult")) {
+      } else if (qName.equals("CopyObjectResult") || qName.equals("CopyPartResult")) {
          metadata = new CopyObjectResult(currentLastModified, currentETag);
       }
       currentText.setLength(0);
@@ -110,7 +110,7 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       } else if (qName.equals("StorageClass")) {
          builder.storageClass(ObjectMetadata.StorageClass.valueOf(currentOrNull(currentText)));
       } else if (qName.equals("Contents")) {
-         contents.add(builder.build());
+         addContents(builder.build());
          builder = new ObjectMetadataBuilder().bucket(bucketName);
       } else if (qName.equals("Name")) {
          this.bucketName = currentOrNull(currentText);
@@ -135,6 +135,14 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       currentText.setLength(0);
    }
 
+   /**
+    * Called as each {@code Contents} element completes. By default, objects are collected into
+    * the {@link #getResult() result}; override to receive them without holding the whole page.
+    */
+   protected void addContents(ObjectMetadata object) {
+      contents.add(object);
+   }
+
    public void characters(char ch[], int start, int length) {
       currentText.append(ch, start, length);
    }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.xml;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+
+import org.jclouds.date.DateService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.s3.domain.ListBucketResponse;
+import org.jclouds.s3.domain.ObjectMetadata;
+
+/**
+ * An unparsed {@code ListBucketResult} response. Objects are handed to a {@link Listener} as each
+ * {@code Contents} element is read, so that a page can be consumed without materializing it.
+ */
+public class ListBucketStream implements Closeable {
+
+   /**
+    * Receives objects in the order they appear in the listing.
+    */
+   public interface Listener {
+      void onContents(ObjectMetadata object);
+   }
+
+   private final ParseSax.Factory parserFactory;
+   private final DateService dateService;
+   private final HttpRequest request;
+   private final HttpResponse response;
+
+   public ListBucketStream(ParseSax.Factory parserFactory, DateService dateService, HttpRequest request,
+         HttpResponse response) {
+      this.parserFactory = checkNotNull(parserFactory, "parserFactory");
+      this.dateService = checkNotNull(dateService, "dateService");
+      this.request = checkNotNull(request, "request");
+      this.response = checkNotNull(response, "response");
+   }
+
+   /**
+    * Parses the response, passing each object to the listener, and releases the connection.
+    * 
+    * @return the page markers and common prefixes; {@link ListBucketResponse#iterator() contents}
+    *         are empty, as they were streamed to the listener
+    */
+   public ListBucketResponse parse(final Listener listener) {
+      checkNotNull(listener, "listener");
+      ListBucketHandler handler = new ListBucketHandler(dateService) {
+         @Override
+         protected void addContents(ObjectMetadata object) {
+            listener.onContents(object);
+         }
+      };
+      handler.setContext(request);
+      return parserFactory.create(handler).setContext(request).apply(response);
+   }
+
+   /**
+    * Releases the connection without reading the remaining response.
+    */
+   @Override
+   public void close() {
+      if (response.getPayload() != null)
+         response.getPayload().release();
+   }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore;
+
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_MULTIPART_COPY_THRESHOLD;
+import static org.jclouds.util.Strings2.toStringAndClose;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Properties;
+import java.util.Set;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+@Test(singleThreaded = true)
+public class S3BlobStoreMockTest {
+
+   private static final Set<Module> modules = ImmutableSet.<Module> of(new OkHttpCommandExecutorServiceModule(),
+         new ExecutorServiceModule(sameThreadExecutor()));
+
+   static BlobStoreContext getBlobStoreContext(URL server, Properties overrides) {
+      overrides.setProperty(PROPERTY_MAX_RETRIES, "1");
+      return ContextBuilder.newBuilder("s3")
+                           .credentials("accessKey", "secretKey")
+                           .endpoint(server.toString())
+                           .modules(modules)
+                           .overrides(overrides)
+                           .buildView(BlobStoreContext.class);
+   }
+
+   public void testCopyBlobWithoutThresholdIsASingleRequest() throws IOException, InterruptedException {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setBody(resource("/copy_object.xml")));
+      server.play();
+
+      BlobStoreContext context = getBlobStoreContext(server.getUrl("/"), new Properties());
+      try {
+         BlobStore blobStore = context.getBlobStore();
+         assertEquals(blobStore.copyBlob("bucket", "object", "bucket", "copy", CopyOptions.NONE),
+               "\"92836a3ea45a6984d1b4d23a747d46bb\"");
+
+         assertEquals(server.getRequestCount(), 1);
+         RecordedRequest copy = server.takeRequest();
+         assertEquals(copy.getRequestLine(), "PUT /bucket/copy HTTP/1.1");
+         assertEquals(copy.getHeaders("x-amz-copy-source"), ImmutableList.of("/bucket/object"));
+      } finally {
+         context.close();
+         server.shutdown();
+      }
+   }
+
+   public void testCopyBlobBelowThresholdIsASingleCopy() throws IOException, InterruptedException {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(headResponse(100));
+      server.enqueue(new MockResponse().setBody(resource("/copy_object.xml")));
+      server.play();
+
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_S3_MULTIPART_COPY_THRESHOLD, "1000");
+      BlobStoreContext context = getBlobStoreContext(server.getUrl("/"), overrides);
+      try {
+         context.getBlobStore().copyBlob("bucket", "object", "bucket", "copy", CopyOptions.NONE);
+
+         assertEquals(server.getRequestCount(), 2);
+         assertEquals(server.takeRequest().getRequestLine(), "HEAD /bucket/object HTTP/1.1");
+         assertEquals(server.takeRequest().getRequestLine(), "PUT /bucket/copy HTTP/1.1");
+      } finally {
+         context.close();
+         server.shutdown();
+      }
+   }
+
+   public void testCopyBlobAboveThresholdCopiesParts() throws IOException, InterruptedException {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(headResponse(100));
+      server.enqueue(new MockResponse().setBody(resource("/initiate-multipart-upload.xml")));
+      server.enqueue(new MockResponse().setBody(resource("/copy_object.xml")));
+      server.enqueue(new MockResponse().setBody(resource("/complete-multipart-upload.xml")));
+      server.play();
+
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_S3_MULTIPART_COPY_THRESHOLD, "10");
+      BlobStoreContext context = getBlobStoreContext(server.getUrl("/"), overrides);
+      try {
+         assertEquals(context.getBlobStore().copyBlob("bucket", "object", "bucket", "copy", CopyOptions.NONE),
+               "\"3858f62230ac3c915f300c664312c11f-9\"");
+
+         String uploadId = "VXBsb2FkIElEIGZvciA2aWWpbmcncyBteS1tb3ZpZS5tMnRzIHVwbG9hZA";
+         assertEquals(server.getRequestCount(), 4);
+         assertEquals(server.takeRequest().getRequestLine(), "HEAD /bucket/object HTTP/1.1");
+         assertEquals(server.takeRequest().getRequestLine(), "POST /bucket/copy?uploads HTTP/1.1");
+         RecordedRequest part = server.takeRequest();
+         assertEquals(part.getRequestLine(), "PUT /bucket/copy?partNumber=1&uploadId=" + uploadId + " HTTP/1.1");
+         assertEquals(part.getHeaders("x-amz-copy-source-range"), ImmutableList.of("bytes=0-99"));
+         assertEquals(server.takeRequest().getRequestLine(), "POST /bucket/copy?uploadId=" + uploadId + " HTTP/1.1");
+      } finally {
+         context.close();
+         server.shutdown();
+      }
+   }
+
+   private static MockResponse headResponse(long contentLength) {
+      return new MockResponse()
+            .setHeader(CONTENT_LENGTH, contentLength)
+            .addHeader(ETAG, "\"92836a3ea45a6984d1b4d23a747d46bb\"")
+            .addHeader(LAST_MODIFIED, "Thu, 19 Mar 2009 13:23:27 GMT");
+   }
+
+   private static String resource(String name) throws IOException {
+      return toStringAndClose(S3BlobStoreMockTest.class.getResourceAsStream(name));
+   }
+}
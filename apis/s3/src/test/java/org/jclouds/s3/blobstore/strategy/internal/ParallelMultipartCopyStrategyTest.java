@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore.strategy.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.domain.ObjectMetadata;
+import org.jclouds.s3.domain.ObjectMetadataBuilder;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+@Test(groups = "unit", singleThreaded = true, testName = "ParallelMultipartCopyStrategyTest")
+public class ParallelMultipartCopyStrategyTest {
+   private static final long PART_SIZE = 32L * 1024 * 1024;
+
+   private S3Client mock;
+   private ParallelMultipartCopyStrategy strategy;
+
+   @BeforeMethod
+   public void setUp() {
+      mock = createMock(S3Client.class);
+      strategy = new ParallelMultipartCopyStrategy(mock, sameThreadExecutor());
+   }
+
+   public void testCopiesRangesAndCompletesPartsInOrder() {
+      expect(mock.initiateMultipartUpload(eq("destination"), isA(ObjectMetadata.class))).andReturn("upload");
+      expect(mock.uploadPartCopy("destination", "copy", 1, "upload", "source", "object", 0, PART_SIZE - 1))
+            .andReturn(etag("etag1"));
+      expect(mock.uploadPartCopy("destination", "copy", 2, "upload", "source", "object", PART_SIZE,
+            2 * PART_SIZE - 1)).andReturn(etag("etag2"));
+      expect(mock.uploadPartCopy("destination", "copy", 3, "upload", "source", "object", 2 * PART_SIZE,
+            2 * PART_SIZE + 9)).andReturn(etag("etag3"));
+      expect(mock.completeMultipartUpload("destination", "copy", "upload",
+            ImmutableMap.of(1, "etag1", 2, "etag2", 3, "etag3"))).andReturn("etag");
+
+      replay(mock);
+      assertEquals(strategy.execute("source", source(2 * PART_SIZE + 10), "destination", destination()), "etag");
+      verify(mock);
+   }
+
+   public void testObjectSmallerThanPartIsCopiedInOnePart() {
+      expect(mock.initiateMultipartUpload(eq("destination"), isA(ObjectMetadata.class))).andReturn("upload");
+      expect(mock.uploadPartCopy("destination", "copy", 1, "upload", "source", "object", 0, 99))
+            .andReturn(etag("etag1"));
+      expect(mock.completeMultipartUpload("destination", "copy", "upload", ImmutableMap.of(1, "etag1")))
+            .andReturn("etag");
+
+      replay(mock);
+      assertEquals(strategy.execute("source", source(100), "destination", destination()), "etag");
+      verify(mock);
+   }
+
+   public void testFailedPartAbortsTheUpload() {
+      expect(mock.initiateMultipartUpload(eq("destination"), isA(ObjectMetadata.class))).andReturn("upload");
+      expect(mock.uploadPartCopy("destination", "copy", 1, "upload", "source", "object", 0, PART_SIZE - 1))
+            .andReturn(etag("etag1"));
+      expect(mock.uploadPartCopy("destination", "copy", 2, "upload", "source", "object", PART_SIZE,
+            PART_SIZE + 9)).andThrow(new IllegalStateException("part failed"));
+      mock.abortMultipartUpload("destination", "copy", "upload");
+      expectLastCall();
+
+      replay(mock);
+      try {
+         strategy.execute("source", source(PART_SIZE + 10), "destination", destination());
+         throw new AssertionError("expected the copy to fail");
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "part failed");
+      }
+      verify(mock);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testEmptySourceIsRejected() {
+      replay(mock);
+      strategy.execute("source", source(0), "destination", destination());
+   }
+
+   private static ObjectMetadata source(long length) {
+      return ObjectMetadataBuilder.create().key("object").contentLength(length).build();
+   }
+
+   private static ObjectMetadata destination() {
+      return ObjectMetadataBuilder.create().key("copy").build();
+   }
+
+   private static ObjectMetadata etag(String etag) {
+      return ObjectMetadataBuilder.create().key("copy").eTag(etag).build();
+   }
+}
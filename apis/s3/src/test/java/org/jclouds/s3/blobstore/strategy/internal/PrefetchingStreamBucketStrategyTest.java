@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.s3.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.config.SaxParserModule;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.blobstore.strategy.StreamBucketStrategy.Listing;
+import org.jclouds.s3.options.ListBucketOptions;
+import org.jclouds.s3.xml.ListBucketStream;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "PrefetchingStreamBucketStrategyTest")
+public class PrefetchingStreamBucketStrategyTest {
+   private static final int PAGE_SIZE = 5;
+
+   private ParseSax.Factory parserFactory;
+   private ListeningExecutorService userExecutor;
+   private List<String> markers;
+
+   @BeforeMethod
+   public void setUp() {
+      parserFactory = Guice.createInjector(new SaxParserModule()).getInstance(ParseSax.Factory.class);
+      userExecutor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      markers = Collections.synchronizedList(Lists.<String> newArrayList());
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      userExecutor.shutdownNow();
+   }
+
+   public void testWalksAllPagesInOrder() {
+      PrefetchingStreamBucketStrategy strategy = new PrefetchingStreamBucketStrategy(bucketOf(13, -1), userExecutor);
+
+      List<String> keys = keys(strategy.execute("bucket", new ListBucketOptions().maxResults(PAGE_SIZE)));
+
+      assertEquals(keys.size(), 13);
+      for (int i = 0; i < keys.size(); i++)
+         assertEquals(keys.get(i), key(i));
+      assertEquals(markers, Lists.newArrayList(null, key(4), key(9)));
+   }
+
+   public void testStartsAfterMarker() {
+      PrefetchingStreamBucketStrategy strategy = new PrefetchingStreamBucketStrategy(bucketOf(13, -1), userExecutor);
+
+      Listing objects = strategy.execute("bucket", new ListBucketOptions().maxResults(PAGE_SIZE).afterMarker(key(9)));
+
+      assertEquals(objects.next().getKey(), key(10));
+      assertEquals(markers, Lists.newArrayList(key(9)));
+   }
+
+   public void testFailureAfterFirstPageIsRethrown() {
+      PrefetchingStreamBucketStrategy strategy = new PrefetchingStreamBucketStrategy(bucketOf(13, 1), userExecutor);
+
+      Listing objects = strategy.execute("bucket", new ListBucketOptions().maxResults(PAGE_SIZE));
+      for (int i = 0; i < PAGE_SIZE; i++)
+         assertEquals(objects.next().getKey(), key(i));
+      try {
+         objects.next();
+         fail("expected the failure of the second page");
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "page 1");
+      }
+   }
+
+   public void testListingFromTheSaturatedUserExecutorCompletes() throws Exception {
+      userExecutor.shutdownNow();
+      // a single thread, so that the pages could not be fetched while the caller waits for them
+      userExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1));
+      final PrefetchingStreamBucketStrategy strategy = new PrefetchingStreamBucketStrategy(bucketOf(13, -1),
+            userExecutor);
+
+      List<String> keys = userExecutor.submit(new Callable<List<String>>() {
+         @Override
+         public List<String> call() {
+            return keys(strategy.execute("bucket", new ListBucketOptions().maxResults(PAGE_SIZE)));
+         }
+      }).get(10, TimeUnit.SECONDS);
+
+      assertEquals(keys.size(), 13);
+   }
+
+   public void testAbandonedListingHoldsNoThread() throws Exception {
+      PrefetchingStreamBucketStrategy strategy = new PrefetchingStreamBucketStrategy(bucketOf(13, -1), userExecutor);
+
+      Listing objects = strategy.execute("bucket", new ListBucketOptions().maxResults(PAGE_SIZE));
+      assertEquals(objects.next().getKey(), key(0));
+      objects = null;
+
+      userExecutor.shutdown();
+      assertTrue(userExecutor.awaitTermination(10, TimeUnit.SECONDS));
+      assertEquals(markers, Lists.newArrayList(null, key(4)));
+   }
+
+   public void testClosedListingEnds() {
+      PrefetchingStreamBucketStrategy strategy = new PrefetchingStreamBucketStrategy(bucketOf(13, -1), userExecutor);
+
+      Listing objects = strategy.execute("bucket", new ListBucketOptions().maxResults(PAGE_SIZE));
+      assertEquals(objects.next().getKey(), key(0));
+      objects.close();
+
+      assertFalse(objects.hasNext());
+      assertFalse(markers.contains(key(9)));
+   }
+
+   private static List<String> keys(Listing objects) {
+      List<String> keys = Lists.newArrayList();
+      try {
+         while (objects.hasNext())
+            keys.add(objects.next().getKey());
+      } finally {
+         objects.close();
+      }
+      return keys;
+   }
+
+   private static String key(int i) {
+      return String.format("key-%03d", i);
+   }
+
+   /**
+    * @return a client whose bucket holds {@code size} keys, failing on the page numbered
+    *         {@code failingPage}
+    */
+   private S3Client bucketOf(final int size, final int failingPage) {
+      return (S3Client) Proxy.newProxyInstance(S3Client.class.getClassLoader(), new Class<?>[] { S3Client.class },
+            new InvocationHandler() {
+               @Override
+               public Object invoke(Object proxy, Method method, Object[] args) {
+                  if (!method.getName().equals("streamBucket"))
+                     throw new UnsupportedOperationException(method.getName());
+                  ListBucketOptions options = (ListBucketOptions) ((Object[]) args[1])[0];
+                  String marker = options.getMarker();
+                  markers.add(marker);
+                  int start = marker == null ? 0 : Integer.parseInt(marker.substring(4)) + 1;
+                  if (start / PAGE_SIZE == failingPage)
+                     throw new IllegalStateException("page " + failingPage);
+                  int end = Math.min(start + options.getMaxResults(), size);
+                  StringBuilder xml = new StringBuilder("<ListBucketResult><Name>bucket</Name><IsTruncated>")
+                        .append(end < size).append("</IsTruncated>");
+                  for (int i = start; i < end; i++)
+                     xml.append("<Contents><Key>").append(key(i)).append("</Key><Size>1</Size></Contents>");
+                  xml.append("</ListBucketResult>");
+                  HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://bucket.com").build();
+                  HttpResponse response = HttpResponse.builder().statusCode(200).payload(xml.toString()).build();
+                  return new ListBucketStream(parserFactory, new SimpleDateFormatDateService(), request, response);
+               }
+            });
+   }
+}
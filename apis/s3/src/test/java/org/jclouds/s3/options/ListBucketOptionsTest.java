@@ -110,6 +110,14 @@ public class ListBucketOptionsTest {
                ImmutableList.of("test"));
    }
 
+   @Test
+   public void testMarkerReplacesPrevious() {
+      ListBucketOptions options = afterMarker("test").clone();
+      options.afterMarker("next");
+      assertEquals(options.buildQueryParameters().get(S3Constants.MARKER),
+               ImmutableList.of("next"));
+   }
+
    @Test
    public void testNullMarker() {
       ListBucketOptions options = new ListBucketOptions();
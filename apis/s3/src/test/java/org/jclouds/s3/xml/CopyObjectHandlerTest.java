@@ -40,6 +40,8 @@ public class CopyObjectHandlerTest extends BaseHandlerTest {
 
    private final String copyObjectResultWithSecondsDate = "<CopyObjectResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"><LastModified>2014-07-23T20:53:17+0000</LastModified><ETag>\"92836a3ea45a6984d1b4d23a747d46bb\"</ETag></CopyObjectResult>";
 
+   private final String copyPartResult = "<CopyPartResult><LastModified>2009-03-19T13:23:27.000Z</LastModified><ETag>\"b54357faf0632cce46e942fa68356b38\"</ETag></CopyPartResult>";
+
    @BeforeTest
    @Override
    protected void setUpInjector() {
@@ -76,4 +78,16 @@ public class CopyObjectHandlerTest extends BaseHandlerTest {
 
       assertEquals(result, expected);
    }
+
+   public void testApplyInputStreamCopyPartResult() {
+      InputStream is = Strings2.toInputStream(copyPartResult);
+      ObjectMetadata expected = new CopyObjectResult(new SimpleDateFormatDateService()
+               .iso8601DateParse("2009-03-19T13:23:27.000Z"),
+               "\"b54357faf0632cce46e942fa68356b38\"");
+
+      ObjectMetadata result = factory.create(
+               injector.getInstance(CopyObjectHandler.class)).parse(is);
+
+      assertEquals(result, expected);
+   }
 }
@@ -21,12 +21,14 @@ import static org.testng.Assert.assertEquals;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.List;
 import java.util.TreeSet;
 
 import org.jclouds.date.DateService;
 import org.jclouds.date.internal.SimpleDateFormatDateService;
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
 import org.jclouds.http.functions.BaseHandlerTest;
 import org.jclouds.http.functions.ParseSax;
 import org.jclouds.s3.domain.CanonicalUser;
@@ -39,6 +41,7 @@ import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 /**
  * Tests behavior of {@code ListBucketHandler}
@@ -115,6 +118,25 @@ public class ListBucketHandlerTest extends BaseHandlerTest {
                HttpRequest.builder().method("GET").endpoint("http://bucket.com").build());
    }
 
+   public void testStreamPassesObjectsToListenerInOrder() {
+      HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://bucket.com").build();
+      HttpResponse response = HttpResponse.builder().statusCode(200)
+               .payload(getClass().getResourceAsStream("/list_bucket.xml")).build();
+      final List<ObjectMetadata> streamed = Lists.newArrayList();
+
+      ListBucketResponse result = new ListBucketStream(factory, dateService, request, response).parse(
+               new ListBucketStream.Listener() {
+                  public void onContents(ObjectMetadata object) {
+                     streamed.add(object);
+                  }
+               });
+
+      assertEquals(streamed.toString(), ImmutableList.copyOf(expected()).toString());
+      assertEquals(result.size(), 0);
+      assertEquals(result.getPrefix(), "apps/");
+      assertEquals(result.getMaxKeys(), 1000);
+   }
+
    @Test
    public void testListMyBucketsWithDelimiterSlashAndCommonPrefixesAppsSlash() throws HttpException {
 
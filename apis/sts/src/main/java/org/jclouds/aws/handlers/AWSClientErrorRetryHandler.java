@@ -27,6 +27,7 @@ import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.annotation.ClientError;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.http.internal.EndpointConcurrencyLimiter;
 
 import com.google.inject.Inject;
 
@@ -39,6 +40,9 @@ public class AWSClientErrorRetryHandler implements HttpRetryHandler {
    private final BackoffLimitedRetryHandler backoffLimitedRetryHandler;
    private final Set<String> retryableCodes;
 
+   @Inject(optional = true)
+   private EndpointConcurrencyLimiter limiter = EndpointConcurrencyLimiter.UNLIMITED;
+
    @Inject
    public AWSClientErrorRetryHandler(AWSUtils utils, BackoffLimitedRetryHandler backoffLimitedRetryHandler,
          @ClientError Set<String> retryableCodes) {
@@ -55,6 +59,8 @@ public class AWSClientErrorRetryHandler implements HttpRetryHandler {
             closeClientButKeepContentStream(response);
             AWSError error = utils.parseAWSErrorFromContent(command.getCurrentRequest(), response);
             if (error != null) {
+               if (AWSUtils.THROTTLING_CODES.contains(error.getCode()))
+                  limiter.throttled(command.getCurrentRequest());
                return shouldRetryRequestOnError(command, response, error);
             }
          }
@@ -26,6 +26,7 @@ import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.annotation.ServerError;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
+import org.jclouds.http.internal.EndpointConcurrencyLimiter;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -39,6 +40,9 @@ public class AWSServerErrorRetryHandler extends BackoffLimitedRetryHandler {
    private final AWSUtils utils;
    private final Set<String> retryableServerCodes;
 
+   @Inject(optional = true)
+   private EndpointConcurrencyLimiter limiter = EndpointConcurrencyLimiter.UNLIMITED;
+
    @Inject
    public AWSServerErrorRetryHandler(AWSUtils utils,
          @ServerError Set<String> retryableServerCodes) {
@@ -56,6 +60,8 @@ public class AWSServerErrorRetryHandler extends BackoffLimitedRetryHandler {
             closeClientButKeepContentStream(response);
             AWSError error = utils.parseAWSErrorFromContent(command.getCurrentRequest(), response);
             if (error != null) {
+               if (AWSUtils.THROTTLING_CODES.contains(error.getCode()))
+                  limiter.throttled(command.getCurrentRequest());
                return shouldRetryRequestOnError(command, response, error);
             }
          }
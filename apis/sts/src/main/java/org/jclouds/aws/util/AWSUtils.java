@@ -22,6 +22,7 @@ import static org.jclouds.aws.reference.AWSConstants.PROPERTY_HEADER_TAG;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -45,6 +46,7 @@ import org.jclouds.rest.internal.GeneratedHttpRequest;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 
@@ -54,6 +56,12 @@ import com.google.common.collect.Multimap;
 @Singleton
 @SuppressWarnings("unchecked")
 public class AWSUtils {
+   /**
+    * Error codes AWS services use to say a request was rejected because of its rate.
+    */
+   public static final Set<String> THROTTLING_CODES = ImmutableSet.of("Throttling", "ThrottlingException",
+         "RequestLimitExceeded", "RequestThrottled", "SlowDown");
+
    @Singleton
    public static class GetRegionFromLocation implements Function<Location, String> {
       public String apply(Location location) {
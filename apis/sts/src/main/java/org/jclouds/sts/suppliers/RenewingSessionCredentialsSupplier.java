@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sts.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.io.Closeable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.aws.domain.SessionCredentials;
+import org.jclouds.concurrent.config.OptionalScheduler;
+import org.jclouds.domain.Credentials;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.ApiContext;
+import org.jclouds.rest.Utils;
+import org.jclouds.sts.STSApi;
+import org.jclouds.sts.options.AssumeRoleOptions;
+import org.jclouds.sts.options.SessionCredentialsOptions;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+/**
+ * Temporary credentials from STS that renew themselves before they expire, for use with
+ * {@link org.jclouds.ContextBuilder#credentialsSupplier}. The signers of the AWS apis add the session
+ * token of whatever {@link SessionCredentials} this returns to each request.
+ * <p/>
+ * Only the first call to {@link #get} waits for STS. Afterwards, new credentials are fetched on the
+ * user executor of the STS context well before the current ones expire, and swapped in atomically;
+ * if a renewal fails, it is retried while the current credentials are still served. Only once they
+ * have expired does {@link #get} fetch again itself.
+ * <p/>
+ * If the STS context has a scheduler, from
+ * {@link org.jclouds.concurrent.config.ScheduledExecutorServiceModule}, renewals are timed by it.
+ * Otherwise the first {@link #get} after renewal is due starts one. Failed renewals are logged to
+ * the logger of the STS context.
+ * 
+ * <pre>
+ * ApiContext&lt;STSApi&gt; sts = ContextBuilder.newBuilder(&quot;sts&quot;).credentials(accessKey, secretKey).build();
+ * RenewingSessionCredentialsSupplier session = RenewingSessionCredentialsSupplier.assumeRole(sts, roleArn, &quot;app&quot;);
+ * S3Client s3 = ContextBuilder.newBuilder(&quot;aws-s3&quot;).credentialsSupplier(session).buildApi(S3Client.class);
+ * </pre>
+ */
+public class RenewingSessionCredentialsSupplier implements Supplier<Credentials>, Closeable {
+
+   /** lifetime assumed of credentials without an expiration: the shortest STS grants */
+   private static final long DEFAULT_LIFETIME = TimeUnit.MINUTES.toMillis(15);
+   /** renew once this fraction of the lifetime is left, */
+   private static final double RENEW_FRACTION = 0.2;
+   /** but at least this long before expiration, when the lifetime allows */
+   private static final long RENEW_MARGIN = TimeUnit.MINUTES.toMillis(5);
+   private static final long MIN_RETRY_DELAY = TimeUnit.SECONDS.toMillis(1);
+   private static final long MAX_RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
+
+   /**
+    * @return credentials from {@link STSApi#createTemporaryCredentials()}
+    */
+   public static RenewingSessionCredentialsSupplier sessionToken(final ApiContext<STSApi> sts) {
+      checkNotNull(sts, "sts");
+      return new RenewingSessionCredentialsSupplier(new Supplier<SessionCredentials>() {
+         @Override
+         public SessionCredentials get() {
+            return sts.getApi().createTemporaryCredentials();
+         }
+      }, sts.utils());
+   }
+
+   /**
+    * @return credentials from {@link STSApi#createTemporaryCredentials(SessionCredentialsOptions)}
+    */
+   public static RenewingSessionCredentialsSupplier sessionToken(final ApiContext<STSApi> sts,
+         final SessionCredentialsOptions options) {
+      checkNotNull(sts, "sts");
+      checkNotNull(options, "options");
+      return new RenewingSessionCredentialsSupplier(new Supplier<SessionCredentials>() {
+         @Override
+         public SessionCredentials get() {
+            return sts.getApi().createTemporaryCredentials(options);
+         }
+      }, sts.utils());
+   }
+
+   /**
+    * @return credentials from {@link STSApi#assumeRole(String, String)}
+    */
+   public static RenewingSessionCredentialsSupplier assumeRole(final ApiContext<STSApi> sts, final String roleArn,
+         final String sessionName) {
+      checkNotNull(sts, "sts");
+      checkNotNull(roleArn, "roleArn");
+      checkNotNull(sessionName, "sessionName");
+      return new RenewingSessionCredentialsSupplier(new Supplier<SessionCredentials>() {
+         @Override
+         public SessionCredentials get() {
+            return sts.getApi().assumeRole(roleArn, sessionName).getCredentials();
+         }
+      }, sts.utils());
+   }
+
+   /**
+    * @return credentials from {@link STSApi#assumeRole(String, String, AssumeRoleOptions)}
+    */
+   public static RenewingSessionCredentialsSupplier assumeRole(final ApiContext<STSApi> sts, final String roleArn,
+         final String sessionName, final AssumeRoleOptions options) {
+      checkNotNull(sts, "sts");
+      checkNotNull(roleArn, "roleArn");
+      checkNotNull(sessionName, "sessionName");
+      checkNotNull(options, "options");
+      return new RenewingSessionCredentialsSupplier(new Supplier<SessionCredentials>() {
+         @Override
+         public SessionCredentials get() {
+            return sts.getApi().assumeRole(roleArn, sessionName, options).getCredentials();
+         }
+      }, sts.utils());
+   }
+
+   private final Supplier<SessionCredentials> fetch;
+   private final Optional<ScheduledExecutorService> scheduler;
+   private final Executor executor;
+   private final Logger logger;
+   private final Object lock = new Object();
+   private volatile Session current;
+   /** when the next renewal on {@link #get} may start after one failed */
+   private volatile long retryAt;
+   private final AtomicBoolean renewing = new AtomicBoolean();
+   private volatile boolean closed;
+
+   // guarded by lock
+   private ScheduledFuture<?> scheduled;
+
+   /**
+    * @param fetch
+    *           obtains new credentials from STS
+    * @param utils
+    *           of the context whose executors renew the credentials, and whose logger reports
+    *           renewals
+    */
+   public RenewingSessionCredentialsSupplier(Supplier<SessionCredentials> fetch, Utils utils) {
+      this(fetch, utils.injector().getInstance(OptionalScheduler.class).get(), utils.injector().getInstance(
+            Key.get(ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS))), utils.loggerFactory()
+            .getLogger(RenewingSessionCredentialsSupplier.class.getName()));
+   }
+
+   @VisibleForTesting
+   RenewingSessionCredentialsSupplier(Supplier<SessionCredentials> fetch, Optional<ScheduledExecutorService> scheduler,
+         Executor executor, Logger logger) {
+      this.fetch = checkNotNull(fetch, "fetch");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.executor = checkNotNull(executor, "executor");
+      this.logger = checkNotNull(logger, "logger");
+   }
+
+   /**
+    * Credentials with the time they were obtained and will expire.
+    */
+   private static final class Session {
+      private final SessionCredentials credentials;
+      private final long obtained;
+      private final long expires;
+
+      Session(SessionCredentials credentials, long obtained) {
+         this.credentials = credentials;
+         this.obtained = obtained;
+         this.expires = credentials.getExpiration().isPresent() ? credentials.getExpiration().get().getTime()
+               : obtained + DEFAULT_LIFETIME;
+      }
+
+      boolean expired(long now) {
+         return now >= expires;
+      }
+
+      long renewAt() {
+         long lifetime = Math.max(0, expires - obtained);
+         long margin = Math.max((long) (lifetime * RENEW_FRACTION), Math.min(RENEW_MARGIN, lifetime / 2));
+         return expires - margin;
+      }
+   }
+
+   @Override
+   public SessionCredentials get() {
+      Session session = current;
+      long now = System.currentTimeMillis();
+      if (session == null || session.expired(now))
+         return renew(session).credentials;
+      if (!scheduler.isPresent() && now >= session.renewAt() && now >= retryAt)
+         renewInBackground(session);
+      return session.credentials;
+   }
+
+   /**
+    * Stops renewing the credentials in the background. The scheduler and executor of the context
+    * are left running.
+    */
+   @Override
+   public void close() {
+      closed = true;
+      synchronized (lock) {
+         if (scheduled != null)
+            scheduled.cancel(false);
+      }
+   }
+
+   /**
+    * Replaces the session, unless another thread already has.
+    */
+   private Session renew(Session stale) {
+      synchronized (lock) {
+         if (current != stale)
+            return current;
+         long now = System.currentTimeMillis();
+         Session fresh = new Session(checkNotNull(fetch.get(), "credentials"), now);
+         current = fresh;
+         logger.debug("renewed session credentials %s, expiring in %ss", fresh.credentials.getAccessKeyId(),
+               TimeUnit.MILLISECONDS.toSeconds(fresh.expires - now));
+         schedule(fresh, fresh.renewAt() - now);
+         return fresh;
+      }
+   }
+
+   /**
+    * Renews the session on the executor, unless it was replaced or is being renewed already.
+    */
+   private void renewInBackground(final Session session) {
+      // does not wait for the lock, which is held while fetching
+      if (closed || current != session || !renewing.compareAndSet(false, true))
+         return;
+      try {
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  renew(session);
+               } catch (RuntimeException e) {
+                  long left = session.expires - System.currentTimeMillis();
+                  long retry = Math.max(MIN_RETRY_DELAY, Math.min(MAX_RETRY_DELAY, left / 4));
+                  logger.warn(e, "could not renew session credentials %s expiring in %ss, retrying in %sms",
+                        session.credentials.getAccessKeyId(), TimeUnit.MILLISECONDS.toSeconds(left), retry);
+                  retryAt = System.currentTimeMillis() + retry;
+                  synchronized (lock) {
+                     if (current == session)
+                        schedule(session, retry);
+                  }
+               } finally {
+                  renewing.set(false);
+               }
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         // the context is closed, so the session is renewed once it expires
+         renewing.set(false);
+      }
+   }
+
+   /**
+    * Times the next renewal of the session on the scheduler, if there is one. Called with the lock
+    * held.
+    */
+   private void schedule(final Session session, long delayMillis) {
+      if (closed || !scheduler.isPresent())
+         return;
+      try {
+         scheduled = scheduler.get().schedule(new Runnable() {
+            @Override
+            public void run() {
+               renewInBackground(session);
+            }
+         }, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+         // the context is closed, so the session is renewed once it expires
+      }
+   }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sts.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.aws.domain.SessionCredentials;
+import org.jclouds.logging.Logger;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "RenewingSessionCredentialsSupplierTest")
+public class RenewingSessionCredentialsSupplierTest {
+
+   /**
+    * Numbered credentials lasting the given time, failing the requested fetches.
+    */
+   private static class FakeSTS implements Supplier<SessionCredentials> {
+      private final AtomicInteger fetches = new AtomicInteger();
+      private final long lifetimeMillis;
+      private final int failFrom;
+
+      FakeSTS(long lifetimeMillis, int failFrom) {
+         this.lifetimeMillis = lifetimeMillis;
+         this.failFrom = failFrom;
+      }
+
+      @Override
+      public SessionCredentials get() {
+         int fetch = fetches.incrementAndGet();
+         if (fetch >= failFrom)
+            throw new IllegalStateException("sts unavailable");
+         return SessionCredentials.builder().accessKeyId("AKID" + fetch).secretAccessKey("secret")
+               .sessionToken("token" + fetch).expiration(new Date(System.currentTimeMillis() + lifetimeMillis))
+               .build();
+      }
+   }
+
+   private static RenewingSessionCredentialsSupplier withoutScheduler(FakeSTS sts) {
+      return new RenewingSessionCredentialsSupplier(sts, Optional.<ScheduledExecutorService> absent(),
+            MoreExecutors.sameThreadExecutor(), Logger.NULL);
+   }
+
+   private static RenewingSessionCredentialsSupplier withScheduler(FakeSTS sts, ScheduledExecutorService scheduler) {
+      return new RenewingSessionCredentialsSupplier(sts, Optional.of(scheduler), Executors.newCachedThreadPool(),
+            Logger.NULL);
+   }
+
+   public void testFetchesOnceUntilRenewal() {
+      FakeSTS sts = new FakeSTS(3600000, Integer.MAX_VALUE);
+      RenewingSessionCredentialsSupplier supplier = withoutScheduler(sts);
+      SessionCredentials first = supplier.get();
+      assertEquals(first.getSessionToken(), "token1");
+      assertSame(supplier.get(), first);
+      assertEquals(sts.fetches.get(), 1);
+      supplier.close();
+   }
+
+   public void testRenewsInTheBackgroundBeforeExpiration() throws InterruptedException {
+      // renewed with half of its two seconds left
+      FakeSTS sts = new FakeSTS(2000, Integer.MAX_VALUE);
+      RenewingSessionCredentialsSupplier supplier = withScheduler(sts, Executors.newSingleThreadScheduledExecutor());
+      assertEquals(supplier.get().getSessionToken(), "token1");
+      Thread.sleep(1500);
+      assertEquals(sts.fetches.get(), 2);
+      assertEquals(supplier.get().getSessionToken(), "token2");
+      supplier.close();
+   }
+
+   public void testServesCurrentCredentialsWhileRenewalFails() throws InterruptedException {
+      FakeSTS sts = new FakeSTS(4000, 2);
+      RenewingSessionCredentialsSupplier supplier = withScheduler(sts, Executors.newSingleThreadScheduledExecutor());
+      assertEquals(supplier.get().getSessionToken(), "token1");
+      Thread.sleep(2500);
+      assertEquals(sts.fetches.get(), 2);
+      assertEquals(supplier.get().getSessionToken(), "token1");
+      supplier.close();
+   }
+
+   public void testRenewsOnRequestWithoutAScheduler() throws InterruptedException {
+      // due for renewal with half of its two seconds left
+      FakeSTS sts = new FakeSTS(2000, Integer.MAX_VALUE);
+      RenewingSessionCredentialsSupplier supplier = withoutScheduler(sts);
+      assertEquals(supplier.get().getSessionToken(), "token1");
+      Thread.sleep(1200);
+      assertEquals(supplier.get().getSessionToken(), "token1");
+      assertEquals(sts.fetches.get(), 2);
+      assertEquals(supplier.get().getSessionToken(), "token2");
+      supplier.close();
+   }
+
+   public void testCloseLeavesTheSchedulerRunning() {
+      FakeSTS sts = new FakeSTS(3600000, Integer.MAX_VALUE);
+      ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+      RenewingSessionCredentialsSupplier supplier = withScheduler(sts, scheduler);
+      supplier.get();
+      supplier.close();
+      assertFalse(scheduler.isShutdown());
+      scheduler.shutdownNow();
+   }
+
+   public void testFetchesExpiredCredentialsOnRequest() {
+      FakeSTS sts = new FakeSTS(-1, Integer.MAX_VALUE);
+      RenewingSessionCredentialsSupplier supplier = withoutScheduler(sts);
+      supplier.close();
+      assertEquals(supplier.get().getSessionToken(), "token1");
+      assertEquals(supplier.get().getSessionToken(), "token2");
+   }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, but writes the results as JSON to
+ * {@code jmh-result.json} unless {@code -rf} or {@code -rff} say otherwise, so runs of different
+ * releases can be compared.
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar [jmh options] [benchmark regexp]
+ * </pre>
+ */
+public class BenchmarkRunner {
+   public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+   public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+      ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+      if (!commandLine.getResultFormat().hasValue())
+         options.resultFormat(ResultFormatType.JSON);
+      if (!commandLine.getResult().hasValue())
+         options.result(DEFAULT_RESULT_FILE);
+      new Runner(options.build()).run();
+   }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Builds large listings out of single-item responses from the test resources of the ec2,
+ * openstack-nova and google-compute-engine test jars.
+ */
+final class Fixtures {
+
+   static String resource(String name) {
+      try {
+         return Resources.toString(Resources.getResource(Fixtures.class, "/" + name), Charsets.UTF_8);
+      } catch (IOException e) {
+         throw new IllegalStateException("could not read " + name, e);
+      }
+   }
+
+   /**
+    * Repeats the contents of the only {@code element} of {@code xml}.
+    */
+   static String repeatXmlElement(String xml, String element, int count) {
+      String open = "<" + element + ">";
+      String close = "</" + element + ">";
+      int start = xml.indexOf(open) + open.length();
+      int end = xml.lastIndexOf(close);
+      String item = xml.substring(start, end);
+      StringBuilder builder = new StringBuilder(xml.length() + item.length() * count);
+      builder.append(xml, 0, start);
+      for (int i = 0; i < count; i++)
+         builder.append(item);
+      return builder.append(xml, end, xml.length()).toString();
+   }
+
+   /**
+    * Copies the object under {@code singleField} of {@code json} into an array of {@code count} items
+    * under {@code listField}, with distinct ids.
+    */
+   static String repeatJsonObject(String json, String singleField, String listField, int count) {
+      JsonObject parsed = new JsonParser().parse(json).getAsJsonObject();
+      JsonObject item = singleField != null ? parsed.getAsJsonObject(singleField) : parsed;
+      JsonArray items = new JsonArray();
+      for (int i = 0; i < count; i++) {
+         JsonObject copy = new JsonObject();
+         for (Map.Entry<String, JsonElement> entry : item.entrySet())
+            copy.add(entry.getKey(), entry.getValue());
+         copy.add("id", new JsonPrimitive(String.valueOf(i)));
+         items.add(copy);
+      }
+      JsonObject list = new JsonObject();
+      list.add(listField, items);
+      return list.toString();
+   }
+
+   private Fixtures() {
+      throw new AssertionError("intentionally unimplemented");
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.inDirectory;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.maxResults;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures listing a large container of the {@code transient} blobstore, which is backed by
+ * {@link org.jclouds.blobstore.config.LocalBlobStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LocalBlobStoreListBenchmark {
+
+   private static final String CONTAINER = "benchmarks";
+
+   @Param({ "10000" })
+   public int blobs;
+
+   private BlobStoreContext context;
+   private BlobStore blobStore;
+
+   @Setup
+   public void setup() {
+      context = ContextBuilder.newBuilder("transient").buildView(BlobStoreContext.class);
+      blobStore = context.getBlobStore();
+      blobStore.createContainerInLocation(null, CONTAINER);
+      for (int i = 0; i < blobs; i++) {
+         String name = String.format("dir-%02d/sub-%02d/blob-%06d", i % 10, i % 100, i);
+         blobStore.putBlob(CONTAINER, blobStore.blobBuilder(name).payload("content " + i).build());
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      context.close();
+   }
+
+   @Benchmark
+   public PageSet<? extends StorageMetadata> firstPage() {
+      return blobStore.list(CONTAINER, maxResults(1000));
+   }
+
+   @Benchmark
+   public PageSet<? extends StorageMetadata> recursiveFirstPage() {
+      return blobStore.list(CONTAINER, recursive().maxResults(1000));
+   }
+
+   @Benchmark
+   public PageSet<? extends StorageMetadata> directory() {
+      return blobStore.list(CONTAINER, inDirectory("dir-03/sub-13"));
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.config.GoogleComputeEngineParserModule;
+import org.jclouds.googlecomputeengine.domain.Instance;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseFirstJsonValueNamed;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.json.internal.GsonWrapper;
+import org.jclouds.openstack.nova.v2_0.config.NovaParserModule;
+import org.jclouds.openstack.nova.v2_0.domain.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Measures parsing large Nova server and Google Compute Engine instance listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParseJsonBenchmark {
+
+   @Param({ "1000" })
+   public int size;
+
+   private ParseFirstJsonValueNamed<Set<Server>> novaParser;
+   private String novaServers;
+
+   private ParseJson<ListPage<Instance>> gceParser;
+   private String gceInstances;
+
+   @Setup
+   public void setup() {
+      Injector nova = Guice.createInjector(new GsonModule(), new NovaParserModule());
+      novaParser = new ParseFirstJsonValueNamed<Set<Server>>(nova.getInstance(GsonWrapper.class),
+            new TypeLiteral<Set<Server>>() {
+            }, "servers");
+      novaServers = Fixtures.repeatJsonObject(Fixtures.resource("server_details.json"), "server", "servers", size);
+
+      Injector gce = Guice.createInjector(new GsonModule(), new GoogleComputeEngineParserModule());
+      gceParser = new ParseJson<ListPage<Instance>>(gce.getInstance(Json.class),
+            new TypeLiteral<ListPage<Instance>>() {
+            });
+      gceInstances = Fixtures.repeatJsonObject(Fixtures.resource("instance_get.json"), null, "items", size);
+   }
+
+   @Benchmark
+   public Set<Server> novaServers() {
+      return novaParser.apply(response(novaServers));
+   }
+
+   @Benchmark
+   public ListPage<Instance> gceInstances() {
+      return gceParser.apply(response(gceInstances));
+   }
+
+   private static HttpResponse response(String json) {
+      return HttpResponse.builder().statusCode(200).payload(json).build();
+   }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.ec2.domain.Reservation;
+import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.ec2.xml.DescribeInstancesResponseHandler;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.config.SaxParserModule;
+import org.jclouds.location.Region;
+import org.jclouds.location.Zone;
+import org.jclouds.logging.config.NullLoggingModule;
+import org.jclouds.s3.domain.ListBucketResponse;
+import org.jclouds.s3.xml.ListBucketHandler;
+import org.jclouds.util.Suppliers2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Provider;
+import com.google.inject.Provides;
+
+/**
+ * Measures parsing large S3 bucket and EC2 instance listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParseSaxBenchmark {
+
+   @Param({ "1000" })
+   public int size;
+
+   private ParseSax.Factory s3Factory;
+   private Provider<ListBucketHandler> listBucketHandler;
+   private String listBucket;
+
+   private ParseSax.Factory ec2Factory;
+   private Provider<DescribeInstancesResponseHandler> describeInstancesHandler;
+   private String describeInstances;
+
+   @Setup
+   public void setup() {
+      Injector s3 = ContextBuilder.newBuilder("s3").endpoint("https://localhost")
+            .credentials("identity", "credential").modules(ImmutableSet.<Module> of(new NullLoggingModule()))
+            .buildInjector();
+      s3Factory = s3.getInstance(ParseSax.Factory.class);
+      listBucketHandler = s3.getProvider(ListBucketHandler.class);
+      listBucket = listBucket(size);
+
+      Injector ec2 = Guice.createInjector(new SaxParserModule(), new RegionModule());
+      ec2Factory = ec2.getInstance(ParseSax.Factory.class);
+      describeInstancesHandler = ec2.getProvider(DescribeInstancesResponseHandler.class);
+      describeInstances = Fixtures.repeatXmlElement(Fixtures.resource("describe_instances_running.xml"),
+            "reservationSet", size);
+   }
+
+   @Benchmark
+   public ListBucketResponse s3ListBucket() {
+      return s3Factory.create(listBucketHandler.get()).parse(listBucket);
+   }
+
+   @Benchmark
+   public Set<Reservation<? extends RunningInstance>> ec2DescribeInstances() {
+      return ec2Factory.create(describeInstancesHandler.get()).parse(describeInstances);
+   }
+
+   private static String listBucket(int size) {
+      StringBuilder xml = new StringBuilder();
+      xml.append("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">");
+      xml.append("<Name>bucket</Name><Prefix/><Marker/><MaxKeys>").append(size).append("</MaxKeys>");
+      xml.append("<IsTruncated>false</IsTruncated>");
+      for (int i = 0; i < size; i++) {
+         xml.append("<Contents><Key>path/to/object-").append(i).append(".txt</Key>");
+         xml.append("<LastModified>2009-10-12T17:50:30.000Z</LastModified>");
+         xml.append("<ETag>&quot;fba9dede5f27731c9771645a39863328&quot;</ETag>");
+         xml.append("<Size>").append(434234 + i).append("</Size><StorageClass>STANDARD</StorageClass>");
+         xml.append("<Owner><ID>75aa57f09aa0c8caeab4f8c24e99d10f8e7faeebf76c078efc7c6caea54ba06a</ID>");
+         xml.append("<DisplayName>mtd@amazon.com</DisplayName></Owner></Contents>");
+      }
+      return xml.append("</ListBucketResult>").toString();
+   }
+
+   private static class RegionModule extends AbstractModule {
+      @Override
+      protected void configure() {
+      }
+
+      @Singleton
+      @Provides
+      @Region
+      Supplier<String> provideDefaultRegion() {
+         return Suppliers.ofInstance("us-east-1");
+      }
+
+      @Singleton
+      @Provides
+      @Zone
+      Supplier<Map<String, Supplier<Set<String>>>> provideRegionToAvailabilityZoneMap() {
+         return Suppliers.<Map<String, Supplier<Set<String>>>> ofInstance(Maps.transformValues(ImmutableMap
+               .<String, Set<String>> of("us-east-1", ImmutableSet.of("us-east-1c")), Suppliers2
+               .<Set<String>> ofInstanceFunction()));
+      }
+
+      @Singleton
+      @Provides
+      @Zone
+      Supplier<Set<String>> provideZones() {
+         return Suppliers.<Set<String>> ofInstance(ImmutableSet.of("us-east-1c"));
+      }
+   }
+}
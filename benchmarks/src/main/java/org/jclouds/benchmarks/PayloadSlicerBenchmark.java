@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static org.jclouds.io.Payloads.newByteArrayPayload;
+import static org.jclouds.io.Payloads.newFilePayload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.internal.BasePayloadSlicer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * Measures slicing a 64MB payload into multipart upload parts and reading every part.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PayloadSlicerBenchmark {
+
+   private static final int PAYLOAD_SIZE = 64 * 1024 * 1024;
+
+   @Param({ "bytes", "file" })
+   public String source;
+
+   @Param({ "5242880" })
+   public long partSize;
+
+   private final BasePayloadSlicer slicer = new BasePayloadSlicer();
+   private Payload payload;
+   private File file;
+
+   @Setup
+   public void setup() throws IOException {
+      byte[] bytes = new byte[PAYLOAD_SIZE];
+      new Random(0).nextBytes(bytes);
+      if ("file".equals(source)) {
+         file = File.createTempFile("jclouds-slicer", ".bin");
+         Files.write(bytes, file);
+         payload = newFilePayload(file);
+      } else {
+         payload = newByteArrayPayload(bytes);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      if (file != null)
+         file.delete();
+   }
+
+   @Benchmark
+   public long sliceAndRead() throws IOException {
+      long read = 0;
+      for (Payload part : slicer.slice(payload, partSize)) {
+         InputStream in = part.openStream();
+         try {
+            read += ByteStreams.copy(in, ByteStreams.nullOutputStream());
+         } finally {
+            Closeables.closeQuietly(in);
+         }
+      }
+      return read;
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static org.jclouds.reflect.Reflection2.method;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.azure.storage.filters.SharedKeyLiteAuthentication;
+import org.jclouds.azureblob.AzureBlobClient;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.logging.config.NullLoggingModule;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.internal.RestAnnotationProcessor;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.filters.RequestAuthorizeSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+/**
+ * Measures the request filters that sign S3 and Azure blob requests.
+ * 
+ * @see org.jclouds.openstack.swift.v1.TemporaryUrlSignerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequestSigningBenchmark {
+
+   private RequestAuthorizeSignature s3Signer;
+   private HttpRequest s3Request;
+   private SharedKeyLiteAuthentication azureSigner;
+   private HttpRequest azureRequest;
+
+   @Setup
+   public void setup() {
+      Injector s3 = injector(ContextBuilder.newBuilder("s3").endpoint("https://localhost")
+            .credentials("identity", "credential"));
+      s3Signer = s3.getInstance(RequestAuthorizeSignature.class);
+      s3Request = s3.getInstance(RestAnnotationProcessor.class).apply(Invocation.create(
+            method(S3Client.class, "getObject", String.class, String.class, GetOptions[].class),
+            ImmutableList.<Object> of("bucket", "path/to/object.txt")));
+
+      Injector azure = injector(ContextBuilder.newBuilder("azureblob").credentials("identity",
+            "aGVsbG8gd29ybGQgaGVsbG8gd29ybGQ="));
+      azureSigner = azure.getInstance(SharedKeyLiteAuthentication.class);
+      azureRequest = azure.getInstance(RestAnnotationProcessor.class).apply(Invocation.create(
+            method(AzureBlobClient.class, "getBlob", String.class, String.class, GetOptions[].class),
+            ImmutableList.<Object> of("container", "path/to/object.txt")));
+   }
+
+   private static Injector injector(ContextBuilder builder) {
+      return builder.modules(ImmutableSet.<Module> of(new NullLoggingModule())).buildInjector();
+   }
+
+   @Benchmark
+   public HttpRequest s3() {
+      return s3Signer.filter(s3Request);
+   }
+
+   @Benchmark
+   public HttpRequest azure() {
+      return azureSigner.filter(azureRequest);
+   }
+}
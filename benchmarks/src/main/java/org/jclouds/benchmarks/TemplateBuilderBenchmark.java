@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.domain.TemplateBuilder;
+import org.jclouds.compute.domain.internal.TemplateBuilderImpl;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.strategy.GetImageStrategy;
+import org.jclouds.compute.suppliers.ImageCacheSupplier;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Measures choosing a template out of a large image set, as done by every
+ * {@code createNodesInGroup} call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TemplateBuilderBenchmark {
+
+   private static final OsFamily[] FAMILIES = { OsFamily.UBUNTU, OsFamily.CENTOS, OsFamily.DEBIAN, OsFamily.RHEL,
+         OsFamily.WINDOWS };
+   private static final String[] VERSIONS = { "10.04", "12.04", "13.10", "14.04", "6.5", "7" };
+
+   @Param({ "10000" })
+   public int images;
+
+   private Supplier<Set<? extends Location>> locations;
+   private ImageCacheSupplier imageCache;
+   private Supplier<Set<? extends Hardware>> hardwares;
+   private Location defaultLocation;
+
+   @Setup
+   public void setup() {
+      Location provider = new LocationBuilder().scope(LocationScope.PROVIDER).id("provider").description("provider")
+            .build();
+      ImmutableSet.Builder<Location> regions = ImmutableSet.builder();
+      for (int i = 0; i < 8; i++)
+         regions.add(new LocationBuilder().scope(LocationScope.REGION).id("region-" + i).description("region-" + i)
+               .parent(provider).build());
+      final Set<Location> allLocations = ImmutableSet.<Location> builder().add(provider).addAll(regions.build())
+            .build();
+      defaultLocation = regions.build().iterator().next();
+
+      ImmutableList<Location> regionList = regions.build().asList();
+      ImmutableSet.Builder<Image> imageSet = ImmutableSet.builder();
+      for (int i = 0; i < images; i++) {
+         OperatingSystem os = OperatingSystem.builder().family(FAMILIES[i % FAMILIES.length])
+               .version(VERSIONS[i % VERSIONS.length]).description("image " + i).is64Bit(i % 3 != 0).build();
+         imageSet.add(new ImageBuilder().id("image-" + i).providerId("image-" + i).name("image-" + i)
+               .description("image " + i).version(String.valueOf(i)).operatingSystem(os)
+               .status(Image.Status.AVAILABLE).location(regionList.get(i % regionList.size())).build());
+      }
+      final Set<Image> allImages = imageSet.build();
+
+      ImmutableSet.Builder<Hardware> hardwareSet = ImmutableSet.builder();
+      for (int i = 1; i <= 32; i++)
+         hardwareSet.add(new HardwareBuilder().id("hardware-" + i).providerId("hardware-" + i).ram(512 * i)
+               .processors(ImmutableList.of(new Processor(i, 2.0))).build());
+      final Set<Hardware> allHardware = hardwareSet.build();
+
+      locations = Suppliers.<Set<? extends Location>> ofInstance(allLocations);
+      imageCache = new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(allImages), 60);
+      hardwares = Suppliers.<Set<? extends Hardware>> ofInstance(allHardware);
+   }
+
+   private TemplateBuilder templateBuilder() {
+      return new TemplateBuilderImpl(locations, imageCache, hardwares, Suppliers.ofInstance(defaultLocation),
+            new Provider<TemplateOptions>() {
+               @Override
+               public TemplateOptions get() {
+                  return new TemplateOptions();
+               }
+            }, new Provider<TemplateBuilder>() {
+               @Override
+               public TemplateBuilder get() {
+                  return templateBuilder().osFamily(OsFamily.UBUNTU);
+               }
+            }, new GetImageStrategy() {
+               @Override
+               public Image getImage(String id) {
+                  return null;
+               }
+            }) {
+      };
+   }
+
+   @Benchmark
+   public Template smallestUbuntu() {
+      return templateBuilder().osFamily(OsFamily.UBUNTU).osVersionMatches("12.04").smallest().build();
+   }
+
+   @Benchmark
+   public Template fastest64BitInLocation() {
+      return templateBuilder().os64Bit(true).locationId("region-3").minRam(4096).fastest().build();
+   }
+
+   @Benchmark
+   public Template defaultTemplate() {
+      return templateBuilder().build();
+   }
+}
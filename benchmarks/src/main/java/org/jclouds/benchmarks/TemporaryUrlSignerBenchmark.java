@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.openstack.swift.v1.TemporaryUrlSigner;
+import org.jclouds.openstack.swift.v1.domain.Account;
+import org.jclouds.openstack.swift.v1.features.AccountApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Measures signing Swift temporary urls. The key comes from an account that is only looked up once,
+ * as the signer caches it for longer than a run takes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TemporaryUrlSignerBenchmark {
+
+   private final TemporaryUrlSigner signer = TemporaryUrlSigner.checkApiEvery(new FixedKeyAccountApi("mykey"),
+         TimeUnit.DAYS.toSeconds(1));
+
+   @Benchmark
+   public String sign() {
+      return signer.sign("GET", "/v1/AUTH_account/container/path/to/object.txt", 1323479485);
+   }
+
+   private static class FixedKeyAccountApi implements AccountApi {
+      private final Account account;
+
+      private FixedKeyAccountApi(String temporaryUrlKey) {
+         this.account = Account.builder().metadata(ImmutableMap.of("temp-url-key", temporaryUrlKey)).build();
+      }
+
+      @Override
+      public Account get() {
+         return account;
+      }
+
+      @Override
+      public boolean updateMetadata(Map<String, String> metadata) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean updateTemporaryUrlKey(String temporaryUrlKey) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean deleteMetadata(Map<String, String> metadata) {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static org.jclouds.http.Uris.uriBuilder;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.util.Strings2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Measures {@link org.jclouds.http.Uris.UriBuilder} and {@link Strings2#urlEncode}, which run for
+ * every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UriEncodingBenchmark {
+
+   private final String key = "path/to/some object with spaces+plus&ampersand/\u00fcn\u00efc\u00f8d\u00e9.txt";
+   private final Map<String, String> variables = ImmutableMap.of("container", "benchmarks", "name", key);
+
+   @Benchmark
+   public String urlEncode() {
+      return Strings2.urlEncode(key, '/');
+   }
+
+   @Benchmark
+   public URI appendPathAndQuery() {
+      return uriBuilder("https://storage.example.com/v1/account").appendPath("benchmarks").appendPath(key)
+            .addQuery("prefix", "path/to/").addQuery("limit", "1000").build();
+   }
+
+   @Benchmark
+   public URI expandTemplate() {
+      return uriBuilder("https://storage.example.com/v1/account/{container}/{name}").build(variables);
+   }
+}
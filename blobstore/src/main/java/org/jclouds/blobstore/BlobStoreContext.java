@@ -23,6 +23,7 @@ import org.jclouds.blobstore.attr.ConsistencyModel;
 import org.jclouds.blobstore.internal.BlobStoreContextImpl;
 import org.jclouds.rest.Utils;
 
+import com.google.common.annotations.Beta;
 import com.google.inject.ImplementedBy;
 
 /**
@@ -43,6 +44,12 @@ public interface BlobStoreContext extends Closeable, View {
     */
    BlobStore getBlobStore();
 
+   /**
+    * @return the operations of {@link #getBlobStore()} as futures, limited per container
+    */
+   @Beta
+   ConcurrentBlobOperations getConcurrentBlobOperations();
+
    /**
     * @return best guess at the consistency model used in this BlobStore.
     */
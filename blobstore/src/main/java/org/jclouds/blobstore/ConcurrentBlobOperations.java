@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore;
+
+import java.util.List;
+
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.internal.ExecutorConcurrentBlobOperations;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.io.Payload;
+
+import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.ImplementedBy;
+
+/**
+ * Asynchronous access to the blob operations of a {@link BlobStore}, for pipelines that keep many
+ * operations in flight. Each method behaves as its counterpart in {@link BlobStore}, failing the
+ * returned future instead of throwing.
+ * <p/>
+ * Obtain an instance with {@link BlobStoreContext#getConcurrentBlobOperations()}.
+ * 
+ * @see org.jclouds.blobstore.reference.BlobStoreConstants#PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY
+ */
+@Beta
+@ImplementedBy(ExecutorConcurrentBlobOperations.class)
+public interface ConcurrentBlobOperations {
+
+   /**
+    * @see BlobStore#list(String, ListContainerOptions)
+    */
+   ListenableFuture<PageSet<? extends StorageMetadata>> list(String container, ListContainerOptions options);
+
+   /**
+    * @see BlobStore#putBlob(String, Blob)
+    */
+   ListenableFuture<String> putBlob(String container, Blob blob);
+
+   /**
+    * @see BlobStore#putBlob(String, Blob, PutOptions)
+    */
+   ListenableFuture<String> putBlob(String container, Blob blob, PutOptions options);
+
+   /**
+    * @see BlobStore#blobMetadata(String, String)
+    */
+   ListenableFuture<BlobMetadata> blobMetadata(String container, String name);
+
+   /**
+    * @see BlobStore#getBlob(String, String)
+    */
+   ListenableFuture<Blob> getBlob(String container, String name);
+
+   /**
+    * @see BlobStore#getBlob(String, String, GetOptions)
+    */
+   ListenableFuture<Blob> getBlob(String container, String name, GetOptions options);
+
+   /**
+    * @see BlobStore#removeBlob(String, String)
+    */
+   ListenableFuture<Void> removeBlob(String container, String name);
+
+   /**
+    * @see BlobStore#initiateMultipartUpload(String, BlobMetadata)
+    */
+   ListenableFuture<MultipartUpload> initiateMultipartUpload(String container, BlobMetadata blob);
+
+   /**
+    * @see BlobStore#uploadMultipartPart(MultipartUpload, int, Payload)
+    */
+   ListenableFuture<MultipartPart> uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload);
+
+   /**
+    * @see BlobStore#completeMultipartUpload(MultipartUpload, List)
+    */
+   ListenableFuture<String> completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts);
+
+   /**
+    * @see BlobStore#abortMultipartUpload(MultipartUpload)
+    */
+   ListenableFuture<Void> abortMultipartUpload(MultipartUpload mpu);
+
+   /**
+    * @see BlobStore#listMultipartUpload(MultipartUpload)
+    */
+   ListenableFuture<List<MultipartPart>> listMultipartUpload(MultipartUpload mpu);
+
+}
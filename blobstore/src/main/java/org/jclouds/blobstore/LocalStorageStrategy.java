@@ -23,6 +23,7 @@ import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
 import org.jclouds.blobstore.domain.ContainerAccess;
 import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
@@ -123,6 +124,21 @@ public interface LocalStorageStrategy {
      */
     String putBlob(String containerName, Blob blob) throws IOException;
 
+    /**
+     * Copy a blob inside the store without streaming its payload through the caller. Content and
+     * user metadata are carried over from the source unless overridden by the options.
+     *
+     * @param fromContainer
+     * @param fromName
+     * @param toContainer
+     * @param toName
+     * @param options
+     * @return etag of the new blob
+     * @throws IOException
+     */
+    String copyBlob(String fromContainer, String fromName, String toContainer, String toName, CopyOptions options)
+          throws IOException;
+
     /**
      * Remove blob named by the given key
      * @param container
@@ -36,12 +36,14 @@ import org.jclouds.blobstore.domain.MutableStorageMetadata;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
+import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.util.BlobStoreUtils;
 import org.jclouds.date.DateService;
 import org.jclouds.domain.Location;
 import org.jclouds.http.HttpUtils;
+import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -175,7 +177,8 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
          Closeables2.closeQuietly(input);
       }
 
-      Blob newBlob = createUpdatedCopyOfBlobInContainer(containerName, blob, payload, actualHashCode);
+      Blob newBlob = createUpdatedCopyOfBlobInContainer(containerName, blob, ByteSource.wrap(payload),
+            payload.length, actualHashCode);
       Map<String, Blob> map = containerToBlobs.get(containerName);
       String blobName = newBlob.getMetadata().getName();
       map.put(blobName, newBlob);
@@ -183,6 +186,45 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return base16().lowerCase().encode(actualHashCode.asBytes());
    }
 
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) throws IOException {
+      Blob source = getBlob(fromContainer, fromName);
+      if (source == null) {
+         throw new KeyNotFoundException(fromContainer, fromName, "while copying");
+      }
+
+      // stored payloads wrap immutable byte arrays, so the copy can share them
+      // instead of buffering and rehashing the content
+      ByteSource content = (ByteSource) source.getPayload().getRawContent();
+      MutableContentMetadata sourceMd = source.getPayload().getContentMetadata();
+      Blob target = blobFactory.create(BlobStoreUtils.copy(source.getMetadata(), toName));
+      target.setPayload(Payloads.newByteSourcePayload(content));
+      MutableContentMetadata targetMd = target.getPayload().getContentMetadata();
+      if (options.getContentMetadata().isPresent()) {
+         ContentMetadata overrides = options.getContentMetadata().get();
+         targetMd.setContentDisposition(overrides.getContentDisposition());
+         targetMd.setContentEncoding(overrides.getContentEncoding());
+         targetMd.setContentLanguage(overrides.getContentLanguage());
+         targetMd.setContentType(overrides.getContentType());
+      } else {
+         HttpUtils.copy(sourceMd, targetMd);
+      }
+      if (options.getUserMetadata().isPresent()) {
+         target.getMetadata().setUserMetadata(options.getUserMetadata().get());
+      }
+
+      Blob newBlob = createUpdatedCopyOfBlobInContainer(toContainer, target, content,
+            sourceMd.getContentLength(), sourceMd.getContentMD5AsHashCode());
+      Map<String, Blob> map = containerToBlobs.get(toContainer);
+      if (map == null) {
+         throw new ContainerNotFoundException(toContainer, "while copying");
+      }
+      map.put(toName, newBlob);
+      containerToBlobAccess.get(toContainer).put(toName, BlobAccess.PRIVATE);
+      return newBlob.getMetadata().getETag();
+   }
+
    @Override
    public void removeBlob(final String containerName, final String blobName) {
       Map<String, Blob> map = containerToBlobs.get(containerName);
@@ -222,21 +264,22 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return "/";
    }
 
-   private Blob createUpdatedCopyOfBlobInContainer(String containerName, Blob in, byte[] input, HashCode contentMd5) {
+   private Blob createUpdatedCopyOfBlobInContainer(String containerName, Blob in, ByteSource input, long length,
+         HashCode contentMd5) {
       checkNotNull(containerName, "containerName");
       checkNotNull(in, "blob");
       checkNotNull(input, "input");
       checkNotNull(contentMd5, "contentMd5");
-      Payload payload = Payloads.newByteSourcePayload(ByteSource.wrap(input));
+      Payload payload = Payloads.newByteSourcePayload(input);
       MutableContentMetadata oldMd = in.getPayload().getContentMetadata();
       HttpUtils.copy(oldMd, payload.getContentMetadata());
       payload.getContentMetadata().setContentMD5(contentMd5);
-      payload.getContentMetadata().setContentLength((long) input.length);
+      payload.getContentMetadata().setContentLength(length);
       Blob blob = blobFactory.create(BlobStoreUtils.copy(in.getMetadata()));
       blob.setPayload(payload);
       blob.getMetadata().setContainer(containerName);
       blob.getMetadata().setLastModified(new Date());
-      blob.getMetadata().setSize((long) input.length);
+      blob.getMetadata().setSize(length);
       String eTag = base16().lowerCase().encode(contentMd5.asBytes());
       blob.getMetadata().setETag(eTag);
       // Set HTTP headers to match metadata
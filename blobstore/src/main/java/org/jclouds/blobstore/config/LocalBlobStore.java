@@ -35,7 +35,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.UUID;
@@ -87,13 +86,11 @@ import org.jclouds.io.Payload;
 import org.jclouds.io.payloads.ByteArrayPayload;
 import org.jclouds.io.payloads.FilePayload;
 import org.jclouds.logging.Logger;
-import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -549,57 +546,22 @@ public final class LocalBlobStore implements BlobStore {
    @Override
    public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
          CopyOptions options) {
-      Blob blob = getBlob(fromContainer, fromName);
-      if (blob == null) {
+      if (!storageStrategy.containerExists(fromContainer)) {
+         throw cnfe(fromContainer);
+      }
+      if (!storageStrategy.blobExists(fromContainer, fromName)) {
          throw new KeyNotFoundException(fromContainer, fromName, "while copying");
       }
+      if (!storageStrategy.containerExists(toContainer)) {
+         throw cnfe(toContainer);
+      }
 
-      InputStream is = null;
       try {
-         is = blob.getPayload().openStream();
-         ContentMetadata metadata = blob.getMetadata().getContentMetadata();
-         BlobBuilder.PayloadBlobBuilder builder = blobBuilder(toName)
-               .payload(is);
-         Long contentLength = metadata.getContentLength();
-         if (contentLength != null) {
-            builder.contentLength(contentLength);
-         }
-
-         if (options.getContentMetadata().isPresent()) {
-            ContentMetadata contentMetadata = options.getContentMetadata().get();
-            String contentDisposition = contentMetadata.getContentDisposition();
-            if (contentDisposition != null) {
-               builder.contentDisposition(contentDisposition);
-            }
-            String contentEncoding = contentMetadata.getContentEncoding();
-            if (contentEncoding != null) {
-               builder.contentEncoding(contentEncoding);
-            }
-            String contentLanguage = contentMetadata.getContentLanguage();
-            if (contentLanguage != null) {
-               builder.contentLanguage(contentLanguage);
-            }
-            String contentType = contentMetadata.getContentType();
-            if (contentType != null) {
-               builder.contentType(contentType);
-            }
-         } else {
-            builder.contentDisposition(metadata.getContentDisposition())
-                   .contentEncoding(metadata.getContentEncoding())
-                   .contentLanguage(metadata.getContentLanguage())
-                   .contentType(metadata.getContentType());
-         }
-         Optional<Map<String, String>> userMetadata = options.getUserMetadata();
-         if (userMetadata.isPresent()) {
-            builder.userMetadata(userMetadata.get());
-         } else {
-            builder.userMetadata(blob.getMetadata().getUserMetadata());
-         }
-         return putBlob(toContainer, builder.build());
-      } catch (IOException ioe) {
-         throw Throwables.propagate(ioe);
-      } finally {
-         Closeables2.closeQuietly(is);
+         return storageStrategy.copyBlob(fromContainer, fromName, toContainer, toName, options);
+      } catch (IOException e) {
+         logger.error(e, "An error occurred copying blob [%s] from container [%s] to [%s] in container [%s].",
+               fromName, fromContainer, toName, toContainer);
+         throw propagate(e);
       }
    }
 
@@ -25,6 +25,7 @@ import org.jclouds.Context;
 import org.jclouds.blobstore.BlobRequestSigner;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.ConcurrentBlobOperations;
 import org.jclouds.blobstore.attr.ConsistencyModel;
 import org.jclouds.internal.BaseView;
 import org.jclouds.location.Provider;
@@ -60,6 +61,11 @@ public class BlobStoreContextImpl extends BaseView implements BlobStoreContext {
       return blobStore;
    }
 
+   @Override
+   public ConcurrentBlobOperations getConcurrentBlobOperations() {
+      return utils.injector().getInstance(ConcurrentBlobOperations.class);
+   }
+
    @Override
    public Utils utils() {
       return utils;
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.ConcurrentBlobOperations;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.io.Payload;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
+
+/**
+ * Runs the operations of the {@link BlobStore} on the user executor, at most
+ * {@link BlobStoreConstants#PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY} at a time per container.
+ * Operations beyond the limit are queued, rather than each holding a thread while it waits, so that
+ * callers can keep thousands of operations outstanding.
+ */
+@Singleton
+public class ExecutorConcurrentBlobOperations implements ConcurrentBlobOperations {
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(BlobStoreConstants.PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY)
+   protected int containerConcurrency = 16;
+
+   protected final BlobStore blobStore;
+   protected final ListeningExecutorService userExecutor;
+
+   /** operations waiting for a slot, and the count of those running, of each busy container */
+   private final Map<String, Queue<Operation<?>>> waiting = Maps.newHashMap();
+   private final Map<String, Integer> running = Maps.newHashMap();
+
+   @Inject
+   public ExecutorConcurrentBlobOperations(BlobStore blobStore,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.blobStore = checkNotNull(blobStore, "blobStore");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   @Override
+   public ListenableFuture<PageSet<? extends StorageMetadata>> list(final String container,
+         final ListContainerOptions options) {
+      return submit(container, new Callable<PageSet<? extends StorageMetadata>>() {
+         @Override
+         public PageSet<? extends StorageMetadata> call() {
+            return blobStore.list(container, options);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<String> putBlob(final String container, final Blob blob) {
+      return submit(container, new Callable<String>() {
+         @Override
+         public String call() {
+            return blobStore.putBlob(container, blob);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<String> putBlob(final String container, final Blob blob, final PutOptions options) {
+      return submit(container, new Callable<String>() {
+         @Override
+         public String call() {
+            return blobStore.putBlob(container, blob, options);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<BlobMetadata> blobMetadata(final String container, final String name) {
+      return submit(container, new Callable<BlobMetadata>() {
+         @Override
+         public BlobMetadata call() {
+            return blobStore.blobMetadata(container, name);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<Blob> getBlob(final String container, final String name) {
+      return submit(container, new Callable<Blob>() {
+         @Override
+         public Blob call() {
+            return blobStore.getBlob(container, name);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<Blob> getBlob(final String container, final String name, final GetOptions options) {
+      return submit(container, new Callable<Blob>() {
+         @Override
+         public Blob call() {
+            return blobStore.getBlob(container, name, options);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<Void> removeBlob(final String container, final String name) {
+      return submit(container, new Callable<Void>() {
+         @Override
+         public Void call() {
+            blobStore.removeBlob(container, name);
+            return null;
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<MultipartUpload> initiateMultipartUpload(final String container, final BlobMetadata blob) {
+      return submit(container, new Callable<MultipartUpload>() {
+         @Override
+         public MultipartUpload call() {
+            return blobStore.initiateMultipartUpload(container, blob);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<MultipartPart> uploadMultipartPart(final MultipartUpload mpu, final int partNumber,
+         final Payload payload) {
+      return submit(mpu.containerName(), new Callable<MultipartPart>() {
+         @Override
+         public MultipartPart call() {
+            return blobStore.uploadMultipartPart(mpu, partNumber, payload);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<String> completeMultipartUpload(final MultipartUpload mpu, final List<MultipartPart> parts) {
+      return submit(mpu.containerName(), new Callable<String>() {
+         @Override
+         public String call() {
+            return blobStore.completeMultipartUpload(mpu, parts);
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<Void> abortMultipartUpload(final MultipartUpload mpu) {
+      return submit(mpu.containerName(), new Callable<Void>() {
+         @Override
+         public Void call() {
+            blobStore.abortMultipartUpload(mpu);
+            return null;
+         }
+      });
+   }
+
+   @Override
+   public ListenableFuture<List<MultipartPart>> listMultipartUpload(final MultipartUpload mpu) {
+      return submit(mpu.containerName(), new Callable<List<MultipartPart>>() {
+         @Override
+         public List<MultipartPart> call() {
+            return blobStore.listMultipartUpload(mpu);
+         }
+      });
+   }
+
+   /**
+    * Runs the operation now if the container has a free slot, otherwise queues it until one of the
+    * running operations on the container completes. Operations cancelled while queued never run.
+    */
+   @VisibleForTesting
+   <T> ListenableFuture<T> submit(String container, Callable<T> operation) {
+      Operation<T> op = new Operation<T>(checkNotNull(container, "container"), operation);
+      synchronized (waiting) {
+         Integer count = running.get(container);
+         if (count != null && count >= containerConcurrency) {
+            Queue<Operation<?>> queue = waiting.get(container);
+            if (queue == null)
+               waiting.put(container, queue = Queues.newArrayDeque());
+            queue.add(op);
+            return op.result;
+         }
+         running.put(container, count == null ? 1 : count + 1);
+      }
+      execute(op);
+      return op.result;
+   }
+
+   private final class Operation<T> implements Runnable {
+      private final String container;
+      private final Callable<T> callable;
+      private final SettableFuture<T> result = SettableFuture.create();
+
+      private Operation(String container, Callable<T> callable) {
+         this.container = container;
+         this.callable = callable;
+      }
+
+      @Override
+      public void run() {
+         try {
+            if (!result.isCancelled())
+               result.set(callable.call());
+         } catch (Throwable t) {
+            result.setException(t);
+         } finally {
+            execute(release(container));
+         }
+      }
+   }
+
+   /**
+    * @return the next queued operation, which takes over the slot of a completed one, or null if
+    *         the slot was released
+    */
+   private Operation<?> release(String container) {
+      synchronized (waiting) {
+         Queue<Operation<?>> queue = waiting.get(container);
+         if (queue != null) {
+            Operation<?> next = queue.remove();
+            if (queue.isEmpty())
+               waiting.remove(container);
+            return next;
+         }
+         int count = running.get(container) - 1;
+         if (count == 0)
+            running.remove(container);
+         else
+            running.put(container, count);
+         return null;
+      }
+   }
+
+   private void execute(Operation<?> op) {
+      while (op != null) {
+         try {
+            userExecutor.execute(op);
+            return;
+         } catch (RejectedExecutionException e) {
+            logger.warn(e, "could not run operation on container %s", op.container);
+            op.result.setException(e);
+            op = release(op.container);
+         }
+      }
+   }
+
+   @VisibleForTesting
+   int waiting(String container) {
+      synchronized (waiting) {
+         Queue<Operation<?>> queue = waiting.get(container);
+         return queue == null ? 0 : queue.size();
+      }
+   }
+}
@@ -53,6 +53,16 @@ public final class BlobStoreConstants {
     */
    public static final String PROPERTY_USER_METADATA_PREFIX = "jclouds.blobstore.metaprefix";
 
+   /**
+    * Maximum number of {@link org.jclouds.blobstore.ConcurrentBlobOperations} that run at the same
+    * time on one container. Further operations wait in a queue without holding a thread.
+    * Defaults to 16.
+    * <p/>
+    * Bulk puts and gets of the blob store only go through the concurrent blob operations when this
+    * is set; their deadline then grows with the number of operations queued.
+    */
+   public static final String PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY = "jclouds.blobstore.container-concurrency";
+
    public static final String BLOBSTORE_LOGGER = "jclouds.blobstore";
    public static final String DIRECTORY_BLOB_SUFFIX = "/";
 
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy;
+
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.strategy.internal.ListDirectoryPartitionsConcurrently;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Lists the blobstore by splitting the key space into disjoint ranges that are listed concurrently.
+ * <p/>
+ * No {@link org.jclouds.blobstore.BlobStore} lists through this strategy; callers that want it get
+ * it from the context, for example
+ * {@code context.utils().injector().getInstance(ParallelListContainerStrategy.class)}. It only
+ * needs {@link org.jclouds.blobstore.BlobStore#list} with directory options.
+ */
+@ImplementedBy(ListDirectoryPartitionsConcurrently.class)
+public interface ParallelListContainerStrategy extends ListContainerStrategy {
+
+   /**
+    * Lists in key order, same as {@code execute(containerName, options, true)}.
+    */
+   @Override
+   Iterable<? extends StorageMetadata> execute(String containerName, ListContainerOptions options);
+
+   /**
+    * @param ordered
+    *           if false, results are grouped by range instead of merged into key order, and the
+    *           first ranges can be consumed while later ones are still listing
+    */
+   Iterable<? extends StorageMetadata> execute(String containerName, ListContainerOptions options, boolean ordered);
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import java.util.concurrent.Future;
+
+import org.jclouds.javax.annotation.Nullable;
+
+/**
+ * Deadlines of the bulk strategies, whose operations may wait for a slot of their container.
+ */
+final class BulkDeadlines {
+
+   private BulkDeadlines() {
+   }
+
+   /**
+    * Allows each round of operations through the container limit the time of one request.
+    * 
+    * @return the deadline of the whole batch, or null if it has none
+    */
+   static Long forQueue(@Nullable Long maxTime, @Nullable Integer containerConcurrency, int operations) {
+      if (maxTime == null || maxTime <= 0 || containerConcurrency == null || operations <= containerConcurrency)
+         return maxTime;
+      long rounds = (operations + containerConcurrency - 1) / containerConcurrency;
+      return rounds > Long.MAX_VALUE / maxTime ? Long.MAX_VALUE : maxTime * rounds;
+   }
+
+   /**
+    * Stops the operations of a batch that timed out, so that queued ones do not run after it failed.
+    */
+   static void cancel(Iterable<? extends Future<?>> operations) {
+      for (Future<?> operation : operations)
+         operation.cancel(true);
+   }
+}
@@ -18,7 +18,9 @@ package org.jclouds.blobstore.strategy.internal;
 
 import static org.jclouds.concurrent.FutureIterables.transformParallel;
 
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -26,6 +28,7 @@ import javax.inject.Singleton;
 
 import org.jclouds.Constants;
 import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.ConcurrentBlobOperations;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.options.ListContainerOptions;
@@ -36,6 +39,8 @@ import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
@@ -50,6 +55,7 @@ public class GetAllBlobsInListAndRetryOnFailure implements GetBlobsInListStrateg
    protected final ListBlobsInContainer getAllBlobMetadata;
    protected final BackoffLimitedRetryHandler retryHandler;
    protected final BlobStore blobstore;
+   protected final ConcurrentBlobOperations concurrentOperations;
    protected final ListeningExecutorService userExecutor;
    @Resource
    @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
@@ -60,30 +66,54 @@ public class GetAllBlobsInListAndRetryOnFailure implements GetBlobsInListStrateg
    @Inject(optional = true)
    @Named(Constants.PROPERTY_REQUEST_TIMEOUT)
    protected Long maxTime;
+   /**
+    * when set, gets go through the {@link ConcurrentBlobOperations}, this many at a time; otherwise all run at
+    * once
+    */
+   @Inject(optional = true)
+   @Named(BlobStoreConstants.PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY)
+   protected Integer containerConcurrency;
 
    @Inject
    GetAllBlobsInListAndRetryOnFailure(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
-            ListBlobsInContainer getAllBlobMetadata, BlobStore blobstore, BackoffLimitedRetryHandler retryHandler) {
+            ListBlobsInContainer getAllBlobMetadata, BlobStore blobstore, ConcurrentBlobOperations concurrentOperations,
+            BackoffLimitedRetryHandler retryHandler) {
       this.userExecutor = userExecutor;
       this.blobstore = blobstore;
+      this.concurrentOperations = concurrentOperations;
       this.getAllBlobMetadata = getAllBlobMetadata;
       this.retryHandler = retryHandler;
    }
 
    public Iterable<Blob> execute(final String container, ListContainerOptions options) {
       Iterable<? extends BlobMetadata> list = getAllBlobMetadata.execute(container, options);
-      return transformParallel(list, new Function<BlobMetadata, ListenableFuture<? extends Blob>>() {
+      final List<ListenableFuture<Blob>> started = Lists.newArrayList();
+      try {
+         return transformParallel(list, new Function<BlobMetadata, ListenableFuture<? extends Blob>>() {
 
-         @Override
-         public ListenableFuture<Blob> apply(final BlobMetadata from) {
-            return userExecutor.submit(new Callable<Blob>() {
-               @Override public Blob call() throws Exception {
-                  return blobstore.getBlob(container, from.getName());
+            @Override
+            public ListenableFuture<Blob> apply(final BlobMetadata from) {
+               ListenableFuture<Blob> blob;
+               if (containerConcurrency != null) {
+                  blob = concurrentOperations.getBlob(container, from.getName());
+               } else {
+                  blob = userExecutor.submit(new Callable<Blob>() {
+                     @Override public Blob call() throws Exception {
+                        return blobstore.getBlob(container, from.getName());
+                     }
+                  });
                }
-            });
-         }
+               started.add(blob);
+               return blob;
+            }
 
-      }, userExecutor, maxTime, logger, String.format("getting from containerName: %s", container), retryHandler, 3);
+         }, userExecutor, BulkDeadlines.forQueue(maxTime, containerConcurrency, Iterables.size(list)), logger,
+               String.format("getting from containerName: %s", container), retryHandler, 3);
+      } catch (RuntimeException e) {
+         if (e.getCause() instanceof TimeoutException)
+            BulkDeadlines.cancel(started);
+         throw e;
+      }
 
    }
 }
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.internal.BlobRuntimeException;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.strategy.ParallelListContainerStrategy;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Discovers split points with a single delimiter listing of the requested directory, then lists
+ * each subdirectory recursively on the user executor. Blobs directly in the directory form one more
+ * range. As the subdirectories are disjoint, ordered results are a merge of the ranges by name.
+ * <p/>
+ * Ranges are listed a page at a time, with the next page of a range fetched while the current one
+ * is read, so only those pages are held in memory. At most
+ * {@link Constants#PROPERTY_MAX_PARALLEL_LISTS} pages are fetched at once for each iteration.
+ * <p/>
+ * Listings that are not recursive, or that start at a marker, prefix or custom delimiter, have no
+ * disjoint directories to split on, and are listed sequentially. So are flat key spaces, which
+ * have no subdirectories: {@link BlobStore#list} cannot stop at an end marker, so ranges between
+ * sampled markers would each list to the end of the container.
+ */
+@Singleton
+public class ListDirectoryPartitionsConcurrently implements ParallelListContainerStrategy {
+
+   private static final Ordering<StorageMetadata> BY_NAME = Ordering.natural().onResultOf(
+         new Function<StorageMetadata, String>() {
+            @Override
+            public String apply(StorageMetadata input) {
+               return input.getName();
+            }
+         });
+
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   protected final BlobStore blobStore;
+   protected final ConcatenateContainerLists sequential;
+   protected final ListeningExecutorService userExecutor;
+   private final int maxParallelLists;
+
+   @Inject
+   ListDirectoryPartitionsConcurrently(BlobStore blobStore, ConcatenateContainerLists sequential,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(Constants.PROPERTY_MAX_PARALLEL_LISTS) int maxParallelLists) {
+      checkArgument(maxParallelLists > 0, "maxParallelLists must be positive");
+      this.blobStore = checkNotNull(blobStore, "blobStore");
+      this.sequential = checkNotNull(sequential, "sequential");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.maxParallelLists = maxParallelLists;
+   }
+
+   @Override
+   public Iterable<? extends StorageMetadata> execute(String containerName, ListContainerOptions options) {
+      return execute(containerName, options, true);
+   }
+
+   @Override
+   public Iterable<? extends StorageMetadata> execute(final String containerName, final ListContainerOptions options,
+         final boolean ordered) {
+      if (!options.isRecursive() || options.getMarker() != null || options.getPrefix() != null
+            || options.getDelimiter() != null)
+         return sequential.execute(containerName, options);
+
+      ListContainerOptions delimited = rangeOptions(options);
+      if (options.getDir() != null)
+         delimited.inDirectory(options.getDir());
+      final List<StorageMetadata> top = Lists.newArrayList();
+      final List<String> directories = Lists.newArrayList();
+      for (StorageMetadata md : sequential.execute(containerName, delimited)) {
+         if (md.getType() == StorageType.RELATIVE_PATH)
+            directories.add(md.getName());
+         else
+            top.add(md);
+      }
+      if (directories.isEmpty())
+         return top;
+      logger.debug(">> listing %s in %d ranges", containerName, directories.size() + 1);
+
+      return new FluentIterable<StorageMetadata>() {
+         @Override
+         public Iterator<StorageMetadata> iterator() {
+            Semaphore permits = new Semaphore(maxParallelLists);
+            List<Range> ranges = Lists.newArrayList();
+            for (String directory : directories)
+               ranges.add(new Range(containerName, rangeOptions(options).inDirectory(directory).recursive(), permits));
+            if (!ordered)
+               return Iterators.concat(top.iterator(), new StartAhead(ranges));
+            // the merge reads the head of every range, so start them all before it waits on any
+            for (Range range : ranges)
+               range.start();
+            List<Iterator<? extends StorageMetadata>> iterators = Lists.newArrayList();
+            iterators.add(top.iterator());
+            iterators.addAll(ranges);
+            return Iterators.mergeSorted(iterators, BY_NAME);
+         }
+      };
+   }
+
+   /**
+    * options shared by the delimiter listing and every range
+    */
+   private static ListContainerOptions rangeOptions(ListContainerOptions options) {
+      ListContainerOptions range = new ListContainerOptions();
+      if (options.getMaxResults() != null)
+         range.maxResults(options.getMaxResults());
+      if (options.isDetailed())
+         range.withDetails();
+      return range;
+   }
+
+   /**
+    * Reads the ranges in sequence, while the ranges after the current one start listing.
+    */
+   private class StartAhead extends AbstractIterator<StorageMetadata> {
+      private final List<Range> ranges;
+      private int current;
+      private int started;
+
+      StartAhead(List<Range> ranges) {
+         this.ranges = ranges;
+      }
+
+      @Override
+      protected StorageMetadata computeNext() {
+         while (current < ranges.size()) {
+            while (started < Math.min(ranges.size(), current + maxParallelLists))
+               ranges.get(started++).start();
+            Range range = ranges.get(current);
+            if (range.hasNext())
+               return range.next();
+            current++;
+         }
+         return endOfData();
+      }
+   }
+
+   /**
+    * Lists one directory a page at a time. The next page is fetched on the user executor while the
+    * current one is read.
+    */
+   private class Range extends AbstractIterator<StorageMetadata> {
+      private final String containerName;
+      private final ListContainerOptions options;
+      private final Semaphore permits;
+      private ListenableFuture<PageSet<? extends StorageMetadata>> next;
+      private Iterator<? extends StorageMetadata> page = ImmutableList.<StorageMetadata> of().iterator();
+      private boolean started;
+
+      Range(String containerName, ListContainerOptions options, Semaphore permits) {
+         this.containerName = containerName;
+         this.options = options;
+         this.permits = permits;
+      }
+
+      void start() {
+         if (!started) {
+            started = true;
+            next = fetch(options);
+         }
+      }
+
+      @Override
+      protected StorageMetadata computeNext() {
+         start();
+         while (!page.hasNext()) {
+            if (next == null)
+               return endOfData();
+            PageSet<? extends StorageMetadata> listing = getPage(containerName, next);
+            next = listing.getNextMarker() != null ? fetch(options.clone().afterMarker(listing.getNextMarker()))
+                  : null;
+            page = listing.iterator();
+         }
+         return page.next();
+      }
+
+      private ListenableFuture<PageSet<? extends StorageMetadata>> fetch(final ListContainerOptions options) {
+         try {
+            permits.acquire();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         }
+         try {
+            return userExecutor.submit(new Callable<PageSet<? extends StorageMetadata>>() {
+               @Override
+               public PageSet<? extends StorageMetadata> call() {
+                  try {
+                     return blobStore.list(containerName, options);
+                  } finally {
+                     permits.release();
+                  }
+               }
+            });
+         } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+         }
+      }
+   }
+
+   private static PageSet<? extends StorageMetadata> getPage(String containerName,
+         ListenableFuture<PageSet<? extends StorageMetadata>> page) {
+      try {
+         return page.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         Throwables.propagateIfPossible(e.getCause(), BlobRuntimeException.class);
+         throw new BlobRuntimeException("Error getting resource metadata in container: " + containerName,
+               e.getCause());
+      }
+   }
+}
@@ -29,6 +29,7 @@ import javax.inject.Singleton;
 
 import org.jclouds.Constants;
 import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.ConcurrentBlobOperations;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.internal.BlobRuntimeException;
 import org.jclouds.blobstore.reference.BlobStoreConstants;
@@ -44,6 +45,7 @@ import com.google.inject.Inject;
 public class PutBlobsStrategyImpl implements PutBlobsStrategy {
 
    private final BlobStore blobstore;
+   private final ConcurrentBlobOperations concurrentOperations;
    private final ListeningExecutorService userExecutor;
    @Resource
    @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
@@ -54,29 +56,43 @@ public class PutBlobsStrategyImpl implements PutBlobsStrategy {
    @Inject(optional = true)
    @Named(Constants.PROPERTY_REQUEST_TIMEOUT)
    protected Long maxTime;
+   /**
+    * when set, puts go through the {@link ConcurrentBlobOperations}, this many at a time; otherwise all run at
+    * once
+    */
+   @Inject(optional = true)
+   @Named(BlobStoreConstants.PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY)
+   protected Integer containerConcurrency;
 
    @Inject
    PutBlobsStrategyImpl(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
-            BlobStore blobstore) {
+            BlobStore blobstore, ConcurrentBlobOperations concurrentOperations) {
       this.userExecutor = userExecutor;
       this.blobstore = blobstore;
+      this.concurrentOperations = concurrentOperations;
    }
 
    @Override
    public void execute(final String containerName, Iterable<? extends Blob> blobs) {
       Map<Blob, ListenableFuture<?>> responses = Maps.newLinkedHashMap();
       for (final Blob blob : blobs) {
-         responses.put(blob, userExecutor.submit(new Callable<Object>() {
-            @Override public Object call() throws Exception {
-               return blobstore.putBlob(containerName, blob);
-            }
-         }));
+         if (containerConcurrency != null) {
+            responses.put(blob, concurrentOperations.putBlob(containerName, blob));
+         } else {
+            responses.put(blob, userExecutor.submit(new Callable<Object>() {
+               @Override public Object call() throws Exception {
+                  return blobstore.putBlob(containerName, blob);
+               }
+            }));
+         }
       }
       Map<Blob, Exception> exceptions;
       try {
-         exceptions = awaitCompletion(responses, userExecutor, maxTime, logger,
+         exceptions = awaitCompletion(responses, userExecutor,
+                  BulkDeadlines.forQueue(maxTime, containerConcurrency, responses.size()), logger,
                   String.format("putting into containerName: %s", containerName));
       } catch (TimeoutException te) {
+         BulkDeadlines.cancel(responses.values());
          throw propagate(te);
       }
       if (!exceptions.isEmpty())
@@ -0,0 +1,482 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Read-through cache of blob content on local disk.
+ * <p/>
+ * Entries are keyed by container, name and ETag. Each read revalidates the cached copy with a
+ * conditional GET, so a {@code 304 Not Modified} costs a request but no transfer. Ranged reads are
+ * served from the cached file, so the first read of a blob fetches all of it. Concurrent reads of
+ * a blob that is not cached or needs revalidation share a single request.
+ * <p/>
+ * The least recently read entries are evicted once the total size of the cache exceeds its limit.
+ * Blobs without an ETag or larger than the limit are not cached. A blob that is not cached is
+ * checked with {@link BlobStore#blobMetadata} before it is fetched, so one that cannot be cached is
+ * read straight from the delegate. Conditional reads, and writes through this store, pass to the
+ * delegate; writes also drop the cached entries they affect. The index is held in memory, so files
+ * left in the directory by an earlier instance, including partial downloads, are removed.
+ */
+public final class CachingBlobStore extends ForwardingBlobStore {
+   private static final String SUFFIX = ".blob";
+   private static final String DOWNLOAD_PREFIX = "download";
+   private static final String DOWNLOAD_SUFFIX = ".tmp";
+
+   /**
+    * @param directory
+    *           where cached blobs are written, created if missing
+    * @param maxBytes
+    *           limit of the total size of cached blobs
+    */
+   public static BlobStore newCachingBlobStore(BlobStore blobStore, File directory, long maxBytes) {
+      return new CachingBlobStore(blobStore, directory, maxBytes);
+   }
+
+   private static final class Entry {
+      private final String eTag;
+      private final File file;
+      private final long size;
+      private final MutableBlobMetadata metadata;
+      /** a blob that cannot be cached, but was already fetched for the caller */
+      private final Blob fetched;
+
+      private Entry(String eTag, File file, long size, MutableBlobMetadata metadata, Blob fetched) {
+         this.eTag = eTag;
+         this.file = file;
+         this.size = size;
+         this.metadata = metadata;
+         this.fetched = fetched;
+      }
+   }
+
+   /** the blob does not exist */
+   private static final Entry NOT_FOUND = new Entry(null, null, 0, null, null);
+   /** the blob exists, but cannot be cached */
+   private static final Entry UNCACHEABLE = new Entry(null, null, 0, null, null);
+
+   private final File directory;
+   private final long maxBytes;
+   /** access-ordered, guarded by itself */
+   private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+   private long totalBytes;
+   private final ConcurrentMap<String, SettableFuture<Entry>> loads = Maps.newConcurrentMap();
+
+   private CachingBlobStore(BlobStore blobStore, File directory, long maxBytes) {
+      super(blobStore);
+      checkArgument(maxBytes > 0, "maxBytes must be positive");
+      this.directory = checkNotNull(directory, "directory");
+      this.maxBytes = maxBytes;
+      checkArgument(directory.isDirectory() || directory.mkdirs(), "could not create %s", directory);
+      File[] stale = directory.listFiles();
+      if (stale != null) {
+         for (File file : stale) {
+            if (file.getName().endsWith(SUFFIX)
+                  || (file.getName().startsWith(DOWNLOAD_PREFIX) && file.getName().endsWith(DOWNLOAD_SUFFIX)))
+               file.delete();
+         }
+      }
+   }
+
+   @Override
+   public Blob getBlob(String container, String name) {
+      return getBlob(container, name, GetOptions.NONE);
+   }
+
+   @Override
+   public Blob getBlob(String container, String name, GetOptions options) {
+      if (options.getIfMatch() != null || options.getIfNoneMatch() != null || options.getIfModifiedSince() != null
+            || options.getIfUnmodifiedSince() != null)
+         return delegate().getBlob(container, name, options);
+      for (int attempt = 0;; attempt++) {
+         Entry entry = load(container, name, options.getRanges().isEmpty());
+         if (entry == NOT_FOUND)
+            return null;
+         if (entry.fetched != null)
+            return entry.fetched;
+         if (entry == UNCACHEABLE)
+            return delegate().getBlob(container, name, options);
+         try {
+            return read(container, entry, options.getRanges());
+         } catch (FileNotFoundException e) {
+            // evicted between the lookup and the read
+            if (attempt > 0)
+               throw Throwables.propagate(e);
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+      }
+   }
+
+   /**
+    * Revalidates or fetches the blob, sharing the work with concurrent callers for the same blob.
+    *
+    * @param keepFetched
+    *           if a blob that cannot be cached was fetched anyway, return it to this caller instead of
+    *           releasing it
+    */
+   private Entry load(String container, String name, boolean keepFetched) {
+      String key = key(container, name);
+      SettableFuture<Entry> load = SettableFuture.create();
+      SettableFuture<Entry> inFlight = loads.putIfAbsent(key, load);
+      if (inFlight != null) {
+         try {
+            return Uninterruptibles.getUninterruptibly(inFlight);
+         } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+      try {
+         Entry entry = revalidateOrFetch(key, container, name, keepFetched);
+         // the payload of a fetched blob can only be read once, so other callers fetch their own
+         load.set(entry.fetched != null ? UNCACHEABLE : entry);
+         return entry;
+      } catch (RuntimeException e) {
+         load.setException(e);
+         throw e;
+      } catch (Error e) {
+         load.setException(e);
+         throw e;
+      } finally {
+         loads.remove(key, load);
+      }
+   }
+
+   private Entry revalidateOrFetch(String key, String container, String name, boolean keepFetched) {
+      Entry cached;
+      synchronized (entries) {
+         cached = entries.get(key);
+      }
+      Blob blob;
+      if (cached != null) {
+         try {
+            blob = delegate().getBlob(container, name, GetOptions.Builder.ifETagDoesntMatch(cached.eTag));
+         } catch (RuntimeException e) {
+            HttpResponseException hre = getFirstThrowableOfType(e, HttpResponseException.class);
+            if (hre != null && hre.getResponse() != null && hre.getResponse().getStatusCode() == 304)
+               return cached;
+            throw e;
+         }
+      } else {
+         // check the size first, so that a blob that cannot be cached is only transferred once
+         BlobMetadata metadata = delegate().blobMetadata(container, name);
+         if (metadata == null)
+            return NOT_FOUND;
+         if (!cacheable(metadata.getETag(), metadata.getContentMetadata().getContentLength()))
+            return UNCACHEABLE;
+         blob = delegate().getBlob(container, name);
+      }
+      if (blob == null) {
+         invalidate(key);
+         return NOT_FOUND;
+      }
+      return store(key, container, name, blob, keepFetched);
+   }
+
+   private boolean cacheable(String eTag, Long length) {
+      return eTag != null && length != null && length <= maxBytes;
+   }
+
+   private Entry store(String key, String container, String name, Blob blob, boolean keepFetched) {
+      String eTag = blob.getMetadata().getETag();
+      if (!cacheable(eTag, blob.getPayload().getContentMetadata().getContentLength())) {
+         invalidate(key);
+         if (keepFetched)
+            return new Entry(null, null, 0, null, blob);
+         blob.getPayload().release();
+         return UNCACHEABLE;
+      }
+      File file = new File(directory, Hashing.sha1().newHasher().putString(container, UTF_8).putByte((byte) 0)
+            .putString(name, UTF_8).putByte((byte) 0).putString(eTag, UTF_8).hash().toString() + SUFFIX);
+      long size;
+      File download = null;
+      try {
+         download = File.createTempFile(DOWNLOAD_PREFIX, DOWNLOAD_SUFFIX, directory);
+         InputStream in = blob.getPayload().openStream();
+         try {
+            OutputStream out = new FileOutputStream(download);
+            try {
+               size = ByteStreams.copy(in, out);
+            } finally {
+               out.close();
+            }
+         } finally {
+            Closeables2.closeQuietly(in);
+         }
+         if (!download.renameTo(file)) {
+            file.delete();
+            if (!download.renameTo(file))
+               throw new IOException("could not move " + download + " to " + file);
+         }
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         blob.getPayload().release();
+         // left behind only if the download failed
+         if (download != null)
+            download.delete();
+      }
+      Entry entry = new Entry(eTag, file, size, BlobStoreUtils.copy(blob.getMetadata()), null);
+      List<Entry> evicted = Lists.newArrayList();
+      synchronized (entries) {
+         Entry previous = entries.put(key, entry);
+         if (previous != null) {
+            totalBytes -= previous.size;
+            if (!previous.file.equals(file))
+               evicted.add(previous);
+         }
+         totalBytes += size;
+         for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); totalBytes > maxBytes
+               && it.hasNext();) {
+            Entry eldest = it.next().getValue();
+            if (eldest == entry)
+               continue;
+            it.remove();
+            totalBytes -= eldest.size;
+            evicted.add(eldest);
+         }
+      }
+      for (Entry gone : evicted)
+         gone.file.delete();
+      return entry;
+   }
+
+   /**
+    * Opens the cached file now, so that a later eviction does not affect the returned payload.
+    */
+   private Blob read(String container, Entry entry, List<String> ranges) throws IOException {
+      Blob blob = new BlobImpl(BlobStoreUtils.copy(entry.metadata));
+      blob.getMetadata().setContainer(container);
+      if (ranges.isEmpty()) {
+         setPayload(blob, entry, new FileInputStream(entry.file), entry.size);
+         return blob;
+      }
+      List<InputStream> streams = Lists.newArrayList();
+      long size = 0;
+      boolean opened = false;
+      try {
+         for (String range : ranges) {
+            long offset;
+            long last = entry.size - 1;
+            if (range.startsWith("-")) {
+               offset = Math.max(0, entry.size - Long.parseLong(range.substring(1)));
+            } else if (range.endsWith("-")) {
+               offset = Long.parseLong(range.substring(0, range.length() - 1));
+            } else if (range.contains("-")) {
+               String[] firstLast = range.split("\\-");
+               offset = Long.parseLong(firstLast[0]);
+               last = Math.min(last, Long.parseLong(firstLast[1]));
+            } else {
+               throw new IllegalArgumentException("illegal range: " + range);
+            }
+            checkArgument(offset < entry.size && offset <= last, "illegal range: %s", range);
+            FileInputStream stream = new FileInputStream(entry.file);
+            streams.add(stream);
+            stream.getChannel().position(offset);
+            streams.set(streams.size() - 1, ByteStreams.limit(stream, last - offset + 1));
+            size += last - offset + 1;
+            blob.getAllHeaders().put(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + last + "/" + entry.size);
+         }
+         opened = true;
+      } finally {
+         if (!opened) {
+            for (InputStream stream : streams)
+               Closeables2.closeQuietly(stream);
+         }
+      }
+      setPayload(blob, entry, new SequenceInputStream(Collections.enumeration(streams)), size);
+      return blob;
+   }
+
+   private static void setPayload(Blob blob, Entry entry, InputStream content, long size) {
+      Payload payload = Payloads.newInputStreamPayload(content);
+      HttpUtils.copy(entry.metadata.getContentMetadata(), payload.getContentMetadata());
+      payload.getContentMetadata().setContentLength(size);
+      blob.setPayload(payload);
+      blob.getMetadata().setSize(size);
+   }
+
+   private static String key(String container, String name) {
+      return container + "/" + name;
+   }
+
+   private void invalidate(String key) {
+      Entry removed;
+      synchronized (entries) {
+         removed = entries.remove(key);
+         if (removed != null)
+            totalBytes -= removed.size;
+      }
+      if (removed != null)
+         removed.file.delete();
+   }
+
+   private void invalidateContainer(String container) {
+      String prefix = key(container, "");
+      List<Entry> removed = Lists.newArrayList();
+      synchronized (entries) {
+         for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+               it.remove();
+               totalBytes -= entry.getValue().size;
+               removed.add(entry.getValue());
+            }
+         }
+      }
+      for (Entry entry : removed)
+         entry.file.delete();
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob) {
+      try {
+         return delegate().putBlob(container, blob);
+      } finally {
+         invalidate(key(container, blob.getMetadata().getName()));
+      }
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob, PutOptions options) {
+      try {
+         return delegate().putBlob(container, blob, options);
+      } finally {
+         invalidate(key(container, blob.getMetadata().getName()));
+      }
+   }
+
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) {
+      try {
+         return delegate().copyBlob(fromContainer, fromName, toContainer, toName, options);
+      } finally {
+         invalidate(key(toContainer, toName));
+      }
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      try {
+         return delegate().completeMultipartUpload(mpu, parts);
+      } finally {
+         invalidate(key(mpu.containerName(), mpu.blobName()));
+      }
+   }
+
+   @Override
+   public void removeBlob(String container, String name) {
+      try {
+         delegate().removeBlob(container, name);
+      } finally {
+         invalidate(key(container, name));
+      }
+   }
+
+   @Override
+   public void removeBlobs(String container, Iterable<String> names) {
+      try {
+         delegate().removeBlobs(container, names);
+      } finally {
+         for (String name : names)
+            invalidate(key(container, name));
+      }
+   }
+
+   @Override
+   public void clearContainer(String container) {
+      try {
+         delegate().clearContainer(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void clearContainer(String container, ListContainerOptions options) {
+      try {
+         delegate().clearContainer(container, options);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void deleteContainer(String container) {
+      try {
+         delegate().deleteContainer(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void deleteDirectory(String container, String directory) {
+      try {
+         delegate().deleteDirectory(container, directory);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+}
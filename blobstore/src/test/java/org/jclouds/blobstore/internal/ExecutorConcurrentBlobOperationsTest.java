@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "ExecutorConcurrentBlobOperationsTest", singleThreaded = true)
+public class ExecutorConcurrentBlobOperationsTest {
+
+   private BlobStoreContext context;
+   private ListeningExecutorService executor;
+   private ExecutorConcurrentBlobOperations concurrentOperations;
+
+   @BeforeMethod
+   public void setUp() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      concurrentOperations = new ExecutorConcurrentBlobOperations(context.getBlobStore(), executor);
+      concurrentOperations.containerConcurrency = 2;
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      executor.shutdownNow();
+      Closeables2.closeQuietly(context);
+   }
+
+   public void testOperationsBeyondTheLimitAreQueued() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      AtomicInteger concurrent = new AtomicInteger();
+      AtomicInteger maxConcurrent = new AtomicInteger();
+      List<ListenableFuture<Integer>> futures = Lists.newArrayList();
+      for (int i = 0; i < 5; i++)
+         futures.add(concurrentOperations.submit("container", new Blocking(i, release, concurrent, maxConcurrent)));
+
+      assertEquals(concurrentOperations.waiting("container"), 3);
+      release.countDown();
+      for (int i = 0; i < 5; i++)
+         assertEquals(futures.get(i).get(10, TimeUnit.SECONDS).intValue(), i);
+      assertEquals(maxConcurrent.get(), 2);
+      assertEquals(concurrentOperations.waiting("container"), 0);
+   }
+
+   public void testOtherContainersAreNotBlocked() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      AtomicInteger concurrent = new AtomicInteger();
+      AtomicInteger maxConcurrent = new AtomicInteger();
+      for (int i = 0; i < 2; i++)
+         concurrentOperations.submit("busy", new Blocking(i, release, concurrent, maxConcurrent));
+
+      ListenableFuture<String> other = concurrentOperations.submit("other", new Callable<String>() {
+         @Override
+         public String call() {
+            return "done";
+         }
+      });
+      assertEquals(other.get(10, TimeUnit.SECONDS), "done");
+      release.countDown();
+   }
+
+   public void testExceptionFailsTheFutureAndReleasesTheSlot() throws Exception {
+      concurrentOperations.containerConcurrency = 1;
+      final IllegalStateException exception = new IllegalStateException();
+      ListenableFuture<Object> failed = concurrentOperations.submit("container", new Callable<Object>() {
+         @Override
+         public Object call() {
+            throw exception;
+         }
+      });
+      try {
+         failed.get(10, TimeUnit.SECONDS);
+         fail("expected failure");
+      } catch (ExecutionException e) {
+         assertSame(e.getCause(), exception);
+      }
+      ListenableFuture<String> next = concurrentOperations.submit("container", new Callable<String>() {
+         @Override
+         public String call() {
+            return "done";
+         }
+      });
+      assertEquals(next.get(10, TimeUnit.SECONDS), "done");
+   }
+
+   public void testCancelledWhileQueuedNeverRuns() throws Exception {
+      concurrentOperations.containerConcurrency = 1;
+      CountDownLatch release = new CountDownLatch(1);
+      ListenableFuture<Integer> running = concurrentOperations.submit("container",
+            new Blocking(0, release, new AtomicInteger(), new AtomicInteger()));
+      final AtomicInteger calls = new AtomicInteger();
+      ListenableFuture<Integer> queued = concurrentOperations.submit("container", new Callable<Integer>() {
+         @Override
+         public Integer call() {
+            return calls.incrementAndGet();
+         }
+      });
+      assertTrue(queued.cancel(false));
+      release.countDown();
+      running.get(10, TimeUnit.SECONDS);
+
+      ListenableFuture<Integer> after = concurrentOperations.submit("container", new Callable<Integer>() {
+         @Override
+         public Integer call() {
+            return 42;
+         }
+      });
+      assertEquals(after.get(10, TimeUnit.SECONDS).intValue(), 42);
+      assertEquals(calls.get(), 0);
+   }
+
+   public void testDelegatesToTheBlobStore() throws Exception {
+      context.getBlobStore().createContainerInLocation(null, "container");
+      String etag = concurrentOperations.putBlob("container",
+            context.getBlobStore().blobBuilder("blob").payload("hello").build()).get(10, TimeUnit.SECONDS);
+      assertEquals(concurrentOperations.blobMetadata("container", "blob").get(10, TimeUnit.SECONDS).getETag(), etag);
+      concurrentOperations.removeBlob("container", "blob").get(10, TimeUnit.SECONDS);
+      assertFalse(context.getBlobStore().blobExists("container", "blob"));
+   }
+
+   public void testContextSharesOneInstance() {
+      assertTrue(context.getConcurrentBlobOperations() instanceof ExecutorConcurrentBlobOperations);
+      assertSame(context.getConcurrentBlobOperations(), context.getConcurrentBlobOperations());
+   }
+
+   private static class Blocking implements Callable<Integer> {
+      private final int value;
+      private final CountDownLatch release;
+      private final AtomicInteger concurrent;
+      private final AtomicInteger maxConcurrent;
+
+      Blocking(int value, CountDownLatch release, AtomicInteger concurrent, AtomicInteger maxConcurrent) {
+         this.value = value;
+         this.release = release;
+         this.concurrent = concurrent;
+         this.maxConcurrent = maxConcurrent;
+      }
+
+      @Override
+      public Integer call() throws InterruptedException {
+         int now = concurrent.incrementAndGet();
+         synchronized (maxConcurrent) {
+            maxConcurrent.set(Math.max(maxConcurrent.get(), now));
+         }
+         try {
+            release.await();
+            return value;
+         } finally {
+            concurrent.decrementAndGet();
+         }
+      }
+   }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Injector;
+
+@Test(testName = "ListDirectoryPartitionsConcurrentlyTest", singleThreaded = true)
+public class ListDirectoryPartitionsConcurrentlyTest {
+   private static final String CONTAINER = "partitioned";
+   private static final List<String> KEYS = ImmutableList.of("a", "b-c", "b/1", "b/2", "c/d/e", "c/f", "z");
+
+   private BlobStore blobStore;
+   private ConcatenateContainerLists concatter;
+   private ListDirectoryPartitionsConcurrently lister;
+
+   @BeforeClass
+   public void setupBlobStore() {
+      Injector injector = ContextBuilder.newBuilder("transient").buildInjector();
+      blobStore = injector.getInstance(BlobStore.class);
+      concatter = injector.getInstance(ConcatenateContainerLists.class);
+      lister = injector.getInstance(ListDirectoryPartitionsConcurrently.class);
+      blobStore.createContainerInLocation(null, CONTAINER);
+      for (String key : KEYS)
+         blobStore.putBlob(CONTAINER, blobStore.blobBuilder(key).payload("").build());
+   }
+
+   @AfterClass
+   public void closeBlobStore() {
+      if (blobStore != null) {
+         Closeables2.closeQuietly(blobStore.getContext());
+      }
+   }
+
+   public void testRecursiveListingIsMergedInKeyOrder() {
+      ListContainerOptions options = ListContainerOptions.Builder.recursive().maxResults(1);
+
+      assertThat(names(lister.execute(CONTAINER, options))).isEqualTo(
+            names(concatter.execute(CONTAINER, ListContainerOptions.Builder.recursive())));
+   }
+
+   public void testUnorderedListingHasSameEntries() {
+      ListContainerOptions options = ListContainerOptions.Builder.recursive();
+
+      assertThat(Ordering.natural().sortedCopy(names(lister.execute(CONTAINER, options, false)))).isEqualTo(
+            names(concatter.execute(CONTAINER, options)));
+   }
+
+   public void testRecursiveListingInDirectory() {
+      ListContainerOptions options = ListContainerOptions.Builder.inDirectory("c").recursive();
+
+      assertThat(names(lister.execute(CONTAINER, options))).isEqualTo(names(concatter.execute(CONTAINER, options)));
+   }
+
+   public void testListingThatIsNotRecursiveIsSequential() {
+      ListContainerOptions options = ListContainerOptions.NONE;
+
+      assertThat(names(lister.execute(CONTAINER, options))).isEqualTo(names(concatter.execute(CONTAINER, options)));
+   }
+
+   public void testPagesInFlightAreCapped() {
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicInteger maxInFlight = new AtomicInteger();
+      BlobStore counting = new ForwardingBlobStore(blobStore) {
+         @Override
+         public PageSet<? extends StorageMetadata> list(String container, ListContainerOptions options) {
+            int current = inFlight.incrementAndGet();
+            synchronized (maxInFlight) {
+               maxInFlight.set(Math.max(maxInFlight.get(), current));
+            }
+            try {
+               Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+               return super.list(container, options);
+            } finally {
+               inFlight.decrementAndGet();
+            }
+         }
+      };
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         ListDirectoryPartitionsConcurrently capped = new ListDirectoryPartitionsConcurrently(counting, concatter,
+               executor, 2);
+         ListContainerOptions options = ListContainerOptions.Builder.recursive().maxResults(1);
+
+         assertThat(names(capped.execute(CONTAINER, options))).isEqualTo(
+               names(concatter.execute(CONTAINER, ListContainerOptions.Builder.recursive())));
+         assertThat(Ordering.natural().sortedCopy(names(capped.execute(CONTAINER, options, false)))).isEqualTo(
+               names(concatter.execute(CONTAINER, ListContainerOptions.Builder.recursive())));
+         assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private static List<String> names(Iterable<? extends StorageMetadata> list) {
+      return ImmutableList.copyOf(Iterables.transform(list, new Function<StorageMetadata, String>() {
+         @Override
+         public String apply(StorageMetadata input) {
+            return input.getName();
+         }
+      }));
+   }
+}
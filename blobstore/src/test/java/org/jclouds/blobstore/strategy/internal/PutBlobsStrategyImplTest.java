@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.Constants;
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.util.ForwardingBlobStore;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "PutBlobsStrategyImplTest", singleThreaded = true)
+public class PutBlobsStrategyImplTest {
+   private static final String CONTAINER = "bulk";
+
+   private BlobStoreContext context;
+   private ListeningExecutorService userExecutor;
+   private AtomicInteger started;
+   private volatile CountDownLatch release;
+   private volatile long putMillis;
+
+   @BeforeMethod
+   public void setUp() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      context.getBlobStore().createContainerInLocation(null, CONTAINER);
+      userExecutor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      started = new AtomicInteger();
+      release = new CountDownLatch(0);
+      putMillis = 0;
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      userExecutor.shutdownNow();
+      Closeables2.closeQuietly(context);
+   }
+
+   public void testAllPutsRunAtOnceByDefault() throws Exception {
+      final PutBlobsStrategyImpl strategy = newStrategy(new Properties());
+      release = new CountDownLatch(1);
+
+      Thread putter = new Thread() {
+         @Override
+         public void run() {
+            strategy.execute(CONTAINER, blobs(8));
+         }
+      };
+      putter.start();
+      try {
+         for (int i = 0; i < 100 && started.get() < 8; i++)
+            Thread.sleep(50);
+         assertEquals(started.get(), 8);
+      } finally {
+         release.countDown();
+         putter.join();
+      }
+      assertEquals(context.getBlobStore().countBlobs(CONTAINER), 8);
+   }
+
+   public void testDeadlineAllowsForQueuedPuts() {
+      Properties overrides = new Properties();
+      overrides.setProperty(BlobStoreConstants.PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY, "1");
+      overrides.setProperty(Constants.PROPERTY_REQUEST_TIMEOUT, "500");
+      PutBlobsStrategyImpl strategy = newStrategy(overrides);
+      putMillis = 200;
+
+      strategy.execute(CONTAINER, blobs(4));
+
+      assertEquals(context.getBlobStore().countBlobs(CONTAINER), 4);
+   }
+
+   public void testQueuedPutsAreCancelledOnTimeout() throws InterruptedException {
+      Properties overrides = new Properties();
+      overrides.setProperty(BlobStoreConstants.PROPERTY_BLOBSTORE_CONTAINER_CONCURRENCY, "1");
+      overrides.setProperty(Constants.PROPERTY_REQUEST_TIMEOUT, "100");
+      PutBlobsStrategyImpl strategy = newStrategy(overrides);
+      release = new CountDownLatch(1);
+
+      try {
+         strategy.execute(CONTAINER, blobs(3));
+         fail("expected a timeout");
+      } catch (RuntimeException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.toString());
+      }
+      release.countDown();
+      Thread.sleep(200);
+
+      assertEquals(started.get(), 1);
+   }
+
+   private PutBlobsStrategyImpl newStrategy(final Properties properties) {
+      final BlobStore slow = new ForwardingBlobStore(context.getBlobStore()) {
+         @Override
+         public String putBlob(String container, Blob blob) {
+            started.incrementAndGet();
+            Uninterruptibles.sleepUninterruptibly(putMillis, TimeUnit.MILLISECONDS);
+            try {
+               release.await();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new RuntimeException(e);
+            }
+            return super.putBlob(container, blob);
+         }
+      };
+      return Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), properties);
+            bind(BlobStore.class).toInstance(slow);
+            bind(ListeningExecutorService.class).annotatedWith(Names.named(Constants.PROPERTY_USER_THREADS))
+                  .toInstance(userExecutor);
+         }
+      }).getInstance(PutBlobsStrategyImpl.class);
+   }
+
+   private List<Blob> blobs(int count) {
+      List<Blob> blobs = Lists.newArrayList();
+      for (int i = 0; i < count; i++)
+         blobs.add(context.getBlobStore().blobBuilder("blob-" + i).payload("content").build());
+      return blobs;
+   }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@Test(groups = "unit", testName = "CachingBlobStoreTest", singleThreaded = true)
+public class CachingBlobStoreTest {
+   private static final String CONTAINER = "artifacts";
+
+   private BlobStoreContext context;
+   private BlobStore backend;
+   private File directory;
+   private AtomicInteger fetches;
+   private AtomicInteger revalidations;
+   private volatile CountDownLatch blockFetches;
+
+   @BeforeMethod
+   public void setUp() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      backend = context.getBlobStore();
+      backend.createContainerInLocation(null, CONTAINER);
+      directory = Files.createTempDir();
+      fetches = new AtomicInteger();
+      revalidations = new AtomicInteger();
+      blockFetches = null;
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      Closeables2.closeQuietly(context);
+      File[] files = directory.listFiles();
+      if (files != null) {
+         for (File file : files)
+            file.delete();
+      }
+      directory.delete();
+   }
+
+   public void testSecondReadIsRevalidatedAndServedFromDisk() throws IOException {
+      put("app.jar", "0123456789");
+      BlobStore cache = newCache(1024);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "app.jar")), "0123456789");
+      assertEquals(read(cache.getBlob(CONTAINER, "app.jar")), "0123456789");
+
+      assertEquals(fetches.get(), 1);
+      assertEquals(revalidations.get(), 1);
+   }
+
+   public void testChangedBlobIsFetchedAgain() throws IOException {
+      put("app.jar", "first");
+      BlobStore cache = newCache(1024);
+      assertEquals(read(cache.getBlob(CONTAINER, "app.jar")), "first");
+
+      put("app.jar", "second");
+
+      assertEquals(read(cache.getBlob(CONTAINER, "app.jar")), "second");
+      assertEquals(cachedFiles(), 1);
+   }
+
+   public void testRangedReadIsServedFromDisk() throws IOException {
+      put("app.jar", "0123456789");
+      BlobStore cache = newCache(1024);
+      cache.getBlob(CONTAINER, "app.jar");
+
+      Blob blob = cache.getBlob(CONTAINER, "app.jar", GetOptions.Builder.range(2, 4));
+
+      assertEquals(read(blob), "234");
+      assertEquals(blob.getPayload().getContentMetadata().getContentLength(), Long.valueOf(3));
+      assertEquals(read(cache.getBlob(CONTAINER, "app.jar", new GetOptions().tail(3))), "789");
+      assertEquals(fetches.get(), 1);
+   }
+
+   public void testRemovedBlobIsNull() {
+      put("app.jar", "0123456789");
+      BlobStore cache = newCache(1024);
+      cache.getBlob(CONTAINER, "app.jar");
+
+      backend.removeBlob(CONTAINER, "app.jar");
+
+      assertNull(cache.getBlob(CONTAINER, "app.jar"));
+      assertEquals(cachedFiles(), 0);
+   }
+
+   public void testLeastRecentlyReadIsEvicted() throws IOException {
+      put("a", "aaaa");
+      put("b", "bbbb");
+      put("c", "cccc");
+      BlobStore cache = newCache(8);
+
+      cache.getBlob(CONTAINER, "a");
+      cache.getBlob(CONTAINER, "b");
+      cache.getBlob(CONTAINER, "a");
+      cache.getBlob(CONTAINER, "c");
+      assertEquals(cachedFiles(), 2);
+      assertEquals(fetches.get(), 3);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "a")), "aaaa");
+      assertEquals(fetches.get(), 3);
+      assertEquals(read(cache.getBlob(CONTAINER, "b")), "bbbb");
+      assertEquals(fetches.get(), 4);
+   }
+
+   public void testBlobLargerThanCacheIsNotCached() throws IOException {
+      put("big", "0123456789");
+      BlobStore cache = newCache(4);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "big")), "0123456789");
+      assertEquals(cachedFiles(), 0);
+      assertEquals(fetches.get(), 1);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "big", GetOptions.Builder.range(2, 4))), "234");
+      assertEquals(fetches.get(), 2);
+   }
+
+   public void testFailedDownloadLeavesNoFiles() {
+      put("app.jar", "0123456789");
+      BlobStore failing = new ForwardingBlobStore(backend) {
+         @Override
+         public Blob getBlob(String container, String name) {
+            Blob blob = super.getBlob(container, name);
+            blob.setPayload(new InputStream() {
+               @Override
+               public int read() throws IOException {
+                  throw new IOException("connection reset");
+               }
+            });
+            blob.getPayload().getContentMetadata().setContentLength(10L);
+            return blob;
+         }
+      };
+      BlobStore cache = CachingBlobStore.newCachingBlobStore(failing, directory, 1024);
+
+      try {
+         cache.getBlob(CONTAINER, "app.jar");
+         fail("expected the download to fail");
+      } catch (RuntimeException expected) {
+      }
+      assertEquals(directory.listFiles().length, 0);
+   }
+
+   public void testPartialDownloadsAreRemovedAtStartup() throws IOException {
+      File partial = File.createTempFile("download", ".tmp", directory);
+      File other = new File(directory, "notes.txt");
+      Files.touch(other);
+
+      newCache(1024);
+
+      assertFalse(partial.exists());
+      assertTrue(other.exists());
+   }
+
+   public void testConcurrentMissesShareOneFetch() throws Exception {
+      put("app.jar", "0123456789");
+      final BlobStore cache = newCache(1024);
+      blockFetches = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<String>> reads = Lists.newArrayList();
+         for (int i = 0; i < 4; i++) {
+            reads.add(executor.submit(new Callable<String>() {
+               @Override
+               public String call() throws IOException {
+                  return read(cache.getBlob(CONTAINER, "app.jar"));
+               }
+            }));
+         }
+         Thread.sleep(200);
+         blockFetches.countDown();
+         for (Future<String> read : reads)
+            assertEquals(read.get(), "0123456789");
+      } finally {
+         executor.shutdownNow();
+      }
+      assertEquals(fetches.get(), 1);
+   }
+
+   private void put(String name, String content) {
+      backend.putBlob(CONTAINER, backend.blobBuilder(name).payload(content).build());
+   }
+
+   private BlobStore newCache(long maxBytes) {
+      BlobStore counting = new ForwardingBlobStore(backend) {
+         @Override
+         public Blob getBlob(String container, String name) {
+            fetches.incrementAndGet();
+            await();
+            return super.getBlob(container, name);
+         }
+
+         @Override
+         public Blob getBlob(String container, String name, GetOptions options) {
+            if (options.getIfNoneMatch() != null)
+               revalidations.incrementAndGet();
+            else
+               fetches.incrementAndGet();
+            await();
+            return super.getBlob(container, name, options);
+         }
+
+         private void await() {
+            CountDownLatch latch = blockFetches;
+            if (latch != null)
+               Uninterruptibles.awaitUninterruptibly(latch);
+         }
+      };
+      return CachingBlobStore.newCachingBlobStore(counting, directory, maxBytes);
+   }
+
+   private int cachedFiles() {
+      int count = 0;
+      for (File file : directory.listFiles()) {
+         if (file.getName().endsWith(".blob"))
+            count++;
+      }
+      return count;
+   }
+
+   private static String read(Blob blob) throws IOException {
+      return new String(ByteStreams.toByteArray(blob.getPayload().openStream()), "UTF-8");
+   }
+}
@@ -19,6 +19,7 @@ package org.jclouds.compute;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.domain.LoginCredentials;
 import org.jclouds.javax.annotation.Nullable;
 
@@ -142,4 +143,17 @@ public interface ComputeServiceAdapter<N, H, I, L> {
    Iterable<N> listNodes();
 
    Iterable<N> listNodesByIds(Iterable<String> ids);
+
+   /**
+    * Implemented by adapters whose cloud can filter the nodes it lists, so that
+    * {@link ComputeService#destroyNodesMatching} and the like do not transfer every node of the account.
+    */
+   public interface ListsNodesMatchingCriteria<N> {
+
+      /**
+       * @return the nodes matching the criteria, possibly with others, as the predicate they came from is
+       *         applied afterwards
+       */
+      Iterable<N> listNodesMatching(NodeCriteria criteria);
+   }
 }
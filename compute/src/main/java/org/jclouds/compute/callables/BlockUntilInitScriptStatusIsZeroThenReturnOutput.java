@@ -18,8 +18,13 @@ package org.jclouds.compute.callables;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.util.Closeables2.closeQuietly;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -28,16 +33,20 @@ import java.util.concurrent.TimeoutException;
 import javax.annotation.Resource;
 
 import org.jclouds.Constants;
+import org.jclouds.compute.domain.ExecChannel;
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.events.StatementOnNodeCompletion;
 import org.jclouds.compute.events.StatementOnNodeFailure;
+import org.jclouds.compute.events.StatementOnNodeOutput;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Splitter;
 import com.google.common.eventbus.EventBus;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.AbstractFuture;
@@ -68,12 +77,16 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
    }
 
    private Predicate<String> notRunningAnymore;
+   private final boolean streamOutput;
+   private final long streamTimeout;
+   private volatile ExecChannel outputChannel;
 
    @Inject
    public BlockUntilInitScriptStatusIsZeroThenReturnOutput(
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, EventBus eventBus,
             ComputeServiceConstants.InitStatusProperties properties, @Assisted SudoAwareInitManager commandRunner) {
-      this(userExecutor, eventBus, Predicates.<String> alwaysTrue(), commandRunner);
+      this(userExecutor, eventBus, Predicates.<String> alwaysTrue(), properties.initStatusStream,
+               properties.initStatusStreamTimeout, commandRunner);
       // this is mutable only until we can determine how to decouple "this" from here
       notRunningAnymore = loopUntilTrueOrThrowCancellationException(new ExitStatusOfCommandGreaterThanZero(
                commandRunner), properties.initStatusMaxPeriod, properties.initStatusInitialPeriod, this);
@@ -82,6 +95,21 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
    @VisibleForTesting
    public BlockUntilInitScriptStatusIsZeroThenReturnOutput(ListeningExecutorService userExecutor, EventBus eventBus,
             Predicate<String> notRunningAnymore, SudoAwareInitManager commandRunner) {
+      this(userExecutor, eventBus, notRunningAnymore, false, commandRunner);
+   }
+
+   @VisibleForTesting
+   BlockUntilInitScriptStatusIsZeroThenReturnOutput(ListeningExecutorService userExecutor, EventBus eventBus,
+            Predicate<String> notRunningAnymore, boolean streamOutput, SudoAwareInitManager commandRunner) {
+      this(userExecutor, eventBus, notRunningAnymore, streamOutput,
+               new ComputeServiceConstants.InitStatusProperties().initStatusStreamTimeout, commandRunner);
+   }
+
+   private BlockUntilInitScriptStatusIsZeroThenReturnOutput(ListeningExecutorService userExecutor, EventBus eventBus,
+            Predicate<String> notRunningAnymore, boolean streamOutput, long streamTimeout,
+            SudoAwareInitManager commandRunner) {
+      this.streamOutput = streamOutput;
+      this.streamTimeout = streamTimeout;
       this.commandRunner = checkNotNull(commandRunner, "commandRunner");
       this.userExecutor = checkNotNull(userExecutor, "userExecutor");
       this.eventBus = checkNotNull(eventBus, "eventBus");
@@ -131,13 +159,23 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
    public void run() {
       try {
          ExecResponse exec = null;
-         do {
+         if (streamOutput) {
+            try {
+               exec = followOutput();
+            } catch (Exception e) {
+               if (isCancelled())
+                  throw e;
+               logger.debug("<< could not follow(%s), polling its status instead: %s", commandRunner.getStatement()
+                        .getInstanceName(), e.getMessage());
+            }
+         }
+         while (exec == null || (!isCancelled() && exec.getExitStatus() == -1)) {
             notRunningAnymore.apply("status");
             String stdout = commandRunner.runAction("stdout").getOutput();
             String stderr = commandRunner.runAction("stderr").getOutput();
             Integer exitStatus = Ints.tryParse(commandRunner.runAction("exitstatus").getOutput().trim());
             exec = new ExecResponse(stdout, stderr, exitStatus == null ? -1 : exitStatus);
-         } while (!isCancelled() && exec.getExitStatus() == -1);
+         }
          logger.debug("<< complete(%s) status(%s)", commandRunner.getStatement().getInstanceName(), exec
                   .getExitStatus());
          set(exec);
@@ -146,6 +184,68 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
       }
    }
 
+   /**
+    * Reads the channel opened by {@link SudoAwareInitManager#followOutput}, posting each line of
+    * stdout as it arrives.
+    *
+    * @return the output and exit status of the script, or null if the channel closed before the
+    *         script left its exit status, in which case its status is polled instead
+    */
+   @VisibleForTesting
+   ExecResponse followOutput() throws IOException {
+      ExecChannel channel = commandRunner.followOutput(streamTimeout);
+      outputChannel = channel;
+      try {
+         BufferedReader reader = new BufferedReader(new InputStreamReader(channel.getOutput(), Charsets.UTF_8));
+         StringBuilder exitStatus = null;
+         StringBuilder stdout = null;
+         StringBuilder stderr = null;
+         StringBuilder section = null;
+         int posted = 0;
+         String previous = null;
+         for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (SudoAwareInitManager.EXIT_STATUS_MARKER.equals(line)) {
+               section = exitStatus = new StringBuilder();
+            } else if (SudoAwareInitManager.STDOUT_MARKER.equals(line)) {
+               section = stdout = new StringBuilder();
+            } else if (SudoAwareInitManager.STDERR_MARKER.equals(line)) {
+               section = stderr = new StringBuilder();
+            } else if (section != null) {
+               section.append(line).append('\n');
+            } else {
+               // hold each line back one step, as the last one is the separator before the markers
+               if (previous != null) {
+                  postOutput(previous);
+                  posted++;
+               }
+               previous = line;
+            }
+         }
+         if (exitStatus == null || stdout == null || stderr == null)
+            return null;
+         String out = withoutLastLineBreak(stdout);
+         // lines written after the tail was stopped
+         List<String> lines = Splitter.on('\n').splitToList(out);
+         int complete = out.endsWith("\n") ? lines.size() - 1 : lines.size();
+         for (String line : lines.subList(Math.min(posted, complete), complete)) {
+            postOutput(line);
+         }
+         Integer status = Ints.tryParse(exitStatus.toString().trim());
+         return new ExecResponse(out, withoutLastLineBreak(stderr), status == null ? -1 : status);
+      } finally {
+         outputChannel = null;
+         closeQuietly(channel);
+      }
+   }
+
+   private static String withoutLastLineBreak(StringBuilder section) {
+      return section.length() > 0 ? section.substring(0, section.length() - 1) : "";
+   }
+
+   private void postOutput(String line) {
+      eventBus.post(new StatementOnNodeOutput(commandRunner.getStatement(), commandRunner.getNode(), line));
+   }
+
    @Override
    protected boolean set(ExecResponse value) {
       eventBus.post(new StatementOnNodeCompletion(getCommandRunner().getStatement(), getCommandRunner().getNode(),
@@ -156,6 +256,7 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
    @Override
    protected void interruptTask() {
       logger.debug("<< cancelled(%s)", commandRunner.getStatement().getInstanceName());
+      closeQuietly(outputChannel);
       ExecResponse returnVal = commandRunner.refreshAndRunAction("stop");
       CancellationException e = new CancellationException(String.format(
                "cancelled %s on node: %s; stop command had exit status: %s", getCommandRunner().getStatement()
@@ -22,6 +22,7 @@ import static com.google.common.base.Preconditions.checkState;
 import javax.annotation.Resource;
 import javax.inject.Named;
 
+import org.jclouds.compute.domain.ExecChannel;
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.reference.ComputeServiceConstants;
@@ -36,6 +37,10 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
 
 public class SudoAwareInitManager {
+   static final String EXIT_STATUS_MARKER = "--- jclouds init exitstatus ---";
+   static final String STDOUT_MARKER = "--- jclouds init stdout ---";
+   static final String STDERR_MARKER = "--- jclouds init stderr ---";
+
    @Resource
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
    protected Logger computeLogger = Logger.NULL;
@@ -79,6 +84,36 @@ public class SudoAwareInitManager {
       }
    }
 
+   /**
+    * Opens a channel that writes the stdout of the init script as it grows, until the script
+    * leaves its exit status. The channel then writes {@link #EXIT_STATUS_MARKER} followed by the
+    * exit status, {@link #STDOUT_MARKER} followed by the whole stdout and {@link #STDERR_MARKER}
+    * followed by the whole stderr, each followed by an extra line break, and closes.
+    * <p/>
+    * If the script is no longer running without having left its exit status, or is still running
+    * after {@code timeoutMillis}, the channel closes without writing the markers.
+    */
+   public ExecChannel followOutput(long timeoutMillis) {
+      checkState(ssh != null, "please call init() before invoking call");
+      String command = followOutputCommand(timeoutMillis);
+      computeLogger.debug(">> following %s as %s@%s", init.getInstanceName(), ssh.getUsername(), ssh.getHostAddress());
+      return ssh.execChannel(command);
+   }
+
+   @VisibleForTesting
+   String followOutputCommand(long timeoutMillis) {
+      // the init script writes rc when it exits and start removes the rc of an earlier run, see InitScript
+      String logDir = init.getLogDir().replace("{varl}INSTANCE_HOME{varr}", init.getInstanceHome());
+      // the script runs as $D/$N.sh; the pattern is only assembled by the shell, so ps does not list it for this
+      // command or the grep
+      return String.format("L=%s; D=%s; N=%s; tail -n +1 -f $L/stdout.log 2>/dev/null & T=$!; S=0; "
+            + "while [ ! -f $L/rc ] && [ $S -lt %d ] && ps auxwww | grep -q \"$D/$N\\.sh\"; do "
+            + "sleep 1; S=$((S+1)); done; kill $T 2>/dev/null; if [ -f $L/rc ]; then "
+            + "echo; echo '%s'; cat $L/rc; echo; echo '%s'; cat $L/stdout.log; echo; echo '%s'; cat $L/stderr.log; echo; fi",
+            logDir, init.getInstanceHome(), init.getInstanceName(), Math.max(1, timeoutMillis / 1000),
+            EXIT_STATUS_MARKER, STDOUT_MARKER, STDERR_MARKER);
+   }
+
    public ExecResponse runAction(String action) {
       ExecResponse returnVal;
       String command = (runAsRoot && Predicates.in(ImmutableSet.of("start", "stop", "run")).apply(action)) ? execScriptAsRoot(action)
@@ -43,6 +43,7 @@ import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.OsFamily;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.domain.TemplateBuilder;
+import org.jclouds.compute.domain.internal.ImageImpl;
 import org.jclouds.compute.extensions.ImageExtension;
 import org.jclouds.compute.extensions.SecurityGroupExtension;
 import org.jclouds.compute.functions.CreateSshClientOncePortIsListeningOnNode;
@@ -55,11 +56,14 @@ import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIn
 import org.jclouds.compute.strategy.InitializeRunScriptOnNodeOrPlaceInBadMap;
 import org.jclouds.compute.suppliers.ImageCacheSupplier;
 import org.jclouds.config.ValueOfConfigurationKeyOrNull;
+import org.jclouds.domain.Location;
 import org.jclouds.domain.LoginCredentials;
+import org.jclouds.domain.internal.LocationImpl;
 import org.jclouds.json.Json;
 import org.jclouds.location.Provider;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
+import org.jclouds.rest.suppliers.MemoizedSupplierFactory;
 import org.jclouds.scriptbuilder.domain.Statement;
 import org.jclouds.scriptbuilder.statements.login.AdminAccess;
 import org.jclouds.ssh.SshClient;
@@ -70,6 +74,7 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
@@ -80,6 +85,9 @@ import com.google.inject.name.Names;
 
 public abstract class BaseComputeServiceContextModule extends AbstractModule {
 
+   /** the memoizer of the context whose image cache is being provided */
+   private MemoizedSupplierFactory memoizer;
+
    @Override
    protected void configure() {
       bind(AdminAccess.Configuration.class).to(AdminAccessConfiguration.class);
@@ -236,6 +244,7 @@ public abstract class BaseComputeServiceContextModule extends AbstractModule {
    @Named("imageCache")
    protected Supplier<Set<? extends Image>> supplyImageCache(AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
          final Supplier<Set<? extends Image>> imageSupplier, Injector injector) {
+      memoizer = injector.getInstance(MemoizedSupplierFactory.class);
       if (shouldEagerlyParseImages(injector)) {
          return supplyImageCache(authException, seconds, imageSupplier);
       } else {
@@ -247,10 +256,27 @@ public abstract class BaseComputeServiceContextModule extends AbstractModule {
       return true;
    }
 
+   /**
+    * Memoizes the images with {@link #supplyImageCache(MemoizedSupplierFactory, Supplier)}, once the image cache is
+    * being provided.
+    */
    protected Supplier<Set<? extends Image>> supplyImageCache(AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
          final Supplier<Set<? extends Image>> imageSupplier) {
-      return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, imageSupplier, seconds,
-               TimeUnit.SECONDS);
+      if (memoizer == null)
+         return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, imageSupplier,
+               seconds, TimeUnit.SECONDS);
+      return supplyImageCache(memoizer, imageSupplier);
+   }
+
+   /**
+    * Memoizes the images, persisting them as a snapshot when
+    * {@link org.jclouds.Constants#PROPERTY_SESSION_SNAPSHOT_DIR} is set.
+    */
+   protected Supplier<Set<? extends Image>> supplyImageCache(MemoizedSupplierFactory memoizer,
+         final Supplier<Set<? extends Image>> imageSupplier) {
+      return memoizer.memoize("images", new TypeToken<Set<? extends Image>>() {
+      }, ImmutableMap.<Class<?>, Class<?>> of(Image.class, ImageImpl.class, Location.class, LocationImpl.class),
+            imageSupplier);
    }
 
    /**
@@ -284,10 +310,10 @@ public abstract class BaseComputeServiceContextModule extends AbstractModule {
    @Provides
    @Singleton
    @Memoized
-   protected Supplier<Set<? extends Hardware>> supplySizeCache(AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
+   protected Supplier<Set<? extends Hardware>> supplySizeCache(MemoizedSupplierFactory memoizer,
          final Supplier<Set<? extends Hardware>> hardwareSupplier) {
-      return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, hardwareSupplier,
-               seconds, TimeUnit.SECONDS);
+      // hardware carries image predicates, which cannot be persisted as a snapshot
+      return memoizer.memoize(hardwareSupplier);
    }
 
    @Provides
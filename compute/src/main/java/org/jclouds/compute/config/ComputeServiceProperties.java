@@ -30,6 +30,19 @@ public final class ComputeServiceProperties {
    public static final String INIT_STATUS_INITIAL_PERIOD = "jclouds.compute.init-status.initial-period";
    public static final String INIT_STATUS_MAX_PERIOD = "jclouds.compute.init-status.max-period";
 
+   /**
+    * When true, the completion of init scripts is followed over one ssh channel that streams their
+    * stdout as {@link org.jclouds.compute.events.StatementOnNodeOutput} events and returns as soon as
+    * they exit, instead of polling their status. Falls back to polling if the channel fails.
+    */
+   public static final String INIT_STATUS_STREAM = "jclouds.compute.init-status.stream";
+
+   /**
+    * How long one channel follows an init script (in ms) before falling back to polling its status.
+    * Polling also takes over as soon as the script is gone without leaving an exit status.
+    */
+   public static final String INIT_STATUS_STREAM_TIMEOUT = "jclouds.compute.init-status.stream-timeout";
+
    /**
     * Initial period between the ComputeService's node polls. Subsequent periods increase exponentially
     * (based on the backoff factor) and become constant when the maximum period is reached.
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.events;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.scriptbuilder.domain.Statement;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects.ToStringHelper;
+
+/**
+ * A line written to stdout by a statement still executing on a node.
+ */
+@Beta
+public class StatementOnNodeOutput extends StatementOnNode {
+
+   private final String line;
+
+   public StatementOnNodeOutput(Statement statement, NodeMetadata node, String line) {
+      super(statement, node);
+      this.line = checkNotNull(line, "line");
+   }
+
+   public String getLine() {
+      return line;
+   }
+
+   @Override
+   protected ToStringHelper string() {
+      return super.string().add("line", line);
+   }
+}
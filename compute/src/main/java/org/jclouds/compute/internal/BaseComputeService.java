@@ -28,7 +28,6 @@ import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_R
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_SUSPENDED;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_NODE_TERMINATED;
 import static org.jclouds.compute.predicates.NodePredicates.TERMINATED;
-import static org.jclouds.compute.predicates.NodePredicates.all;
 import static org.jclouds.compute.util.ComputeServiceUtils.formatStatus;
 import static org.jclouds.concurrent.FutureIterables.awaitCompletion;
 import static org.jclouds.concurrent.FutureIterables.transformParallel;
@@ -68,6 +67,7 @@ import org.jclouds.compute.extensions.ImageExtension;
 import org.jclouds.compute.extensions.SecurityGroupExtension;
 import org.jclouds.compute.options.RunScriptOptions;
 import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
@@ -311,7 +311,10 @@ public class BaseComputeService implements ComputeService {
    }
 
    Iterable<? extends NodeMetadata> nodesMatchingFilterAndNotTerminated(Predicate<NodeMetadata> filter) {
-      return filter(detailsOnAllNodes(), and(checkNotNull(filter, "filter"), not(TERMINATED)));
+      checkNotNull(filter, "filter");
+      Set<? extends NodeMetadata> candidates = newLinkedHashSet(listNodesStrategy
+            .listDetailsOnNodesMatching(NodeCriteria.onDetails(filter)));
+      return filter(candidates, and(filter, not(TERMINATED)));
    }
 
    /**
@@ -680,10 +683,6 @@ public class BaseComputeService implements ComputeService {
             userExecutor, null, logger, "initialize script runners"), notNull());
    }
 
-   private Set<? extends NodeMetadata> detailsOnAllNodes() {
-      return newLinkedHashSet(listNodesStrategy.listDetailsOnNodesMatching(all()));
-   }
-
    @Override
    public TemplateOptions templateOptions() {
       return templateOptionsProvider.get();
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.predicates;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Set;
+
+import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * What the predicates of {@link NodePredicates} match, in a form a provider can turn into a
+ * server-side query, so that listing the nodes of a group does not transfer every node of the
+ * account.
+ * <p/>
+ * A query built from the criteria may return more nodes than match; the predicate itself is
+ * always applied afterwards. Criteria which a provider can not express are left to it.
+ */
+public final class NodeCriteria {
+
+   /**
+    * Implemented by predicates that can describe what they match.
+    */
+   interface Described {
+      /**
+       * @return what the predicate matches, or null if that can not be described
+       */
+      NodeCriteria criteria();
+   }
+
+   /**
+    * @return the criteria of a predicate created by {@link NodePredicates}, or absent if it is any other
+    */
+   public static Optional<NodeCriteria> of(Predicate<?> predicate) {
+      if (predicate instanceof Described)
+         return Optional.fromNullable(((Described) predicate).criteria());
+      return Optional.absent();
+   }
+
+   /**
+    * Adapts a predicate on node details to the {@link ComputeMetadata} accepted by
+    * {@link org.jclouds.compute.strategy.ListNodesStrategy}, keeping its criteria.
+    */
+   public static Predicate<ComputeMetadata> onDetails(Predicate<? super NodeMetadata> filter) {
+      return new OnDetails(checkNotNull(filter, "filter"));
+   }
+
+   static NodeCriteria ids(Set<String> ids) {
+      return new NodeCriteria(Optional.of(ids), Optional.<String> absent(), Optional.<Set<Status>> absent());
+   }
+
+   static NodeCriteria group(String group) {
+      return new NodeCriteria(Optional.<Set<String>> absent(), Optional.of(group), Optional.<Set<Status>> absent());
+   }
+
+   static NodeCriteria groupAndStatus(String group, Status status) {
+      return new NodeCriteria(Optional.<Set<String>> absent(), Optional.of(group), Optional.<Set<Status>> of(ImmutableSet
+            .of(status)));
+   }
+
+   static NodeCriteria status(Status status) {
+      return new NodeCriteria(Optional.<Set<String>> absent(), Optional.<String> absent(), Optional
+            .<Set<Status>> of(ImmutableSet.of(status)));
+   }
+
+   private final Optional<Set<String>> ids;
+   private final Optional<String> group;
+   private final Optional<Set<Status>> statuses;
+
+   private NodeCriteria(Optional<Set<String>> ids, Optional<String> group, Optional<Set<Status>> statuses) {
+      this.ids = ids;
+      this.group = group;
+      this.statuses = statuses;
+   }
+
+   /**
+    * @return the ids of the nodes matched, if limited to some
+    */
+   public Optional<Set<String>> getIds() {
+      return ids;
+   }
+
+   /**
+    * @return the group of the nodes matched, if limited to one
+    */
+   public Optional<String> getGroup() {
+      return group;
+   }
+
+   /**
+    * @return the statuses of the nodes matched, if limited to some
+    */
+   public Optional<Set<Status>> getStatuses() {
+      return statuses;
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj)
+         return true;
+      if (obj == null || getClass() != obj.getClass())
+         return false;
+      NodeCriteria that = NodeCriteria.class.cast(obj);
+      return Objects.equal(this.ids, that.ids) && Objects.equal(this.group, that.group)
+            && Objects.equal(this.statuses, that.statuses);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(ids, group, statuses);
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).omitNullValues().add("ids", ids.orNull()).add("group", group.orNull())
+            .add("statuses", statuses.orNull()).toString();
+   }
+
+   private static class OnDetails implements Predicate<ComputeMetadata>, Described {
+      private final Predicate<? super NodeMetadata> filter;
+
+      private OnDetails(Predicate<? super NodeMetadata> filter) {
+         this.filter = filter;
+      }
+
+      @Override
+      public boolean apply(ComputeMetadata input) {
+         return input instanceof NodeMetadata && filter.apply(NodeMetadata.class.cast(input));
+      }
+
+      @Override
+      public NodeCriteria criteria() {
+         return of(filter).orNull();
+      }
+
+      @Override
+      public String toString() {
+         return filter.toString();
+      }
+   }
+}
@@ -37,6 +37,22 @@ import com.google.common.collect.ImmutableSet;
  */
 public class NodePredicates {
 
+   /**
+    * A predicate that can tell a provider which nodes it matches.
+    */
+   private abstract static class DescribedPredicate<T> implements Predicate<T>, NodeCriteria.Described {
+      private final NodeCriteria criteria;
+
+      private DescribedPredicate(NodeCriteria criteria) {
+         this.criteria = criteria;
+      }
+
+      @Override
+      public NodeCriteria criteria() {
+         return criteria;
+      }
+   }
+
    private static class ParentLocationId implements Predicate<ComputeMetadata> {
       private final String id;
 
@@ -159,7 +175,7 @@ public class NodePredicates {
    public static <T extends ComputeMetadata> Predicate<T> withIds(String... ids) {
       checkNotNull(ids, "ids must be defined");
       final Set<String> search = ImmutableSet.copyOf(ids);
-      return new Predicate<T>() {
+      return new DescribedPredicate<T>(NodeCriteria.ids(search)) {
          @Override
          public boolean apply(T nodeMetadata) {
             return search.contains(nodeMetadata.getId());
@@ -188,7 +204,7 @@ public class NodePredicates {
     */
    public static Predicate<NodeMetadata> inGroup(final String group) {
       checkNotNull(emptyToNull(group), "group must be defined");
-      return new Predicate<NodeMetadata>() {
+      return new DescribedPredicate<NodeMetadata>(NodeCriteria.group(group)) {
          @Override
          public boolean apply(NodeMetadata nodeMetadata) {
             return group.equals(nodeMetadata.getGroup());
@@ -228,7 +244,7 @@ public class NodePredicates {
     */
    public static Predicate<NodeMetadata> runningInGroup(final String group) {
       checkNotNull(emptyToNull(group), "group must be defined");
-      return new Predicate<NodeMetadata>() {
+      return new DescribedPredicate<NodeMetadata>(NodeCriteria.groupAndStatus(group, Status.RUNNING)) {
          @Override
          public boolean apply(NodeMetadata nodeMetadata) {
             return group.equals(nodeMetadata.getGroup()) && nodeMetadata.getStatus() == Status.RUNNING;
@@ -244,7 +260,8 @@ public class NodePredicates {
    /**
     * Match nodes with State == RUNNING
     */
-   public static final Predicate<NodeMetadata> RUNNING = new Predicate<NodeMetadata>() {
+   public static final Predicate<NodeMetadata> RUNNING = new DescribedPredicate<NodeMetadata>(
+         NodeCriteria.status(Status.RUNNING)) {
       @Override
       public boolean apply(NodeMetadata nodeMetadata) {
          return nodeMetadata.getStatus() == Status.RUNNING;
@@ -259,7 +276,8 @@ public class NodePredicates {
    /**
     * Match nodes with State == NODE_TERMINATED
     */
-   public static final Predicate<NodeMetadata> TERMINATED = new Predicate<NodeMetadata>() {
+   public static final Predicate<NodeMetadata> TERMINATED = new DescribedPredicate<NodeMetadata>(
+         NodeCriteria.status(Status.TERMINATED)) {
       @Override
       public boolean apply(NodeMetadata nodeMetadata) {
          return nodeMetadata.getStatus() == Status.TERMINATED;
@@ -274,7 +292,8 @@ public class NodePredicates {
    /**
     * Match nodes with State == SUSPENDED
     */
-   public static final Predicate<NodeMetadata> SUSPENDED = new Predicate<NodeMetadata>() {
+   public static final Predicate<NodeMetadata> SUSPENDED = new DescribedPredicate<NodeMetadata>(
+         NodeCriteria.status(Status.SUSPENDED)) {
       @Override
       public boolean apply(NodeMetadata nodeMetadata) {
          return nodeMetadata.getStatus() == Status.SUSPENDED;
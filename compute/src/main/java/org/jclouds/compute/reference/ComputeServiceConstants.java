@@ -17,6 +17,8 @@
 package org.jclouds.compute.reference;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_MAX_PERIOD;
+import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_STREAM;
+import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_STREAM_TIMEOUT;
 import static org.jclouds.compute.config.ComputeServiceProperties.OS_VERSION_MAP_JSON;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_MAX_PERIOD;
@@ -68,6 +70,14 @@ public final class ComputeServiceConstants {
       @Inject(optional = true)
       @Named(INIT_STATUS_MAX_PERIOD)
       public long initStatusMaxPeriod = 5000;
+
+      @Inject(optional = true)
+      @Named(INIT_STATUS_STREAM)
+      public boolean initStatusStream = false;
+
+      @Inject(optional = true)
+      @Named(INIT_STATUS_STREAM_TIMEOUT)
+      public long initStatusStreamTimeout = 3600 * 1000;
    }
 
    @Singleton
@@ -33,6 +33,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.ComputeServiceAdapter.ListsNodesMatchingCriteria;
 import org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials;
 import org.jclouds.compute.config.ComputeServiceAdapterContextModule.AddDefaultCredentialsToImage;
 import org.jclouds.compute.domain.ComputeMetadata;
@@ -41,6 +42,7 @@ import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.compute.predicates.NodePredicates;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
@@ -58,6 +60,7 @@ import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 
@@ -119,7 +122,17 @@ public class AdaptingComputeServiceStrategies<N, H, I, L> implements CreateNodeW
 
    @Override
    public Iterable<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<ComputeMetadata> filter) {
-      return filter(transform(client.listNodes(), nodeMetadataAdapter), filter);
+      return filter(transform(listNodesMatching(filter), nodeMetadataAdapter), filter);
+   }
+
+   @SuppressWarnings("unchecked")
+   private Iterable<N> listNodesMatching(Predicate<ComputeMetadata> filter) {
+      Optional<NodeCriteria> criteria = NodeCriteria.of(filter);
+      if (criteria.isPresent() && client instanceof ListsNodesMatchingCriteria) {
+         logger.trace(">> listing nodes matching %s", criteria.get());
+         return ((ListsNodesMatchingCriteria<N>) client).listNodesMatching(criteria.get());
+      }
+      return client.listNodes();
    }
    
    @Override
@@ -15,28 +15,43 @@
  * limitations under the License.
  */
 package org.jclouds.compute.callables;
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.createMockBuilder;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.compute.callables.BlockUntilInitScriptStatusIsZeroThenReturnOutput.loopUntilTrueOrThrowCancellationException;
+import static org.jclouds.compute.callables.SudoAwareInitManager.EXIT_STATUS_MARKER;
+import static org.jclouds.compute.callables.SudoAwareInitManager.STDERR_MARKER;
+import static org.jclouds.compute.callables.SudoAwareInitManager.STDOUT_MARKER;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jclouds.compute.callables.BlockUntilInitScriptStatusIsZeroThenReturnOutput.ExitStatusOfCommandGreaterThanZero;
+import org.jclouds.compute.domain.ExecChannel;
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.events.StatementOnNodeOutput;
 import org.jclouds.scriptbuilder.InitScript;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.io.ByteStreams;
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -272,6 +287,52 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutputTest {
 
    }
 
+   public void testStreamOutputPostsLinesAndReturnsExecResponse() throws Exception {
+      ListeningExecutorService userExecutor = MoreExecutors.sameThreadExecutor();
+      Predicate<String> notRunningAnymore = Predicates.alwaysTrue();
+      SudoAwareInitManager commandRunner = createMockBuilder(SudoAwareInitManager.class).addMockedMethod(
+               "followOutput").addMockedMethod("getStatement").addMockedMethod("getNode").addMockedMethod("toString")
+               .createMock();
+      InitScript initScript = createMockBuilder(InitScript.class).addMockedMethod("getInstanceName").createMock();
+
+      // line3 was written after the tail stopped, so it only comes with the full stdout
+      String output = "line1\nline2\n\n" + EXIT_STATUS_MARKER + "\n444\n\n" + STDOUT_MARKER
+               + "\nline1\nline2\nline3\n\n" + STDERR_MARKER + "\nstderr\n\n";
+      expect(commandRunner.followOutput(anyLong())).andReturn(
+               new ExecChannel(ByteStreams.nullOutputStream(), new ByteArrayInputStream(output.getBytes(Charsets.UTF_8)),
+                        new ByteArrayInputStream(new byte[0]), Suppliers.ofInstance(0), new Closeable() {
+                           @Override
+                           public void close() {
+                           }
+                        }));
+      expect(commandRunner.getStatement()).andReturn(initScript).anyTimes();
+      expect(commandRunner.getNode()).andReturn(
+               new NodeMetadataBuilder().ids("id").status(NodeMetadata.Status.RUNNING).build()).anyTimes();
+      expect(initScript.getInstanceName()).andReturn("init-script").anyTimes();
+
+      replay(commandRunner, initScript);
+
+      final List<String> lines = Lists.newArrayList();
+      EventBus eventBus = new EventBus();
+      eventBus.register(new Object() {
+         @Subscribe
+         public void onOutput(StatementOnNodeOutput event) {
+            lines.add(event.getLine());
+         }
+      });
+
+      BlockUntilInitScriptStatusIsZeroThenReturnOutput future = new BlockUntilInitScriptStatusIsZeroThenReturnOutput(
+               userExecutor, eventBus, notRunningAnymore, true, commandRunner);
+
+      future.run();
+
+      assertEquals(future.get(), new ExecResponse("line1\nline2\nline3\n", "stderr\n", 444));
+      assertEquals(lines, ImmutableList.of("line1", "line2", "line3"));
+
+      verify(commandRunner, initScript);
+
+   }
+
    private void toStringAndEventBusExpectations(SudoAwareInitManager commandRunner, InitScript initScript) {
       toStringExpectations(commandRunner, initScript);
       expect(commandRunner.getStatement()).andReturn(initScript);
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.callables;
+
+import static org.jclouds.scriptbuilder.domain.Statements.exec;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.scriptbuilder.InitScript;
+import org.jclouds.scriptbuilder.domain.OsFamily;
+import org.jclouds.ssh.SshClient;
+import org.jclouds.util.Closeables2;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Functions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CharStreams;
+import com.google.common.io.Files;
+
+/**
+ * Runs the init script and the command behind {@link SudoAwareInitManager#followOutput} with the
+ * local bash.
+ */
+@Test(groups = "unit", singleThreaded = true, testName = "SudoAwareInitManagerTest")
+public class SudoAwareInitManagerTest {
+
+   public void testFollowOutputOfARerunWaitsForItsOwnExitStatus() throws Exception {
+      File home = createTempHome();
+      try {
+         // each run exits with the number of times the script ran
+         InitScript init = InitScript.builder().name("rerun-" + home.getName()).home(home.getAbsolutePath())
+               .run(exec("echo ran >> " + home.getAbsolutePath() + "/runs"),
+                     exec("exit `cat " + home.getAbsolutePath() + "/runs | wc -l`")).build();
+         File initFile = writeInitFile(home, init);
+         SudoAwareInitManager manager = manager(home, init);
+
+         bash(initFile + " init");
+         bash(initFile + " start");
+         assertEquals(exitStatus(bash(manager.followOutputCommand(60000))), "1");
+
+         // the rc of the first run is still there when the script starts again
+         assertEquals(Files.toString(new File(home, "rc"), Charsets.UTF_8).trim(), "1");
+         bash(initFile + " start");
+         assertEquals(exitStatus(bash(manager.followOutputCommand(60000))), "2");
+      } finally {
+         delete(home);
+      }
+   }
+
+   public void testFollowOutputStopsWhenTheScriptIsGoneWithoutExitStatus() throws Exception {
+      File home = createTempHome();
+      try {
+         // a killed script can not trap its exit, so it leaves no rc
+         InitScript init = InitScript.builder().name("killed-" + home.getName()).home(home.getAbsolutePath())
+               .run(exec("echo started"), exec("kill -9 $$")).build();
+         File initFile = writeInitFile(home, init);
+         SudoAwareInitManager manager = manager(home, init);
+
+         bash(initFile + " init");
+         bash(initFile + " start");
+         long start = System.currentTimeMillis();
+         assertFalse(bash(manager.followOutputCommand(60000)).contains(SudoAwareInitManager.EXIT_STATUS_MARKER));
+         assertTrue(System.currentTimeMillis() - start < 30000);
+      } finally {
+         delete(home);
+      }
+   }
+
+   public void testFollowOutputStopsAfterTheTimeout() throws Exception {
+      File home = createTempHome();
+      try {
+         InitScript init = InitScript.builder().name("slow-" + home.getName()).home(home.getAbsolutePath())
+               .run(exec("sleep 60")).build();
+         File initFile = writeInitFile(home, init);
+         SudoAwareInitManager manager = manager(home, init);
+
+         bash(initFile + " init");
+         bash(initFile + " start");
+         try {
+            long start = System.currentTimeMillis();
+            assertFalse(bash(manager.followOutputCommand(1000)).contains(SudoAwareInitManager.EXIT_STATUS_MARKER));
+            assertTrue(System.currentTimeMillis() - start < 30000);
+         } finally {
+            bash(initFile + " stop");
+         }
+      } finally {
+         delete(home);
+      }
+   }
+
+   private static File createTempHome() {
+      if (!new File("/bin/bash").canExecute())
+         throw new SkipException("bash is not available");
+      return Files.createTempDir();
+   }
+
+   private static File writeInitFile(File home, InitScript init) throws IOException {
+      File initFile = new File(home, "init-" + init.getInstanceName());
+      Files.write(init.render(OsFamily.UNIX), initFile, Charsets.UTF_8);
+      initFile.setExecutable(true);
+      return initFile;
+   }
+
+   private static SudoAwareInitManager manager(File home, InitScript init) {
+      NodeMetadata node = new NodeMetadataBuilder().ids("id").status(Status.RUNNING).build();
+      return new SudoAwareInitManager(Functions.forMap(ImmutableMap.<NodeMetadata, SshClient> of()), false, node,
+            InitScriptConfigurationForTasks.create().initScriptPattern(home.getAbsolutePath() + "/init-%s"), init);
+   }
+
+   private static String exitStatus(String followOutput) {
+      List<String> lines = Splitter.on('\n').splitToList(followOutput);
+      return lines.get(lines.indexOf(SudoAwareInitManager.EXIT_STATUS_MARKER) + 1).trim();
+   }
+
+   private static String bash(String command) throws IOException, InterruptedException {
+      Process process = new ProcessBuilder("/bin/bash", "-c", command).redirectErrorStream(true).start();
+      InputStreamReader output = new InputStreamReader(process.getInputStream(), Charsets.UTF_8);
+      try {
+         String result = CharStreams.toString(output);
+         assertEquals(process.waitFor(), 0, result);
+         return result;
+      } finally {
+         Closeables2.closeQuietly(output);
+      }
+   }
+
+   private static void delete(File file) {
+      File[] children = file.listFiles();
+      if (children != null)
+         for (File child : children)
+            delete(child);
+      file.delete();
+   }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.config;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.Image.Status;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.domain.internal.ImageImpl;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.domain.internal.LocationImpl;
+import org.jclouds.rest.suppliers.SnapshotFile;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import com.google.common.reflect.TypeToken;
+
+/**
+ * Round trips images through the snapshot written by {@link BaseComputeServiceContextModule}.
+ */
+@Test(groups = "unit", testName = "ImageSnapshotFileTest")
+public class ImageSnapshotFileTest {
+
+   public void testImagesRoundTripWithCredentialSecretsOutsideTheFile() throws IOException {
+      File dir = Files.createTempDir();
+      try {
+         File file = new File(dir, "images.json");
+         SnapshotFile<Set<? extends Image>> snapshot = new SnapshotFile<Set<? extends Image>>(file,
+               new TypeToken<Set<? extends Image>>() {
+               }, ImmutableMap.<Class<?>, Class<?>> of(Image.class, ImageImpl.class, Location.class,
+                     LocationImpl.class), Maps.<String, Credentials> newHashMap());
+
+         Location region = new LocationBuilder().scope(LocationScope.REGION).id("us-east-1")
+               .description("us-east-1").build();
+         Image image = new ImageBuilder().id("us-east-1/ami-1").providerId("ami-1").name("ubuntu")
+               .uri(URI.create("https://ec2.us-east-1.amazonaws.com/ami-1")).location(region)
+               .userMetadata(ImmutableMap.of("rootDeviceType", "ebs")).tags(ImmutableSet.of("base"))
+               .operatingSystem(new OperatingSystem(OsFamily.UBUNTU, "ubuntu", "14.04", "x86_64", "Ubuntu 14.04",
+                     true))
+               .description("Ubuntu 14.04").version("20140924").status(Status.AVAILABLE).backendStatus("available")
+               .defaultCredentials(LoginCredentials.builder().user("ubuntu").password("secret").build())
+               .build();
+         snapshot.write(ImmutableSet.of(image));
+
+         assertFalse(Files.toString(file, Charsets.UTF_8).contains("secret"));
+         Image read = snapshot.read().get().iterator().next();
+         assertEquals(read, image);
+         assertEquals(read.getProviderId(), "ami-1");
+         assertEquals(read.getName(), "ubuntu");
+         assertEquals(read.getUri(), URI.create("https://ec2.us-east-1.amazonaws.com/ami-1"));
+         assertEquals(read.getLocation(), region);
+         assertEquals(read.getUserMetadata(), ImmutableMap.of("rootDeviceType", "ebs"));
+         assertEquals(read.getTags(), ImmutableSet.of("base"));
+         assertEquals(read.getOperatingSystem(), image.getOperatingSystem());
+         assertTrue(read.getOperatingSystem().is64Bit());
+         assertEquals(read.getDescription(), "Ubuntu 14.04");
+         assertEquals(read.getVersion(), "20140924");
+         assertEquals(read.getStatus(), Status.AVAILABLE);
+         assertEquals(read.getBackendStatus(), "available");
+         assertEquals(read.getDefaultCredentials().getUser(), "ubuntu");
+         assertEquals(read.getDefaultCredentials().getOptionalPassword().orNull(), "secret");
+      } finally {
+         for (File file : dir.listFiles())
+            file.delete();
+         dir.delete();
+      }
+   }
+}
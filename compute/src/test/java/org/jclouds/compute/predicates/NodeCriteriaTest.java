@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.predicates;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", testName = "NodeCriteriaTest")
+public class NodeCriteriaTest {
+
+   public void testCriteriaOfNodePredicates() {
+      NodeCriteria group = NodeCriteria.of(NodePredicates.inGroup("web")).get();
+      assertEquals(group.getGroup(), Optional.of("web"));
+      assertFalse(group.getIds().isPresent());
+      assertFalse(group.getStatuses().isPresent());
+
+      NodeCriteria running = NodeCriteria.of(NodePredicates.runningInGroup("web")).get();
+      assertEquals(running.getGroup(), Optional.of("web"));
+      assertEquals(running.getStatuses(), Optional.of(ImmutableSet.of(Status.RUNNING)));
+
+      assertEquals(NodeCriteria.of(NodePredicates.withIds("us-east-1/i-1", "us-east-1/i-2")).get().getIds(),
+            Optional.of(ImmutableSet.of("us-east-1/i-1", "us-east-1/i-2")));
+      assertEquals(NodeCriteria.of(NodePredicates.SUSPENDED).get().getStatuses(),
+            Optional.of(ImmutableSet.of(Status.SUSPENDED)));
+   }
+
+   public void testNoCriteriaForOtherPredicates() {
+      assertFalse(NodeCriteria.of(NodePredicates.all()).isPresent());
+      assertFalse(NodeCriteria.of(NodePredicates.hasGroup()).isPresent());
+      assertFalse(NodeCriteria.of(Predicates.and(NodePredicates.inGroup("web"), NodePredicates.RUNNING)).isPresent());
+   }
+
+   public void testOnDetailsKeepsCriteriaAndFilter() {
+      Predicate<ComputeMetadata> onDetails = NodeCriteria.onDetails(NodePredicates.inGroup("web"));
+      assertEquals(NodeCriteria.of(onDetails), NodeCriteria.of(NodePredicates.inGroup("web")));
+      assertFalse(NodeCriteria.of(NodeCriteria.onDetails(NodePredicates.hasGroup())).isPresent());
+
+      NodeMetadata web = new NodeMetadataBuilder().id("1").group("web").status(Status.RUNNING).build();
+      NodeMetadata db = new NodeMetadataBuilder().id("2").group("db").status(Status.RUNNING).build();
+      assertTrue(onDetails.apply(web));
+      assertFalse(onDetails.apply(db));
+   }
+}
@@ -252,6 +252,7 @@ stop)
    ;;
 start)
    default || exit 1
+   rm -f $LOG_DIR/rc
    forget $INSTANCE_NAME $INSTANCE_HOME/$INSTANCE_NAME.sh $LOG_DIR || exit 1
    ;;
 stdout)
@@ -97,6 +97,23 @@ public final class Constants {
     */
    public static final String PROPERTY_SESSION_INTERVAL = "jclouds.session-interval";
 
+   /**
+    * Boolean property. default (false)
+    * <p/>
+    * Whether memoized image, hardware and location suppliers keep serving their previous value while reloading it in
+    * the background, instead of blocking the next caller once {@link #PROPERTY_SESSION_INTERVAL} has elapsed.
+    */
+   public static final String PROPERTY_SESSION_REFRESH_AHEAD = "jclouds.session-refresh-ahead";
+
+   /**
+    * String property. default (unset)
+    * <p/>
+    * Directory where the memoized image and location suppliers persist their last value. When set, a new context
+    * serves that snapshot immediately while the live value is reloaded in the background, which implies
+    * {@link #PROPERTY_SESSION_REFRESH_AHEAD}.
+    */
+   public static final String PROPERTY_SESSION_SNAPSHOT_DIR = "jclouds.session-snapshot-dir";
+
    /**
     * Boolean property.
     * <p/>
@@ -293,6 +310,27 @@ public final class Constants {
     * </code>
     */
    public static final String PROPERTY_TIMEOUTS_PREFIX = "jclouds.timeouts.";
+
+   /**
+    * Boolean properties
+    * <p/>
+    * Enables the conditional {@code GET} response cache for a command, as if its method were annotated with
+    * {@link org.jclouds.rest.annotations.CacheResponse}. The command name is the value of the method's
+    * {@code @Named} annotation:
+    * <p/>
+    * <code>
+    * jclouds.response-cache.nova:listFlavors=true
+    * </code>
+    */
+   public static final String PROPERTY_RESPONSE_CACHE_PREFIX = "jclouds.response-cache.";
+
+   /**
+    * Integer property. Default (100).
+    * <p/>
+    * The maximum number of responses kept by the conditional {@code GET} response cache, least recently used first
+    * out.
+    */
+   public static final String PROPERTY_RESPONSE_CACHE_SIZE = "jclouds.response-cache-size";
    
    /**
     * Boolean property. Default (true).
@@ -312,6 +350,81 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_PARALLEL_DELETES = "jclouds.max-parallel-deletes";
 
+   /**
+    * Integer property. Default (10).
+    * <p/>
+    * The maximum number of page listings in flight at any point in time when a container is listed
+    * as several key ranges at once.
+    */
+   public static final String PROPERTY_MAX_PARALLEL_LISTS = "jclouds.max-parallel-lists";
+
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * Limits the number of requests in flight to each endpoint, lowering the limit when the endpoint
+    * throttles or slows down and raising it again as requests succeed. Requests over the limit wait
+    * their turn, for up to {@link #PROPERTY_CONNECTION_TIMEOUT}, instead of failing.
+    * <p/>
+    * Slowdowns are judged by the latency of all requests to the endpoint together, so enable this
+    * for endpoints whose requests take similar time, rather than for a mix of small requests and
+    * large transfers.
+    */
+   public static final String PROPERTY_ADAPTIVE_CONCURRENCY = "jclouds.adaptive-concurrency";
+
+   /**
+    * Integer property. Default (1000).
+    * <p/>
+    * The most requests ever allowed in flight to a single endpoint when
+    * {@link #PROPERTY_ADAPTIVE_CONCURRENCY} is enabled.
+    */
+   public static final String PROPERTY_ADAPTIVE_CONCURRENCY_MAX = "jclouds.adaptive-concurrency.max";
+
+   /**
+    * Double property. Default (2.5).
+    * <p/>
+    * How many times slower than usual an endpoint has to respond before its concurrency limit is
+    * lowered. 0 only lowers the limit on throttling responses.
+    */
+   public static final String PROPERTY_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE = "jclouds.adaptive-concurrency.latency-tolerance";
+
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * Sends a second copy of {@code GET} and {@code HEAD} requests that take longer than
+    * {@link #PROPERTY_HEDGE_REQUESTS_PERCENTILE} of their recent latencies, using whichever response
+    * comes first and cancelling the other.
+    */
+   public static final String PROPERTY_HEDGE_REQUESTS = "jclouds.hedge-requests";
+
+   /**
+    * Double property. Default (95).
+    * <p/>
+    * The percentile of recent latencies of the same call after which a hedged request is sent.
+    */
+   public static final String PROPERTY_HEDGE_REQUESTS_PERCENTILE = "jclouds.hedge-requests.percentile";
+
+   /**
+    * Double property. Default (0.05).
+    * <p/>
+    * The most hedged requests sent, as a fraction of the requests eligible for hedging.
+    */
+   public static final String PROPERTY_HEDGE_REQUESTS_MAX_RATIO = "jclouds.hedge-requests.max-ratio";
+
+   /**
+    * Boolean properties
+    * <p/>
+    * Lets concurrent identical calls of a command share one request, as if its method were annotated
+    * with {@link org.jclouds.rest.annotations.CoalesceRequests}. The suffix is either the command name,
+    * which is the value of the method's {@code @Named} annotation, or the simple name of the api type to
+    * enable it for all of its methods:
+    * <p/>
+    * <code>
+    * jclouds.coalesce-requests.nova:getServer=true <br/>
+    * jclouds.coalesce-requests.AWSS3Client=true
+    * </code>
+    */
+   public static final String PROPERTY_COALESCE_REQUESTS_PREFIX = "jclouds.coalesce-requests.";
+
    private Constants() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -18,16 +18,25 @@ package org.jclouds.apis.internal;
 
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_CONCURRENCY;
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE;
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_CONCURRENCY_MAX;
 import static org.jclouds.Constants.PROPERTY_CONNECTION_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_HEDGE_REQUESTS;
+import static org.jclouds.Constants.PROPERTY_HEDGE_REQUESTS_MAX_RATIO;
+import static org.jclouds.Constants.PROPERTY_HEDGE_REQUESTS_PERCENTILE;
 import static org.jclouds.Constants.PROPERTY_ISO3166_CODES;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTION_REUSE;
 import static org.jclouds.Constants.PROPERTY_MAX_PARALLEL_DELETES;
+import static org.jclouds.Constants.PROPERTY_MAX_PARALLEL_LISTS;
 import static org.jclouds.Constants.PROPERTY_MAX_SESSION_FAILURES;
 import static org.jclouds.Constants.PROPERTY_PRETTY_PRINT_PAYLOADS;
+import static org.jclouds.Constants.PROPERTY_RESPONSE_CACHE_SIZE;
 import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.Constants.PROPERTY_SESSION_REFRESH_AHEAD;
 import static org.jclouds.Constants.PROPERTY_SO_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_STRIP_EXPECT_HEADER;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
@@ -71,12 +80,22 @@ public abstract class BaseApiMetadata implements ApiMetadata {
       props.setProperty(PROPERTY_MAX_CONNECTION_REUSE, 75 + "");
       props.setProperty(PROPERTY_MAX_SESSION_FAILURES, 2 + "");
       props.setProperty(PROPERTY_SESSION_INTERVAL, 60 + "");
+      props.setProperty(PROPERTY_SESSION_REFRESH_AHEAD, "false");
       props.setProperty(PROPERTY_PRETTY_PRINT_PAYLOADS, "true");
       props.setProperty(PROPERTY_STRIP_EXPECT_HEADER, "false");
+      props.setProperty(PROPERTY_RESPONSE_CACHE_SIZE, 100 + "");
+      props.setProperty(PROPERTY_ADAPTIVE_CONCURRENCY, "false");
+      props.setProperty(PROPERTY_ADAPTIVE_CONCURRENCY_MAX, 1000 + "");
+      props.setProperty(PROPERTY_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE, "2.5");
+      props.setProperty(PROPERTY_HEDGE_REQUESTS, "false");
+      props.setProperty(PROPERTY_HEDGE_REQUESTS_PERCENTILE, "95");
+      props.setProperty(PROPERTY_HEDGE_REQUESTS_MAX_RATIO, "0.05");
 
       // By default, we allow maximum parallel deletes to be equal to the number
       // of user threads since one thread is used to delete on blob.
       props.setProperty(PROPERTY_MAX_PARALLEL_DELETES, numUserThreads + "");
+      // Each listing holds a connection, so leave most of the connections to other requests.
+      props.setProperty(PROPERTY_MAX_PARALLEL_LISTS, 10 + "");
       return props;
    }
 
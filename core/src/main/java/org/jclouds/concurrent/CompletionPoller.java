@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.Resource;
+
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Waits for remote operations to complete without a polling thread per operation.
+ * <p>
+ * All outstanding operations are polled by a single task on the poll executor, usually the one named
+ * {@link org.jclouds.Constants#PROPERTY_USER_THREADS}. The task only runs while there is something to wait for. Each
+ * cycle passes the outstanding operations to {@link #poll}, which reports the ones that finished with
+ * {@link #complete} or {@link #fail}.
+ * <p>
+ * The scheduler, usually the one named {@link org.jclouds.Constants#PROPERTY_SCHEDULER_THREADS}, only times the
+ * polls, so that no thread is held between them. Without a scheduler, the poll task sleeps on the poll executor
+ * instead.
+ * 
+ * @param <K>
+ *           what identifies an operation
+ * @param <V>
+ *           what a completed operation returns
+ */
+@Beta
+public abstract class CompletionPoller<K, V> {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final Optional<ScheduledExecutorService> scheduler;
+   private final Executor pollExecutor;
+   private final long pollInterval;
+
+   // guarded by this
+   private final Map<K, Outstanding<V>> outstanding = Maps.newLinkedHashMap();
+   private boolean polling;
+
+   private static class Outstanding<V> {
+      private final List<SettableFuture<V>> waiters = Lists.newArrayList();
+      private final long since = System.currentTimeMillis();
+   }
+
+   /**
+    * @param scheduler
+    *           times the polls, if present
+    * @param pollExecutor
+    *           runs the polls, which may block
+    * @param pollInterval
+    *           how long to wait before each poll, in milliseconds
+    */
+   protected CompletionPoller(Optional<ScheduledExecutorService> scheduler, Executor pollExecutor, long pollInterval) {
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.pollExecutor = checkNotNull(pollExecutor, "pollExecutor");
+      this.pollInterval = pollInterval;
+   }
+
+   /**
+    * @return a future that completes once {@link #poll} reports the operation finished. Cancelling it stops waiting for
+    *         the operation, and the operation is no longer polled once nobody waits for it.
+    */
+   protected ListenableFuture<V> whenComplete(final K key) {
+      checkNotNull(key, "key");
+      final SettableFuture<V> waiter = SettableFuture.create();
+      boolean startPolling = false;
+      synchronized (this) {
+         Outstanding<V> forKey = outstanding.get(key);
+         if (forKey == null) {
+            forKey = new Outstanding<V>();
+            outstanding.put(key, forKey);
+         }
+         forKey.waiters.add(waiter);
+         if (!polling) {
+            polling = startPolling = true;
+         }
+      }
+      waiter.addListener(new Runnable() {
+         @Override
+         public void run() {
+            if (waiter.isCancelled())
+               stopWaiting(key, waiter);
+         }
+      }, sameThreadExecutor());
+      if (startPolling)
+         schedulePoll();
+      return waiter;
+   }
+
+   /**
+    * Checks on the outstanding operations, reporting each one that finished with {@link #complete} or {@link #fail}.
+    * Operations that are not reported are polled again after the poll interval.
+    * 
+    * @param since
+    *           the outstanding operations, each with the time it was first waited for in milliseconds since the epoch
+    */
+   protected abstract void poll(Map<K, Long> since);
+
+   /**
+    * completes the futures waiting for the operation with its result.
+    */
+   protected void complete(K key, V result) {
+      for (SettableFuture<V> waiter : remove(key))
+         waiter.set(result);
+   }
+
+   /**
+    * fails the futures waiting for the operation.
+    */
+   protected void fail(K key, Throwable t) {
+      for (SettableFuture<V> waiter : remove(key))
+         waiter.setException(t);
+   }
+
+   /**
+    * @return the number of operations that did not complete yet
+    */
+   public synchronized int outstanding() {
+      return outstanding.size();
+   }
+
+   private synchronized List<SettableFuture<V>> remove(K key) {
+      Outstanding<V> removed = outstanding.remove(key);
+      return removed == null ? ImmutableList.<SettableFuture<V>> of() : ImmutableList.copyOf(removed.waiters);
+   }
+
+   private synchronized void stopWaiting(K key, SettableFuture<V> waiter) {
+      Outstanding<V> forKey = outstanding.get(key);
+      if (forKey != null && forKey.waiters.remove(waiter) && forKey.waiters.isEmpty()) {
+         logger.trace("<< stopped waiting for %s", key);
+         outstanding.remove(key);
+      }
+   }
+
+   private void schedulePoll() {
+      if (scheduler.isPresent()) {
+         try {
+            scheduler.get().schedule(new Runnable() {
+               @Override
+               public void run() {
+                  executePoll(new Poll());
+               }
+            }, pollInterval, MILLISECONDS);
+         } catch (RejectedExecutionException e) {
+            cancelOutstanding();
+         }
+      } else {
+         executePoll(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  Thread.sleep(pollInterval);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  cancelOutstanding();
+                  return;
+               }
+               new Poll().run();
+            }
+         });
+      }
+   }
+
+   private void executePoll(Runnable poll) {
+      try {
+         pollExecutor.execute(poll);
+      } catch (RejectedExecutionException e) {
+         cancelOutstanding();
+      }
+   }
+
+   private class Poll implements Runnable {
+
+      @Override
+      public void run() {
+         ImmutableMap.Builder<K, Long> toPoll = ImmutableMap.builder();
+         synchronized (CompletionPoller.this) {
+            if (outstanding.isEmpty()) {
+               polling = false;
+               return;
+            }
+            for (Map.Entry<K, Outstanding<V>> entry : outstanding.entrySet())
+               toPoll.put(entry.getKey(), entry.getValue().since);
+         }
+         try {
+            poll(toPoll.build());
+         } catch (RuntimeException e) {
+            logger.warn(e, "<< error polling outstanding operations, will retry");
+         }
+         synchronized (CompletionPoller.this) {
+            if (outstanding.isEmpty()) {
+               polling = false;
+               return;
+            }
+         }
+         schedulePoll();
+      }
+   }
+
+   private void cancelOutstanding() {
+      Map<K, Outstanding<V>> toCancel;
+      synchronized (this) {
+         toCancel = ImmutableMap.copyOf(outstanding);
+         outstanding.clear();
+         polling = false;
+      }
+      for (Map.Entry<K, Outstanding<V>> entry : toCancel.entrySet()) {
+         for (SettableFuture<V> waiter : ImmutableList.copyOf(entry.getValue().waiters))
+            waiter.setException(new CancellationException("stopped waiting for " + entry.getKey()));
+      }
+   }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent.config;
+
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.inject.Named;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+
+/**
+ * The scheduler of the context, if {@link ScheduledExecutorServiceModule} was added to it.
+ * <p>
+ * Inject this instead of the scheduler where it only saves a thread while waiting, so that the context still works
+ * without the module.
+ */
+@Beta
+public class OptionalScheduler {
+
+   @Inject(optional = true)
+   @Named(PROPERTY_SCHEDULER_THREADS)
+   private ScheduledExecutorService scheduler;
+
+   public Optional<ScheduledExecutorService> get() {
+      return Optional.fromNullable(scheduler);
+   }
+}
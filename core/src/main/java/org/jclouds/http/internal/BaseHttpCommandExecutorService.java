@@ -25,6 +25,8 @@ import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
 import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -41,10 +43,13 @@ import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.EndpointConcurrencyLimiter.Permit;
+import org.jclouds.http.internal.RequestHedger.Attempt;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 
 public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandExecutorService {
@@ -65,6 +70,12 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    protected final HttpWire wire;
 
+   @com.google.inject.Inject(optional = true)
+   protected EndpointConcurrencyLimiter limiter = EndpointConcurrencyLimiter.UNLIMITED;
+
+   @com.google.inject.Inject(optional = true)
+   protected RequestHedger hedger = RequestHedger.DISABLED;
+
    @Inject
    protected BaseHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
          DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
@@ -92,8 +103,12 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
             logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
             wirePayloadIfEnabled(wire, request);
             utils.logRequest(headerLog, request, ">>");
-            nativeRequest = convert(request);
-            response = invoke(nativeRequest);
+            if (hedger.hedges(request)) {
+               response = hedger.invoke(request, attemptsOf(request));
+            } else {
+               nativeRequest = convert(request);
+               response = invokeWithPermit(request, nativeRequest);
+            }
 
             logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
             utils.logResponse(headerLog, response, "<<");
@@ -127,6 +142,88 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       return response;
    }
 
+   /**
+    * Sends the request once the endpoint admits it, and releases the permit as soon as the response
+    * status is known, so that the permit is not held during retry backoff.
+    */
+   private HttpResponse invokeWithPermit(HttpRequest request, Q nativeRequest) throws IOException,
+         InterruptedException, TimeoutException {
+      Permit permit = limiter.acquire(request);
+      HttpResponse response = null;
+      try {
+         response = invoke(nativeRequest);
+         return response;
+      } finally {
+         if (response != null)
+            permit.release(isThrottled(response.getStatusCode()));
+         else
+            permit.abandon();
+      }
+   }
+
+   private Supplier<Attempt> attemptsOf(final HttpRequest request) {
+      return new Supplier<Attempt>() {
+         @Override
+         public Attempt get() {
+            return new HedgedAttempt(request);
+         }
+      };
+   }
+
+   /**
+    * Sends its own copy of the request, which another thread may abort by closing the connection.
+    */
+   private final class HedgedAttempt implements Attempt {
+      private final HttpRequest request;
+      private Q nativeRequest;
+      private HttpResponse response;
+      private boolean aborted;
+
+      HedgedAttempt(HttpRequest request) {
+         this.request = request;
+      }
+
+      @Override
+      public HttpResponse call() throws Exception {
+         Q nativeRequest = convert(request);
+         synchronized (this) {
+            if (aborted) {
+               cleanup(nativeRequest);
+               throw new CancellationException();
+            }
+            this.nativeRequest = nativeRequest;
+         }
+         HttpResponse response;
+         try {
+            response = invokeWithPermit(request, nativeRequest);
+         } catch (Exception e) {
+            cleanup(nativeRequest);
+            throw e;
+         }
+         synchronized (this) {
+            if (aborted) {
+               releasePayload(response);
+               throw new CancellationException();
+            }
+            this.response = response;
+            return response;
+         }
+      }
+
+      @Override
+      public synchronized void abort() {
+         aborted = true;
+         if (response != null)
+            releasePayload(response);
+         else if (nativeRequest != null)
+            cleanup(nativeRequest);
+      }
+   }
+
+   private static boolean isThrottled(int statusCode) {
+      return statusCode == 429 || statusCode == 503;
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
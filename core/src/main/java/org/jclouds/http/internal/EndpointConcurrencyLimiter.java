@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_CONNECTION_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_CONCURRENCY;
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE;
+import static org.jclouds.Constants.PROPERTY_ADAPTIVE_CONCURRENCY_MAX;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Admission control for the requests sent to each endpoint (scheme, host and port).
+ * <p/>
+ * Every endpoint has a concurrency limit adjusted by additive increase, multiplicative decrease:
+ * the limit grows by one for each limit's worth of successful requests sent while it was fully
+ * used, and is cut to half the requests in flight when the endpoint throttles (429, 503 or a
+ * provider specific error reported through {@link #throttled}). It is also cut by a tenth of its
+ * value when responses get slower than usual by more than the configured tolerance, so that a few
+ * slow requests, like large uploads, only nudge it. Cuts happen at most once per round trip, so a
+ * burst of throttling responses to requests already in flight counts once.
+ * <p/>
+ * Requests over the limit wait for a permit in arrival order, rather than failing or joining
+ * the retry storm, for at most the connection timeout.
+ */
+@Singleton
+public class EndpointConcurrencyLimiter {
+
+   public static final EndpointConcurrencyLimiter UNLIMITED = new EndpointConcurrencyLimiter(false, 1, 0, 0);
+
+   private static final double THROTTLED_DECREASE = 0.5;
+   private static final double LATENCY_DECREASE = 0.9;
+   /** weight of a new sample in the short and long term latency averages */
+   private static final double SHORT_WEIGHT = 0.2;
+   private static final double LONG_WEIGHT = 0.01;
+   /** samples to take before the long term latency is trusted */
+   private static final int WARMUP_SAMPLES = 50;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final boolean enabled;
+   private final int max;
+   private final double latencyTolerance;
+   private final long timeoutMillis;
+   private final Ticker ticker;
+   private final LoadingCache<String, Limit> limits;
+
+   @Inject
+   EndpointConcurrencyLimiter(@Named(PROPERTY_ADAPTIVE_CONCURRENCY) boolean enabled,
+         @Named(PROPERTY_ADAPTIVE_CONCURRENCY_MAX) int max,
+         @Named(PROPERTY_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE) double latencyTolerance,
+         @Named(PROPERTY_CONNECTION_TIMEOUT) long timeoutMillis) {
+      this(enabled, max, latencyTolerance, timeoutMillis, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   EndpointConcurrencyLimiter(boolean enabled, int max, double latencyTolerance, long timeoutMillis, Ticker ticker) {
+      checkArgument(max > 0, "max concurrency must be positive");
+      checkArgument(latencyTolerance == 0 || latencyTolerance > 1, "latency tolerance must be 0 or above 1");
+      this.enabled = enabled;
+      this.max = max;
+      this.latencyTolerance = latencyTolerance;
+      this.timeoutMillis = timeoutMillis;
+      this.ticker = checkNotNull(ticker, "ticker");
+      this.limits = CacheBuilder.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
+            .build(new CacheLoader<String, Limit>() {
+               @Override
+               public Limit load(String endpoint) {
+                  return new Limit(endpoint);
+               }
+            });
+   }
+
+   /**
+    * A slot for one request in flight, to be released as soon as the response status is known.
+    */
+   public interface Permit {
+      /**
+       * @param throttled
+       *           whether the endpoint rejected the request as over its rate or concurrency limit
+       */
+      void release(boolean throttled);
+
+      /**
+       * Releases the slot without using the request as a sample, as when it failed to connect.
+       */
+      void abandon();
+   }
+
+   private static final Permit NO_PERMIT = new Permit() {
+      @Override
+      public void release(boolean throttled) {
+      }
+
+      @Override
+      public void abandon() {
+      }
+   };
+
+   /**
+    * Waits until a request to the endpoint of {@code request} can be sent.
+    * 
+    * @throws TimeoutException
+    *            if no permit was available within the connection timeout
+    */
+   public Permit acquire(HttpRequest request) throws InterruptedException, TimeoutException {
+      if (!enabled)
+         return NO_PERMIT;
+      final Limit limit = limits.getUnchecked(endpoint(request.getEndpoint()));
+      limit.acquire(timeoutMillis);
+      final long start = ticker.read();
+      return new Permit() {
+         private boolean released;
+
+         @Override
+         public void release(boolean throttled) {
+            if (!released) {
+               released = true;
+               limit.release(ticker.read() - start, throttled, true);
+            }
+         }
+
+         @Override
+         public void abandon() {
+            if (!released) {
+               released = true;
+               limit.release(0, false, false);
+            }
+         }
+      };
+   }
+
+   /**
+    * Reports that the endpoint of {@code request} throttled it, for throttling only recognizable
+    * from the response content.
+    */
+   public void throttled(HttpRequest request) {
+      if (enabled)
+         limits.getUnchecked(endpoint(request.getEndpoint())).throttled();
+   }
+
+   @VisibleForTesting
+   int limit(URI endpoint) {
+      Limit limit = limits.getIfPresent(endpoint(endpoint));
+      return limit != null ? limit.current() : max;
+   }
+
+   @VisibleForTesting
+   int inFlight(URI endpoint) {
+      Limit limit = limits.getIfPresent(endpoint(endpoint));
+      return limit != null ? limit.inFlight() : 0;
+   }
+
+   private static String endpoint(URI uri) {
+      checkNotNull(uri, "endpoint");
+      int port = uri.getPort();
+      if (port == -1 && "https".equalsIgnoreCase(uri.getScheme()))
+         port = 443;
+      else if (port == -1 && "http".equalsIgnoreCase(uri.getScheme()))
+         port = 80;
+      return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() + ":" + port;
+   }
+
+   private final class Limit {
+      private final String endpoint;
+      private final Deque<Object> waiting = new ArrayDeque<Object>();
+      private double limit = max;
+      private int inFlight;
+      private double shortLatency;
+      private double longLatency;
+      private long samples;
+      private long lastDecrease;
+
+      private Limit(String endpoint) {
+         this.endpoint = endpoint;
+      }
+
+      synchronized int current() {
+         return (int) limit;
+      }
+
+      synchronized int inFlight() {
+         return inFlight;
+      }
+
+      synchronized void acquire(long timeoutMillis) throws InterruptedException, TimeoutException {
+         if (waiting.isEmpty() && inFlight < (int) limit) {
+            inFlight++;
+            return;
+         }
+         long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+         Object ticket = new Object();
+         waiting.addLast(ticket);
+         try {
+            while (waiting.peekFirst() != ticket || inFlight >= (int) limit) {
+               long remaining = deadline - System.nanoTime();
+               if (remaining <= 0)
+                  throw new TimeoutException(String.format("waited %dms for one of %d requests in flight to %s",
+                        timeoutMillis, inFlight, endpoint));
+               TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+         } catch (InterruptedException e) {
+            waiting.remove(ticket);
+            notifyAll();
+            throw e;
+         } catch (TimeoutException e) {
+            waiting.remove(ticket);
+            notifyAll();
+            throw e;
+         }
+         waiting.removeFirst();
+         inFlight++;
+         if (!waiting.isEmpty())
+            notifyAll();
+      }
+
+      synchronized void release(long latencyNanos, boolean throttled, boolean sample) {
+         boolean saturated = inFlight >= (int) limit;
+         inFlight--;
+         if (throttled) {
+            throttled();
+         } else if (sample) {
+            samples++;
+            if (samples == 1) {
+               shortLatency = longLatency = latencyNanos;
+            } else {
+               shortLatency += SHORT_WEIGHT * (latencyNanos - shortLatency);
+               longLatency += LONG_WEIGHT * (latencyNanos - longLatency);
+            }
+            if (latencyTolerance > 0 && samples > WARMUP_SAMPLES && shortLatency > latencyTolerance * longLatency) {
+               decrease(limit * LATENCY_DECREASE, "slowing down");
+            } else if (saturated && limit < max) {
+               limit = Math.min(max, limit + 1 / limit);
+            }
+         }
+         notifyAll();
+      }
+
+      synchronized void throttled() {
+         decrease(Math.min(limit, inFlight + 1) * THROTTLED_DECREASE, "throttled");
+      }
+
+      private void decrease(double lowered, String reason) {
+         long now = ticker.read();
+         if (lastDecrease != 0 && now - lastDecrease < Math.max(shortLatency, TimeUnit.MILLISECONDS.toNanos(1)))
+            return;
+         lastDecrease = now;
+         double previous = limit;
+         limit = Math.max(1, lowered);
+         if ((int) limit != (int) previous)
+            logger.debug("<< %s %s, lowered concurrency limit from %d to %d", endpoint, reason, (int) previous,
+                  (int) limit);
+      }
+   }
+}
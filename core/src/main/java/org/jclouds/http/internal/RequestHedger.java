@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.Constants.PROPERTY_HEDGE_REQUESTS;
+import static org.jclouds.Constants.PROPERTY_HEDGE_REQUESTS_MAX_RATIO;
+import static org.jclouds.Constants.PROPERTY_HEDGE_REQUESTS_PERCENTILE;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Cuts the tail latency of reads by hedging: when a {@code GET} or {@code HEAD} request has not
+ * been answered within a percentile of the recent latencies of the same call, a second copy is
+ * sent, the first response received is used and the other attempt is aborted.
+ * <p/>
+ * Hedges are budgeted so they add at most the configured fraction of extra requests: each
+ * eligible request earns that fraction of a hedge, and no hedge is sent while less than one has
+ * been earned. No hedge is sent either until enough latencies of the call are known to estimate
+ * the percentile.
+ * <p/>
+ * Attempts run on a pool of their own rather than the user executor, so that callers already
+ * running on user threads can not starve their own requests.
+ */
+@Singleton
+public class RequestHedger implements Closeable {
+
+   public static final RequestHedger DISABLED = new RequestHedger(false, 95, 0);
+
+   /** latencies remembered for each call */
+   private static final int WINDOW = 256;
+   /** latencies to know before a call is hedged */
+   private static final int WARMUP_SAMPLES = 20;
+   /** the most hedges that can be saved up during a quiet period */
+   private static final double MAX_BUDGET = 10;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final boolean enabled;
+   private final double percentile;
+   private final double maxRatio;
+   private final ConcurrentMap<String, Call> calls = Maps.newConcurrentMap();
+   private final Object budgetLock = new Object();
+   private double budget;
+   private volatile ExecutorService executor;
+
+   @Inject
+   RequestHedger(@Named(PROPERTY_HEDGE_REQUESTS) boolean enabled,
+         @Named(PROPERTY_HEDGE_REQUESTS_PERCENTILE) double percentile,
+         @Named(PROPERTY_HEDGE_REQUESTS_MAX_RATIO) double maxRatio) {
+      checkArgument(percentile > 0 && percentile < 100, "percentile must be between 0 and 100, was %s", percentile);
+      checkArgument(maxRatio >= 0, "max ratio must not be negative, was %s", maxRatio);
+      this.enabled = enabled;
+      this.percentile = percentile;
+      this.maxRatio = maxRatio;
+   }
+
+   /**
+    * One way of sending a request, that can be aborted from another thread.
+    */
+   public interface Attempt extends Callable<HttpResponse> {
+
+      /**
+       * Gives up on the attempt: closes its connection if it is in flight, or releases its response
+       * if it has already been received.
+       */
+      void abort();
+   }
+
+   /**
+    * Counters of the requests sent for one call.
+    */
+   public static final class Stats {
+      private final long requests;
+      private final long hedged;
+      private final long hedgeWins;
+
+      Stats(long requests, long hedged, long hedgeWins) {
+         this.requests = requests;
+         this.hedged = hedged;
+         this.hedgeWins = hedgeWins;
+      }
+
+      /** requests eligible for hedging */
+      public long getRequests() {
+         return requests;
+      }
+
+      /** requests that were hedged */
+      public long getHedged() {
+         return hedged;
+      }
+
+      /** hedged requests answered by the hedge first */
+      public long getHedgeWins() {
+         return hedgeWins;
+      }
+
+      /** fraction of the requests that were hedged */
+      public double getHedgeRate() {
+         return requests == 0 ? 0 : (double) hedged / requests;
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).add("requests", requests).add("hedged", hedged)
+               .add("hedgeWins", hedgeWins).toString();
+      }
+   }
+
+   /**
+    * @return true if the request should be sent through {@link #invoke}
+    */
+   public boolean hedges(HttpRequest request) {
+      return enabled && request.getPayload() == null
+            && ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()));
+   }
+
+   /**
+    * Runs an attempt, and another one if the first is slow, returning the first response received.
+    * If the first attempt to finish fails while the other is still in flight, the other is awaited
+    * instead.
+    * 
+    * @param attempts
+    *           supplies each attempt to run
+    */
+   public HttpResponse invoke(HttpRequest request, Supplier<? extends Attempt> attempts) throws Exception {
+      Call call = call(keyOf(request));
+      call.requests.incrementAndGet();
+      earn();
+      long start = System.nanoTime();
+      BlockingQueue<Task> done = new LinkedBlockingQueue<Task>();
+      Task first = submit(attempts.get(), done);
+      Task second = null;
+      try {
+         long delay = call.delayNanos(percentile);
+         Task winner = delay < 0 ? done.take() : done.poll(delay, TimeUnit.NANOSECONDS);
+         if (winner == null) {
+            if (spend()) {
+               call.hedged.incrementAndGet();
+               logger.debug("Hedging request %s after %sms", request.getRequestLine(),
+                     TimeUnit.NANOSECONDS.toMillis(delay));
+               second = submit(attempts.get(), done);
+            }
+            winner = done.take();
+         }
+         if (second != null && winner.failed())
+            winner = done.take();
+         if (winner == second && !winner.failed())
+            call.hedgeWins.incrementAndGet();
+         if (!winner.failed())
+            call.record(System.nanoTime() - start);
+         Task loser = winner == first ? second : first;
+         if (loser != null)
+            loser.abort();
+         return winner.response();
+      } catch (InterruptedException e) {
+         first.abort();
+         if (second != null)
+            second.abort();
+         throw e;
+      }
+   }
+
+   /**
+    * @return counters of the requests sent for each call, such as {@code S3Client.getObject}
+    */
+   public Map<String, Stats> stats() {
+      ImmutableMap.Builder<String, Stats> builder = ImmutableMap.builder();
+      for (Map.Entry<String, Call> entry : calls.entrySet()) {
+         Call call = entry.getValue();
+         builder.put(entry.getKey(), new Stats(call.requests.get(), call.hedged.get(), call.hedgeWins.get()));
+      }
+      return builder.build();
+   }
+
+   @PreDestroy
+   @Override
+   public void close() {
+      ExecutorService executor = this.executor;
+      if (executor != null)
+         executor.shutdownNow();
+   }
+
+   @VisibleForTesting
+   static String keyOf(HttpRequest request) {
+      if (request instanceof GeneratedHttpRequest) {
+         GeneratedHttpRequest generated = (GeneratedHttpRequest) request;
+         return generated.getInvocation().getInvokable().getOwnerType().getRawType().getSimpleName() + "."
+               + generated.getInvocation().getInvokable().getName();
+      }
+      return request.getMethod() + " " + request.getEndpoint().getHost();
+   }
+
+   private Call call(String key) {
+      Call call = calls.get(key);
+      if (call == null) {
+         Call fresh = new Call();
+         call = calls.putIfAbsent(key, fresh);
+         if (call == null)
+            call = fresh;
+      }
+      return call;
+   }
+
+   private void earn() {
+      synchronized (budgetLock) {
+         budget = Math.min(MAX_BUDGET, budget + maxRatio);
+      }
+   }
+
+   private boolean spend() {
+      synchronized (budgetLock) {
+         if (budget < 1)
+            return false;
+         budget--;
+         return true;
+      }
+   }
+
+   private Task submit(Attempt attempt, BlockingQueue<Task> done) {
+      Task task = new Task(attempt, done);
+      executor().execute(task);
+      return task;
+   }
+
+   private ExecutorService executor() {
+      ExecutorService executor = this.executor;
+      if (executor == null) {
+         synchronized (this) {
+            executor = this.executor;
+            if (executor == null)
+               this.executor = executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                     .setNameFormat("hedged request %d").setDaemon(true).build());
+         }
+      }
+      return executor;
+   }
+
+   /**
+    * An attempt that reports itself to the queue of its invocation when done.
+    */
+   private static final class Task extends FutureTask<HttpResponse> {
+      private final Attempt attempt;
+      private final BlockingQueue<Task> done;
+
+      Task(Attempt attempt, BlockingQueue<Task> done) {
+         super(attempt);
+         this.attempt = attempt;
+         this.done = done;
+      }
+
+      @Override
+      protected void done() {
+         done.add(this);
+      }
+
+      boolean failed() {
+         try {
+            get();
+            return false;
+         } catch (Exception e) {
+            return true;
+         }
+      }
+
+      void abort() {
+         attempt.abort();
+         cancel(true);
+      }
+
+      HttpResponse response() throws Exception {
+         try {
+            return get();
+         } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error)
+               throw (Error) e.getCause();
+            throw (Exception) e.getCause();
+         }
+      }
+   }
+
+   /**
+    * Latencies and counters of one call.
+    */
+   private static final class Call {
+      private final AtomicLong requests = new AtomicLong();
+      private final AtomicLong hedged = new AtomicLong();
+      private final AtomicLong hedgeWins = new AtomicLong();
+      private final long[] latencies = new long[WINDOW];
+      private int next;
+      private int samples;
+
+      synchronized void record(long nanos) {
+         latencies[next] = nanos;
+         next = (next + 1) % WINDOW;
+         samples = Math.min(samples + 1, WINDOW);
+      }
+
+      /**
+       * @return the latency at the percentile, or -1 if too few are known
+       */
+      synchronized long delayNanos(double percentile) {
+         if (samples < WARMUP_SAMPLES)
+            return -1;
+         long[] sorted = Arrays.copyOf(latencies, samples);
+         Arrays.sort(sorted);
+         return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1)];
+      }
+   }
+}
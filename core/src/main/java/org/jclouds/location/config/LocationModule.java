@@ -30,6 +30,7 @@ import javax.inject.Singleton;
 
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.domain.internal.LocationImpl;
 import org.jclouds.location.Iso3166;
 import org.jclouds.location.Provider;
 import org.jclouds.location.Region;
@@ -50,13 +51,16 @@ import org.jclouds.reflect.InvocationSuccess;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.functions.ImplicitOptionalConverter;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
+import org.jclouds.rest.suppliers.MemoizedSupplierFactory;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
+import com.google.common.reflect.TypeToken;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
@@ -103,11 +107,10 @@ public class LocationModule extends AbstractModule {
    @Singleton
    // TODO: we should eventually get rid of memoized as an annotation, as it is confusing
    @Memoized
-   protected Supplier<Set<? extends Location>> memoizedLocationsSupplier(
-            AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
+   protected Supplier<Set<? extends Location>> memoizedLocationsSupplier(MemoizedSupplierFactory memoizer,
             LocationsSupplier uncached) {
-      return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, uncached, seconds,
-               TimeUnit.SECONDS);
+      return memoizer.memoize("locations", new TypeToken<Set<? extends Location>>() {
+      }, ImmutableMap.<Class<?>, Class<?>> of(Location.class, LocationImpl.class), uncached);
    }
 
    @Provides
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Lets concurrent identical {@code GET} or {@code HEAD} calls share one request: callers arriving while
+ * the same request is in flight wait for its response, and each parses its own copy of it.
+ * <p/>
+ * On a type, applies to every method of the api. Responses are held in memory while shared, so do not
+ * annotate methods that download large content.
+ * 
+ * @see org.jclouds.Constants#PROPERTY_COALESCE_REQUESTS_PREFIX
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface CoalesceRequests {
+
+}
@@ -0,0 +1,471 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.PreDestroy;
+
+import org.jclouds.logging.Logger;
+import org.jclouds.logging.jdk.JDKLogger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A credential store backing kept in memory and persisted to an append-only log file.
+ * <p/>
+ * Reads are served from the in-memory index. Writes update the index immediately and are appended to
+ * the log in batches by a background thread, so storing credentials for many nodes never waits on
+ * disk. When most of the log consists of overwritten or removed entries, it is compacted into a
+ * snapshot of the live entries. Reopening the file replays the log; a record truncated by a crash is
+ * discarded.
+ * <p/>
+ * Changes made within the last flush interval are lost if the process dies without calling
+ * {@link #flush} or {@link #close}. Closing the context the store is passed to closes the store
+ * too, so a store serves one context. The log and its compacted copies are readable by their owner
+ * only, where the file system supports it.
+ * <p/>
+ * As the store is usually created before the context, it does not get the context's logger
+ * injected. Errors go to the {@link java.util.logging} category of this class unless a logger is
+ * passed in.
+ * 
+ * <pre>
+ * LogFileCredentialStore backing = new LogFileCredentialStore(new File(&quot;credentials.log&quot;));
+ * ContextBuilder.newBuilder(provider).modules(ImmutableSet.of(new CredentialStoreModule(backing)));
+ * </pre>
+ */
+@Beta
+public class LogFileCredentialStore extends AbstractMap<String, ByteSource> implements Closeable {
+
+   public static final long DEFAULT_FLUSH_INTERVAL = 500;
+
+   private static final int MAGIC = 0x6a636c64;
+   private static final byte PUT = 1;
+   private static final byte REMOVE = 2;
+   /** the log is compacted when it holds this many times more records than live entries */
+   private static final int COMPACTION_RATIO = 4;
+   private static final int COMPACTION_MINIMUM = 1000;
+
+   private final Logger logger;
+   private final File file;
+   private final Map<String, byte[]> index = new ConcurrentHashMap<String, byte[]>();
+   private final List<Record> pending = Lists.newArrayList();
+   private final ScheduledExecutorService writer;
+   private final Object fileLock = new Object();
+   private FileOutputStream log;
+   private long records;
+   private volatile boolean closed;
+
+   @VisibleForTesting
+   static class Record {
+      private final byte op;
+      private final String key;
+      private final byte[] value;
+
+      private Record(byte op, String key, byte[] value) {
+         this.op = op;
+         this.key = key;
+         this.value = value;
+      }
+   }
+
+   public LogFileCredentialStore(File file) throws IOException {
+      this(file, DEFAULT_FLUSH_INTERVAL);
+   }
+
+   public LogFileCredentialStore(File file, long flushIntervalMillis) throws IOException {
+      this(file, flushIntervalMillis, new JDKLogger.JDKLoggerFactory().getLogger(LogFileCredentialStore.class
+            .getName()));
+   }
+
+   public LogFileCredentialStore(File file, long flushIntervalMillis, Logger logger) throws IOException {
+      this.file = checkNotNull(file, "file");
+      checkArgument(flushIntervalMillis > 0, "flushIntervalMillis must be positive");
+      this.logger = checkNotNull(logger, "logger");
+      replay();
+      ownerOnly(file);
+      this.log = new FileOutputStream(file, true);
+      this.writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("credential store writer " + file.getName()).setDaemon(true).build());
+      writer.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               flush();
+            } catch (IOException e) {
+               logger.error(e, "error writing credentials to %s, will retry", LogFileCredentialStore.this.file);
+            } catch (RuntimeException e) {
+               logger.error(e, "error writing credentials to %s, will retry", LogFileCredentialStore.this.file);
+            }
+         }
+      }, flushIntervalMillis, flushIntervalMillis, MILLISECONDS);
+   }
+
+   @Override
+   public int size() {
+      return index.size();
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      return key != null && index.containsKey(key);
+   }
+
+   @Override
+   public ByteSource get(Object key) {
+      if (key == null)
+         return null;
+      byte[] value = index.get(key);
+      return value != null ? ByteSource.wrap(value) : null;
+   }
+
+   @Override
+   public ByteSource put(String key, ByteSource value) {
+      checkNotNull(key, "key");
+      checkNotNull(value, "value of %s", key);
+      byte[] bytes;
+      try {
+         bytes = value.read();
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      byte[] old;
+      synchronized (pending) {
+         checkState(!closed, "%s is closed", file);
+         old = index.put(key, bytes);
+         pending.add(new Record(PUT, key, bytes));
+      }
+      return old != null ? ByteSource.wrap(old) : null;
+   }
+
+   @Override
+   public ByteSource remove(Object key) {
+      if (key == null)
+         return null;
+      byte[] old;
+      synchronized (pending) {
+         checkState(!closed, "%s is closed", file);
+         old = index.remove(key);
+         if (old != null)
+            pending.add(new Record(REMOVE, key.toString(), null));
+      }
+      return old != null ? ByteSource.wrap(old) : null;
+   }
+
+   @Override
+   public void clear() {
+      for (String key : index.keySet())
+         remove(key);
+   }
+
+   @Override
+   public Set<Entry<String, ByteSource>> entrySet() {
+      return new AbstractSet<Entry<String, ByteSource>>() {
+         @Override
+         public int size() {
+            return index.size();
+         }
+
+         @Override
+         public Iterator<Entry<String, ByteSource>> iterator() {
+            final Iterator<Entry<String, byte[]>> entries = index.entrySet().iterator();
+            return new Iterator<Entry<String, ByteSource>>() {
+               private String current;
+
+               @Override
+               public boolean hasNext() {
+                  return entries.hasNext();
+               }
+
+               @Override
+               public Entry<String, ByteSource> next() {
+                  Entry<String, byte[]> next = entries.next();
+                  current = next.getKey();
+                  return new SimpleImmutableEntry<String, ByteSource>(current, ByteSource.wrap(next.getValue()));
+               }
+
+               @Override
+               public void remove() {
+                  checkState(current != null, "next() has not been called");
+                  LogFileCredentialStore.this.remove(current);
+                  current = null;
+               }
+            };
+         }
+      };
+   }
+
+   /**
+    * Appends all pending changes to the log, compacting it if it has grown well beyond the live
+    * entries. If the append fails, the log is cut back to its last complete record and the changes
+    * stay pending for the next flush.
+    */
+   public void flush() throws IOException {
+      synchronized (fileLock) {
+         if (log == null)
+            return;
+         List<Record> batch;
+         synchronized (pending) {
+            if (pending.isEmpty() && !shouldCompact())
+               return;
+            batch = Lists.newArrayList(pending);
+         }
+         if (!batch.isEmpty()) {
+            append(batch);
+            synchronized (pending) {
+               // changes made while appending stay pending
+               pending.subList(0, batch.size()).clear();
+            }
+            records += batch.size();
+            logger.trace("<< appended %d credential changes to %s", batch.size(), file);
+         }
+         if (shouldCompact())
+            compact();
+      }
+   }
+
+   private void append(List<Record> batch) throws IOException {
+      long complete = log.getChannel().size();
+      try {
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(log));
+         for (Record record : batch)
+            write(out, record);
+         out.flush();
+         log.getChannel().force(false);
+      } catch (IOException e) {
+         try {
+            log.getChannel().truncate(complete);
+         } catch (IOException truncateFailed) {
+            // replay discards the partial record
+            logger.warn(truncateFailed, "could not cut %s back to %d bytes", file, complete);
+         }
+         throw e;
+      }
+   }
+
+   private boolean shouldCompact() {
+      return records > COMPACTION_MINIMUM && records > (long) COMPACTION_RATIO * index.size();
+   }
+
+   @VisibleForTesting
+   void compact() throws IOException {
+      synchronized (fileLock) {
+         Map<String, byte[]> snapshot;
+         synchronized (pending) {
+            snapshot = Maps.newLinkedHashMap(index);
+         }
+         File tmp = new File(file.getPath() + ".tmp");
+         FileOutputStream stream = new FileOutputStream(tmp);
+         ownerOnly(tmp);
+         try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            for (Entry<String, byte[]> entry : snapshot.entrySet())
+               write(out, new Record(PUT, entry.getKey(), entry.getValue()));
+            out.flush();
+            stream.getChannel().force(false);
+         } catch (IOException e) {
+            stream.close();
+            tmp.delete();
+            throw e;
+         }
+         stream.close();
+         // the log has to be closed to be replaced on some platforms
+         log.close();
+         try {
+            replace(file, tmp);
+         } finally {
+            // appends go on to whichever of the two is the log now
+            log = new FileOutputStream(file, true);
+         }
+         logger.debug("<< compacted %s from %d to %d records", file, records, snapshot.size());
+         records = snapshot.size();
+      }
+   }
+
+   /**
+    * Replaces the log with its compacted copy. If the copy cannot take its place, the log stays as
+    * it was.
+    */
+   private static void replace(File file, File tmp) throws IOException {
+      if (tmp.renameTo(file))
+         return;
+      // renameTo does not replace an existing file everywhere
+      if (!file.delete()) {
+         tmp.delete();
+         throw new IOException("could not replace " + file + " with " + tmp);
+      }
+      Files.move(tmp, file);
+      ownerOnly(file);
+   }
+
+   /**
+    * Flushes pending changes and stops the background writer. The store can no longer be modified
+    * afterwards. This is called when the context the store was passed to is closed.
+    */
+   @PreDestroy
+   @Override
+   public void close() throws IOException {
+      synchronized (pending) {
+         if (closed)
+            return;
+         closed = true;
+      }
+      writer.shutdown();
+      try {
+         flush();
+      } finally {
+         synchronized (fileLock) {
+            log.close();
+            log = null;
+         }
+      }
+   }
+
+   @VisibleForTesting
+   long records() {
+      synchronized (fileLock) {
+         return records;
+      }
+   }
+
+   private void replay() throws IOException {
+      if (!file.exists() || file.length() == 0) {
+         writeHeader();
+         return;
+      }
+      long valid = 0;
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      try {
+         if (in.readInt() != MAGIC)
+            throw new IOException(file + " is not a credential store log");
+         valid = 4;
+         while (true) {
+            int op = in.read();
+            if (op == -1)
+               break;
+            String key = in.readUTF();
+            if (op == PUT) {
+               byte[] value = new byte[in.readInt()];
+               in.readFully(value);
+               index.put(key, value);
+               valid += 1 + utfLength(key) + 4 + value.length;
+            } else if (op == REMOVE) {
+               index.remove(key);
+               valid += 1 + utfLength(key);
+            } else {
+               throw new IOException("unknown record type " + op + " at offset " + valid + " of " + file);
+            }
+            records++;
+         }
+      } catch (EOFException e) {
+         logger.warn("discarding truncated record at offset %d of %s", valid, file);
+      } finally {
+         in.close();
+      }
+      if (valid < file.length()) {
+         RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+         try {
+            truncate.setLength(valid);
+         } finally {
+            truncate.close();
+         }
+         if (valid == 0)
+            writeHeader();
+      }
+   }
+
+   private void writeHeader() throws IOException {
+      DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+      try {
+         out.writeInt(MAGIC);
+      } finally {
+         out.close();
+      }
+   }
+
+   /**
+    * Limits access to the owner before any credential is written, where the file system allows it.
+    */
+   private static void ownerOnly(File file) {
+      file.setReadable(false, false);
+      file.setReadable(true, true);
+      file.setWritable(false, false);
+      file.setWritable(true, true);
+   }
+
+   @VisibleForTesting
+   void write(DataOutputStream out, Record record) throws IOException {
+      out.writeByte(record.op);
+      out.writeUTF(record.key);
+      if (record.op == PUT) {
+         out.writeInt(record.value.length);
+         out.write(record.value);
+      }
+   }
+
+   /** size of the key as written by {@link DataOutputStream#writeUTF}, including its length prefix */
+   private static int utfLength(String key) {
+      int length = 2;
+      for (int i = 0; i < key.length(); i++) {
+         char c = key.charAt(i);
+         if (c >= 0x0001 && c <= 0x007F)
+            length++;
+         else if (c > 0x07FF)
+            length += 3;
+         else
+            length += 2;
+      }
+      return length;
+   }
+
+   @Override
+   public String toString() {
+      return "LogFileCredentialStore(" + file + ")";
+   }
+}
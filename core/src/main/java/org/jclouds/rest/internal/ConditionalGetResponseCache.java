@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static org.jclouds.Constants.PROPERTY_RESPONSE_CACHE_PREFIX;
+import static org.jclouds.Constants.PROPERTY_RESPONSE_CACHE_SIZE;
+import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
+import static org.jclouds.http.HttpUtils.copy;
+import static org.jclouds.util.Predicates2.startsWith;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.annotations.CacheResponse;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+/**
+ * Keeps the responses of {@code GET} commands opted in through {@link CacheResponse} or
+ * {@link org.jclouds.Constants#PROPERTY_RESPONSE_CACHE_PREFIX}, keyed on their request line, and revalidates them
+ * with {@code If-None-Match} or {@code If-Modified-Since}.
+ * <p/>
+ * The raw body is kept rather than the parsed result, so that each {@code 304 Not Modified} is parsed again and
+ * callers never share a result they may modify. Only responses carrying an {@code ETag} or {@code Last-Modified}
+ * header are kept. The cache holds at most {@link org.jclouds.Constants#PROPERTY_RESPONSE_CACHE_SIZE} entries,
+ * evicting the least recently used.
+ */
+@Beta
+@Singleton
+public class ConditionalGetResponseCache {
+
+   static final class Entry {
+      private final Optional<String> eTag;
+      private final Optional<String> lastModified;
+      private final HttpResponse response;
+      private final byte[] body;
+
+      Entry(Optional<String> eTag, Optional<String> lastModified, HttpResponse response, byte[] body) {
+         this.eTag = checkNotNull(eTag, "eTag");
+         this.lastModified = checkNotNull(lastModified, "lastModified");
+         this.response = checkNotNull(response, "response");
+         this.body = checkNotNull(body, "body");
+      }
+
+      /**
+       * @return a copy of the kept response with its own payload, ready to be parsed
+       */
+      HttpResponse getResponse() {
+         Payload payload = Payloads.newByteArrayPayload(body);
+         copy(response.getPayload().getContentMetadata(), payload.getContentMetadata());
+         return response.toBuilder().payload(payload).build();
+      }
+
+      @Override
+      public String toString() {
+         return Objects.toStringHelper(this).omitNullValues().add("eTag", eTag.orNull())
+               .add("lastModified", lastModified.orNull()).toString();
+      }
+   }
+
+   @Inject(optional = true)
+   @Named(PROPERTY_RESPONSE_CACHE_SIZE)
+   private int maxSize = 100;
+
+   private final Set<String> commandNames;
+   // built lazily as the size is field injected
+   private final Supplier<Cache<String, Entry>> entries = Suppliers.memoize(new Supplier<Cache<String, Entry>>() {
+      public Cache<String, Entry> get() {
+         return CacheBuilder.newBuilder().maximumSize(maxSize).build();
+      }
+   });
+
+   @Inject
+   ConditionalGetResponseCache(Function<Predicate<String>, Map<String, String>> filterStringsBoundByName) {
+      this(commandNames(filterStringsBoundByName, PROPERTY_RESPONSE_CACHE_PREFIX));
+   }
+
+   ConditionalGetResponseCache(Set<String> commandNames) {
+      this.commandNames = ImmutableSet.copyOf(checkNotNull(commandNames, "commandNames"));
+   }
+
+   /**
+    * @return true if results of this command may be kept and revalidated
+    */
+   boolean isCacheable(String commandName, HttpRequest request) {
+      if (!"GET".equals(request.getMethod()))
+         return false;
+      if (commandNames.contains(commandName))
+         return true;
+      return request instanceof GeneratedHttpRequest
+            && GeneratedHttpRequest.class.cast(request).getInvocation().getInvokable()
+                  .isAnnotationPresent(CacheResponse.class);
+   }
+
+   Optional<Entry> get(HttpRequest request) {
+      return Optional.fromNullable(entries.get().getIfPresent(request.getRequestLine()));
+   }
+
+   /**
+    * @return {@code request} with validators for the cached {@code entry}
+    */
+   HttpRequest revalidate(HttpRequest request, Entry entry) {
+      HttpRequest.Builder<?> builder = request.toBuilder();
+      if (entry.eTag.isPresent())
+         builder.replaceHeader(IF_NONE_MATCH, entry.eTag.get());
+      if (entry.lastModified.isPresent())
+         builder.replaceHeader(IF_MODIFIED_SINCE, entry.lastModified.get());
+      return builder.build();
+   }
+
+   /**
+    * Reads the body of {@code response} into memory, so that it can be parsed and still be kept.
+    * 
+    * @return the body, or null if the response has none
+    */
+   @Nullable
+   byte[] buffer(HttpResponse response) {
+      return closeClientButKeepContentStream(response);
+   }
+
+   /**
+    * Keeps {@code response} with its {@link #buffer buffered} {@code body} when it carries a validator; otherwise
+    * forgets any previous response.
+    */
+   void put(HttpRequest request, HttpResponse response, @Nullable byte[] body) {
+      String key = request.getRequestLine();
+      Optional<String> eTag = Optional.fromNullable(response.getFirstHeaderOrNull(ETAG));
+      Optional<String> lastModified = Optional.fromNullable(response.getFirstHeaderOrNull(LAST_MODIFIED));
+      if (body != null && response.getStatusCode() == 200 && (eTag.isPresent() || lastModified.isPresent()))
+         entries.get().put(key, new Entry(eTag, lastModified, response, body));
+      else
+         entries.get().invalidate(key);
+   }
+
+   /**
+    * @return true if {@code exception} is how the executor reported a {@code 304 Not Modified} response
+    */
+   static boolean isNotModified(Throwable exception) {
+      HttpResponseException hre = getFirstThrowableOfType(exception, HttpResponseException.class);
+      return hre != null && hre.getResponse() != null && hre.getResponse().getStatusCode() == 304;
+   }
+
+   /**
+    * @return the suffixes of the boolean properties starting with {@code prefix} that are set to true
+    */
+   static Set<String> commandNames(Function<Predicate<String>, Map<String, String>> filterStringsBoundByName,
+         String prefix) {
+      Map<String, String> enabled = Maps.filterValues(
+            filterStringsBoundByName.apply(startsWith(prefix)), new Predicate<String>() {
+               public boolean apply(String input) {
+                  return Boolean.parseBoolean(input);
+               }
+            });
+      ImmutableSet.Builder<String> names = ImmutableSet.builder();
+      for (String key : enabled.keySet())
+         names.add(key.substring(prefix.length()));
+      return names.build();
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("commandNames", commandNames).add("maxSize", maxSize).toString();
+   }
+}
@@ -39,6 +39,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.TimeLimiter;
 
 public class InvokeHttpMethod implements Function<Invocation, Object> {
@@ -51,17 +52,37 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    private final TimeLimiter timeLimiter;
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
+   private final ConditionalGetResponseCache responseCache;
+   private final RequestCoalescer coalescer;
 
    @Inject
-   @VisibleForTesting
    InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
          HttpCommandExecutorService http, Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest,
-         TimeLimiter timeLimiter, InvocationConfig config) {
+         TimeLimiter timeLimiter, InvocationConfig config, ConditionalGetResponseCache responseCache,
+         RequestCoalescer coalescer) {
       this.annotationProcessor = annotationProcessor;
       this.http = http;
       this.timeLimiter = timeLimiter;
       this.transformerForRequest = transformerForRequest;
       this.config = config;
+      this.responseCache = responseCache;
+      this.coalescer = coalescer;
+   }
+
+   @VisibleForTesting
+   InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
+         HttpCommandExecutorService http, Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest,
+         TimeLimiter timeLimiter, InvocationConfig config, ConditionalGetResponseCache responseCache) {
+      this(annotationProcessor, http, transformerForRequest, timeLimiter, config, responseCache,
+            new RequestCoalescer(ImmutableSet.<String> of()));
+   }
+
+   @VisibleForTesting
+   InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
+         HttpCommandExecutorService http, Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest,
+         TimeLimiter timeLimiter, InvocationConfig config) {
+      this(annotationProcessor, http, transformerForRequest, timeLimiter, config, new ConditionalGetResponseCache(
+            ImmutableSet.<String> of()));
    }
 
    @Override
@@ -87,7 +108,7 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
       logger.debug(">> invoking %s", commandName);
       try {
-         return transformer.apply(http.invoke(command));
+         return invokeAndTransform(commandName, command, transformer);
       } catch (Throwable t) {
          try {
             return fallback.createOrPropagate(t);
@@ -157,7 +178,7 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
       @Override
       public Object call() throws Exception {
-         return transformer.apply(http.invoke(command));
+         return invokeAndTransform(commandName, command, transformer);
       }
 
       @Override
@@ -183,6 +204,45 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       }
    }
 
+   /**
+    * invokes {@code command} and parses its response. If the command is
+    * {@link ConditionalGetResponseCache#isCacheable cacheable} and the server
+    * answers that the kept response is not modified, that response is parsed
+    * again instead.
+    */
+   private Object invokeAndTransform(String commandName, HttpCommand command, Function<HttpResponse, ?> transformer) {
+      HttpRequest request = command.getCurrentRequest();
+      if (!responseCache.isCacheable(commandName, request))
+         return transformer.apply(invoke(commandName, command));
+      Optional<ConditionalGetResponseCache.Entry> cached = responseCache.get(request);
+      if (cached.isPresent())
+         command.setCurrentRequest(responseCache.revalidate(request, cached.get()));
+      HttpResponse response;
+      try {
+         response = invoke(commandName, command);
+      } catch (RuntimeException e) {
+         if (cached.isPresent() && ConditionalGetResponseCache.isNotModified(e)) {
+            logger.debug("<< %s not modified since %s", commandName, cached.get());
+            return transformer.apply(cached.get().getResponse());
+         }
+         throw e;
+      }
+      byte[] body = responseCache.buffer(response);
+      Object result = transformer.apply(response);
+      responseCache.put(request, response, result != null ? body : null);
+      return result;
+   }
+
+   /**
+    * sends {@code command}, or shares an identical one in flight if the command is
+    * {@link RequestCoalescer#isCoalesced coalesced}.
+    */
+   private HttpResponse invoke(String commandName, HttpCommand command) {
+      if (coalescer.isCoalesced(commandName, command.getCurrentRequest()))
+         return coalescer.invoke(commandName, command, http);
+      return http.invoke(command);
+   }
+
    private HttpCommand toCommand(String commandName, Invocation invocation) {
       logger.trace(">> converting %s", commandName);
       HttpRequest request = annotationProcessor.apply(invocation);
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_COALESCE_REQUESTS_PREFIX;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.annotations.CoalesceRequests;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+
+/**
+ * Collapses concurrent identical {@code GET} and {@code HEAD} requests of commands opted in through
+ * {@link CoalesceRequests} or {@link org.jclouds.Constants#PROPERTY_COALESCE_REQUESTS_PREFIX} into one.
+ * <p/>
+ * The first caller sends the request; callers with the same command, request line and headers arriving
+ * before its response wait for it instead of sending their own. The response is buffered only when
+ * someone waited, and every caller gets its own copy to parse. Failures are rethrown to every caller.
+ */
+@Beta
+@Singleton
+public class RequestCoalescer {
+
+   @Resource
+   private Logger logger = Logger.NULL;
+
+   private final Set<String> commandNames;
+   private final ConcurrentMap<String, InFlight> inFlight = Maps.newConcurrentMap();
+   private final AtomicLong requests = new AtomicLong();
+   private final AtomicLong coalesced = new AtomicLong();
+
+   @Inject
+   RequestCoalescer(Function<Predicate<String>, Map<String, String>> filterStringsBoundByName) {
+      this(ConditionalGetResponseCache.commandNames(filterStringsBoundByName, PROPERTY_COALESCE_REQUESTS_PREFIX));
+   }
+
+   RequestCoalescer(Set<String> commandNames) {
+      this.commandNames = ImmutableSet.copyOf(checkNotNull(commandNames, "commandNames"));
+   }
+
+   /**
+    * @return true if identical concurrent calls of this command may share a request
+    */
+   boolean isCoalesced(String commandName, HttpRequest request) {
+      if (!("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) || request.getPayload() != null)
+         return false;
+      if (commandNames.contains(commandName))
+         return true;
+      if (!(request instanceof GeneratedHttpRequest))
+         return false;
+      Invocation invocation = GeneratedHttpRequest.class.cast(request).getInvocation();
+      Class<?> api = invocation.getInvokable().getOwnerType().getRawType();
+      return commandNames.contains(api.getSimpleName())
+            || invocation.getInvokable().isAnnotationPresent(CoalesceRequests.class)
+            || api.isAnnotationPresent(CoalesceRequests.class);
+   }
+
+   /**
+    * Invokes {@code command}, or waits for an identical one already in flight.
+    */
+   HttpResponse invoke(String commandName, HttpCommand command, HttpCommandExecutorService http) {
+      HttpRequest request = command.getCurrentRequest();
+      String key = commandName + " " + request.getRequestLine() + " " + request.getHeaders();
+      requests.incrementAndGet();
+      InFlight mine = new InFlight();
+      for (InFlight leader; (leader = inFlight.putIfAbsent(key, mine)) != null;) {
+         if (leader.join()) {
+            coalesced.incrementAndGet();
+            logger.trace("<< %s joined in-flight %s", commandName, request.getRequestLine());
+            return leader.await();
+         }
+         // finished, but not yet removed by its leader
+         inFlight.remove(key, leader);
+      }
+      HttpResponse response;
+      try {
+         response = http.invoke(command);
+      } catch (RuntimeException e) {
+         inFlight.remove(key, mine);
+         mine.fail(e);
+         throw e;
+      } catch (Error e) {
+         inFlight.remove(key, mine);
+         mine.fail(e);
+         throw e;
+      }
+      inFlight.remove(key, mine);
+      return mine.succeed(response);
+   }
+
+   /**
+    * @return calls of coalesced commands
+    */
+   public long getRequests() {
+      return requests.get();
+   }
+
+   /**
+    * @return calls answered with the response of another in-flight call, so not sent
+    */
+   public long getCoalesced() {
+      return coalesced.get();
+   }
+
+   private static final class InFlight {
+      private final CountDownLatch done = new CountDownLatch(1);
+      private int followers;
+      private boolean closed;
+      private HttpResponse response;
+      private byte[] payload;
+      private Throwable failure;
+
+      synchronized boolean join() {
+         if (closed)
+            return false;
+         followers++;
+         return true;
+      }
+
+      private synchronized boolean closeAndHasFollowers() {
+         closed = true;
+         return followers > 0;
+      }
+
+      HttpResponse succeed(HttpResponse response) {
+         if (!closeAndHasFollowers())
+            return response;
+         try {
+            this.payload = HttpUtils.closeClientButKeepContentStream(response);
+            this.response = response;
+         } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+         } finally {
+            done.countDown();
+         }
+         return response;
+      }
+
+      void fail(Throwable failure) {
+         closeAndHasFollowers();
+         this.failure = failure;
+         done.countDown();
+      }
+
+      HttpResponse await() {
+         Uninterruptibles.awaitUninterruptibly(done);
+         if (failure != null)
+            throw Throwables.propagate(failure);
+         if (payload == null)
+            return response.toBuilder().build();
+         Payload copy = Payloads.newByteArrayPayload(payload);
+         HttpUtils.copy(response.getPayload().getContentMetadata(), copy.getContentMetadata());
+         return response.toBuilder().payload(copy).build();
+      }
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("commandNames", commandNames).add("requests", requests)
+            .add("coalesced", coalesced).toString();
+   }
+}
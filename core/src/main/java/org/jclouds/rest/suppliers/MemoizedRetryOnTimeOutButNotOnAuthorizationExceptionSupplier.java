@@ -17,10 +17,13 @@
 package org.jclouds.rest.suppliers;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.propagate;
 import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -33,6 +36,8 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ForwardingObject;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
@@ -50,6 +55,12 @@ import com.google.common.util.concurrent.UncheckedExecutionException;
  * 
  * Note this implementation is folded into the same class, vs being decorated as stacktraces are exceptionally long and
  * difficult to grok otherwise. We use {@link LoadingCache} to deal with concurrency issues related to the supplier.
+ * 
+ * <h3>refresh-ahead</h3>
+ * When created with {@link #createRefreshingAhead}, the value is not expired after the duration. Instead, the first
+ * caller after the duration triggers a reload on the supplied executor and, along with everyone else, keeps receiving
+ * the previous value until the reload completes. A failed reload leaves the previous value in place and is retried on
+ * the next access. In this mode, {@link #warmStart} can seed the supplier with a previously persisted value.
  */
 public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> extends ForwardingObject implements
       Supplier<T> {
@@ -88,9 +99,35 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> ext
 
    }
 
+   static class RefreshAheadLoader<V> extends SetAndThrowAuthorizationExceptionSupplierBackedLoader<V> {
+
+      private final Executor executor;
+
+      public RefreshAheadLoader(Supplier<V> delegate, AtomicReference<AuthorizationException> authException,
+            Executor executor) {
+         super(delegate, authException);
+         this.executor = checkNotNull(executor, "executor");
+      }
+
+      @Override
+      public ListenableFuture<Optional<V>> reload(final String key, Optional<V> oldValue) {
+         ListenableFutureTask<Optional<V>> task = ListenableFutureTask.create(new Callable<Optional<V>>() {
+            @Override
+            public Optional<V> call() {
+               return load(key);
+            }
+         });
+         executor.execute(task);
+         return task;
+      }
+   }
+
+   private static final String KEY = "FOO";
+
    private final Supplier<T> delegate;
    private final long duration;
    private final TimeUnit unit;
+   private final boolean refreshAhead;
    private final LoadingCache<String, Optional<T>> cache;
 
    public static <T> MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> create(
@@ -99,15 +136,48 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> ext
             unit);
    }
 
+   /**
+    * Creates a supplier that serves the previous value while reloading it on {@code executor} once {@code duration}
+    * has elapsed.
+    */
+   public static <T> MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> createRefreshingAhead(
+         AtomicReference<AuthorizationException> authException, Supplier<T> delegate, long duration, TimeUnit unit,
+         Executor executor) {
+      return new MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T>(authException, delegate, duration,
+            unit, executor);
+   }
+
    MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier(AtomicReference<AuthorizationException> authException,
          Supplier<T> delegate, long duration, TimeUnit unit) {
       this.delegate = delegate;
       this.duration = duration;
       this.unit = unit;
+      this.refreshAhead = false;
       this.cache = CacheBuilder.newBuilder().expireAfterWrite(duration, unit)
             .build(new SetAndThrowAuthorizationExceptionSupplierBackedLoader<T>(delegate, authException));
    }
 
+   MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier(AtomicReference<AuthorizationException> authException,
+         Supplier<T> delegate, long duration, TimeUnit unit, Executor executor) {
+      this.delegate = delegate;
+      this.duration = duration;
+      this.unit = unit;
+      this.refreshAhead = true;
+      this.cache = CacheBuilder.newBuilder().refreshAfterWrite(duration, unit)
+            .build(new RefreshAheadLoader<T>(delegate, authException, executor));
+   }
+
+   /**
+    * Seeds this supplier with a value obtained elsewhere, typically a snapshot persisted by a previous process, and
+    * starts reloading the live value in the background. Callers receive the seeded value until the reload completes.
+    * Does nothing if a value has already been loaded.
+    */
+   public void warmStart(T value) {
+      checkState(refreshAhead, "warm start requires a refresh-ahead supplier");
+      if (cache.asMap().putIfAbsent(KEY, Optional.fromNullable(value)) == null)
+         cache.refresh(KEY);
+   }
+
    @Override
    protected Supplier<T> delegate() {
       return delegate;
@@ -116,7 +186,7 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> ext
    @Override
    public T get() {
       try {
-         return cache.get("FOO").orNull();
+         return cache.get(KEY).orNull();
       } catch (UncheckedExecutionException e) {
          throw propagate(e.getCause());
       } catch (ExecutionException e) {
@@ -127,7 +197,7 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> ext
    @Override
    public String toString() {
       return Objects.toStringHelper(this).add("delegate", delegate).add("duration", duration).add("unit", unit)
-            .toString();
+            .add("refreshAhead", refreshAhead).toString();
    }
 
 }
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.Constants.PROPERTY_SESSION_REFRESH_AHEAD;
+import static org.jclouds.Constants.PROPERTY_SESSION_SNAPSHOT_DIR;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+import org.jclouds.providers.ProviderMetadata;
+import org.jclouds.rest.AuthorizationException;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Memoizes the suppliers of a context for {@link org.jclouds.Constants#PROPERTY_SESSION_INTERVAL}, honoring
+ * {@link org.jclouds.Constants#PROPERTY_SESSION_REFRESH_AHEAD} and
+ * {@link org.jclouds.Constants#PROPERTY_SESSION_SNAPSHOT_DIR}.
+ * <p/>
+ * Snapshots are named after the provider, and a hash of its endpoint and identity, so that contexts of different
+ * accounts never serve each other's values. Secrets of the credentials they hold, such as the default login of an
+ * image, are kept in the credential store rather than in the snapshot.
+ */
+@Singleton
+public class MemoizedSupplierFactory {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final AtomicReference<AuthorizationException> authException;
+   private final long seconds;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_SESSION_REFRESH_AHEAD)
+   private boolean refreshAhead = false;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_SESSION_SNAPSHOT_DIR)
+   private String snapshotDir = "";
+
+   @Inject(optional = true)
+   private ProviderMetadata provider;
+
+   @Inject(optional = true)
+   @Provider
+   private Supplier<Credentials> creds;
+
+   /** keeps the secrets of credentials held by snapshots */
+   @Inject(optional = true)
+   private Map<String, Credentials> credentialStore;
+
+   @Inject
+   MemoizedSupplierFactory(AtomicReference<AuthorizationException> authException,
+         @Named(PROPERTY_SESSION_INTERVAL) long seconds,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.authException = checkNotNull(authException, "authException");
+      this.seconds = seconds;
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   /**
+    * Memoizes {@code delegate}, reloading it ahead of callers if so configured.
+    */
+   public <T> Supplier<T> memoize(Supplier<T> delegate) {
+      if (!refreshAhead)
+         return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, delegate, seconds,
+               TimeUnit.SECONDS);
+      return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.createRefreshingAhead(authException,
+            delegate, seconds, TimeUnit.SECONDS, userExecutor);
+   }
+
+   /**
+    * Memoizes {@code delegate} like {@link #memoize(Supplier)} and, when a snapshot directory is configured, persists
+    * every value it loads under {@code name}. A previously persisted value is served right away while the live value
+    * loads in the background.
+    * 
+    * @param implementations
+    *           the class to read each interface held by the value into
+    */
+   public <T> Supplier<T> memoize(String name, TypeToken<T> type, Map<Class<?>, Class<?>> implementations,
+         Supplier<T> delegate) {
+      Optional<SnapshotFile<T>> snapshot = snapshotFile(name, type, implementations);
+      if (!snapshot.isPresent())
+         return memoize(delegate);
+      MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<T> memoized = MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier
+            .createRefreshingAhead(authException, new WriteSnapshot<T>(delegate, snapshot.get()), seconds,
+                  TimeUnit.SECONDS, userExecutor);
+      try {
+         Optional<T> lastValue = snapshot.get().read();
+         if (lastValue.isPresent()) {
+            logger.debug(">> warm starting %s from %s", name, snapshot.get().getFile());
+            memoized.warmStart(lastValue.get());
+         }
+      } catch (IOException e) {
+         logger.warn(e, "ignoring unreadable snapshot %s", snapshot.get().getFile());
+      }
+      return memoized;
+   }
+
+   public <T> Supplier<T> memoize(String name, TypeToken<T> type, Supplier<T> delegate) {
+      return memoize(name, type, ImmutableMap.<Class<?>, Class<?>> of(), delegate);
+   }
+
+   private <T> Optional<SnapshotFile<T>> snapshotFile(String name, TypeToken<T> type,
+         Map<Class<?>, Class<?>> implementations) {
+      if (snapshotDir == null || snapshotDir.trim().isEmpty() || provider == null || creds == null)
+         return Optional.absent();
+      String account = Hashing.md5().newHasher().putString(provider.getEndpoint(), UTF_8)
+            .putString(String.valueOf(creds.get().identity), UTF_8).hash().toString().substring(0, 8);
+      File file = new File(snapshotDir, String.format("%s-%s-%s.json", provider.getId(), account, name));
+      return Optional.of(new SnapshotFile<T>(file, type, implementations, credentialStore));
+   }
+
+   private class WriteSnapshot<T> implements Supplier<T> {
+      private final Supplier<T> delegate;
+      private final SnapshotFile<T> snapshot;
+
+      private WriteSnapshot(Supplier<T> delegate, SnapshotFile<T> snapshot) {
+         this.delegate = checkNotNull(delegate, "delegate");
+         this.snapshot = checkNotNull(snapshot, "snapshot");
+      }
+
+      @Override
+      public T get() {
+         T value = delegate.get();
+         if (value != null) {
+            try {
+               snapshot.write(value);
+            } catch (IOException e) {
+               logger.warn(e, "could not write snapshot %s", snapshot.getFile());
+            }
+         }
+         return value;
+      }
+
+      @Override
+      public String toString() {
+         return delegate.toString();
+      }
+   }
+}
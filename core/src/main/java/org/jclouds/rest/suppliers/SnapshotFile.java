@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.internal.OptionalTypeAdapterFactory;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A value persisted as json in a local file, so that it survives the process that loaded it.
+ * <p/>
+ * Values are written reflectively. As memoized suppliers usually hold sets of interfaces such as
+ * {@code Location}, the implementation class to read each interface into is given up front.
+ * <p/>
+ * {@link Credentials} held by the value, such as the default login of an image, are written without
+ * their password or private key, and the file is only readable by its owner where the file system
+ * supports it. Their secrets are kept in the credential store instead, and merged back in when the
+ * snapshot is read. A snapshot whose secrets are no longer in the credential store, for example
+ * because it does not outlive the process, cannot be read.
+ */
+public class SnapshotFile<T> {
+
+   /**
+    * Reads and writes an interface using the reflective adapter of its implementation class.
+    */
+   static class ImplementationTypeAdapterFactory implements TypeAdapterFactory {
+      private final Map<Class<?>, Class<?>> implementations;
+
+      ImplementationTypeAdapterFactory(Map<Class<?>, Class<?>> implementations) {
+         this.implementations = checkNotNull(implementations, "implementations");
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public <T> TypeAdapter<T> create(Gson gson, com.google.gson.reflect.TypeToken<T> typeToken) {
+         Class<?> implementation = implementations.get(typeToken.getRawType());
+         if (implementation == null)
+            return null;
+         return (TypeAdapter<T>) gson.getDelegateAdapter(this, com.google.gson.reflect.TypeToken.get(implementation));
+      }
+   }
+
+   /**
+    * Writes credentials as their identity alone, so that secrets never reach the disk. Secrets are
+    * put in the credential store, under keys numbered in the order the credentials are written.
+    */
+   static class CredentialsWithoutSecretsTypeAdapterFactory implements TypeAdapterFactory {
+      private final Map<String, Credentials> secrets;
+      private final String prefix;
+      private int written;
+
+      CredentialsWithoutSecretsTypeAdapterFactory(@Nullable Map<String, Credentials> secrets, String prefix) {
+         this.secrets = secrets;
+         this.prefix = checkNotNull(prefix, "prefix");
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public <T> TypeAdapter<T> create(Gson gson, com.google.gson.reflect.TypeToken<T> typeToken) {
+         Class<? super T> raw = typeToken.getRawType();
+         if (!Credentials.class.isAssignableFrom(raw))
+            return null;
+         return (TypeAdapter<T>) new CredentialsWithoutSecretsTypeAdapter(this,
+               LoginCredentials.class.isAssignableFrom(raw));
+      }
+
+      /**
+       * @return the key the secrets of {@code value} were stored under, or null if it has none
+       */
+      private String putSecrets(Credentials value) throws IOException {
+         if (!hasSecrets(value))
+            return null;
+         if (secrets == null)
+            throw new IOException("no credential store to keep the secrets of " + value.identity);
+         String key = prefix + written++;
+         secrets.put(key, value);
+         return key;
+      }
+
+      private Credentials getSecrets(String key) throws IOException {
+         Credentials stored = secrets != null ? secrets.get(key) : null;
+         if (stored == null)
+            throw new IOException("secrets " + key + " are no longer in the credential store");
+         return stored;
+      }
+
+      /**
+       * Removes the secrets of an earlier write that held more credentials than the last one.
+       */
+      private void removeStaleSecrets() {
+         if (secrets == null)
+            return;
+         for (int i = written; secrets.containsKey(prefix + i); i++)
+            secrets.remove(prefix + i);
+      }
+
+      private static boolean hasSecrets(Credentials value) {
+         if (value instanceof LoginCredentials) {
+            LoginCredentials login = LoginCredentials.class.cast(value);
+            return login.getOptionalPassword().isPresent() || login.getOptionalPrivateKey().isPresent();
+         }
+         return value.credential != null;
+      }
+   }
+
+   static class CredentialsWithoutSecretsTypeAdapter extends TypeAdapter<Credentials> {
+      private final CredentialsWithoutSecretsTypeAdapterFactory factory;
+      private final boolean login;
+
+      CredentialsWithoutSecretsTypeAdapter(CredentialsWithoutSecretsTypeAdapterFactory factory, boolean login) {
+         this.factory = factory;
+         this.login = login;
+      }
+
+      @Override
+      public void write(JsonWriter out, Credentials value) throws IOException {
+         if (value == null) {
+            out.nullValue();
+            return;
+         }
+         out.beginObject();
+         out.name("identity").value(value.identity);
+         if (value instanceof LoginCredentials)
+            out.name("authenticateSudo").value(LoginCredentials.class.cast(value).shouldAuthenticateSudo());
+         String secrets = factory.putSecrets(value);
+         if (secrets != null)
+            out.name("credentialStoreKey").value(secrets);
+         out.endObject();
+      }
+
+      @Override
+      public Credentials read(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         String identity = null;
+         boolean authenticateSudo = false;
+         String secrets = null;
+         in.beginObject();
+         while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals("identity") && in.peek() != JsonToken.NULL)
+               identity = in.nextString();
+            else if (name.equals("authenticateSudo"))
+               authenticateSudo = in.nextBoolean();
+            else if (name.equals("credentialStoreKey") && in.peek() != JsonToken.NULL)
+               secrets = in.nextString();
+            else
+               in.skipValue();
+         }
+         in.endObject();
+         if (secrets != null) {
+            Credentials stored = factory.getSecrets(secrets);
+            if (login)
+               return LoginCredentials.builder(stored).user(identity).authenticateSudo(authenticateSudo).build();
+            return new Credentials(identity, stored.credential);
+         }
+         if (login)
+            return LoginCredentials.builder().user(identity).authenticateSudo(authenticateSudo).build();
+         return new Credentials(identity, null);
+      }
+   }
+
+   private final File file;
+   private final TypeToken<T> type;
+   private final Map<Class<?>, Class<?>> implementations;
+   private final Map<String, Credentials> secrets;
+
+   /**
+    * Creates a snapshot that cannot hold credentials with secrets.
+    */
+   public SnapshotFile(File file, TypeToken<T> type, Map<Class<?>, Class<?>> implementations) {
+      this(file, type, implementations, null);
+   }
+
+   /**
+    * @param secrets
+    *           the credential store to keep the secrets of credentials in
+    */
+   public SnapshotFile(File file, TypeToken<T> type, Map<Class<?>, Class<?>> implementations,
+         @Nullable Map<String, Credentials> secrets) {
+      this.file = checkNotNull(file, "file");
+      this.type = checkNotNull(type, "type");
+      this.implementations = ImmutableMap.copyOf(checkNotNull(implementations, "implementations"));
+      this.secrets = secrets;
+   }
+
+   private Gson gson(CredentialsWithoutSecretsTypeAdapterFactory credentials) {
+      return new GsonBuilder().serializeNulls()
+            .registerTypeAdapterFactory(new OptionalTypeAdapterFactory())
+            .registerTypeAdapterFactory(credentials)
+            .registerTypeAdapterFactory(new ImplementationTypeAdapterFactory(implementations))
+            .create();
+   }
+
+   private CredentialsWithoutSecretsTypeAdapterFactory credentials() {
+      return new CredentialsWithoutSecretsTypeAdapterFactory(secrets, "snapshot#" + file.getName() + "#");
+   }
+
+   /**
+    * @return the last value written, or absent if there is none or it can no longer be read
+    */
+   public Optional<T> read() throws IOException {
+      if (!file.isFile())
+         return Optional.absent();
+      try {
+         T value = gson(credentials()).fromJson(Files.toString(file, UTF_8), type.getType());
+         return Optional.fromNullable(value);
+      } catch (JsonParseException e) {
+         throw new IOException("could not parse snapshot " + file, e);
+      }
+   }
+
+   /**
+    * Replaces the snapshot, writing to a temporary file first so that readers never see a partial value.
+    */
+   public void write(T value) throws IOException {
+      File parent = file.getAbsoluteFile().getParentFile();
+      Files.createParentDirs(file.getAbsoluteFile());
+      File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+      CredentialsWithoutSecretsTypeAdapterFactory credentials = credentials();
+      try {
+         ownerOnly(tmp);
+         String json;
+         try {
+            json = gson(credentials).toJson(value, type.getType());
+         } catch (JsonIOException e) {
+            throw new IOException("could not write snapshot " + file, e);
+         }
+         Files.write(json, tmp, UTF_8);
+         if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file)))
+            throw new IOException("could not replace snapshot " + file);
+         credentials.removeStaleSecrets();
+      } finally {
+         tmp.delete();
+      }
+   }
+
+   /**
+    * Restricts the file to its owner, where the file system supports it.
+    */
+   private static void ownerOnly(File file) {
+      file.setReadable(false, false);
+      file.setReadable(true, true);
+      file.setWritable(false, false);
+      file.setWritable(true, true);
+   }
+
+   public File getFile() {
+      return file;
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("file", file).add("type", type).toString();
+   }
+}
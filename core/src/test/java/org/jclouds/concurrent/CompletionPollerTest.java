@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Tests behavior of CompletionPoller
+ */
+@Test(groups = "unit", singleThreaded = true, testName = "CompletionPollerTest")
+public class CompletionPollerTest {
+
+   private ScheduledExecutorService scheduler;
+   private ExecutorService executor;
+
+   @BeforeMethod
+   public void setUp() {
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+      executor = Executors.newCachedThreadPool();
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      scheduler.shutdownNow();
+      executor.shutdownNow();
+   }
+
+   /**
+    * completes each operation once it was polled the given number of times
+    */
+   private class CountingPoller extends CompletionPoller<String, String> {
+      private final int pollsUntilComplete;
+      private final AtomicInteger polls = new AtomicInteger();
+      private volatile Thread polledOn;
+
+      CountingPoller(int pollsUntilComplete) {
+         this(Optional.of(scheduler), pollsUntilComplete);
+      }
+
+      CountingPoller(Optional<ScheduledExecutorService> scheduler, int pollsUntilComplete) {
+         super(scheduler, executor, 0);
+         this.pollsUntilComplete = pollsUntilComplete;
+      }
+
+      @Override
+      protected void poll(Map<String, Long> since) {
+         polledOn = Thread.currentThread();
+         if (polls.incrementAndGet() < pollsUntilComplete)
+            return;
+         for (String key : since.keySet()) {
+            if (key.startsWith("bad"))
+               fail(key, new IllegalStateException(key));
+            else
+               complete(key, key + " done");
+         }
+      }
+   }
+
+   public void testPollsUntilComplete() throws Exception {
+      CountingPoller poller = new CountingPoller(3);
+
+      assertEquals(poller.whenComplete("job").get(10, SECONDS), "job done");
+      assertEquals(poller.polls.get(), 3);
+      assertEquals(poller.outstanding(), 0);
+   }
+
+   public void testPollsOnTheExecutorNotTheScheduler() throws Exception {
+      CountingPoller poller = new CountingPoller(1);
+      Thread schedulerThread = scheduler.submit(new Callable<Thread>() {
+         @Override
+         public Thread call() {
+            return Thread.currentThread();
+         }
+      }).get();
+
+      assertEquals(poller.whenComplete("job").get(10, SECONDS), "job done");
+      assertNotSame(poller.polledOn, schedulerThread);
+   }
+
+   public void testPollsWithoutAScheduler() throws Exception {
+      CountingPoller poller = new CountingPoller(Optional.<ScheduledExecutorService> absent(), 3);
+
+      assertEquals(poller.whenComplete("job").get(10, SECONDS), "job done");
+      assertEquals(poller.polls.get(), 3);
+      assertEquals(poller.outstanding(), 0);
+   }
+
+   public void testWaitersOfTheSameOperationShareAPoll() throws Exception {
+      CountingPoller poller = new CountingPoller(Integer.MAX_VALUE);
+      ListenableFuture<String> first = poller.whenComplete("job");
+      ListenableFuture<String> second = poller.whenComplete("job");
+      assertEquals(poller.outstanding(), 1);
+
+      poller.complete("job", "job done");
+
+      assertEquals(first.get(10, SECONDS), "job done");
+      assertEquals(second.get(10, SECONDS), "job done");
+   }
+
+   public void testFailurePropagates() throws Exception {
+      CountingPoller poller = new CountingPoller(1);
+
+      try {
+         poller.whenComplete("bad job").get(10, SECONDS);
+         fail("expected ExecutionException");
+      } catch (ExecutionException e) {
+         assertEquals(e.getCause().getMessage(), "bad job");
+      }
+      assertEquals(poller.outstanding(), 0);
+   }
+
+   public void testOperationIsNoLongerPolledOnceAllWaitersCancelled() throws Exception {
+      CountingPoller poller = new CountingPoller(Integer.MAX_VALUE);
+      ListenableFuture<String> first = poller.whenComplete("job");
+      ListenableFuture<String> second = poller.whenComplete("job");
+
+      first.cancel(false);
+      assertEquals(poller.outstanding(), 1);
+      second.cancel(false);
+      assertEquals(poller.outstanding(), 0);
+   }
+
+   public void testWaitersFailWhenTheSchedulerIsShutDown() throws Exception {
+      CountingPoller poller = new CountingPoller(Integer.MAX_VALUE);
+      scheduler.shutdownNow();
+
+      try {
+         poller.whenComplete("job").get(10, SECONDS);
+         fail("expected ExecutionException");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof CancellationException, e.getCause().toString());
+      }
+      assertEquals(poller.outstanding(), 0);
+   }
+}
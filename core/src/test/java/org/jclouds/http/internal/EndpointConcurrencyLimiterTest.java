@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.internal.EndpointConcurrencyLimiter.Permit;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+
+@Test(groups = "unit", testName = "EndpointConcurrencyLimiterTest")
+public class EndpointConcurrencyLimiterTest {
+
+   private final HttpRequest ec2 = HttpRequest.builder().method("GET")
+         .endpoint("https://ec2.us-east-1.amazonaws.com/?Action=DescribeInstances").build();
+   private final HttpRequest s3 = HttpRequest.builder().method("GET").endpoint("https://s3.amazonaws.com/bucket")
+         .build();
+   private final URI endpoint = ec2.getEndpoint();
+
+   /** the default latency tolerance */
+   private static final double TOLERANCE = 2.5;
+
+   private static final class FakeTicker extends Ticker {
+      private long nanos = 1;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+
+      void advance(long millis) {
+         nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+      }
+   }
+
+   private static void respond(EndpointConcurrencyLimiter limiter, HttpRequest request, FakeTicker ticker, long millis)
+         throws InterruptedException, TimeoutException {
+      Permit permit = limiter.acquire(request);
+      ticker.advance(millis);
+      permit.release(false);
+   }
+
+   public void testThrottlingHalvesTheRequestsInFlight() throws Exception {
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, 0, 1000);
+      Permit[] permits = new Permit[4];
+      for (int i = 0; i < permits.length; i++)
+         permits[i] = limiter.acquire(ec2);
+      assertEquals(limiter.inFlight(endpoint), 4);
+
+      permits[0].release(true);
+      assertEquals(limiter.limit(endpoint), 2);
+      assertEquals(limiter.inFlight(endpoint), 3);
+      assertEquals(limiter.limit(s3.getEndpoint()), 100);
+   }
+
+   public void testRequestsOverTheLimitWaitTheirTurn() throws Exception {
+      final EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, 0, 1000);
+      Permit first = limiter.acquire(ec2);
+      limiter.throttled(ec2);
+      assertEquals(limiter.limit(endpoint), 1);
+
+      final CountDownLatch admitted = new CountDownLatch(1);
+      Thread waiting = new Thread() {
+         @Override
+         public void run() {
+            try {
+               limiter.acquire(ec2).release(false);
+               admitted.countDown();
+            } catch (InterruptedException e) {
+               interrupt();
+            } catch (TimeoutException e) {
+               return;
+            }
+         }
+      };
+      waiting.start();
+      assertFalse(admitted.await(100, TimeUnit.MILLISECONDS));
+
+      first.release(false);
+      assertTrue(admitted.await(1, TimeUnit.SECONDS));
+      assertEquals(limiter.inFlight(endpoint), 0);
+   }
+
+   public void testAbandonedPermitIsNotASample() throws Exception {
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 2, 0, 1000);
+      limiter.acquire(ec2).abandon();
+      limiter.acquire(ec2).abandon();
+      assertEquals(limiter.inFlight(endpoint), 0);
+      assertEquals(limiter.limit(endpoint), 2);
+   }
+
+   public void testDisabledNeverLimits() throws Exception {
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(false, 1, 0, 1000);
+      limiter.acquire(ec2);
+      limiter.acquire(ec2).release(true);
+      limiter.throttled(ec2);
+      assertEquals(limiter.inFlight(endpoint), 0);
+      assertEquals(limiter.limit(endpoint), 1);
+   }
+
+   public void testOneSlowResponseOnlyNudgesTheLimit() throws Exception {
+      FakeTicker ticker = new FakeTicker();
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, TOLERANCE, 1000, ticker);
+      for (int i = 0; i < 60; i++)
+         respond(limiter, ec2, ticker, 10);
+      assertEquals(limiter.limit(endpoint), 100);
+
+      respond(limiter, ec2, ticker, 1000);
+      assertEquals(limiter.limit(endpoint), 90);
+   }
+
+   public void testSteadyLatencyKeepsTheLimit() throws Exception {
+      FakeTicker ticker = new FakeTicker();
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, TOLERANCE, 1000, ticker);
+      for (int i = 0; i < 200; i++)
+         respond(limiter, ec2, ticker, i % 2 == 0 ? 10 : 20);
+      assertEquals(limiter.limit(endpoint), 100);
+   }
+
+   public void testSlowdownCutsOncePerRoundTrip() throws Exception {
+      FakeTicker ticker = new FakeTicker();
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, TOLERANCE, 1000, ticker);
+      for (int i = 0; i < 60; i++)
+         respond(limiter, ec2, ticker, 10);
+
+      Permit[] slow = new Permit[3];
+      for (int i = 0; i < slow.length; i++)
+         slow[i] = limiter.acquire(ec2);
+      ticker.advance(1000);
+      for (Permit permit : slow)
+         permit.release(false);
+      assertEquals(limiter.limit(endpoint), 90);
+   }
+
+   public void testLatencyIsIgnoredDuringWarmup() throws Exception {
+      FakeTicker ticker = new FakeTicker();
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, TOLERANCE, 1000, ticker);
+      respond(limiter, ec2, ticker, 10);
+      respond(limiter, ec2, ticker, 1000);
+      assertEquals(limiter.limit(endpoint), 100);
+   }
+
+   public void testWaitingForAPermitTimesOut() throws Exception {
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, 0, 50);
+      Permit first = limiter.acquire(ec2);
+      limiter.throttled(ec2);
+      try {
+         limiter.acquire(ec2);
+         fail("should have timed out");
+      } catch (TimeoutException expected) {
+      }
+      first.release(false);
+      limiter.acquire(ec2).release(false);
+      assertEquals(limiter.inFlight(endpoint), 0);
+   }
+
+   public void testDefaultPortSharesTheLimit() throws Exception {
+      EndpointConcurrencyLimiter limiter = new EndpointConcurrencyLimiter(true, 100, 0, 1000);
+      limiter.acquire(ec2);
+      assertEquals(limiter.inFlight(URI.create("https://ec2.us-east-1.amazonaws.com:443/")), 1);
+      assertEquals(limiter.inFlight(URI.create("http://ec2.us-east-1.amazonaws.com/")), 0);
+   }
+}
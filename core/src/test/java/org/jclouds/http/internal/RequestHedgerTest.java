@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.internal.RequestHedger.Attempt;
+import org.jclouds.http.internal.RequestHedger.Stats;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+
+@Test(groups = "unit", testName = "RequestHedgerTest")
+public class RequestHedgerTest {
+
+   private final HttpRequest get = HttpRequest.builder().method("GET").endpoint("https://s3.amazonaws.com/bucket/key")
+         .build();
+   private final String key = RequestHedger.keyOf(get);
+
+   /**
+    * Attempts answering in turn with the given responses, after the given delays.
+    */
+   private static class ScriptedAttempts implements Supplier<Attempt> {
+      private final Queue<Long> delays = new ConcurrentLinkedQueue<Long>();
+      private final Queue<Object> results = new ConcurrentLinkedQueue<Object>();
+      private final Queue<ScriptedAttempt> started = new ConcurrentLinkedQueue<ScriptedAttempt>();
+
+      ScriptedAttempts then(long delayMillis, Object result) {
+         delays.add(delayMillis);
+         results.add(result);
+         return this;
+      }
+
+      @Override
+      public Attempt get() {
+         ScriptedAttempt attempt = new ScriptedAttempt(delays.remove(), results.remove());
+         started.add(attempt);
+         return attempt;
+      }
+   }
+
+   private static class ScriptedAttempt implements Attempt {
+      private final long delayMillis;
+      private final Object result;
+      private final CountDownLatch aborted = new CountDownLatch(1);
+
+      ScriptedAttempt(long delayMillis, Object result) {
+         this.delayMillis = delayMillis;
+         this.result = result;
+      }
+
+      @Override
+      public HttpResponse call() throws Exception {
+         if (aborted.await(delayMillis, TimeUnit.MILLISECONDS))
+            throw new IOException("aborted");
+         if (result instanceof Exception)
+            throw (Exception) result;
+         return (HttpResponse) result;
+      }
+
+      @Override
+      public void abort() {
+         aborted.countDown();
+      }
+
+      boolean wasAborted() {
+         return aborted.getCount() == 0;
+      }
+   }
+
+   private static HttpResponse response(String message) {
+      return HttpResponse.builder().statusCode(200).message(message).build();
+   }
+
+   private static void warmUp(RequestHedger hedger, HttpRequest request) throws Exception {
+      for (int i = 0; i < 20; i++)
+         hedger.invoke(request, new ScriptedAttempts().then(0, response("warm")));
+   }
+
+   public void testHedgesOnlyReadsWithoutPayload() {
+      RequestHedger hedger = new RequestHedger(true, 95, 0.05);
+      assertTrue(hedger.hedges(get));
+      assertTrue(hedger.hedges(get.toBuilder().method("HEAD").build()));
+      assertFalse(hedger.hedges(get.toBuilder().method("DELETE").build()));
+      assertFalse(hedger.hedges(get.toBuilder().method("PUT").payload(Payloads.newStringPayload("data")).build()));
+      assertFalse(RequestHedger.DISABLED.hedges(get));
+   }
+
+   public void testSlowRequestIsHedgedAndFirstResponseWins() throws Exception {
+      RequestHedger hedger = new RequestHedger(true, 95, 0.05);
+      warmUp(hedger, get);
+
+      ScriptedAttempts attempts = new ScriptedAttempts().then(5000, response("slow")).then(0, response("hedge"));
+      assertEquals(hedger.invoke(get, attempts).getMessage(), "hedge");
+      assertTrue(attempts.started.remove().wasAborted());
+
+      Stats stats = hedger.stats().get(key);
+      assertEquals(stats.getRequests(), 21);
+      assertEquals(stats.getHedged(), 1);
+      assertEquals(stats.getHedgeWins(), 1);
+      hedger.close();
+   }
+
+   public void testNotHedgedBeforeLatenciesAreKnown() throws Exception {
+      RequestHedger hedger = new RequestHedger(true, 95, 1);
+      ScriptedAttempts attempts = new ScriptedAttempts().then(100, response("slow")).then(0, response("hedge"));
+      assertEquals(hedger.invoke(get, attempts).getMessage(), "slow");
+      assertEquals(attempts.started.size(), 1);
+      hedger.close();
+   }
+
+   public void testHedgesAreBudgeted() throws Exception {
+      RequestHedger hedger = new RequestHedger(true, 95, 0);
+      warmUp(hedger, get);
+
+      ScriptedAttempts attempts = new ScriptedAttempts().then(100, response("slow")).then(0, response("hedge"));
+      assertEquals(hedger.invoke(get, attempts).getMessage(), "slow");
+      assertEquals(attempts.started.size(), 1);
+      assertEquals(hedger.stats().get(key).getHedged(), 0);
+      hedger.close();
+   }
+
+   public void testFailureWaitsForTheOtherAttempt() throws Exception {
+      RequestHedger hedger = new RequestHedger(true, 95, 0.05);
+      warmUp(hedger, get);
+
+      ScriptedAttempts attempts = new ScriptedAttempts().then(200, response("slow")).then(0,
+            new IOException("reset"));
+      assertEquals(hedger.invoke(get, attempts).getMessage(), "slow");
+      assertEquals(hedger.stats().get(key).getHedgeWins(), 0);
+      hedger.close();
+   }
+
+   public void testFailureOfTheOnlyAttemptPropagates() throws Exception {
+      RequestHedger hedger = new RequestHedger(true, 95, 0.05);
+      try {
+         hedger.invoke(get, new ScriptedAttempts().then(0, new IOException("reset")));
+         fail();
+      } catch (IOException e) {
+         assertEquals(e.getMessage(), "reset");
+      }
+      hedger.close();
+   }
+}
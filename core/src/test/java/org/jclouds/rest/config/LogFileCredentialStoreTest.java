@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.config;
+
+import static com.google.inject.name.Names.named;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.lifecycle.config.LifeCycleModule;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteSource;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", singleThreaded = true, testName = "LogFileCredentialStoreTest")
+public class LogFileCredentialStoreTest {
+   private File file;
+
+   @BeforeMethod
+   public void setUp() throws IOException {
+      file = File.createTempFile("credentials", ".log");
+      file.delete();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      file.delete();
+   }
+
+   private static ByteSource bytes(String value) {
+      return ByteSource.wrap(value.getBytes(Charsets.UTF_8));
+   }
+
+   private static String string(ByteSource value) throws IOException {
+      return value.asCharSource(Charsets.UTF_8).read();
+   }
+
+   public void testChangesSurviveReopen() throws IOException {
+      LogFileCredentialStore store = new LogFileCredentialStore(file);
+      store.put("node#1", bytes("one"));
+      store.put("node#2", bytes("two"));
+      store.put("node#1", bytes("uno"));
+      store.remove("node#2");
+      assertEquals(string(store.get("node#1")), "uno");
+      store.close();
+
+      LogFileCredentialStore reopened = new LogFileCredentialStore(file);
+      try {
+         assertEquals(reopened.size(), 1);
+         assertEquals(string(reopened.get("node#1")), "uno");
+         assertFalse(reopened.containsKey("node#2"));
+      } finally {
+         reopened.close();
+      }
+   }
+
+   public void testCompactionKeepsOnlyLiveEntries() throws IOException {
+      LogFileCredentialStore store = new LogFileCredentialStore(file);
+      for (int i = 0; i < 2000; i++)
+         store.put("node#" + i, bytes("credential" + i));
+      for (int i = 0; i < 1990; i++)
+         store.remove("node#" + i);
+      store.flush();
+      assertEquals(store.records(), 10);
+      store.close();
+
+      LogFileCredentialStore reopened = new LogFileCredentialStore(file);
+      try {
+         assertEquals(reopened.size(), 10);
+         assertEquals(string(reopened.get("node#1999")), "credential1999");
+      } finally {
+         reopened.close();
+      }
+   }
+
+   public void testTruncatedRecordIsDiscarded() throws IOException {
+      LogFileCredentialStore store = new LogFileCredentialStore(file);
+      store.put("node#1", bytes("one"));
+      store.put("node#2", bytes("two"));
+      store.close();
+
+      RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      try {
+         raf.setLength(raf.length() - 2);
+      } finally {
+         raf.close();
+      }
+
+      LogFileCredentialStore reopened = new LogFileCredentialStore(file);
+      assertEquals(reopened.size(), 1);
+      assertNull(reopened.get("node#2"));
+      reopened.put("node#3", bytes("three"));
+      reopened.close();
+
+      reopened = new LogFileCredentialStore(file);
+      try {
+         assertEquals(reopened.keySet(), ImmutableSet.of("node#1", "node#3"));
+      } finally {
+         reopened.close();
+      }
+   }
+
+   public void testFailedFlushKeepsChangesAndCutsBackThePartialRecord() throws IOException {
+      final AtomicBoolean diskFull = new AtomicBoolean();
+      LogFileCredentialStore store = new LogFileCredentialStore(file, 60000) {
+         @Override
+         void write(DataOutputStream out, Record record) throws IOException {
+            if (diskFull.get()) {
+               out.write(new byte[10]);
+               out.flush();
+               throw new IOException("no space left on device");
+            }
+            super.write(out, record);
+         }
+      };
+      store.put("node#1", bytes("one"));
+      store.flush();
+      long complete = file.length();
+
+      store.put("node#2", bytes("two"));
+      diskFull.set(true);
+      try {
+         store.flush();
+         fail("expected IOException");
+      } catch (IOException e) {
+         assertEquals(file.length(), complete);
+      }
+
+      diskFull.set(false);
+      store.close();
+
+      LogFileCredentialStore reopened = new LogFileCredentialStore(file);
+      try {
+         assertEquals(reopened.keySet(), ImmutableSet.of("node#1", "node#2"));
+      } finally {
+         reopened.close();
+      }
+   }
+
+   public void testFailedCompactionKeepsTheLog() throws IOException {
+      LogFileCredentialStore store = new LogFileCredentialStore(file, 60000);
+      store.put("node#1", bytes("one"));
+      store.flush();
+      File tmp = new File(file.getPath() + ".tmp");
+      assertTrue(tmp.mkdir());
+      try {
+         store.compact();
+         fail("expected IOException");
+      } catch (IOException e) {
+      } finally {
+         tmp.delete();
+      }
+
+      store.put("node#2", bytes("two"));
+      store.close();
+
+      LogFileCredentialStore reopened = new LogFileCredentialStore(file);
+      try {
+         assertEquals(reopened.keySet(), ImmutableSet.of("node#1", "node#2"));
+      } finally {
+         reopened.close();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testClosingTheContextClosesTheStore() throws IOException {
+      final LogFileCredentialStore store = new LogFileCredentialStore(file);
+      Injector injector = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(named(PROPERTY_USER_THREADS)).to(1);
+            bind(new TypeLiteral<Map<String, ByteSource>>() {
+            }).toInstance(store);
+         }
+      }, new LifeCycleModule(), new ExecutorServiceModule());
+
+      injector.getInstance(Closer.class).close();
+      store.put("node#1", bytes("one"));
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testClosedStoreRejectsWrites() throws IOException {
+      LogFileCredentialStore store = new LogFileCredentialStore(file);
+      store.close();
+      store.put("node#1", bytes("one"));
+   }
+
+   public void testEntrySetRemoveIsLogged() throws IOException {
+      LogFileCredentialStore store = new LogFileCredentialStore(file);
+      store.put("node#1", bytes("one"));
+      assertTrue(store.keySet().remove("node#1"));
+      store.close();
+
+      LogFileCredentialStore reopened = new LogFileCredentialStore(file);
+      try {
+         assertTrue(reopened.isEmpty());
+      } finally {
+         reopened.close();
+      }
+   }
+}
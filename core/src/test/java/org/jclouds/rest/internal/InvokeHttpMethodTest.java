@@ -16,6 +16,7 @@
  */
 package org.jclouds.rest.internal;
 
+import static com.google.common.base.Throwables.propagate;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
@@ -23,6 +24,8 @@ import static org.easymock.EasyMock.verify;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
@@ -31,9 +34,11 @@ import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.reflect.Invocation;
 import org.jclouds.rest.config.InvocationConfig;
 import org.jclouds.rest.internal.InvokeHttpMethod.InvokeAndTransform;
+import org.jclouds.util.Strings2;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
@@ -44,6 +49,8 @@ import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.TimeLimiter;
 
 @Test(groups = "unit", singleThreaded = true)
@@ -130,4 +137,47 @@ public class InvokeHttpMethodTest {
       replay(http, timeLimiter, fallback, config);
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
+
+   private HttpResponse eTagResponse = HttpResponse.builder().statusCode(200).addHeader("ETag", "\"abc\"")
+         .payload("foo").build();
+
+   public void testCacheableCommandParsesCachedResponseAgainWhenNotModified() throws Exception {
+      Function<HttpResponse, List<String>> parseBody = new Function<HttpResponse, List<String>>() {
+         public List<String> apply(HttpResponse input) {
+            try {
+               return Lists.newArrayList(Strings2.toStringAndClose(input.getPayload().openStream()));
+            } catch (IOException e) {
+               throw propagate(e);
+            }
+         }
+      };
+      @SuppressWarnings("unchecked")
+      Function<HttpRequest, Function<HttpResponse, ?>> transformer = Function.class.cast(Functions.constant(parseBody));
+      InvokeHttpMethod caching = new InvokeHttpMethod(toRequest, http, transformer, timeLimiter, config,
+            new ConditionalGetResponseCache(ImmutableSet.of("ns:get")));
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent()).times(2);
+      expect(config.getCommandName(get)).andReturn("ns:get");
+      expect(config.getFallback(get)).andReturn(fallback);
+      expect(http.invoke(new HttpCommand(getRequest))).andReturn(eTagResponse);
+      HttpCommand revalidate = new HttpCommand(getRequest.toBuilder().addHeader("If-None-Match", "\"abc\"").build());
+      expect(http.invoke(revalidate)).andThrow(
+            new HttpResponseException(revalidate, HttpResponse.builder().statusCode(304).build()));
+      replay(http, timeLimiter, fallback, config);
+      @SuppressWarnings("unchecked")
+      List<String> first = (List<String>) caching.apply(get);
+      first.add("changed by the caller");
+      assertEquals(caching.apply(get), ImmutableList.of("foo"));
+   }
+
+   public void testCacheableCommandWithoutValidatorIsNotRevalidated() throws Exception {
+      InvokeHttpMethod caching = new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter, config,
+            new ConditionalGetResponseCache(ImmutableSet.of("ns:get")));
+      expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent()).times(2);
+      expect(config.getCommandName(get)).andReturn("ns:get");
+      expect(config.getFallback(get)).andReturn(fallback);
+      expect(http.invoke(new HttpCommand(getRequest))).andReturn(response).times(2);
+      replay(http, timeLimiter, fallback, config);
+      assertEquals(caching.apply(get), response);
+      assertEquals(caching.apply(get), response);
+   }
 }
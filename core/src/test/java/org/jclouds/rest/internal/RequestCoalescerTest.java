@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", singleThreaded = true, testName = "RequestCoalescerTest")
+public class RequestCoalescerTest {
+
+   private static final int CALLERS = 8;
+
+   /**
+    * Blocks every request until released, counting the requests sent.
+    */
+   private static class BlockingHttp implements HttpCommandExecutorService {
+      private final CountDownLatch release = new CountDownLatch(1);
+      private final AtomicInteger sent = new AtomicInteger();
+      private final RuntimeException failure;
+
+      private BlockingHttp(RuntimeException failure) {
+         this.failure = failure;
+      }
+
+      @Override
+      public HttpResponse invoke(HttpCommand command) {
+         sent.incrementAndGet();
+         try {
+            release.await();
+         } catch (InterruptedException e) {
+            throw new AssertionError(e);
+         }
+         if (failure != null)
+            throw failure;
+         return HttpResponse.builder().statusCode(200).payload("foo").build();
+      }
+   }
+
+   private final HttpRequest get = HttpRequest.builder().method("GET").endpoint("http://get").build();
+   private ExecutorService executor;
+
+   @BeforeMethod
+   public void setup() {
+      executor = Executors.newFixedThreadPool(CALLERS);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   private List<Future<HttpResponse>> callConcurrently(final RequestCoalescer coalescer, final BlockingHttp http,
+         final HttpRequest request) throws InterruptedException {
+      List<Future<HttpResponse>> responses = Lists.newArrayList();
+      for (int i = 0; i < CALLERS; i++) {
+         responses.add(executor.submit(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+               return coalescer.invoke("ns:get", new HttpCommand(request), http);
+            }
+         }));
+      }
+      // wait for the leader to be sent and the others to join it
+      while (http.sent.get() == 0 || coalescer.getCoalesced() < CALLERS - 1)
+         Thread.sleep(10);
+      http.release.countDown();
+      return responses;
+   }
+
+   public void testIsCoalesced() {
+      RequestCoalescer coalescer = new RequestCoalescer(ImmutableSet.of("ns:get"));
+      assertTrue(coalescer.isCoalesced("ns:get", get));
+      assertTrue(coalescer.isCoalesced("ns:get", get.toBuilder().method("HEAD").build()));
+      assertFalse(coalescer.isCoalesced("ns:list", get));
+      assertFalse(coalescer.isCoalesced("ns:get", get.toBuilder().method("DELETE").build()));
+      assertFalse(coalescer.isCoalesced("ns:get", get.toBuilder().method("POST").payload("bar").build()));
+   }
+
+   public void testConcurrentCallsShareOneRequest() throws Exception {
+      RequestCoalescer coalescer = new RequestCoalescer(ImmutableSet.of("ns:get"));
+      BlockingHttp http = new BlockingHttp(null);
+
+      List<HttpResponse> responses = Lists.newArrayList();
+      for (Future<HttpResponse> response : callConcurrently(coalescer, http, get))
+         responses.add(response.get(10, TimeUnit.SECONDS));
+
+      assertEquals(http.sent.get(), 1);
+      assertEquals(coalescer.getRequests(), CALLERS);
+      assertEquals(coalescer.getCoalesced(), CALLERS - 1);
+      for (HttpResponse response : responses) {
+         assertEquals(response.getStatusCode(), 200);
+         assertEquals(Strings2.toStringAndClose(response.getPayload().openStream()), "foo");
+      }
+      assertNotSame(responses.get(0).getPayload(), responses.get(1).getPayload());
+   }
+
+   public void testFailureIsRethrownToEveryCaller() throws Exception {
+      RequestCoalescer coalescer = new RequestCoalescer(ImmutableSet.of("ns:get"));
+      IllegalStateException failure = new IllegalStateException();
+      BlockingHttp http = new BlockingHttp(failure);
+
+      for (Future<HttpResponse> response : callConcurrently(coalescer, http, get)) {
+         try {
+            response.get(10, TimeUnit.SECONDS);
+         } catch (ExecutionException e) {
+            assertSame(e.getCause(), failure);
+         }
+      }
+      assertEquals(http.sent.get(), 1);
+   }
+
+   public void testSequentialCallsAreNotCoalesced() throws IOException {
+      RequestCoalescer coalescer = new RequestCoalescer(ImmutableSet.of("ns:get"));
+      BlockingHttp http = new BlockingHttp(null);
+      http.release.countDown();
+
+      coalescer.invoke("ns:get", new HttpCommand(get), http);
+      coalescer.invoke("ns:get", new HttpCommand(get), http);
+      assertEquals(http.sent.get(), 2);
+      assertEquals(coalescer.getCoalesced(), 0);
+   }
+}
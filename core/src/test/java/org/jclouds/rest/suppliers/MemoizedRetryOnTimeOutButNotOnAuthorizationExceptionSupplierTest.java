@@ -20,7 +20,11 @@ import static com.google.common.base.Suppliers.ofInstance;
 import static com.google.common.util.concurrent.Atomics.newReference;
 import static org.testng.Assert.assertEquals;
 
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.jclouds.rest.AuthorizationException;
@@ -28,6 +32,7 @@ import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExc
 import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
 @Test(groups = "unit", testName = "MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplierTest")
@@ -95,4 +100,65 @@ public class MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplierTest {
          assertEquals(authException.get().getClass(), RuntimeException.class);
       }
    }
+
+   /**
+    * Runs submitted tasks only when asked to, so that the value served while a reload is pending can be observed.
+    */
+   private static class ManualExecutor implements Executor {
+      private final List<Runnable> pending = Lists.newArrayList();
+
+      @Override
+      public synchronized void execute(Runnable command) {
+         pending.add(command);
+      }
+
+      synchronized void runPending() {
+         for (Runnable command : pending)
+            command.run();
+         pending.clear();
+      }
+   }
+
+   private static class CountingSupplier implements Supplier<Integer> {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Integer get() {
+         return count.incrementAndGet();
+      }
+   }
+
+   @Test
+   public void testRefreshAheadServesPreviousValueWhileReloading() throws InterruptedException {
+      AtomicReference<AuthorizationException> authException = newReference();
+      ManualExecutor executor = new ManualExecutor();
+      Supplier<Integer> memoized = MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier
+            .createRefreshingAhead(authException, new CountingSupplier(), 1, TimeUnit.MILLISECONDS, executor);
+
+      assertEquals(memoized.get(), Integer.valueOf(1));
+      Thread.sleep(10);
+      assertEquals(memoized.get(), Integer.valueOf(1));
+      executor.runPending();
+      assertEquals(memoized.get(), Integer.valueOf(2));
+   }
+
+   @Test
+   public void testWarmStartServesSeedUntilLiveValueLoads() {
+      AtomicReference<AuthorizationException> authException = newReference();
+      ManualExecutor executor = new ManualExecutor();
+      MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier<Integer> memoized = MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier
+            .createRefreshingAhead(authException, new CountingSupplier(), 1, TimeUnit.HOURS, executor);
+
+      memoized.warmStart(0);
+      assertEquals(memoized.get(), Integer.valueOf(0));
+      executor.runPending();
+      assertEquals(memoized.get(), Integer.valueOf(1));
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testWarmStartRequiresRefreshAhead() {
+      AtomicReference<AuthorizationException> authException = newReference();
+      MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, new CountingSupplier(), 1,
+            TimeUnit.HOURS).warmStart(0);
+   }
 }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.domain.internal.LocationImpl;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import com.google.common.reflect.TypeToken;
+
+@Test(groups = "unit", testName = "SnapshotFileTest")
+public class SnapshotFileTest {
+
+   private static final TypeToken<Set<? extends Location>> LOCATIONS = new TypeToken<Set<? extends Location>>() {
+   };
+
+   public void testRoundTripsInterfacesThroughImplementations() throws IOException {
+      File dir = Files.createTempDir();
+      try {
+         SnapshotFile<Set<? extends Location>> snapshot = new SnapshotFile<Set<? extends Location>>(new File(dir,
+               "locations.json"), LOCATIONS, ImmutableMap.<Class<?>, Class<?>> of(Location.class, LocationImpl.class));
+         assertFalse(snapshot.read().isPresent());
+
+         Location provider = new LocationBuilder().scope(LocationScope.PROVIDER).id("aws-ec2").description("aws-ec2")
+               .iso3166Codes(ImmutableSet.of("US")).build();
+         Location region = new LocationBuilder().scope(LocationScope.REGION).id("us-east-1").description("us-east-1")
+               .parent(provider).build();
+         snapshot.write(ImmutableSet.of(region));
+
+         Optional<Set<? extends Location>> read = snapshot.read();
+         assertEquals(read.get(), ImmutableSet.of(region));
+         assertEquals(read.get().iterator().next().getParent(), provider);
+      } finally {
+         for (File file : dir.listFiles())
+            file.delete();
+         dir.delete();
+      }
+   }
+
+   public void testCredentialSecretsAreKeptInTheCredentialStore() throws IOException {
+      File dir = Files.createTempDir();
+      try {
+         File file = new File(dir, "login.json");
+         Map<String, Credentials> credentialStore = Maps.newHashMap();
+         SnapshotFile<LoginCredentials> snapshot = new SnapshotFile<LoginCredentials>(file,
+               TypeToken.of(LoginCredentials.class), ImmutableMap.<Class<?>, Class<?>> of(), credentialStore);
+         snapshot.write(LoginCredentials.builder().user("root").password("secret").authenticateSudo(true).build());
+
+         assertFalse(Files.toString(file, Charsets.UTF_8).contains("secret"));
+         assertEquals(credentialStore.size(), 1);
+         LoginCredentials read = snapshot.read().get();
+         assertEquals(read.getUser(), "root");
+         assertTrue(read.shouldAuthenticateSudo());
+         assertEquals(read.getOptionalPassword().orNull(), "secret");
+
+         SnapshotFile<Credentials> credentials = new SnapshotFile<Credentials>(new File(dir, "credentials.json"),
+               TypeToken.of(Credentials.class), ImmutableMap.<Class<?>, Class<?>> of(), credentialStore);
+         credentials.write(new Credentials("identity", "secret"));
+         Credentials readCredentials = credentials.read().get();
+         assertEquals(readCredentials.identity, "identity");
+         assertEquals(readCredentials.credential, "secret");
+      } finally {
+         for (File file : dir.listFiles())
+            file.delete();
+         dir.delete();
+      }
+   }
+
+   public void testSnapshotIsUnreadableOnceItsSecretsAreGone() throws IOException {
+      File dir = Files.createTempDir();
+      try {
+         File file = new File(dir, "login.json");
+         Map<String, Credentials> credentialStore = Maps.newHashMap();
+         SnapshotFile<LoginCredentials> snapshot = new SnapshotFile<LoginCredentials>(file,
+               TypeToken.of(LoginCredentials.class), ImmutableMap.<Class<?>, Class<?>> of(), credentialStore);
+         snapshot.write(LoginCredentials.builder().user("root").password("secret").build());
+         credentialStore.clear();
+
+         try {
+            snapshot.read();
+            fail("expected the snapshot to be unreadable");
+         } catch (IOException expected) {
+         }
+      } finally {
+         for (File file : dir.listFiles())
+            file.delete();
+         dir.delete();
+      }
+   }
+
+   public void testCredentialsWithoutSecretsNeedNoCredentialStore() throws IOException {
+      File dir = Files.createTempDir();
+      try {
+         SnapshotFile<LoginCredentials> snapshot = new SnapshotFile<LoginCredentials>(new File(dir, "login.json"),
+               TypeToken.of(LoginCredentials.class), ImmutableMap.<Class<?>, Class<?>> of());
+         snapshot.write(LoginCredentials.builder().user("root").authenticateSudo(true).build());
+
+         LoginCredentials read = snapshot.read().get();
+         assertEquals(read.getUser(), "root");
+         assertTrue(read.shouldAuthenticateSudo());
+
+         try {
+            snapshot.write(LoginCredentials.builder().user("root").password("secret").build());
+            fail("expected secrets to have nowhere to go");
+         } catch (IOException expected) {
+         }
+      } finally {
+         for (File file : dir.listFiles())
+            file.delete();
+         dir.delete();
+      }
+   }
+}
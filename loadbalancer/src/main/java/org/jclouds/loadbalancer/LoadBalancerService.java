@@ -73,6 +73,27 @@ public interface LoadBalancerService {
    LoadBalancerMetadata createLoadBalancerInLocation(@Nullable Location location, String loadBalancerName,
          String protocol, int loadBalancerPort, int instancePort, Iterable<? extends NodeMetadata> nodes);
 
+   /**
+    * Changes the members of a load balancer to exactly the nodes given. Only the difference with
+    * the current members is sent, batched into as few calls as the provider allows, which keeps
+    * autoscaling a group from costing a call and a wait per node.
+    * 
+    * @param id
+    *           id of the load balancer
+    * @param instancePort
+    *           port on which the nodes to add are listening
+    * @param nodes
+    *           every node that should be balanced once done
+    * @return the load balancer after the change, or null if it does not exist
+    * @throws IllegalArgumentException
+    *            if there are no nodes; use {@link #destroyLoadBalancer} instead
+    * @throws UnsupportedOperationException
+    *            if the provider can not change the members of a load balancer, which is the default
+    *            unless it binds a {@link org.jclouds.loadbalancer.strategy.ReconcileLoadBalancerNodesStrategy}
+    */
+   @Beta
+   LoadBalancerMetadata reconcileLoadBalancerNodes(String id, int instancePort, Iterable<? extends NodeMetadata> nodes);
+
    @Beta
    void destroyLoadBalancer(String id);
 
@@ -20,6 +20,7 @@ import org.jclouds.loadbalancer.strategy.DestroyLoadBalancerStrategy;
 import org.jclouds.loadbalancer.strategy.GetLoadBalancerMetadataStrategy;
 import org.jclouds.loadbalancer.strategy.ListLoadBalancersStrategy;
 import org.jclouds.loadbalancer.strategy.LoadBalanceNodesStrategy;
+import org.jclouds.loadbalancer.strategy.ReconcileLoadBalancerNodesStrategy;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
@@ -30,6 +31,9 @@ public abstract class BindLoadBalancerStrategiesByClass extends AbstractModule {
       bindListLoadBalancersStrategy(defineListLoadBalancersStrategy());
       bindGetLoadBalancerMetadataStrategy(defineGetLoadBalancerMetadataStrategy());
       bindDestroyLoadBalancerStrategy(defineDestroyLoadBalancerStrategy());
+      Class<? extends ReconcileLoadBalancerNodesStrategy> reconcile = defineReconcileLoadBalancerNodesStrategy();
+      if (reconcile != null)
+         bindReconcileLoadBalancerNodesStrategy(reconcile);
    }
 
    protected void bindLoadBalanceNodesStrategy(Class<? extends LoadBalanceNodesStrategy> clazz) {
@@ -44,6 +48,10 @@ public abstract class BindLoadBalancerStrategiesByClass extends AbstractModule {
       bind(GetLoadBalancerMetadataStrategy.class).to(clazz).in(Scopes.SINGLETON);
    }
 
+   protected void bindReconcileLoadBalancerNodesStrategy(Class<? extends ReconcileLoadBalancerNodesStrategy> clazz) {
+      bind(ReconcileLoadBalancerNodesStrategy.class).to(clazz).in(Scopes.SINGLETON);
+   }
+
    protected void bindListLoadBalancersStrategy(Class<? extends ListLoadBalancersStrategy> clazz) {
       bind(ListLoadBalancersStrategy.class).to(clazz).in(Scopes.SINGLETON);
    }
@@ -55,4 +63,11 @@ public abstract class BindLoadBalancerStrategiesByClass extends AbstractModule {
    protected abstract Class<? extends GetLoadBalancerMetadataStrategy> defineGetLoadBalancerMetadataStrategy();
 
    protected abstract Class<? extends ListLoadBalancersStrategy> defineListLoadBalancersStrategy();
+
+   /**
+    * @return null unless the provider can change the nodes of an existing load balancer
+    */
+   protected Class<? extends ReconcileLoadBalancerNodesStrategy> defineReconcileLoadBalancerNodesStrategy() {
+      return null;
+   }
 }
@@ -42,10 +42,12 @@ import org.jclouds.loadbalancer.strategy.DestroyLoadBalancerStrategy;
 import org.jclouds.loadbalancer.strategy.GetLoadBalancerMetadataStrategy;
 import org.jclouds.loadbalancer.strategy.ListLoadBalancersStrategy;
 import org.jclouds.loadbalancer.strategy.LoadBalanceNodesStrategy;
+import org.jclouds.loadbalancer.strategy.ReconcileLoadBalancerNodesStrategy;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Atomics;
 import com.google.inject.Inject;
 
@@ -64,6 +66,9 @@ public class BaseLoadBalancerService implements LoadBalancerService {
    protected final ListLoadBalancersStrategy listLoadBalancersStrategy;
    protected final Supplier<Set<? extends Location>> locations;
 
+   @Inject(optional = true)
+   protected ReconcileLoadBalancerNodesStrategy reconcileLoadBalancerNodesStrategy;
+
    @Inject
    protected BaseLoadBalancerService(Supplier<Location> defaultLocationSupplier, LoadBalancerServiceContext context,
          LoadBalanceNodesStrategy loadBalancerStrategy,
@@ -114,6 +119,22 @@ public class BaseLoadBalancerService implements LoadBalancerService {
       return lb;
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public LoadBalancerMetadata reconcileLoadBalancerNodes(String id, int instancePort,
+         Iterable<? extends NodeMetadata> nodes) {
+      checkNotNull(id, "id");
+      checkArgument(!Iterables.isEmpty(checkNotNull(nodes, "nodes")), "no nodes to balance in load balancer(%s)", id);
+      if (reconcileLoadBalancerNodesStrategy == null)
+         throw new UnsupportedOperationException("changing the nodes of a load balancer is not supported");
+      logger.debug(">> reconciling nodes of load balancer(%s)", id);
+      LoadBalancerMetadata lb = reconcileLoadBalancerNodesStrategy.reconcileLoadBalancerNodes(id, instancePort, nodes);
+      logger.debug("<< reconciled nodes of load balancer(%s)", id);
+      return lb;
+   }
+
    /**
     * {@inheritDoc}
     */
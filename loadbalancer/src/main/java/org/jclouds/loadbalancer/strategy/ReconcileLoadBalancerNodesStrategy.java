@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.loadbalancer.strategy;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.loadbalancer.domain.LoadBalancerMetadata;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Brings the members of an existing load balancer in line with a desired set of nodes, adding and
+ * removing only the difference in as few provider calls as it allows.
+ * <p/>
+ * Binding one is optional: providers whose
+ * {@link org.jclouds.loadbalancer.config.BindLoadBalancerStrategiesByClass#defineReconcileLoadBalancerNodesStrategy}
+ * returns null have {@link org.jclouds.loadbalancer.LoadBalancerService#reconcileLoadBalancerNodes} throw
+ * {@link UnsupportedOperationException}.
+ */
+@Beta
+public interface ReconcileLoadBalancerNodesStrategy {
+
+   /**
+    * @param id
+    *           id of the load balancer
+    * @param instancePort
+    *           port on which the nodes to add are listening
+    * @param nodes
+    *           every node that should be balanced once done; members not among them are removed
+    * @return the load balancer after the change, or null if it does not exist
+    * @throws IllegalArgumentException
+    *            if there are no nodes, as removing every member is destroying the load balancer
+    */
+   LoadBalancerMetadata reconcileLoadBalancerNodes(String id, int instancePort, Iterable<? extends NodeMetadata> nodes);
+
+}
@@ -23,6 +23,7 @@ import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
 import static com.google.common.collect.Iterables.transform;
 
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Named;
@@ -34,7 +35,11 @@ import org.jclouds.aws.ec2.domain.AWSRunningInstance;
 import org.jclouds.aws.ec2.domain.SpotInstanceRequest;
 import org.jclouds.aws.ec2.functions.SpotInstanceRequestToAWSRunningInstance;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.ec2.compute.strategy.EC2ListNodesStrategy;
+import org.jclouds.ec2.domain.InstanceState;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
 
@@ -54,8 +59,9 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
    protected AWSEC2ListNodesStrategy(AWSEC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            GroupNamingConvention.Factory namingConvention, Map<InstanceState, Status> instanceToNodeStatus,
             SpotInstanceRequestToAWSRunningInstance spotConverter) {
-      super(client, regions, runningInstanceToNodeMetadata, userExecutor);
+      super(client, regions, runningInstanceToNodeMetadata, userExecutor, namingConvention, instanceToNodeStatus);
       this.client = checkNotNull(client, "client");
       this.spotConverter = checkNotNull(spotConverter, "spotConverter");
    }
@@ -69,6 +75,20 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
       return concat(super.pollRunningInstances(), spots);
    }
 
+   /**
+    * Spot requests can not be filtered like instances, so all of them are added to the instances matching.
+    */
+   @Override
+   protected Iterable<? extends RunningInstance> pollRunningInstancesMatching(NodeCriteria criteria) {
+      if (criteria.getIds().isPresent())
+         return super.pollRunningInstancesMatching(criteria);
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(regions.get(),
+                                                                                       allSpotInstancesInRegion())),
+                                                                      spotConverter), notNull());
+
+      return concat(super.pollRunningInstancesMatching(criteria), spots);
+   }
+
    @Override
    protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
       Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(idsByRegions.keySet(),
@@ -46,6 +46,8 @@ import org.jclouds.s3.blobstore.functions.BucketToResourceList;
 import org.jclouds.s3.blobstore.functions.ContainerToBucketListOptions;
 import org.jclouds.s3.blobstore.functions.ObjectToBlob;
 import org.jclouds.s3.blobstore.functions.ObjectToBlobMetadata;
+import org.jclouds.s3.blobstore.strategy.MultipartCopyStrategy;
+import org.jclouds.s3.blobstore.strategy.StreamBucketStrategy;
 import org.jclouds.s3.domain.AccessControlList;
 import org.jclouds.s3.domain.BucketMetadata;
 import org.jclouds.s3.domain.CannedAccessPolicy;
@@ -72,10 +74,12 @@ public class AWSS3BlobStore extends S3BlobStore {
             ObjectToBlob object2Blob, BlobToHttpGetOptions blob2ObjectGetOptions, BlobToObject blob2Object,
             BlobToObjectMetadata blob2ObjectMetadata,
             ObjectToBlobMetadata object2BlobMd, Provider<FetchBlobMetadata> fetchBlobMetadataProvider,
-            LoadingCache<String, AccessControlList> bucketAcls) {
+            LoadingCache<String, AccessControlList> bucketAcls, MultipartCopyStrategy multipartCopy,
+            StreamBucketStrategy streamBucket) {
       super(context, blobUtils, defaultLocation, locations, slicer, sync, convertBucketsToStorageMetadata,
                container2BucketListOptions, bucket2ResourceList, object2Blob, blob2ObjectGetOptions, blob2Object,
-               blob2ObjectMetadata, object2BlobMd, fetchBlobMetadataProvider, bucketAcls);
+               blob2ObjectMetadata, object2BlobMd, fetchBlobMetadataProvider, bucketAcls, multipartCopy,
+               streamBucket);
       this.bucketAcls = bucketAcls;
       this.blob2Object = blob2Object;
    }
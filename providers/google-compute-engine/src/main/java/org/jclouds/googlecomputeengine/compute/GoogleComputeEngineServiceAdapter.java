@@ -18,6 +18,7 @@ package org.jclouds.googlecomputeengine.compute;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Predicates.in;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
@@ -31,8 +32,11 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
@@ -40,13 +44,16 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.Atomics;
 import com.google.common.util.concurrent.UncheckedTimeoutException;
 import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.ComputeServiceAdapter.ListsNodesMatchingCriteria;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.compute.predicates.NodeCriteria;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
 import org.jclouds.domain.LocationScope;
@@ -68,6 +75,7 @@ import org.jclouds.googlecomputeengine.domain.Region;
 import org.jclouds.googlecomputeengine.domain.Tags;
 import org.jclouds.googlecomputeengine.domain.Zone;
 import org.jclouds.googlecomputeengine.features.InstanceApi;
+import org.jclouds.googlecomputeengine.options.ListOptions;
 import org.jclouds.location.suppliers.all.JustProvider;
 
 /**
@@ -83,7 +91,7 @@ import org.jclouds.location.suppliers.all.JustProvider;
  * </ul>
  */
 public final class GoogleComputeEngineServiceAdapter
-      implements ComputeServiceAdapter<Instance, MachineType, Image, Location> {
+      implements ComputeServiceAdapter<Instance, MachineType, Image, Location>, ListsNodesMatchingCriteria<Instance> {
 
    private final JustProvider justProvider;
    private final GoogleComputeEngineApi api;
@@ -93,6 +101,7 @@ public final class GoogleComputeEngineServiceAdapter
    private final FirewallTagNamingConvention.Factory firewallTagNamingConvention;
    private final List<String> imageProjects;
    private final LoadingCache<URI, Image> diskURIToImage;
+   private final Map<Instance.Status, NodeMetadata.Status> toPortableNodeStatus;
 
    @Inject GoogleComputeEngineServiceAdapter(JustProvider justProvider, GoogleComputeEngineApi api,
                                             Predicate<AtomicReference<Operation>> operationDone,
@@ -100,7 +109,8 @@ public final class GoogleComputeEngineServiceAdapter
                                             Resources resources,
                                             FirewallTagNamingConvention.Factory firewallTagNamingConvention,
                                             @Named(IMAGE_PROJECTS) String imageProjects,
-                                            LoadingCache<URI, Image> diskURIToImage) {
+                                            LoadingCache<URI, Image> diskURIToImage,
+                                            Map<Instance.Status, NodeMetadata.Status> toPortableNodeStatus) {
       this.justProvider = justProvider;
       this.api = api;
       this.operationDone = operationDone;
@@ -109,6 +119,7 @@ public final class GoogleComputeEngineServiceAdapter
       this.firewallTagNamingConvention = firewallTagNamingConvention;
       this.imageProjects = Splitter.on(',').omitEmptyStrings().splitToList(imageProjects);
       this.diskURIToImage = diskURIToImage;
+      this.toPortableNodeStatus = toPortableNodeStatus;
    }
 
    @Override public NodeAndInitialCredentials<Instance> createNodeWithGroupEncodedIntoName(String group, String name,
@@ -243,11 +254,42 @@ public final class GoogleComputeEngineServiceAdapter
    }
 
    @Override public Iterable<Instance> listNodesByIds(final Iterable<String> selfLinks) {
-      return filter(listNodes(), new Predicate<Instance>() { // TODO: convert to server-side filter
-         @Override public boolean apply(Instance instance) {
-            return Iterables.contains(selfLinks, instance.selfLink().toString());
+      List<String> names = Lists.newArrayList();
+      for (String selfLink : selfLinks) {
+         names.add(selfLink.substring(selfLink.lastIndexOf('/') + 1));
+      }
+      if (names.isEmpty()) {
+         return ImmutableList.of();
+      }
+      // names are only unique within a zone, so the instances found are matched on their self link too
+      return filter(listNodes(ListOptions.Builder.filter(format("name eq (%s)", Joiner.on('|').join(names)))),
+            new Predicate<Instance>() {
+               @Override public boolean apply(Instance instance) {
+                  return Iterables.contains(selfLinks, instance.selfLink().toString());
+               }
+            });
+   }
+
+   /**
+    * Looks ids up with {@link #listNodesByIds}, and filters on the instance statuses matching the statuses
+    * requested. Groups are left to the caller, as they are read from metadata, which can not be filtered on.
+    */
+   @Override public Iterable<Instance> listNodesMatching(NodeCriteria criteria) {
+      if (criteria.getIds().isPresent()) {
+         return listNodesByIds(criteria.getIds().get());
+      }
+      if (criteria.getStatuses().isPresent()) {
+         Set<Instance.Status> statuses = Maps.filterValues(toPortableNodeStatus, in(criteria.getStatuses().get()))
+               .keySet();
+         if (!statuses.isEmpty()) {
+            return listNodes(ListOptions.Builder.filter(format("status eq (%s)", Joiner.on('|').join(statuses))));
          }
-      });
+      }
+      return listNodes();
+   }
+
+   private Iterable<Instance> listNodes(ListOptions options) {
+      return concat(api.aggregatedList().instances(options));
    }
 
    @Override public void destroyNode(String selfLink) {
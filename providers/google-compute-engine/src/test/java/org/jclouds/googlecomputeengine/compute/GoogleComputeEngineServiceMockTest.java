@@ -32,6 +32,8 @@ import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.predicates.NodeCriteria;
+import org.jclouds.compute.predicates.NodePredicates;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationScope;
 import org.jclouds.googlecomputeengine.compute.options.GoogleComputeEngineTemplateOptions;
@@ -148,6 +150,28 @@ public class GoogleComputeEngineServiceMockTest extends BaseGoogleComputeEngineA
       assertSent(server, "GET", "/projects/party/aggregated/machineTypes");
    }
 
+   public void listNodesByIdsFiltersOnTheirNames() throws Exception {
+      server.enqueue(aggregatedListInstanceEmpty());
+
+      Set<? extends NodeMetadata> nodes = computeService().listNodesByIds(
+            ImmutableSet.of(url("/projects/party/zones/us-central1-a/instances/test-0"),
+                  url("/projects/party/zones/us-central1-b/instances/test-1")));
+      assertTrue(nodes.isEmpty());
+
+      assertSent(server, "GET", "/projects/party/aggregated/instances?filter=name%20eq%20%28test-0%7Ctest-1%29");
+   }
+
+   public void listNodesInAStatusFiltersOnTheMatchingInstanceStatuses() throws Exception {
+      server.enqueue(aggregatedListInstanceEmpty());
+
+      Set<? extends NodeMetadata> nodes = computeService().listNodesDetailsMatching(
+            NodeCriteria.onDetails(NodePredicates.SUSPENDED));
+      assertTrue(nodes.isEmpty());
+
+      assertSent(server, "GET",
+            "/projects/party/aggregated/instances?filter=status%20eq%20%28STOPPED%7CTERMINATED%29");
+   }
+
    public void createNodeWhenFirewallDoesNotExist() throws Exception {
       server.enqueue(singleRegionSingleZoneResponse());
       server.enqueue(jsonResponse("/image_list.json"));
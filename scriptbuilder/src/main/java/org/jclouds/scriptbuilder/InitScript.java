@@ -219,6 +219,8 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
                               .put("start",
                                     newStatementList(
                                           call("default"),
+                                          // a stale exit status would read as the end of this run
+                                          interpret("rm -f {varl}LOG_DIR{varr}{fs}rc{lf}"),
                                           forget("{varl}INSTANCE_NAME{varr}",
                                                 "{varl}INSTANCE_HOME{varr}{fs}{varl}INSTANCE_NAME{varr}.{sh}",
                                                 "{varl}LOG_DIR{varr}")))